@@ -0,0 +1,115 @@
+/*
+ * Title: PersistenceBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PersistenceBenchmark.java
+ * Purpose: The purpose of this program is to measure how long it takes to save a family tree into
+ *          a .dat file and load it back, as saveToFile and loadTree do.
+ * Assumptions/Conditions: - Files are written into the temporary folder and deleted afterwards.
+                           - Loading reads every person, as loadTree does when it registers the
+                             people of the file, even though a file is mapped into memory.
+                           - The journal of the file is not written or read.
+                           - Files are saved without compression and with every codec of the
+                             JDK, so the time compression adds can be compared. The sizes of the
+                             files are printed by CompressionBenchmark.
+ */
+package familytreeapplication.jmh;
+
+import familytreeapplication.FamilyTreeFile;
+import familytreeapplication.PersonRegistry;
+import familytreeapplication.SaveCodec;
+import familytreeapplication.SaveCodecs;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH benchmark of saving and loading .dat files, with and without compression.
+ *
+ * @author Zhiguang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PersistenceBenchmark
+{
+    @Param({"WIDE", "DEEP", "REALISTIC"})
+    public TreeShape shape;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"none", "deflate", "gzip"})
+    public String codec;
+
+    private PersonRegistry registry;
+    private SaveCodec saveCodec;
+    private File saved, target;
+
+    /**
+     * Build the tree, and save the file loaded by the benchmark
+     *
+     * @throws IOException if the files cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException
+    {
+        registry = PersonRegistry.build(shape.build(size, 42));
+        saveCodec = SaveCodecs.get(codec);
+        saved = File.createTempFile("family", ".dat");
+        target = File.createTempFile("family", ".dat");
+        FamilyTreeFile.save(registry, saved, saveCodec, null);
+    }
+
+    /**
+     * Delete the files of the benchmark
+     */
+    @TearDown
+    public void tearDown()
+    {
+        saved.delete();
+        target.delete();
+    }
+
+    /**
+     * Save every person of a tree into a file
+     *
+     * @return size of file
+     * @throws IOException if the file cannot be written
+     */
+    @Benchmark
+    public long save() throws IOException
+    {
+        FamilyTreeFile.save(registry, target, saveCodec, null);
+        return target.length();
+    }
+
+    /**
+     * Load every person of a file
+     *
+     * @return registry of people loaded
+     * @throws Exception if the file cannot be read
+     */
+    @Benchmark
+    public PersonRegistry load() throws Exception
+    {
+        return PersonRegistry.build(FamilyTreeFile.load(saved));
+    }
+
+    /**
+     * Save every person of a tree into a file and load them back
+     *
+     * @return registry of people loaded
+     * @throws Exception if the file cannot be written or read
+     */
+    @Benchmark
+    public PersonRegistry roundTrip() throws Exception
+    {
+        FamilyTreeFile.save(registry, target, saveCodec, null);
+        return PersonRegistry.build(FamilyTreeFile.load(target));
+    }
+}
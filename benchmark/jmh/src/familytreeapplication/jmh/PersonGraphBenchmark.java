@@ -0,0 +1,73 @@
+/*
+ * Title: PersonGraphBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PersonGraphBenchmark.java
+ * Purpose: The purpose of this program is to measure how long it takes to build the people of a
+ *          family tree and link them to their relatives, and to register every person of it.
+ * Assumptions/Conditions: - Trees are built by TreeShape with FamilyTreeMutations, as the program
+                             adds relatives.
+                           - Registering walks the tree from the root person, as it is done after
+                             every file is loaded.
+ */
+package familytreeapplication.jmh;
+
+import familytreeapplication.Person;
+import familytreeapplication.PersonRegistry;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH benchmark of building and registering the people of a family tree.
+ *
+ * @author Zhiguang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PersonGraphBenchmark
+{
+    @Param({"WIDE", "DEEP", "REALISTIC"})
+    public TreeShape shape;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Person root;
+
+    /**
+     * Build the tree registered by the benchmark
+     */
+    @Setup
+    public void setUp()
+    {
+        root = shape.build(size, 42);
+    }
+
+    /**
+     * Build the people of a tree and link them to their relatives
+     *
+     * @return root person
+     */
+    @Benchmark
+    public Person build()
+    {
+        return shape.build(size, 42);
+    }
+
+    /**
+     * Give every person of a tree an id and index their names and postcodes
+     *
+     * @return registry
+     * @throws IOException never, as no progress is reported
+     */
+    @Benchmark
+    public PersonRegistry register() throws IOException
+    {
+        return PersonRegistry.build(root);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Title: QueryBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: QueryBenchmark.java
+ * Purpose: The purpose of this program is to measure how long it takes to check the names of a
+ *          family tree, and to find the relatives shown for a person, including grandchildren.
+ * Assumptions/Conditions: - Every name, surname, street name and suburb is checked with checkName,
+                             as the program checks them when a person is added or edited.
+                           - Relatives are found for 1024 people chosen at random, with a new
+                             cache, as when people are shown for the first time, and with a cache
+                             that already holds them.
+ */
+package familytreeapplication.jmh;
+
+import familytreeapplication.FamilyTreeValidator;
+import familytreeapplication.Person;
+import familytreeapplication.PersonRegistry;
+import familytreeapplication.RelativeCache;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH benchmark of checking names and finding relatives.
+ *
+ * @author Zhiguang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class QueryBenchmark
+{
+    // Number of people whose relatives are found
+    private static final int SAMPLE = 1024;
+
+    @Param({"WIDE", "DEEP", "REALISTIC"})
+    public TreeShape shape;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private PersonRegistry registry;
+    private Person[] sample;
+    private RelativeCache cache;
+
+    /**
+     * Build the tree, choose the people whose relatives are found, and fill the cache
+     *
+     * @throws IOException never, as no progress is reported
+     */
+    @Setup
+    public void setUp() throws IOException
+    {
+        registry = PersonRegistry.build(shape.build(size, 42));
+
+        Random random = new Random(7);
+        sample = new Person[SAMPLE];
+        for(int i=0; i<SAMPLE; i++)
+        {
+            sample[i] = registry.get(random.nextInt(registry.size()));
+        }
+
+        cache = new RelativeCache(registry);
+        relatives(cache);
+    }
+
+    /**
+     * Check every name, surname, street name and suburb of a tree
+     *
+     * @return number of valid names
+     */
+    @Benchmark
+    public int checkNames()
+    {
+        int valid = 0;
+        for(Person p:registry.people())
+        {
+            for(String name:new String[]{p.getName(), p.getSurname(), p.getStreetName(), p.getSuburb()})
+            {
+                if(FamilyTreeValidator.checkName(name))
+                {
+                    valid++;
+                }
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Find the relatives of the chosen people with a new cache
+     *
+     * @return number of grandchildren found
+     */
+    @Benchmark
+    public int relativesUncached()
+    {
+        return relatives(new RelativeCache(registry));
+    }
+
+    /**
+     * Find the relatives of the chosen people with a cache that holds them
+     *
+     * @return number of grandchildren found
+     */
+    @Benchmark
+    public int relativesCached()
+    {
+        return relatives(cache);
+    }
+
+    /**
+     * Find the relatives of the chosen people
+     *
+     * @param relatives cache of relatives
+     * @return number of grandchildren found
+     */
+    private int relatives(RelativeCache relatives)
+    {
+        int grandchildren = 0;
+        for(Person p:sample)
+        {
+            grandchildren += relatives.get(p).getGrandChildCount();
+        }
+        return grandchildren;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Title: TreeBuildingBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: TreeBuildingBenchmark.java
+ * Purpose: The purpose of this program is to measure how long it takes to build the TreeItems of
+ *          a family tree, as createTree does when a tree is shown.
+ * Assumptions/Conditions: - TreeItems are built by FamilyTreeBinding without a TreeView, so
+                             JavaFX does not have to be started. Drawing the rows is not measured.
+                           - The tree is built expanded for 2 generations, as the program shows
+                             it, and fully expanded, as when every person is revealed.
+ */
+package familytreeapplication.jmh;
+
+import familytreeapplication.FamilyTreeBinding;
+import familytreeapplication.Person;
+import java.util.concurrent.TimeUnit;
+import javafx.scene.control.TreeItem;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * JMH benchmark of building the TreeItems of a family tree.
+ *
+ * @author Zhiguang
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TreeBuildingBenchmark
+{
+    // Generations expanded when every person is shown
+    private static final int ALL_GENERATIONS = 1 << 20;
+
+    @Param({"WIDE", "DEEP", "REALISTIC"})
+    public TreeShape shape;
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private Person root;
+
+    /**
+     * Build the tree shown by the benchmark
+     */
+    @Setup
+    public void setUp()
+    {
+        root = shape.build(size, 42);
+    }
+
+    /**
+     * Build the TreeItems of a tree expanded as the program shows it
+     *
+     * @return TreeItem of root person
+     */
+    @Benchmark
+    public TreeItem<Person> expandDefault()
+    {
+        FamilyTreeBinding binding = new FamilyTreeBinding(null, FamilyTreeBinding.DEFAULT_EXPAND_GENERATIONS);
+        binding.build(root);
+        return binding.getRootItem();
+    }
+
+    /**
+     * Build the TreeItems of every person of a tree
+     *
+     * @return TreeItem of root person
+     */
+    @Benchmark
+    public TreeItem<Person> expandAll()
+    {
+        FamilyTreeBinding binding = new FamilyTreeBinding(null, ALL_GENERATIONS);
+        binding.build(root);
+        return binding.getRootItem();
+    }
+}
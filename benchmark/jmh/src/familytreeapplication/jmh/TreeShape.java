@@ -0,0 +1,153 @@
+/*
+ * Title: TreeShape enum
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: TreeShape.java
+ * Purpose: The purpose of this enum is to build family trees of different shapes for the JMH
+ *          benchmarks, so that the code is measured on very wide, very deep and ordinary trees.
+ * Assumptions/Conditions: - Trees are built with FamilyTreeMutations, as the program builds them,
+                             so couples share their list of children.
+                           - The same size and seed always build the same tree.
+                           - Names, street names and suburbs are made of letters only, so they
+                             pass FamilyTreeValidator.checkName like names entered by a user.
+ */
+package familytreeapplication.jmh;
+
+import familytreeapplication.FamilyTreeMutations;
+import familytreeapplication.Gender;
+import familytreeapplication.Person;
+import familytreeapplication.RelationType;
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * Shape of a family tree built for a benchmark.
+ *
+ * @author Zhiguang
+ */
+public enum TreeShape
+{
+    /** Root person and spouse with every other person as their child */
+    WIDE,
+    /** Single chain of generations, every child with a spouse */
+    DEEP,
+    /** Couples with 0 to 5 children each, most of them married, and parents of the root person */
+    REALISTIC;
+
+    // Syllables names are made of
+    private static final String[] SYLLABLES = {"an", "bel", "cor", "da", "el", "fin", "gra", "ha",
+        "is", "jo", "ka", "lin", "mo", "na", "or", "pe", "ra", "sa", "ti", "vi"};
+
+    // Chance of every number of children of a couple in a realistic tree, in percent
+    private static final int[] CHILDREN_PERCENT = {10, 15, 35, 25, 10, 5};
+
+    /**
+     * Build a family tree of this shape
+     *
+     * @param count number of people
+     * @param seed seed of the random names and number of children
+     * @return root person
+     */
+    public Person build(int count, long seed)
+    {
+        Random random = new Random(seed);
+        Person root = person(Gender.MALE, RelationType.ROOT, random);
+        int people = 1;
+
+        if(this == REALISTIC && count >= 3)
+        {
+            FamilyTreeMutations.addParent(root, person(Gender.MALE, RelationType.FATHER, random));
+            FamilyTreeMutations.addParent(root, person(Gender.FEMALE, RelationType.MOTHER, random));
+            people += 2;
+        }
+        if(people < count)
+        {
+            FamilyTreeMutations.addSpouse(root, person(Gender.FEMALE, RelationType.SPOUSE, random));
+            people++;
+        }
+
+        ArrayDeque<Person> couples = new ArrayDeque<>();
+        couples.add(root);
+        while(people < count && !couples.isEmpty())
+        {
+            Person parent = couples.remove();
+            int children = this == WIDE?count - people:this == DEEP?1:children(random);
+
+            for(int i=0; i<children && people < count; i++)
+            {
+                Gender gender = random.nextBoolean()?Gender.MALE:Gender.FEMALE;
+                Person child = person(gender, RelationType.CHILD, random);
+                FamilyTreeMutations.addChild(parent, child);
+                people++;
+
+                // Most children of a realistic tree marry, and only married children have children
+                if(this != WIDE && people < count && (this == DEEP || random.nextInt(100) < 70))
+                {
+                    FamilyTreeMutations.addSpouse(child, person(gender.opposite(), RelationType.SPOUSE, random));
+                    people++;
+                    couples.add(child);
+                }
+            }
+
+            // A realistic tree keeps growing even if the last couples had no children
+            if(couples.isEmpty() && people < count)
+            {
+                couples.add(parent);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Returns a random number of children of a couple
+     *
+     * @param random source of random numbers
+     * @return number of children
+     */
+    private static int children(Random random)
+    {
+        int chance = random.nextInt(100);
+        for(int i=0; i<CHILDREN_PERCENT.length; i++)
+        {
+            chance -= CHILDREN_PERCENT[i];
+            if(chance < 0)
+            {
+                return i;
+            }
+        }
+        return CHILDREN_PERCENT.length - 1;
+    }
+
+    /**
+     * Create a person with a random name and address
+     *
+     * @param gender gender of person
+     * @param type type of person
+     * @param random source of random numbers
+     * @return person
+     */
+    private static Person person(Gender gender, RelationType type, Random random)
+    {
+        String life = random.nextInt(4) == 0?"Born in " + (1800 + random.nextInt(200)):"";
+        return new Person(word(random), word(random), gender, life, 1 + random.nextInt(200),
+                word(random) + " Street", word(random), 1000 + random.nextInt(9000), type);
+    }
+
+    /**
+     * Returns a random word of 2 or 3 syllables, starting with a capital letter
+     *
+     * @param random source of random numbers
+     * @return word
+     */
+    private static String word(Random random)
+    {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(2);
+        for(int i=0; i<syllables; i++)
+        {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * Title: FamilyGraph class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyGraph.java
+ * Purpose: The purpose of this class is to store a family tree as columns of personal
+ *          information and int arrays of relatives, instead of a Person object with its own
+ *          lists of relatives for every person, so that very large trees use less memory.
+ * Assumptions/Conditions: - People are identified by id, which is the same as the id in the
+                             PersonRegistry the graph was built from.
+                           - A person has at most 2 parents and 1 spouse, as in the application.
+                           - Children of every person are stored one after the other in a single
+                             array (compressed sparse row). A person whose children are not at the
+                             end of the array is moved to the end when a child is added, leaving a
+                             gap that is removed by compact.
+                           - A couple each store their children, as the application adds every
+                             child to both parents.
+                           - People and relatives can be added, but not removed.
+                           - This class is kept with the benchmarks that measure it, and is not
+                             part of the application.
+ */
+package familytreeapplication;
+
+import java.util.*;
+
+/**
+ * Family tree stored as columns indexed by person id.
+ * <p>Relatives are stored as ints: a spouse column, 2 parent slots per person, and the
+ * children of every person in compressed sparse row form. A PersonView reads one person
+ * from the columns, so no object is kept for each person.
+ *
+ * @author Zhiguang
+ */
+public final class FamilyGraph
+{
+    /**
+     * Id used when there is no relative
+     */
+    public static final int NONE = -1;
+
+    // Values of the enums stored by ordinal, copied once as values() returns a new array
+    private static final Gender[] GENDERS = Gender.values();
+    private static final RelationType[] TYPES = RelationType.values();
+
+    private int size;
+
+    // Personal information; gender and type are stored as the ordinal of the enum, or -1 if null
+    String[] names, surnames, lifeDescs, streetNames, suburbs;
+    byte[] genders, types;
+    int[] streetNos, postcodes;
+
+    // Relatives
+    private int[] spouses;
+    private int[] parents;
+    private int[] childStart, childCount;
+    private int[] children;
+    private int childEnd, childGaps;
+
+    /**
+     * Default constructor, which creates an empty graph
+     */
+    public FamilyGraph()
+    {
+        this(16, 16);
+    }
+
+    /**
+     * Constructor which creates an empty graph with room for the given number of people
+     * and children
+     *
+     * @param people number of people expected
+     * @param childLinks number of parent to child links expected
+     */
+    public FamilyGraph(int people, int childLinks)
+    {
+        int capacity = Math.max(people, 1);
+
+        names = new String[capacity];
+        surnames = new String[capacity];
+        genders = new byte[capacity];
+        lifeDescs = new String[capacity];
+        streetNames = new String[capacity];
+        suburbs = new String[capacity];
+        types = new byte[capacity];
+        streetNos = new int[capacity];
+        postcodes = new int[capacity];
+
+        spouses = new int[capacity];
+        parents = new int[capacity * 2];
+        childStart = new int[capacity];
+        childCount = new int[capacity];
+        children = new int[Math.max(childLinks, 1)];
+    }
+
+    /**
+     * Build a graph of every person in a registry, with the same ids
+     *
+     * @param registry registry of family tree
+     * @return graph of family tree
+     */
+    public static FamilyGraph from(PersonRegistry registry)
+    {
+        int n = registry.size();
+
+        // Children of every person are added in order of id, so no person is moved
+        long links = 0;
+        for(int id=0; id<n; id++)
+        {
+            links += registry.get(id).getChildList().size();
+        }
+        FamilyGraph graph = new FamilyGraph(n, (int)Math.min(links, Integer.MAX_VALUE - 8));
+
+        for(int id=0; id<n; id++)
+        {
+            Person p = registry.get(id);
+            graph.addPerson(p.getName(), p.getSurname(), p.getGender(), p.getLifeDesc(), p.getStreetNo(), p.getStreetName(), p.getSuburb(), p.getPostcode(), p.getType());
+        }
+        for(int id=0; id<n; id++)
+        {
+            Person p = registry.get(id);
+
+            graph.spouses[id] = p.noSpouse()?NONE:registry.getId(p.getSpouse());
+            for(Person parent:p.getParentList())
+            {
+                graph.setParent(id, registry.getId(parent));
+            }
+            for(Person child:p.getChildList())
+            {
+                graph.appendChild(id, registry.getId(child));
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Add a person with no relatives
+     *
+     * @param fname first name
+     * @param lname surname
+     * @param sex gender
+     * @param desc life description
+     * @param sNo street number
+     * @param street street name
+     * @param sub suburb
+     * @param post postcode
+     * @param t type of person
+     * @return id of person
+     */
+    public int addPerson(String fname, String lname, Gender sex, String desc, int sNo, String street, String sub, int post, RelationType t)
+    {
+        if(size == names.length)
+        {
+            grow(size * 2);
+        }
+
+        int id = size++;
+        names[id] = fname;
+        surnames[id] = lname;
+        genders[id] = ordinal(sex);
+        lifeDescs[id] = desc;
+        streetNos[id] = sNo;
+        streetNames[id] = street;
+        suburbs[id] = sub;
+        postcodes[id] = post;
+        types[id] = ordinal(t);
+
+        spouses[id] = NONE;
+        parents[2 * id] = NONE;
+        parents[2 * id + 1] = NONE;
+        childStart[id] = childEnd;
+        childCount[id] = 0;
+        return id;
+    }
+
+    /**
+     * Add a child to a parent, setting the parent as a parent of the child
+     *
+     * @param parent id of parent
+     * @param child id of child
+     */
+    public void addChild(int parent, int child)
+    {
+        check(parent);
+        setParent(check(child), parent);
+        appendChild(parent, child);
+    }
+
+    /**
+     * Set two people as each other's spouse
+     *
+     * @param a id of person
+     * @param b id of spouse
+     */
+    public void setSpouses(int a, int b)
+    {
+        spouses[check(a)] = check(b);
+        spouses[b] = a;
+    }
+
+    /**
+     * Returns number of people
+     *
+     * @return number of people
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns a view of the person with the given id
+     *
+     * @param id id of person
+     * @return view of person
+     */
+    public PersonView view(int id)
+    {
+        return new PersonView(this, check(id));
+    }
+
+    /**
+     * Returns the id of the spouse of a person
+     *
+     * @param id id of person
+     * @return id of spouse; NONE if person has no spouse
+     */
+    public int spouse(int id)
+    {
+        return spouses[check(id)];
+    }
+
+    /**
+     * Returns the id of a parent of a person
+     *
+     * @param id id of person
+     * @param slot 0 for the first parent added, 1 for the second
+     * @return id of parent; NONE if there is no parent in the slot
+     */
+    public int parent(int id, int slot)
+    {
+        if(slot < 0 || slot > 1)
+        {
+            throw new IndexOutOfBoundsException("Parent slot must be 0 or 1: " + slot);
+        }
+        return parents[2 * check(id) + slot];
+    }
+
+    /**
+     * Returns number of children of a person
+     *
+     * @param id id of person
+     * @return number of children
+     */
+    public int childCount(int id)
+    {
+        return childCount[check(id)];
+    }
+
+    /**
+     * Returns the id of a child of a person
+     *
+     * @param id id of person
+     * @param index index of child, in the order children were added
+     * @return id of child
+     */
+    public int child(int id, int index)
+    {
+        if(index < 0 || index >= childCount[check(id)])
+        {
+            throw new IndexOutOfBoundsException("Child " + index + " of " + childCount[id]);
+        }
+        return children[childStart[id] + index];
+    }
+
+    /**
+     * Returns the ids of the children of a person
+     *
+     * @param id id of person
+     * @return new array of ids of children
+     */
+    public int[] children(int id)
+    {
+        return Arrays.copyOfRange(children, childStart[check(id)], childStart[id] + childCount[id]);
+    }
+
+    /**
+     * Remove the gaps left in the children array by people who were moved to the end
+     */
+    public void compact()
+    {
+        int[] packed = new int[Math.max(childEnd - childGaps, 1)];
+        int end = 0;
+
+        for(int id=0; id<size; id++)
+        {
+            System.arraycopy(children, childStart[id], packed, end, childCount[id]);
+            childStart[id] = end;
+            end += childCount[id];
+        }
+        children = packed;
+        childEnd = end;
+        childGaps = 0;
+    }
+
+    /**
+     * Returns the memory used by the int arrays of relatives and numbers, the byte arrays of
+     * gender and type, and the references of the string columns, not counting the strings
+     * themselves or array headers
+     *
+     * @return size in bytes of the arrays allocated
+     */
+    public long arrayBytes()
+    {
+        long references = 5L * names.length * 4;
+        long numbers = 4L * (streetNos.length + postcodes.length) + genders.length + types.length;
+        long relatives = 4L * (spouses.length + parents.length + childStart.length + childCount.length + children.length);
+        return references + numbers + relatives;
+    }
+
+    /**
+     * Set a parent of a person in the first empty parent slot
+     *
+     * @param id id of person
+     * @param parent id of parent
+     */
+    private void setParent(int id, int parent)
+    {
+        if(parents[2 * id] == NONE)
+        {
+            parents[2 * id] = parent;
+        }
+        else if(parents[2 * id + 1] == NONE)
+        {
+            parents[2 * id + 1] = parent;
+        }
+        else
+        {
+            throw new IllegalStateException("A person can only have 2 parents");
+        }
+    }
+
+    /**
+     * Add a child to the children of a person, moving the children of the person to the
+     * end of the children array if they are not already at the end
+     *
+     * @param id id of person
+     * @param child id of child
+     */
+    private void appendChild(int id, int child)
+    {
+        int start = childStart[id];
+        int count = childCount[id];
+
+        if(start + count != childEnd)
+        {
+            // Move the children to the end, leaving a gap
+            ensureChildCapacity(childEnd + count + 1);
+            System.arraycopy(children, start, children, childEnd, count);
+            childStart[id] = childEnd;
+            childEnd += count;
+            childGaps += count;
+        }
+        else
+        {
+            ensureChildCapacity(childEnd + 1);
+        }
+
+        children[childEnd++] = child;
+        childCount[id] = count + 1;
+
+        // Remove the gaps once they take up half of the array
+        if(childGaps > childEnd / 2)
+        {
+            compact();
+        }
+    }
+
+    /**
+     * Make sure the children array can hold the given number of ids
+     *
+     * @param capacity number of ids needed
+     */
+    private void ensureChildCapacity(int capacity)
+    {
+        if(capacity > children.length)
+        {
+            children = Arrays.copyOf(children, Math.max(capacity, children.length * 2));
+        }
+    }
+
+    /**
+     * Increase the number of people every column can hold
+     *
+     * @param capacity new number of people
+     */
+    private void grow(int capacity)
+    {
+        names = Arrays.copyOf(names, capacity);
+        surnames = Arrays.copyOf(surnames, capacity);
+        genders = Arrays.copyOf(genders, capacity);
+        lifeDescs = Arrays.copyOf(lifeDescs, capacity);
+        streetNames = Arrays.copyOf(streetNames, capacity);
+        suburbs = Arrays.copyOf(suburbs, capacity);
+        types = Arrays.copyOf(types, capacity);
+        streetNos = Arrays.copyOf(streetNos, capacity);
+        postcodes = Arrays.copyOf(postcodes, capacity);
+
+        spouses = Arrays.copyOf(spouses, capacity);
+        parents = Arrays.copyOf(parents, capacity * 2);
+        childStart = Arrays.copyOf(childStart, capacity);
+        childCount = Arrays.copyOf(childCount, capacity);
+    }
+
+    /**
+     * Returns the gender of a person
+     *
+     * @param id id of person
+     * @return gender; null if not set
+     */
+    Gender gender(int id)
+    {
+        return genders[id] < 0?null:GENDERS[genders[id]];
+    }
+
+    /**
+     * Returns the type of a person
+     *
+     * @param id id of person
+     * @return type; null if not set
+     */
+    RelationType type(int id)
+    {
+        return types[id] < 0?null:TYPES[types[id]];
+    }
+
+    /**
+     * Returns the value stored in a byte column for an enum
+     *
+     * @param e enum; null if not set
+     * @return ordinal of enum; -1 if null
+     */
+    private static byte ordinal(Enum<?> e)
+    {
+        return (byte)(e == null?-1:e.ordinal());
+    }
+
+    /**
+     * Check that there is a person with the given id
+     *
+     * @param id id of person
+     * @return id
+     */
+    private int check(int id)
+    {
+        if(id < 0 || id >= size)
+        {
+            throw new IndexOutOfBoundsException("No person with id " + id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Title: PersonView class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PersonView.java
+ * Purpose: The purpose of this class is to read the personal information and relatives of
+ *          one person stored in a FamilyGraph.
+ * Assumptions/Conditions: - A view only holds the graph and the id of the person, so views can
+                             be created and discarded as needed.
+                           - Two views are equal if they are views of the same person in the
+                             same graph.
+ */
+package familytreeapplication;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * View of one person in a FamilyGraph.
+ *
+ * @author Zhiguang
+ */
+public final class PersonView
+{
+    private final FamilyGraph graph;
+    private final int id;
+
+    /**
+     * Constructor which sets the graph and id of the person
+     *
+     * @param g graph person is stored in
+     * @param i id of person
+     */
+    PersonView(FamilyGraph g, int i)
+    {
+        graph = g;
+        id = i;
+    }
+
+    /**
+     * Returns id of person
+     *
+     * @return id of person
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Returns first name of person
+     *
+     * @return first name
+     */
+    public String getName()
+    {
+        return graph.names[id];
+    }
+
+    /**
+     * Returns surname of person
+     *
+     * @return surname
+     */
+    public String getSurname()
+    {
+        return graph.surnames[id];
+    }
+
+    /**
+     * Returns full name of person, in the same form as Person
+     *
+     * @return surname followed by first name
+     */
+    public String getFullName()
+    {
+        return getSurname() + " " + getName();
+    }
+
+    /**
+     * Returns gender of person
+     *
+     * @return gender
+     */
+    public Gender getGender()
+    {
+        return graph.gender(id);
+    }
+
+    /**
+     * Returns life description of person
+     *
+     * @return life description
+     */
+    public String getLifeDesc()
+    {
+        return graph.lifeDescs[id];
+    }
+
+    /**
+     * Returns street number of person
+     *
+     * @return street number
+     */
+    public int getStreetNo()
+    {
+        return graph.streetNos[id];
+    }
+
+    /**
+     * Returns street name of person
+     *
+     * @return street name
+     */
+    public String getStreetName()
+    {
+        return graph.streetNames[id];
+    }
+
+    /**
+     * Returns suburb of person
+     *
+     * @return suburb
+     */
+    public String getSuburb()
+    {
+        return graph.suburbs[id];
+    }
+
+    /**
+     * Returns postcode of person
+     *
+     * @return postcode
+     */
+    public int getPostcode()
+    {
+        return graph.postcodes[id];
+    }
+
+    /**
+     * Returns type of person
+     *
+     * @return type
+     */
+    public RelationType getType()
+    {
+        return graph.type(id);
+    }
+
+    /**
+     * Returns spouse of person
+     *
+     * @return view of spouse; null if person has no spouse
+     */
+    public PersonView getSpouse()
+    {
+        int spouse = graph.spouse(id);
+        return spouse == FamilyGraph.NONE?null:graph.view(spouse);
+    }
+
+    /**
+     * Returns parents of person
+     *
+     * @return views of parents, in the order they were added
+     */
+    public List<PersonView> getParents()
+    {
+        List<PersonView> list = new ArrayList<>(2);
+        for(int slot=0; slot<2; slot++)
+        {
+            int parent = graph.parent(id, slot);
+            if(parent != FamilyGraph.NONE)
+            {
+                list.add(graph.view(parent));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Returns children of person
+     *
+     * @return views of children, in the order they were added
+     */
+    public List<PersonView> getChildren()
+    {
+        int count = graph.childCount(id);
+        List<PersonView> list = new ArrayList<>(count);
+        for(int i=0; i<count; i++)
+        {
+            list.add(graph.view(graph.child(id, i)));
+        }
+        return list;
+    }
+
+    /**
+     * Returns true if the object is a view of the same person in the same graph
+     *
+     * @param o object to compare
+     * @return true if same person; false otherwise
+     */
+    @Override
+    public boolean equals(Object o)
+    {
+        return o instanceof PersonView && ((PersonView)o).graph == graph && ((PersonView)o).id == id;
+    }
+
+    /**
+     * Returns hash code of view
+     *
+     * @return id of person
+     */
+    @Override
+    public int hashCode()
+    {
+        return id;
+    }
+
+    /**
+     * Returns full name of person
+     *
+     * @return full name
+     */
+    @Override
+    public String toString()
+    {
+        return getFullName();
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Title: ChartBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: ChartBenchmark.java
+ * Purpose: The purpose of this program is to measure how long it takes to lay out a large family
+ *          tree as a chart, to find the people in view while the chart is moved around, and to
+ *          add people to the layout one at a time.
+ * Assumptions/Conditions: - The number of people can be passed as the first argument, and
+                             defaults to 100000.
+                           - The tree is made of couples with 2 or 3 children each, and every child
+                             is given a spouse, built with FamilyTreeMutations like the application.
+                           - The view is 800 by 600 pixels. It is moved across the chart in 600
+                             frames, at a zoom of 1, and again zoomed out to a tenth.
+                           - Only finding the people and lines in view is measured, not drawing them,
+                             which is done by JavaFX and depends on the number of people in view.
+                           - Every pan is run once before it is timed, so that the time does not
+                             include compiling the code.
+ */
+package familytreeapplication.benchmark;
+
+import familytreeapplication.ChartLayout;
+import familytreeapplication.FamilyTreeMutations;
+import familytreeapplication.Gender;
+import familytreeapplication.Person;
+import familytreeapplication.RelationType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of ChartLayout.
+ *
+ * @author Zhiguang
+ */
+public class ChartBenchmark
+{
+    // Size of the view in pixels, and number of frames the view is moved in
+    private static final double VIEW_WIDTH = 800, VIEW_HEIGHT = 600;
+    private static final int FRAMES = 600;
+
+    /**
+     * Main method to run the benchmark
+     *
+     * @param args number of people
+     */
+    public static void main(String[] args)
+    {
+        int count = args.length > 0?Integer.parseInt(args[0]):100000;
+        Random random = new Random(42);
+
+        List<Person> couples = new ArrayList<>();
+        Person root = buildTree(count, random, couples);
+
+        long start = System.nanoTime();
+        ChartLayout layout = new ChartLayout(root);
+        System.out.println(String.format("%-24s %8d people %8d ms  %.0f x %.0f", "Lay out", layout.getPeopleCount(), (System.nanoTime() - start) / 1000000, layout.getWidth(), layout.getHeight()));
+
+        Counter counter = new Counter();
+        for(int warm=0; warm<2; warm++)
+        {
+            boolean print = warm == 1;
+            pan(print, "Pan at zoom 1", layout, 1, counter);
+            pan(print, "Pan at zoom 0.1", layout, 0.1, counter);
+        }
+
+        // Painting the whole chart is what every frame would take without finding the people in view
+        start = System.nanoTime();
+        counter.people = 0;
+        layout.paint(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, counter);
+        System.out.println(String.format("%-24s %8d people %8.3f ms", "Whole chart", counter.people, (System.nanoTime() - start) / 1e6));
+
+        // Add children to couples in the youngest generations one at a time, as the application does
+        start = System.nanoTime();
+        int added = 0;
+        for(int i=0; i<10000; i++)
+        {
+            Person parent = couples.get(couples.size() - 1 - random.nextInt(couples.size() / 4));
+            Person child = new Person("Q" + i, "Tree", Gender.MALE, "", 1, "Main Street", "Suburb", 1000, RelationType.CHILD);
+            FamilyTreeMutations.addChild(parent, child);
+            layout.add(parent, child, RelationType.CHILD);
+            added++;
+        }
+        System.out.println(String.format("%-24s %8d people %8d ms", "Add to layout", added, (System.nanoTime() - start) / 1000000));
+    }
+
+    /**
+     * Move the view from the top left of the chart to the bottom right, finding the people in view
+     * in every frame
+     *
+     * @param print false while warming up
+     * @param name name of pan
+     * @param layout layout of chart
+     * @param scale zoom of chart
+     * @param counter counts people and lines found
+     */
+    private static void pan(boolean print, String name, ChartLayout layout, double scale, Counter counter)
+    {
+        // Part of the chart in view, in chart units
+        double viewWidth = VIEW_WIDTH / scale, viewHeight = VIEW_HEIGHT / scale;
+        double stepX = Math.max(0, layout.getWidth() - viewWidth) / FRAMES;
+        double stepY = Math.max(0, layout.getHeight() - viewHeight) / FRAMES;
+
+        counter.people = 0;
+        counter.lines = 0;
+        long slowest = 0;
+        long start = System.nanoTime();
+
+        for(int frame=0; frame<FRAMES; frame++)
+        {
+            long t = System.nanoTime();
+            double x = frame * stepX, y = frame * stepY;
+            layout.paint(x, y, x + viewWidth, y + viewHeight, counter);
+            slowest = Math.max(slowest, System.nanoTime() - t);
+        }
+
+        long time = System.nanoTime() - start;
+        if(print)
+        {
+            System.out.println(String.format("%-24s avg %7.3f ms  max %7.3f ms  %7.1f people  %7.1f lines per frame",
+                    name, time / 1e6 / FRAMES, slowest / 1e6, counter.people / (double)FRAMES, counter.lines / (double)FRAMES));
+        }
+    }
+
+    /**
+     * Build a family tree of couples with 2 or 3 children each, where every child has a spouse
+     *
+     * @param count number of people
+     * @param random source of random numbers
+     * @param couples receives every person with a spouse, in order of generation
+     * @return root person
+     */
+    private static Person buildTree(int count, Random random, List<Person> couples)
+    {
+        int next = 0;
+        Person root = new Person("P" + next++, "Tree", Gender.MALE, "", 1, "Main Street", "Suburb", 1000, RelationType.ROOT);
+        ArrayDeque<Person> queue = new ArrayDeque<>();
+
+        FamilyTreeMutations.addSpouse(root, new Person("P" + next++, "Tree", Gender.FEMALE, "", 1, "Main Street", "Suburb", 1000, RelationType.SPOUSE));
+        queue.add(root);
+        couples.add(root);
+
+        while(!queue.isEmpty() && next < count)
+        {
+            Person parent = queue.remove();
+            int children = 2 + random.nextInt(2);
+            for(int i=0; i<children && next < count; i++)
+            {
+                Gender gender = random.nextBoolean()?Gender.MALE:Gender.FEMALE;
+                Person child = new Person("P" + next++, "Tree", gender, "", 1, "Main Street", "Suburb", 1000, RelationType.CHILD);
+                FamilyTreeMutations.addChild(parent, child);
+
+                if(next < count)
+                {
+                    Person spouse = new Person("P" + next++, "Tree", gender.opposite(), "", 1, "Main Street", "Suburb", 1000, RelationType.SPOUSE);
+                    FamilyTreeMutations.addSpouse(child, spouse);
+                    queue.add(child);
+                    couples.add(child);
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Counts the people and lines found, in place of drawing them
+     */
+    private static final class Counter implements ChartLayout.Painter
+    {
+        long people, lines;
+
+        /**
+         * Count a person
+         *
+         * @param p person
+         * @param x left of box
+         * @param y top of box
+         */
+        @Override
+        public void person(Person p, double x, double y)
+        {
+            people++;
+        }
+
+        /**
+         * Count a line
+         *
+         * @param x1 x of start
+         * @param y1 y of start
+         * @param x2 x of end
+         * @param y2 y of end
+         */
+        @Override
+        public void line(double x1, double y1, double x2, double y2)
+        {
+            lines++;
+        }
+    }
+}
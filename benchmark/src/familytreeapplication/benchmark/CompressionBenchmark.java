@@ -0,0 +1,84 @@
+/*
+ * Title: CompressionBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: CompressionBenchmark.java
+ * Purpose: The purpose of this program is to measure how small every codec makes a .dat file, and
+ *          how fast files are saved and loaded with it, so a codec can be chosen.
+ * Assumptions/Conditions: - The number of people can be passed as the first argument, and
+                             defaults to 1000000. The tree is made up by FamilyTreeGenerator.
+                           - Every codec registered with SaveCodecs is measured, after none. The
+                             level of deflate and gzip is set with -Dfamilytree.compressionLevel.
+                           - Throughput is the size of the file without compression divided by
+                             the time taken, so codecs can be compared with each other.
+                           - Loading includes registering every person, as loadTree does.
+                           - Files are written into the temporary folder and deleted afterwards.
+                           - Every codec is run once before it is timed, so that the time does not
+                             include compiling the code.
+ */
+package familytreeapplication.benchmark;
+
+import familytreeapplication.FamilyTreeFile;
+import familytreeapplication.FamilyTreeGenerator;
+import familytreeapplication.PersonRegistry;
+import familytreeapplication.SaveCodecs;
+import java.io.File;
+
+/**
+ * Benchmark of the size and speed of every codec of SaveCodecs.
+ *
+ * @author Zhiguang
+ */
+public class CompressionBenchmark
+{
+    /**
+     * Main method to run the benchmark
+     *
+     * @param args number of people
+     * @throws Exception if a file cannot be written or read
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int count = args.length > 0?Integer.parseInt(args[0]):1000000;
+        File file = File.createTempFile("family", ".dat");
+
+        try
+        {
+            FamilyTreeGenerator.generate(file, count, FamilyTreeGenerator.DEFAULT_SEED, null);
+            PersonRegistry registry = PersonRegistry.build(FamilyTreeFile.load(file));
+            FamilyTreeFile.save(registry, file, null, null);
+            double plain = file.length() / 1e6;
+
+            System.out.println(String.format("%d people, level %d, %.1f MB without compression", count, SaveCodecs.LEVEL, plain));
+            System.out.println(String.format("%-10s %9s %7s %9s %9s %9s %9s", "Codec", "MB", "Ratio", "Save ms", "Save MB/s", "Load ms", "Load MB/s"));
+            for(String name:SaveCodecs.names())
+            {
+                for(int warm=0; warm<2; warm++)
+                {
+                    long start = System.nanoTime();
+                    FamilyTreeFile.save(registry, file, SaveCodecs.get(name), null);
+                    long save = System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    int loaded = PersonRegistry.build(FamilyTreeFile.load(file)).size();
+                    long load = System.nanoTime() - start;
+
+                    if(loaded != count)
+                    {
+                        throw new IllegalStateException(name + " loaded " + loaded + " of " + count + " people");
+                    }
+                    if(warm == 1)
+                    {
+                        double size = file.length() / 1e6;
+                        System.out.println(String.format("%-10s %9.1f %7.2f %9d %9.1f %9d %9.1f", name, size, plain / size,
+                                save / 1000000, plain / (save / 1e9), load / 1000000, plain / (load / 1e9)));
+                    }
+                }
+            }
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Title: GedcomBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: GedcomBenchmark.java
+ * Purpose: The purpose of this program is to measure how long it takes to export a large family
+ *          tree into a GEDCOM file and to import it again.
+ * Assumptions/Conditions: - The number of people can be passed as the first argument, and
+                             defaults to 1000000.
+                           - The tree is made of couples with 2 or 3 children each, and every child
+                             is given a spouse, built with FamilyTreeMutations like the application.
+                           - The file is written into the temporary folder and deleted afterwards.
+                           - Export and import are run once before they are timed, so that the time
+                             does not include compiling the code.
+ */
+package familytreeapplication.benchmark;
+
+import familytreeapplication.FamilyTreeMutations;
+import familytreeapplication.GedcomFile;
+import familytreeapplication.Gender;
+import familytreeapplication.Person;
+import familytreeapplication.PersonRegistry;
+import familytreeapplication.RelationType;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * Benchmark of GedcomFile.
+ *
+ * @author Zhiguang
+ */
+public class GedcomBenchmark
+{
+    /**
+     * Main method to run the benchmark
+     *
+     * @param args number of people
+     * @throws IOException if the file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int count = args.length > 0?Integer.parseInt(args[0]):1000000;
+        PersonRegistry registry = PersonRegistry.build(buildTree(count, new Random(42)));
+        File file = File.createTempFile("family", ".ged");
+
+        try
+        {
+            for(int warm=0; warm<2; warm++)
+            {
+                boolean print = warm == 1;
+
+                long start = System.nanoTime();
+                GedcomFile.save(registry, file, GedcomFile.VERSION_5, null);
+                long time = System.nanoTime() - start;
+                if(print)
+                {
+                    System.out.println(String.format("%-16s %8d people %8d ms  %6.1f MB", "Export", registry.size(), time / 1000000, file.length() / 1e6));
+                }
+
+                start = System.nanoTime();
+                Person root = GedcomFile.load(file);
+                time = System.nanoTime() - start;
+                int imported = PersonRegistry.build(root).size();
+                if(print)
+                {
+                    System.out.println(String.format("%-16s %8d people %8d ms  %6.1f MB/s", "Import", imported, time / 1000000, file.length() / 1e3 / (time / 1e6)));
+                }
+            }
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    /**
+     * Build a family tree of couples with 2 or 3 children each, where every child has a spouse
+     *
+     * @param count number of people
+     * @param random source of random numbers
+     * @return root person
+     */
+    private static Person buildTree(int count, Random random)
+    {
+        int next = 0;
+        Person root = person(next++, Gender.MALE, RelationType.ROOT, random);
+        ArrayDeque<Person> queue = new ArrayDeque<>();
+
+        FamilyTreeMutations.addSpouse(root, person(next++, Gender.FEMALE, RelationType.SPOUSE, random));
+        queue.add(root);
+
+        while(!queue.isEmpty() && next < count)
+        {
+            Person parent = queue.remove();
+            int children = 2 + random.nextInt(2);
+            for(int i=0; i<children && next < count; i++)
+            {
+                Gender gender = random.nextBoolean()?Gender.MALE:Gender.FEMALE;
+                Person child = person(next++, gender, RelationType.CHILD, random);
+                FamilyTreeMutations.addChild(parent, child);
+
+                if(next < count)
+                {
+                    FamilyTreeMutations.addSpouse(child, person(next++, gender.opposite(), RelationType.SPOUSE, random));
+                    queue.add(child);
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Create a person with a name, address and life description
+     *
+     * @param n number of person
+     * @param gender gender of person
+     * @param type type of person
+     * @param random source of random numbers
+     * @return person
+     */
+    private static Person person(int n, Gender gender, RelationType type, Random random)
+    {
+        String life = n % 4 == 0?"Person number " + n + "\nborn in " + (1800 + random.nextInt(200)):"";
+        return new Person("Name" + n, "Surname" + random.nextInt(5000), gender, life, 1 + random.nextInt(200),
+                "Street" + random.nextInt(1000), "Suburb" + random.nextInt(300), 1000 + random.nextInt(9000), type);
+    }
+}
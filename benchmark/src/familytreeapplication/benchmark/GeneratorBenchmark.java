@@ -0,0 +1,96 @@
+/*
+ * Title: GeneratorBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: GeneratorBenchmark.java
+ * Purpose: The purpose of this program is to measure how long it takes to generate, load and
+ *          check family trees of many sizes, and to keep doing so to soak test the program.
+ * Assumptions/Conditions: - The numbers of people can be passed as arguments, and default to
+                             1000, 100000 and 1000000. A number after --rounds repeats every size
+                             that many times, with a new seed every round.
+                           - Files are generated into the temporary folder by FamilyTreeGenerator
+                             and deleted afterwards.
+                           - Every file is loaded, registered and checked by FamilyTreeValidator,
+                             and the benchmark stops if a file has a problem.
+                           - 10000000 people need several GB of memory to load, so a larger heap
+                             should be given with -Xmx.
+ */
+package familytreeapplication.benchmark;
+
+import familytreeapplication.FamilyTreeFile;
+import familytreeapplication.FamilyTreeGenerator;
+import familytreeapplication.FamilyTreeValidator;
+import familytreeapplication.PersonRegistry;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark and soak test of FamilyTreeGenerator and FamilyTreeFile.
+ *
+ * @author Zhiguang
+ */
+public class GeneratorBenchmark
+{
+    /**
+     * Main method to run the benchmark
+     *
+     * @param args numbers of people, optionally after --rounds N
+     * @throws Exception if a file cannot be written or read
+     */
+    public static void main(String[] args) throws Exception
+    {
+        int rounds = 1;
+        List<Integer> sizes = new ArrayList<>();
+        for(int i=0; i<args.length; i++)
+        {
+            if(args[i].equals("--rounds") && i + 1 < args.length)
+            {
+                rounds = Integer.parseInt(args[++i]);
+            }
+            else
+            {
+                sizes.add(Integer.parseInt(args[i]));
+            }
+        }
+        if(sizes.isEmpty())
+        {
+            sizes.add(1000);
+            sizes.add(100000);
+            sizes.add(1000000);
+        }
+
+        File file = File.createTempFile("family", ".dat");
+        try
+        {
+            for(int round=0; round<rounds; round++)
+            {
+                for(int size:sizes)
+                {
+                    long seed = FamilyTreeGenerator.DEFAULT_SEED + round;
+
+                    long start = System.nanoTime();
+                    FamilyTreeGenerator.generate(file, size, seed, null);
+                    long generate = System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    PersonRegistry registry = PersonRegistry.build(FamilyTreeFile.load(file));
+                    long load = System.nanoTime() - start;
+
+                    List<String> problems = FamilyTreeValidator.validate(registry);
+                    System.out.println(String.format("%8d people  seed %4d  generate %6d ms  %7.1f MB  load %6d ms  %d problems",
+                            size, seed, generate / 1000000, file.length() / 1e6, load / 1000000, problems.size()));
+                    if(registry.size() != size || !problems.isEmpty())
+                    {
+                        System.out.println(registry.size() + " people loaded" + (problems.isEmpty()?"":", first problem: " + problems.get(0)));
+                        System.exit(1);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+}
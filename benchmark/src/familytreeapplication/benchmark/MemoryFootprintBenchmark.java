@@ -0,0 +1,156 @@
+/*
+ * Title: MemoryFootprintBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: MemoryFootprintBenchmark.java
+ * Purpose: The purpose of this program is to compare the heap used by a family tree stored as
+ *          Person objects with the heap used by the same tree stored in a FamilyGraph.
+ * Assumptions/Conditions: - The number of people can be passed as the first argument, and
+                             defaults to 1000000.
+                           - The tree is made of couples with 2 children each, and every child
+                             is given a spouse, built with FamilyTreeMutations like the application.
+                           - Both forms share the same String objects, so the difference between
+                             them is the cost of the objects and lists of relatives.
+                           - Heap used is measured after asking for garbage collection, so it is an
+                             estimate. Run with a heap large enough for both forms (eg. -Xmx4g).
+ */
+package familytreeapplication.benchmark;
+
+import familytreeapplication.FamilyGraph;
+import familytreeapplication.FamilyTreeMutations;
+import familytreeapplication.Gender;
+import familytreeapplication.Person;
+import familytreeapplication.PersonRegistry;
+import familytreeapplication.RelationType;
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ * Benchmark of the heap used by a family tree of Person objects, and by the same tree in a
+ * FamilyGraph.
+ *
+ * @author Zhiguang
+ */
+public class MemoryFootprintBenchmark
+{
+    /**
+     * Main method to run the benchmark
+     *
+     * @param args number of people
+     * @throws IOException never, as the tree is not read from a file
+     * @throws InterruptedException if interrupted while waiting for garbage collection
+     */
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int count = args.length > 0?Integer.parseInt(args[0]):1000000;
+
+        long base = usedHeap();
+
+        // Names are created before measuring, as both forms share them
+        String[] names = new String[count];
+        for(int i=0; i<count; i++)
+        {
+            names[i] = "Gen" + i;
+        }
+        long strings = usedHeap() - base;
+
+        // Person objects are only reachable inside buildGraph, so they are collected before the graph is measured
+        long[] used = new long[2];
+        FamilyGraph graph = buildGraph(names, base + strings, used);
+        long objects = used[0];
+        long withRegistry = used[1];
+        long columns = usedHeap() - base - strings;
+
+        System.out.println("People:                  " + graph.size());
+        System.out.println(String.format("%-24s %8d KB", "Names (shared)", strings / 1024));
+        System.out.println(String.format("%-24s %8d KB %6.1f bytes/person", "Person objects", objects / 1024, (double)objects / count));
+        System.out.println(String.format("%-24s %8d KB %6.1f bytes/person", "Person + registry", withRegistry / 1024, (double)withRegistry / count));
+        System.out.println(String.format("%-24s %8d KB %6.1f bytes/person", "FamilyGraph", columns / 1024, (double)columns / count));
+        System.out.println(String.format("%-24s %8d KB", "FamilyGraph arrays", graph.arrayBytes() / 1024));
+        System.out.println(String.format("%-24s %8.1f x", "Person / FamilyGraph", (double)objects / columns));
+
+        // Keep the graph reachable until it has been measured
+        System.out.println("Root: " + graph.view(0));
+    }
+
+    /**
+     * Build a family tree of Person objects and its registry, measuring the heap used by each,
+     * and return the same tree as a FamilyGraph
+     *
+     * @param names first name of every person
+     * @param base heap used before the tree is built
+     * @param used receives heap used by the Person objects, and by the objects and registry
+     * @return tree as a FamilyGraph
+     * @throws IOException never, as the tree is not read from a file
+     * @throws InterruptedException if interrupted while waiting for garbage collection
+     */
+    private static FamilyGraph buildGraph(String[] names, long base, long[] used) throws IOException, InterruptedException
+    {
+        Person root = buildTree(names);
+        used[0] = usedHeap() - base;
+
+        PersonRegistry registry = PersonRegistry.build(root);
+        used[1] = usedHeap() - base;
+
+        return FamilyGraph.from(registry);
+    }
+
+    /**
+     * Build a family tree of couples with 2 children each, where every child has a spouse
+     *
+     * @param names first name of every person, which also sets the number of people
+     * @return root person
+     */
+    private static Person buildTree(String[] names)
+    {
+        int next = 0;
+        Person root = new Person(names[next++], "Tree", Gender.MALE, "", 1, "Main Street", "Suburb", 1000, RelationType.ROOT);
+        ArrayDeque<Person> couples = new ArrayDeque<>();
+
+        if(next < names.length)
+        {
+            FamilyTreeMutations.addSpouse(root, new Person(names[next++], "Tree", Gender.FEMALE, "", 1, "Main Street", "Suburb", 1000, RelationType.SPOUSE));
+            couples.add(root);
+        }
+
+        while(!couples.isEmpty() && next < names.length)
+        {
+            Person parent = couples.remove();
+            for(int i=0; i<2 && next < names.length; i++)
+            {
+                Gender gender = i == 0?Gender.MALE:Gender.FEMALE;
+                Person child = new Person(names[next++], "Tree", gender, "", 1, "Main Street", "Suburb", 1000, RelationType.CHILD);
+                FamilyTreeMutations.addChild(parent, child);
+
+                if(next < names.length)
+                {
+                    Person spouse = new Person(names[next++], "Tree", gender.opposite(), "", 1, "Main Street", "Suburb", 1000, RelationType.SPOUSE);
+                    FamilyTreeMutations.addSpouse(child, spouse);
+                    couples.add(child);
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Returns the heap in use after garbage collection
+     *
+     * @return bytes of heap used
+     * @throws InterruptedException if interrupted while waiting for garbage collection
+     */
+    private static long usedHeap() throws InterruptedException
+    {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+
+        // A single collection may not free everything that is unreachable, so take the lowest of several
+        for(int i=0; i<5; i++)
+        {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Title: RelationshipBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: RelationshipBenchmark.java
+ * Purpose: The purpose of this program is to measure how long relationship queries take on a
+ *          large family tree.
+ * Assumptions/Conditions: - The number of people can be passed as the first argument, and
+                             defaults to 1000000.
+                           - The tree is made of couples with 2 or 3 children each, and every child
+                             is given a spouse, built with FamilyTreeMutations like the application.
+                           - Pairs of people are picked at random from the youngest generation,
+                             with a fixed seed so every run asks the same questions.
+                           - Every query is run once before it is timed, so that the time does not
+                             include compiling the code.
+                           - Ancestry checks and kinship are timed both by walking the tree and with
+                             an AncestryIndex, and the time to add people to the index one at a time
+                             is shown too.
+ */
+package familytreeapplication.benchmark;
+
+import familytreeapplication.AncestryIndex;
+import familytreeapplication.FamilyTreeMutations;
+import familytreeapplication.Gender;
+import familytreeapplication.Person;
+import familytreeapplication.PersonRegistry;
+import familytreeapplication.RelationType;
+import familytreeapplication.RelationshipQuery;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmark of the queries of RelationshipQuery.
+ *
+ * @author Zhiguang
+ */
+public class RelationshipBenchmark
+{
+    // Number of times each query is run
+    private static final int RUNS = 100;
+
+    /**
+     * Main method to run the benchmark
+     *
+     * @param args number of people
+     * @throws IOException never, as the tree is not read from a file
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int count = args.length > 0?Integer.parseInt(args[0]):1000000;
+        Random random = new Random(42);
+
+        long start = System.nanoTime();
+        Person root = buildTree(count, random);
+        PersonRegistry registry = PersonRegistry.build(root);
+        System.out.println(String.format("%-24s %8d people %8d ms", "Build and index", registry.size(), (System.nanoTime() - start) / 1000000));
+
+        // People near the end of the registry are in the youngest generations, and near the start in the oldest
+        Person[] a = new Person[RUNS], b = new Person[RUNS], old = new Person[RUNS];
+        for(int i=0; i<RUNS; i++)
+        {
+            a[i] = registry.get(registry.size() - 1 - random.nextInt(registry.size() / 4));
+            b[i] = registry.get(registry.size() - 1 - random.nextInt(registry.size() / 4));
+            old[i] = registry.get(random.nextInt(registry.size() / 1000 + 1));
+        }
+
+        start = System.nanoTime();
+        AncestryIndex ancestry = AncestryIndex.build(registry);
+        System.out.println(String.format("%-24s %8d people %8d ms", "Build ancestry index", registry.size(), (System.nanoTime() - start) / 1000000));
+
+        RelationshipQuery query = new RelationshipQuery(registry);
+        RelationshipQuery indexed = new RelationshipQuery(registry, ancestry);
+
+        // Half of the ancestry checks are of an ancestor, and half of someone who is likely not
+        Person[] ancestor = new Person[RUNS];
+        for(int i=0; i<RUNS; i++)
+        {
+            List<Person> ancestors = query.ancestors(a[i], Integer.MAX_VALUE);
+            ancestor[i] = ancestors.isEmpty()?old[i]:ancestors.get(random.nextInt(ancestors.size()));
+        }
+        for(int warm=0; warm<2; warm++)
+        {
+            boolean print = warm == 1;
+            long found = 0;
+
+            start = System.nanoTime();
+            for(int i=0; i<RUNS; i++)
+            {
+                found += query.ancestors(a[i], Integer.MAX_VALUE).size();
+            }
+            report(print, "Ancestors", start, found);
+
+            start = System.nanoTime();
+            found = 0;
+            for(int i=0; i<RUNS; i++)
+            {
+                found += query.descendants(old[i], 3).size();
+            }
+            report(print, "Descendants (3 gen.)", start, found);
+
+            start = System.nanoTime();
+            found = 0;
+            for(int i=0; i<RUNS; i++)
+            {
+                found += query.cousins(a[i], 2, 1).size();
+            }
+            report(print, "2nd cousins once removed", start, found);
+
+            start = System.nanoTime();
+            found = 0;
+            for(int i=0; i<RUNS; i++)
+            {
+                found += query.kinship(a[i], b[i]) == null?0:1;
+            }
+            report(print, "Kinship", start, found);
+
+            start = System.nanoTime();
+            found = 0;
+            for(int i=0; i<RUNS; i++)
+            {
+                found += indexed.kinship(old[i], a[i]) == null?0:1;
+            }
+            report(print, "Kinship (index)", start, found);
+
+            start = System.nanoTime();
+            found = 0;
+            for(int i=0; i<RUNS; i++)
+            {
+                found += query.isAncestor(ancestor[i], a[i])?1:0;
+                found += query.isAncestor(old[i], a[i])?1:0;
+            }
+            report(print, "Is ancestor", start, found);
+
+            start = System.nanoTime();
+            found = 0;
+            for(int i=0; i<RUNS; i++)
+            {
+                found += indexed.isAncestor(ancestor[i], a[i])?1:0;
+                found += indexed.isAncestor(old[i], a[i])?1:0;
+            }
+            report(print, "Is ancestor (index)", start, found);
+
+            start = System.nanoTime();
+            found = 0;
+            for(int i=0; i<RUNS; i++)
+            {
+                found += query.path(a[i], b[i]).size();
+            }
+            report(print, "Shortest path", start, found);
+        }
+
+        start = System.nanoTime();
+        long all = query.descendants(root).size();
+        System.out.println(String.format("%-24s %8d people %8d ms", "All descendants", all, (System.nanoTime() - start) / 1000000));
+
+        // Add children to people in the youngest generations one at a time, as the application does
+        start = System.nanoTime();
+        int added = 0;
+        for(int i=0; i<RUNS * 100; i++)
+        {
+            Person parent = registry.get(registry.size() - 1 - random.nextInt(registry.size() / 4));
+            Person child = new Person("Q" + i, "Tree", Gender.MALE, "", 1, "Main Street", "Suburb", 1000, RelationType.CHILD);
+            FamilyTreeMutations.addChild(parent, child);
+            registry.register(child);
+            ancestry.add(child);
+            added++;
+        }
+        System.out.println(String.format("%-24s %8d people %8d ms", "Add to ancestry index", added, (System.nanoTime() - start) / 1000000));
+    }
+
+    /**
+     * Build a family tree of couples with 2 or 3 children each, where every child has a spouse
+     *
+     * @param count number of people
+     * @param random source of random numbers
+     * @return root person
+     */
+    private static Person buildTree(int count, Random random)
+    {
+        int next = 0;
+        Person root = new Person("P" + next++, "Tree", Gender.MALE, "", 1, "Main Street", "Suburb", 1000, RelationType.ROOT);
+        ArrayDeque<Person> couples = new ArrayDeque<>();
+
+        FamilyTreeMutations.addSpouse(root, new Person("P" + next++, "Tree", Gender.FEMALE, "", 1, "Main Street", "Suburb", 1000, RelationType.SPOUSE));
+        couples.add(root);
+
+        while(!couples.isEmpty() && next < count)
+        {
+            Person parent = couples.remove();
+            int children = 2 + random.nextInt(2);
+            for(int i=0; i<children && next < count; i++)
+            {
+                Gender gender = random.nextBoolean()?Gender.MALE:Gender.FEMALE;
+                Person child = new Person("P" + next++, "Tree", gender, "", 1, "Main Street", "Suburb", 1000, RelationType.CHILD);
+                FamilyTreeMutations.addChild(parent, child);
+
+                if(next < count)
+                {
+                    Person spouse = new Person("P" + next++, "Tree", gender.opposite(), "", 1, "Main Street", "Suburb", 1000, RelationType.SPOUSE);
+                    FamilyTreeMutations.addSpouse(child, spouse);
+                    couples.add(child);
+                }
+            }
+        }
+        return root;
+    }
+
+    /**
+     * Print the average time taken by a query
+     *
+     * @param print false while warming up
+     * @param query name of query
+     * @param start time the queries started, from System.nanoTime
+     * @param found number of people found by all the queries
+     */
+    private static void report(boolean print, String query, long start, long found)
+    {
+        if(print)
+        {
+            System.out.println(String.format("%-24s avg %8.3f ms  %8d found", query, (System.nanoTime() - start) / 1e6 / RUNS, found));
+        }
+    }
+}
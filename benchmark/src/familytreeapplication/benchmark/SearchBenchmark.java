@@ -0,0 +1,145 @@
+/*
+ * Title: SearchBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: SearchBenchmark.java
+ * Purpose: The purpose of this program is to measure how long it takes to index the people of
+ *          a large family tree for search, and how long searches of different kinds take.
+ * Assumptions/Conditions: - The number of people can be passed as the first argument, and
+                             defaults to 1000000.
+                           - Names, addresses and life descriptions are made from random syllables
+                             and words, with a fixed seed so every run searches the same people.
+                           - People are registered without relatives, as search does not use them.
+                           - Every kind of search is run 1000 times with different words, and the
+                             average and slowest time are shown. Every search is run once before
+                             it is timed, so that the time does not include compiling the code.
+ */
+package familytreeapplication.benchmark;
+
+import familytreeapplication.Gender;
+import familytreeapplication.Person;
+import familytreeapplication.PersonRegistry;
+import familytreeapplication.PersonSearchIndex;
+import familytreeapplication.RelationType;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Benchmark of building a PersonSearchIndex and searching it.
+ *
+ * @author Zhiguang
+ */
+public class SearchBenchmark
+{
+    private static final String[] SYLLABLES = {"an", "ba", "chi", "da", "el", "fa", "gu", "ha", "in", "jo", "ka", "li", "ma", "na", "or", "pe", "qui", "ro", "sa", "ta", "un", "vi", "wa", "xi", "ya", "zo"};
+    private static final String[] WORDS = {"teacher", "farmer", "doctor", "engineer", "sailor", "baker", "nurse", "soldier", "writer", "painter", "born", "married", "moved", "retired", "lived", "village", "city", "coast", "river", "mountain"};
+    private static final String[] STREET_TYPES = {"Street", "Road", "Avenue", "Lane", "Drive"};
+
+    /**
+     * Main method to run the benchmark
+     *
+     * @param args number of people
+     * @throws IOException never, as building the index is not interrupted
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int count = args.length > 0?Integer.parseInt(args[0]):1000000;
+        Random random = new Random(42);
+
+        // Names are shared between people, as they would be in a real family tree
+        String[] firstNames = names(random, 2000, 2);
+        String[] surnames = names(random, 20000, 3);
+        String[] streets = new String[5000];
+        for(int i=0; i<streets.length; i++)
+        {
+            streets[i] = names(random, 1, 2)[0] + " " + STREET_TYPES[random.nextInt(STREET_TYPES.length)];
+        }
+        String[] suburbs = names(random, 500, 3);
+
+        long start = System.nanoTime();
+        PersonRegistry registry = new PersonRegistry();
+        for(int i=0; i<count; i++)
+        {
+            String desc = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+            registry.register(new Person(firstNames[random.nextInt(firstNames.length)], surnames[random.nextInt(surnames.length)], random.nextBoolean()?Gender.MALE:Gender.FEMALE,
+                    desc, 1 + random.nextInt(200), streets[random.nextInt(streets.length)], suburbs[random.nextInt(suburbs.length)], 1000 + random.nextInt(9000), i == 0?RelationType.ROOT:RelationType.CHILD));
+        }
+        report("Register", start, registry.size());
+
+        start = System.nanoTime();
+        PersonSearchIndex index = PersonSearchIndex.build(registry);
+        report("Build index", start, registry.size());
+
+        // Searches are made from the people in the tree, so every search finds someone
+        String[][] queries = new String[5][1000];
+        for(int i=0; i<1000; i++)
+        {
+            Person p = registry.get(random.nextInt(count));
+            queries[0][i] = p.getSurname() + " " + p.getName();
+            queries[1][i] = p.getSurname().substring(0, 3);
+            queries[2][i] = p.getName() + " " + p.getSuburb();
+            queries[3][i] = p.getStreetName();
+            queries[4][i] = p.getLifeDesc().split(" ")[0] + " " + p.getName().substring(0, 2);
+        }
+
+        String[] kinds = {"Full name", "Surname prefix", "Name and suburb", "Street", "Description and prefix"};
+        for(String[] kind:queries)
+        {
+            for(String query:kind)
+            {
+                index.search(query);
+            }
+        }
+
+        for(int k=0; k<kinds.length; k++)
+        {
+            long total = 0, slowest = 0, found = 0;
+            for(String query:queries[k])
+            {
+                long t = System.nanoTime();
+                found += index.search(query).size();
+                t = System.nanoTime() - t;
+
+                total += t;
+                slowest = Math.max(slowest, t);
+            }
+            System.out.println(String.format("%-24s avg %7.3f ms  max %7.3f ms  %6.1f found", kinds[k], total / 1e6 / 1000, slowest / 1e6, found / 1000.0));
+        }
+    }
+
+    /**
+     * Create random names made of syllables
+     *
+     * @param random source of random numbers
+     * @param count number of names
+     * @param syllables number of syllables in every name
+     * @return names, starting with a capital letter
+     */
+    private static String[] names(Random random, int count, int syllables)
+    {
+        String[] names = new String[count];
+        for(int i=0; i<count; i++)
+        {
+            StringBuilder name = new StringBuilder();
+            for(int s=0; s<syllables; s++)
+            {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            names[i] = name.toString();
+        }
+        return names;
+    }
+
+    /**
+     * Print the time taken by a step
+     *
+     * @param step name of step
+     * @param start time the step started, from System.nanoTime
+     * @param count number of people processed
+     */
+    private static void report(String step, long start, long count)
+    {
+        System.out.println(String.format("%-24s %8d people %8d ms", step, count, (System.nanoTime() - start) / 1000000));
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Title: TraversalBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: TraversalBenchmark.java
+ * Purpose: The purpose of this program is to show that the traversals in PersonTraversal,
+ *          and saving and loading with FamilyTreeFile, work on a family tree that is a
+ *          single chain of generations, using a small fixed stack.
+ * Assumptions/Conditions: - The number of generations can be passed as the first argument,
+                             and defaults to 1000000.
+                           - The stack size in KB can be passed as the second argument, and
+                             defaults to 256.
+                           - Every traversal runs on a thread with the given stack size, so a
+                             traversal that recursed once per generation would overflow it.
+ */
+package familytreeapplication.benchmark;
+
+import familytreeapplication.FamilyTreeFile;
+import familytreeapplication.Gender;
+import familytreeapplication.Person;
+import familytreeapplication.PersonRegistry;
+import familytreeapplication.PersonTraversal;
+import familytreeapplication.RelationType;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Benchmark of the traversals of a family tree that is a single chain of generations.
+ * <p>Every step runs on a thread with a small stack. A recursive walk of the same chain is
+ * run first to show that the stack is too small for recursion.
+ *
+ * @author Zhiguang
+ */
+public class TraversalBenchmark
+{
+    /**
+     * Main method to run the benchmark
+     *
+     * @param args number of generations, and stack size in KB
+     * @throws Exception if the benchmark thread fails
+     */
+    public static void main(String[] args) throws Exception
+    {
+        final int generations = args.length > 0?Integer.parseInt(args[0]):1000000;
+        final int stackKb = args.length > 1?Integer.parseInt(args[1]):256;
+
+        final Throwable[] failure = new Throwable[1];
+        Thread t = new Thread(null, () ->
+        {
+            try
+            {
+                run(generations);
+            }
+            catch(Throwable e)
+            {
+                failure[0] = e;
+            }
+        }, "traversal-benchmark", stackKb * 1024L);
+
+        System.out.println("Generations: " + generations + ", stack size: " + stackKb + " KB");
+        t.start();
+        t.join();
+
+        if(failure[0] != null)
+        {
+            throw new RuntimeException("Benchmark failed", failure[0]);
+        }
+    }
+
+    /**
+     * Run every step of the benchmark on the current thread
+     *
+     * @param generations number of generations in the chain
+     * @throws IOException if the temporary file cannot be saved or loaded
+     * @throws ClassNotFoundException never, as the file is saved in the current layout
+     */
+    private static void run(int generations) throws IOException, ClassNotFoundException
+    {
+        long start = System.nanoTime();
+        Person root = buildChain(generations);
+        Person last = root;
+        while(!last.getChildList().isEmpty())
+        {
+            last = last.getChildList().get(0);
+        }
+        report("Build chain", start, generations);
+
+        // Recursion is expected to overflow the stack for long chains
+        try
+        {
+            start = System.nanoTime();
+            int depth = recursiveDepth(root);
+            report("Recursive walk (depth " + depth + ")", start, generations);
+        }
+        catch(StackOverflowError e)
+        {
+            System.out.println(String.format("%-32s overflowed the stack", "Recursive walk"));
+        }
+
+        final long[] count = new long[1];
+
+        start = System.nanoTime();
+        PersonTraversal.preOrder(root, p -> count[0]++);
+        report("Pre-order", start, count[0]);
+
+        count[0] = 0;
+        start = System.nanoTime();
+        PersonTraversal.levelOrder(root, p -> count[0]++);
+        report("Level-order", start, count[0]);
+
+        count[0] = 0;
+        start = System.nanoTime();
+        PersonTraversal.ancestors(last, p -> count[0]++);
+        report("Ancestor walk", start, count[0]);
+
+        start = System.nanoTime();
+        int all = PersonTraversal.collectAll(root).size();
+        report("Collect all", start, all);
+
+        File file = File.createTempFile("traversal", ".dat");
+        file.deleteOnExit();
+
+        start = System.nanoTime();
+        FamilyTreeFile.save(root, file);
+        report("Save (" + file.length() / 1024 + " KB)", start, all);
+
+        // Opening only reads the root person, the rest is read while traversing
+        start = System.nanoTime();
+        Person loaded = FamilyTreeFile.load(file);
+        report("Open", start, 1);
+
+        start = System.nanoTime();
+        report("Read all", start, PersonTraversal.collectAll(loaded).size());
+
+        start = System.nanoTime();
+        PersonRegistry registry = PersonRegistry.build(loaded);
+        report("Index", start, registry.size());
+
+        start = System.nanoTime();
+        int found = 0;
+        for(int i=0; i<1000; i++)
+        {
+            found += registry.findByFullName(last.getFullName()).size();
+        }
+        report("Find by name (x1000)", start, found);
+
+        file.delete();
+    }
+
+    /**
+     * Build a family tree where every person has exactly one child
+     *
+     * @param generations number of people in the chain
+     * @return first person of the chain
+     */
+    private static Person buildChain(int generations)
+    {
+        Person root = new Person("Gen", "Chain", Gender.MALE, "", 1, "Main Street", "Suburb", 1000, RelationType.ROOT);
+        Person parent = root;
+
+        for(int i=1; i<generations; i++)
+        {
+            Person child = new Person("Gen" + i, "Chain", i % 2 == 0?Gender.MALE:Gender.FEMALE, "", 1, "Main Street", "Suburb", 1000, RelationType.CHILD);
+            child.getParentList().add(parent);
+            parent.getChildList().add(child);
+            parent = child;
+        }
+        return root;
+    }
+
+    /**
+     * Returns the number of generations below a person, by recursing once per generation
+     *
+     * @param p person to start from
+     * @return number of generations
+     */
+    private static int recursiveDepth(Person p)
+    {
+        int max = 0;
+        for(Person child:p.getChildList())
+        {
+            max = Math.max(max, recursiveDepth(child));
+        }
+        return max + 1;
+    }
+
+    /**
+     * Print the time taken by a step
+     *
+     * @param step name of step
+     * @param start time the step started, from System.nanoTime
+     * @param people number of people processed
+     */
+    private static void report(String step, long start, long people)
+    {
+        long ms = (System.nanoTime() - start) / 1000000;
+        System.out.println(String.format("%-32s %8d people %8d ms", step, people, ms));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Title: TreeCellBenchmark class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: TreeCellBenchmark.java
+ * Purpose: The purpose of this program is to measure the work done by the cells of the family
+ *          tree while flinging through a large number of rows, with and without labels kept
+ *          for every row.
+ * Assumptions/Conditions: - The number of rows can be passed as the first argument, and defaults
+                             to 100000.
+                           - A fling is shown as frames of 40 visible cells, each frame 10 rows
+                             further than the last, from the top of the tree to the bottom and
+                             back up again, 3 times. Every visible cell is updated in every frame,
+                             as the TreeView gives every cell a new row when it scrolls.
+                           - Only the work of updating a cell is measured: building its label,
+                             finding its generation and choosing its marks. Drawing the cells
+                             is done by JavaFX and is the same either way.
+                           - Memory allocated is measured for the thread running the benchmark.
+                           - Every fling is run once before it is timed, so that the time does not
+                             include compiling the code.
+ */
+package familytreeapplication.benchmark;
+
+import familytreeapplication.AncestryIndex;
+import familytreeapplication.Gender;
+import familytreeapplication.Person;
+import familytreeapplication.PersonLabel;
+import familytreeapplication.PersonRegistry;
+import familytreeapplication.RelationType;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Benchmark of the work done by the cells of the family tree when flinging through it.
+ *
+ * @author Zhiguang
+ */
+public class TreeCellBenchmark
+{
+    // Cells visible at once, rows scrolled between frames, and times down and up the tree
+    private static final int VISIBLE = 40;
+    private static final int STEP = 10;
+    private static final int PASSES = 3;
+
+    /**
+     * Main method to run the benchmark
+     *
+     * @param args number of rows
+     * @throws IOException never, as the tree is not read from a file
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int count = args.length > 0?Integer.parseInt(args[0]):100000;
+        Random random = new Random(42);
+
+        // Every row shows a person, as when every person of the tree is expanded
+        PersonRegistry registry = new PersonRegistry();
+        for(int i=0; i<count; i++)
+        {
+            registry.register(new Person("Name" + random.nextInt(2000), "Surname" + random.nextInt(20000), random.nextBoolean()?Gender.MALE:Gender.FEMALE,
+                    "", 1, "Main Street", "Suburb", 1000, i == 0?RelationType.ROOT:RelationType.CHILD));
+        }
+        AncestryIndex ancestry = AncestryIndex.build(registry);
+
+        // Labels kept for every row, as every TreeItem keeps one
+        PersonLabel[] labels = new PersonLabel[count];
+        for(int i=0; i<count; i++)
+        {
+            labels[i] = new PersonLabel();
+        }
+
+        for(int warm=0; warm<2; warm++)
+        {
+            boolean print = warm == 1;
+            fling(print, "Full name every update", registry, ancestry, null);
+            fling(print, "Label kept per row", registry, ancestry, labels);
+        }
+    }
+
+    /**
+     * Fling down and up the tree, updating every visible cell in every frame
+     *
+     * @param print false while warming up
+     * @param name name of fling
+     * @param registry people shown on the rows, in order
+     * @param ancestry generations of people
+     * @param labels label kept for every row; null to build the full name on every update
+     */
+    private static void fling(boolean print, String name, PersonRegistry registry, AncestryIndex ancestry, PersonLabel[] labels)
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        int frames = 0;
+        long sink = 0;
+        long bytes = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+
+        int last = registry.size() - VISIBLE;
+        for(int pass=0; pass<PASSES * 2; pass++)
+        {
+            for(int step=0; step<=last; step+=STEP)
+            {
+                int top = pass % 2 == 0?step:last - step;
+                for(int row=top; row<top+VISIBLE; row++)
+                {
+                    Person p = registry.get(row);
+
+                    // What a cell does to show a person
+                    String text = labels == null?p.getFullName():labels[row].get(p);
+                    int generation = ancestry.contains(p)?ancestry.getGeneration(p):0;
+                    int mark = p.getGender() == Gender.FEMALE?1:0;
+                    sink += text.length() + generation + mark + p.getType().ordinal();
+                }
+                frames++;
+            }
+        }
+
+        long time = System.nanoTime() - start;
+        bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+        // The sum is printed so that the work of the cells is not optimised away
+        if(print)
+        {
+            System.out.println(String.format("%-24s %7d frames  avg %7.2f us/frame  %6d bytes/frame  (%d)",
+                    name, frames, time / 1e3 / frames, bytes / frames, sink % 10));
+        }
+    }
+}
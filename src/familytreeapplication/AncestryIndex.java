@@ -0,0 +1,697 @@
+/*
+ * Title: AncestryIndex class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: AncestryIndex.java
+ * Purpose: The purpose of this class is to keep the generation of every person in a family tree,
+ *          and a label for every person that tells whether one person is an ancestor of another
+ *          without walking up the tree.
+ * Assumptions/Conditions: - Every person indexed is registered in the PersonRegistry, and people
+                             are indexed in order of id.
+                           - The root person is generation 0. Parents are one generation above
+                             their children, and spouses are in the same generation.
+                           - A person is indexed after the person is registered and added to the
+                             tree, so that the relatives of the person are known.
+                           - The primary parent of every person is the first parent that has
+                             parents, or the first parent if neither has. People with the same
+                             primary parent are labelled inside the label of that parent, as in
+                             an Euler tour of the tree of primary parents.
+                           - Labels are spread out so that people added later can be labelled
+                             between them. When there is no room left, every person is labelled
+                             again, which takes time in proportion to the size of the tree.
+ */
+package familytreeapplication;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Generation and ancestry of every person in a family tree, by id.
+ * <p>Every person is given an interval of labels, which holds the labels of every person
+ * descended from them through primary parents. A parent who is not the primary parent of a
+ * child, such as a spouse who married into the tree, also keeps the intervals of those children.
+ * Asking whether one person is an ancestor of another is then a check of whether the label of
+ * one falls in the intervals of the other, which takes constant time however deep the tree is.
+ *
+ * @author Zhiguang
+ */
+public final class AncestryIndex
+{
+    // Labels are kept below this, so that adding to a label never overflows
+    private static final long LIMIT = 1L << 62;
+
+    private final PersonRegistry registry;
+    private int size;
+
+    // Generation, primary parent and last child labelled under each person, indexed by id
+    private int[] generation, primary, lastChild;
+
+    // Interval of labels of each person, which holds the labels of the person's descendants
+    private long[] enter, exit;
+
+    // Other intervals of descendants of each person as pairs of start and end; null if none
+    private long[][] extra;
+
+    // Largest label given so far, and room left inside a person labelled again for new children
+    private long end, gap;
+
+    /**
+     * Constructor which creates an empty index over the people of a registry
+     *
+     * @param r registry of family tree
+     */
+    public AncestryIndex(PersonRegistry r)
+    {
+        registry = r;
+        generation = new int[16];
+        primary = new int[16];
+        lastChild = new int[16];
+        enter = new long[16];
+        exit = new long[16];
+        extra = new long[16][];
+        gap = LIMIT / 64;
+    }
+
+    /**
+     * Index every person in a registry
+     *
+     * @param registry registry of family tree
+     * @return index of registry
+     */
+    public static AncestryIndex build(PersonRegistry registry)
+    {
+        try
+        {
+            return build(registry, null);
+        }
+        catch(IOException e)
+        {
+            // Only thrown when interrupted, which is not possible without a task
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Index every person in a registry, reporting progress
+     *
+     * @param registry registry of family tree
+     * @param progress receives progress; null if not needed
+     * @return index of registry
+     * @throws IOException if the thread is interrupted
+     */
+    public static AncestryIndex build(PersonRegistry registry, FamilyTreeFile.Progress progress) throws IOException
+    {
+        AncestryIndex index = new AncestryIndex(registry);
+        int n = registry.size();
+        index.grow(n);
+        index.size = n;
+
+        for(int id=0; id<n; id++)
+        {
+            index.primary[id] = index.firstParent(registry.get(id));
+            PersonRegistry.report(progress, id + 1, n);
+        }
+
+        index.generations();
+        index.relabel();
+        return index;
+    }
+
+    /**
+     * Index a person who has just been registered and added to the tree.
+     * <p>Relatives of the person that are already indexed are updated, so the person can be
+     * the child, parent or spouse of someone in the tree.
+     *
+     * @param p person to index
+     */
+    public void add(Person p)
+    {
+        int id = registry.getId(p);
+        if(id < 0)
+        {
+            throw new IllegalArgumentException("Person is not registered: " + p.getFullName());
+        }
+
+        // People registered before the person are indexed first, so ids stay in order
+        while(size <= id)
+        {
+            index(size);
+        }
+    }
+
+    /**
+     * Returns whether a person is indexed
+     *
+     * @param p person
+     * @return true if person is indexed; false otherwise
+     */
+    public boolean contains(Person p)
+    {
+        int id = registry.getId(p);
+        return id >= 0 && id < size;
+    }
+
+    /**
+     * Returns the generation of a person
+     *
+     * @param p person
+     * @return generations below the root person; negative for generations above
+     */
+    public int getGeneration(Person p)
+    {
+        return generation[id(p)];
+    }
+
+    /**
+     * Returns the number of generations from one person down to another
+     *
+     * @param a person
+     * @param b other person
+     * @return generations from a down to b; negative if b is in an older generation
+     */
+    public int generationGap(Person a, Person b)
+    {
+        return generation[id(b)] - generation[id(a)];
+    }
+
+    /**
+     * Returns whether a person is an ancestor of another
+     *
+     * @param a person
+     * @param b other person
+     * @return true if a is a parent, grandparent or older ancestor of b; false otherwise
+     */
+    public boolean isAncestor(Person a, Person b)
+    {
+        int idA = id(a), idB = id(b);
+        if(idA == idB)
+        {
+            return false;
+        }
+
+        long label = enter[idB];
+        if(enter[idA] < label && label <= exit[idA])
+        {
+            return true;
+        }
+
+        long[] intervals = extra[idA];
+        if(intervals != null)
+        {
+            for(int i=0; i<intervals.length; i+=2)
+            {
+                if(intervals[i] <= label && label <= intervals[i + 1])
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Index the person with the next id
+     *
+     * @param id id of person, which is the number of people indexed
+     */
+    private void index(int id)
+    {
+        Person p = registry.get(id);
+        grow(id + 1);
+        size = id + 1;
+
+        primary[id] = firstParent(p);
+        lastChild[id] = -1;
+        extra[id] = null;
+
+        // Generation is found from the nearest relative already indexed
+        if(primary[id] >= 0)
+        {
+            generation[id] = generation[primary[id]] + 1;
+        }
+        else if(firstIndexed(p.getChildList()) >= 0)
+        {
+            generation[id] = generation[firstIndexed(p.getChildList())] - 1;
+        }
+        else if(!p.noSpouse() && indexed(p.getSpouse()) >= 0)
+        {
+            generation[id] = generation[indexed(p.getSpouse())];
+        }
+        else
+        {
+            generation[id] = 0;
+        }
+
+        // A child without a primary parent, such as the root person, is given this person as
+        // primary parent, which needs the children to be labelled again inside this person
+        boolean adopt = false;
+        for(Person child:p.getChildList())
+        {
+            int c = indexed(child);
+            if(c >= 0 && primary[c] < 0)
+            {
+                primary[c] = id;
+                adopt = true;
+            }
+        }
+        if(adopt || !place(id))
+        {
+            relabel();
+            return;
+        }
+
+        // The person is a further parent of children whose primary parent is someone else
+        for(Person child:p.getChildList())
+        {
+            int c = indexed(child);
+            if(c >= 0 && primary[c] != id)
+            {
+                cover(id, enter[c], exit[c]);
+                if(extra[c] != null)
+                {
+                    long[] intervals = extra[c].clone();
+                    for(int i=0; i<intervals.length; i+=2)
+                    {
+                        cover(id, intervals[i], intervals[i + 1]);
+                    }
+                }
+            }
+        }
+
+        // The person is a descendant of parents other than the primary parent as well
+        for(Person parent:p.getParentList())
+        {
+            int q = indexed(parent);
+            if(q >= 0 && q != primary[id])
+            {
+                cover(q, enter[id], exit[id]);
+            }
+        }
+    }
+
+    /**
+     * Label a person who has just been indexed, after the last child of the primary parent, or
+     * after every other person if there is no primary parent
+     *
+     * @param id id of person
+     * @return true if the person is labelled; false if there is no room left
+     */
+    private boolean place(int id)
+    {
+        int parent = primary[id];
+        if(parent < 0)
+        {
+            if(end + 2 + gap >= LIMIT)
+            {
+                return false;
+            }
+            enter[id] = end + 1;
+            exit[id] = end + 1 + gap;
+            end = exit[id];
+            return true;
+        }
+
+        // Half of the room left in the parent is given to the child, so more children can follow
+        long lo = lastChild[parent] >= 0?exit[lastChild[parent]]:enter[parent];
+        long hi = exit[parent];
+        if(hi - lo < 3)
+        {
+            return false;
+        }
+        enter[id] = lo + 1;
+        exit[id] = lo + 1 + (hi - lo - 1) / 2;
+        lastChild[parent] = id;
+        return true;
+    }
+
+    /**
+     * Label every person again, spread out evenly, and work out again the other intervals
+     * of every person
+     */
+    private void relabel()
+    {
+        // Room inside every person for children added later, with room for as many people
+        // again to be added
+        gap = Math.max(2, LIMIT / (2L * size + 2) - 2);
+        Arrays.fill(enter, 0, size, -1);
+        Arrays.fill(lastChild, 0, size, -1);
+
+        long next = 1;
+        int[] stack = new int[size];
+        int[] position = new int[size];
+
+        for(int root=0; root<size; root++)
+        {
+            if(primary[root] >= 0 || enter[root] >= 0)
+            {
+                continue;
+            }
+
+            int top = 0;
+            stack[0] = root;
+            position[root] = 0;
+            enter[root] = next++;
+
+            // Label a person when first reached, and close the interval when every child is done
+            while(top >= 0)
+            {
+                int id = stack[top];
+                List<Person> children = registry.get(id).getChildList();
+                int c = -1;
+
+                while(position[id] < children.size() && c < 0)
+                {
+                    int child = indexed(children.get(position[id]++));
+                    if(child >= 0 && primary[child] == id && enter[child] < 0)
+                    {
+                        c = child;
+                    }
+                }
+
+                if(c >= 0)
+                {
+                    lastChild[id] = c;
+                    position[c] = 0;
+                    enter[c] = next++;
+                    stack[++top] = c;
+                }
+                else
+                {
+                    exit[id] = next + gap;
+                    next = exit[id] + 1;
+                    top--;
+                }
+            }
+        }
+        end = next - 1;
+
+        Arrays.fill(extra, 0, size, null);
+        for(int id=0; id<size; id++)
+        {
+            for(Person parent:registry.get(id).getParentList())
+            {
+                int q = indexed(parent);
+                if(q >= 0 && q != primary[id])
+                {
+                    cover(q, enter[id], exit[id]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Give a person and every ancestor of the person an interval of descendants, unless they
+     * already have it
+     *
+     * @param id id of person
+     * @param lo first label of interval
+     * @param hi last label of interval
+     */
+    private void cover(int id, long lo, long hi)
+    {
+        ArrayDeque<Integer> people = new ArrayDeque<>();
+        people.add(id);
+
+        while(!people.isEmpty())
+        {
+            int q = people.remove();
+
+            // Ancestors of a person that already has the interval have it as well
+            if(covers(q, lo, hi))
+            {
+                continue;
+            }
+            extra[q] = merge(extra[q], lo, hi);
+
+            for(Person parent:registry.get(q).getParentList())
+            {
+                int r = indexed(parent);
+                if(r >= 0)
+                {
+                    people.add(r);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the intervals of a person hold an interval
+     *
+     * @param id id of person
+     * @param lo first label of interval
+     * @param hi last label of interval
+     * @return true if the interval is held; false otherwise
+     */
+    private boolean covers(int id, long lo, long hi)
+    {
+        if(enter[id] < lo && hi <= exit[id])
+        {
+            return true;
+        }
+
+        long[] intervals = extra[id];
+        if(intervals != null)
+        {
+            for(int i=0; i<intervals.length; i+=2)
+            {
+                if(intervals[i] <= lo && hi <= intervals[i + 1])
+                {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add an interval to a sorted list of intervals, joining intervals that touch.
+     * <p>Intervals of people are either inside one another or apart, and the intervals of
+     * children that follow one another touch, so the children of a spouse take one interval.
+     *
+     * @param intervals pairs of start and end, in order; null if none
+     * @param lo first label of interval
+     * @param hi last label of interval
+     * @return new pairs of start and end, in order
+     */
+    private static long[] merge(long[] intervals, long lo, long hi)
+    {
+        if(intervals == null)
+        {
+            return new long[]{lo, hi};
+        }
+
+        long[] merged = new long[intervals.length + 2];
+        int n = 0;
+        boolean added = false;
+
+        for(int i=0; i<intervals.length; i+=2)
+        {
+            long start = intervals[i], finish = intervals[i + 1];
+
+            // Intervals inside the new interval are replaced by it
+            if(lo <= start && finish <= hi)
+            {
+                continue;
+            }
+            if(!added && hi < start)
+            {
+                n = append(merged, n, lo, hi);
+                added = true;
+            }
+            n = append(merged, n, start, finish);
+        }
+        if(!added)
+        {
+            n = append(merged, n, lo, hi);
+        }
+        return Arrays.copyOf(merged, n);
+    }
+
+    /**
+     * Append an interval to a sorted list of intervals, joining it to the last interval if
+     * they touch
+     *
+     * @param intervals pairs of start and end
+     * @param n number of labels used in intervals
+     * @param lo first label of interval
+     * @param hi last label of interval
+     * @return new number of labels used
+     */
+    private static int append(long[] intervals, int n, long lo, long hi)
+    {
+        if(n > 0 && intervals[n - 1] + 1 >= lo)
+        {
+            intervals[n - 1] = Math.max(intervals[n - 1], hi);
+            return n;
+        }
+        intervals[n] = lo;
+        intervals[n + 1] = hi;
+        return n + 2;
+    }
+
+    /**
+     * Work out the generation of every person, walking from the root person to parents,
+     * children and spouses
+     */
+    private void generations()
+    {
+        if(size == 0)
+        {
+            return;
+        }
+
+        BitSet seen = new BitSet(size);
+        int[] queue = new int[size];
+        int head = 0, tail = 0;
+
+        for(int start=0; start<size; start++)
+        {
+            // People not connected to the root person start a generation 0 of their own
+            if(seen.get(start))
+            {
+                continue;
+            }
+            seen.set(start);
+            generation[start] = 0;
+            queue[tail++] = start;
+
+            while(head < tail)
+            {
+                int id = queue[head++];
+                Person p = registry.get(id);
+
+                for(Person parent:p.getParentList())
+                {
+                    tail = reach(parent, generation[id] - 1, seen, queue, tail);
+                }
+                for(Person child:p.getChildList())
+                {
+                    tail = reach(child, generation[id] + 1, seen, queue, tail);
+                }
+                if(!p.noSpouse())
+                {
+                    tail = reach(p.getSpouse(), generation[id], seen, queue, tail);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reach a relative when working out generations
+     *
+     * @param relative relative reached
+     * @param g generation of relative
+     * @param seen people reached
+     * @param queue people to walk from
+     * @param tail number of people added to queue
+     * @return new number of people added to queue
+     */
+    private int reach(Person relative, int g, BitSet seen, int[] queue, int tail)
+    {
+        int r = indexed(relative);
+        if(r < 0 || seen.get(r))
+        {
+            return tail;
+        }
+        seen.set(r);
+        generation[r] = g;
+        queue[tail] = r;
+        return tail + 1;
+    }
+
+    /**
+     * Returns the id of the primary parent of a person, which is the first parent that is
+     * indexed and has parents, or else the first parent that is indexed.
+     * <p>A spouse who married into the tree is only the primary parent if the other parent has
+     * no parents either, so the descendants of a couple are labelled inside the parent that is
+     * descended from the root person, and the spouse keeps a single other interval.
+     *
+     * @param p person
+     * @return id of parent; -1 if none
+     */
+    private int firstParent(Person p)
+    {
+        int first = -1;
+        for(Person parent:p.getParentList())
+        {
+            int q = indexed(parent);
+            if(q >= 0 && first < 0)
+            {
+                first = q;
+            }
+            if(q >= 0 && firstIndexed(parent.getParentList()) >= 0)
+            {
+                return q;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Returns the id of the first person in a list that is indexed
+     *
+     * @param people list of people
+     * @return id of person; -1 if none
+     */
+    private int firstIndexed(List<Person> people)
+    {
+        for(Person p:people)
+        {
+            int id = indexed(p);
+            if(id >= 0)
+            {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the id of a person if the person is indexed
+     *
+     * @param p person
+     * @return id of person; -1 if not indexed
+     */
+    private int indexed(Person p)
+    {
+        int id = registry.getId(p);
+        return id < size?id:-1;
+    }
+
+    /**
+     * Returns the id of an indexed person
+     *
+     * @param p person
+     * @return id of person
+     */
+    private int id(Person p)
+    {
+        int id = indexed(p);
+        if(id < 0)
+        {
+            throw new IllegalArgumentException("Person is not indexed: " + p.getFullName());
+        }
+        return id;
+    }
+
+    /**
+     * Make room for a number of people
+     *
+     * @param capacity number of people
+     */
+    private void grow(int capacity)
+    {
+        if(capacity <= enter.length)
+        {
+            return;
+        }
+
+        int length = Math.max(capacity, enter.length * 2);
+        generation = Arrays.copyOf(generation, length);
+        primary = Arrays.copyOf(primary, length);
+        lastChild = Arrays.copyOf(lastChild, length);
+        enter = Arrays.copyOf(enter, length);
+        exit = Arrays.copyOf(exit, length);
+        extra = Arrays.copyOf(extra, length);
+    }
+}
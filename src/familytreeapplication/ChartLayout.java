@@ -0,0 +1,555 @@
+/*
+ * Title: ChartLayout class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: ChartLayout.java
+ * Purpose: The purpose of this class is to work out where every person of a family tree is
+ *          drawn on the family chart, and to find the people inside a part of the chart without
+ *          looking at every person.
+ * Assumptions/Conditions: - The chart shows the root person and the descendants of the root
+                             person, with every spouse beside the person they married. The parents
+                             of the root person are shown in a row above the root person.
+                           - Children are drawn in a row below their parents, in the order they
+                             were added, and parents are centred above their children.
+                           - Every person is drawn as a box of the same size.
+                           - The layout of every person is worked out once. When a child or spouse
+                             is added, only the people on the way up to the root person are laid
+                             out again, and only while the width they take changes.
+                           - Positions are kept relative to the parents, so moving a family moves
+                             every descendant without changing them.
+ */
+package familytreeapplication;
+
+import java.util.*;
+
+/**
+ * Layout of a family tree as a chart of families, one generation to a row.
+ * <p>A family is a descendant of the root person and their spouse, drawn side by side. Every
+ * family takes a width wide enough for the family and for the families of their children, which
+ * are placed next to one another below them. As families never share width, a part of the chart
+ * is found by starting at the root person and only going down into families whose width is in
+ * that part of the chart.
+ *
+ * @author Zhiguang
+ */
+public final class ChartLayout
+{
+    /**
+     * Width of the box of a person
+     */
+    public static final double PERSON_WIDTH = 130;
+
+    /**
+     * Height of the box of a person
+     */
+    public static final double PERSON_HEIGHT = 36;
+
+    /**
+     * Space between a person and their spouse
+     */
+    public static final double SPOUSE_GAP = 10;
+
+    /**
+     * Space between the families of children
+     */
+    public static final double FAMILY_GAP = 20;
+
+    /**
+     * Height of each generation, including the space between generations
+     */
+    public static final double ROW_HEIGHT = 90;
+
+    private final Person root;
+
+    // Family of every person shown, including spouses
+    private final Map<Person, Integer> families;
+    private int size;
+
+    // Person descended from root person of each family, indexed by family
+    private Person[] people;
+
+    // Parent family, generation and children families of each family
+    private int[] parent, depth, childCount;
+    private int[][] children;
+    private int maxDepth;
+
+    // Width of each family box, width of each family and its descendants, and the left of that
+    // width from the left of the width of the parent family
+    private double[] own, width, offset;
+
+    /**
+     * Receives the people and lines in a part of the chart
+     */
+    public interface Painter
+    {
+        /**
+         * Draw the box of a person
+         *
+         * @param p person
+         * @param x left of box
+         * @param y top of box
+         */
+        void person(Person p, double x, double y);
+
+        /**
+         * Draw a line between people
+         *
+         * @param x1 x of start
+         * @param y1 y of start
+         * @param x2 x of end
+         * @param y2 y of end
+         */
+        void line(double x1, double y1, double x2, double y2);
+    }
+
+    /**
+     * Constructor which lays out the family tree of a root person
+     *
+     * @param r root person
+     */
+    public ChartLayout(Person r)
+    {
+        root = r;
+        families = new IdentityHashMap<>();
+        people = new Person[16];
+        parent = new int[16];
+        depth = new int[16];
+        childCount = new int[16];
+        children = new int[16][];
+        own = new double[16];
+        width = new double[16];
+        offset = new double[16];
+
+        // Families are created a generation at a time, so children come after their parents
+        addFamily(r, -1);
+        for(int f=0; f<size; f++)
+        {
+            for(Person child:people[f].getChildList())
+            {
+                if(!families.containsKey(child))
+                {
+                    addFamily(child, f);
+                }
+            }
+        }
+
+        // Children are laid out before their parents
+        for(int f=size-1; f>=0; f--)
+        {
+            arrange(f);
+        }
+    }
+
+    /**
+     * Update the layout after a relative is added to a person.
+     * <p>Only children and spouses of people on the chart change the layout. Parents of the root
+     * person, and their spouses, are drawn from the root person when the chart is painted.
+     *
+     * @param target person the relative is added to
+     * @param relative relative added
+     * @param type type of relative
+     */
+    public void add(Person target, Person relative, RelationType type)
+    {
+        Integer f = families.get(target);
+        if(f == null || families.containsKey(relative))
+        {
+            return;
+        }
+
+        if(type == RelationType.CHILD)
+        {
+            int child = addFamily(relative, f);
+            arrange(child);
+        }
+        else if(type == RelationType.SPOUSE && people[f] == target)
+        {
+            families.put(relative, f);
+            own[f] = familyWidth(target);
+        }
+        else
+        {
+            return;
+        }
+
+        // Lay out the families above, until a family keeps the same width
+        for(int g=f; g>=0; g=parent[g])
+        {
+            double before = width[g];
+            arrange(g);
+            if(width[g] == before)
+            {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of people on the chart, not counting parents of the root person
+     *
+     * @return number of people
+     */
+    public int getPeopleCount()
+    {
+        return families.size();
+    }
+
+    /**
+     * Returns the width of the chart
+     *
+     * @return width
+     */
+    public double getWidth()
+    {
+        return size == 0?0:width[0];
+    }
+
+    /**
+     * Returns the height of the chart
+     *
+     * @return height, including the row of the parents of the root person
+     */
+    public double getHeight()
+    {
+        return (maxDepth + 2) * ROW_HEIGHT;
+    }
+
+    /**
+     * Returns where the box of a person is drawn
+     *
+     * @param p person
+     * @return left and top of box; null if the person is not on the chart
+     */
+    public double[] locate(Person p)
+    {
+        Integer f = families.get(p);
+        if(f == null)
+        {
+            int index = root.getParentList().indexOf(p);
+            if(index < 0)
+            {
+                return null;
+            }
+            return new double[]{parentsLeft() + index * (PERSON_WIDTH + SPOUSE_GAP), 0};
+        }
+
+        // Left of the family is the sum of the offsets of the families above
+        double left = 0;
+        for(int g=f; g>0; g=parent[g])
+        {
+            left += offset[g];
+        }
+        double x = left + (width[f] - own[f]) / 2;
+        if(people[f] != p)
+        {
+            x += PERSON_WIDTH + SPOUSE_GAP;
+        }
+        return new double[]{x, top(depth[f])};
+    }
+
+    /**
+     * Returns the person whose box is at a point of the chart
+     *
+     * @param x x of point
+     * @param y y of point
+     * @return person; null if there is no one at the point
+     */
+    public Person find(double x, double y)
+    {
+        final Person[] found = new Person[1];
+        paint(x, y, x, y, new Painter()
+        {
+            @Override
+            public void person(Person p, double px, double py)
+            {
+                if(px <= x && x <= px + PERSON_WIDTH && py <= y && y <= py + PERSON_HEIGHT)
+                {
+                    found[0] = p;
+                }
+            }
+
+            @Override
+            public void line(double x1, double y1, double x2, double y2)
+            {
+            }
+        });
+        return found[0];
+    }
+
+    /**
+     * Paint the people and lines in a part of the chart.
+     * <p>Only families whose width is in the part are gone down into, and only as far down as
+     * the part goes, so the time taken depends on the number of people in the part rather
+     * than the size of the chart.
+     *
+     * @param x0 left of part
+     * @param y0 top of part
+     * @param x1 right of part
+     * @param y1 bottom of part
+     * @param painter receives people and lines in part
+     * @return number of people painted
+     */
+    public int paint(double x0, double y0, double x1, double y1, Painter painter)
+    {
+        if(size == 0)
+        {
+            return 0;
+        }
+
+        int painted = paintParents(x0, y0, x1, y1, painter);
+
+        // Families to paint, with the left of their width
+        int[] stack = new int[16];
+        double[] lefts = new double[16];
+        int top = 0;
+        stack[0] = 0;
+        lefts[0] = 0;
+
+        while(top >= 0)
+        {
+            int f = stack[top];
+            double left = lefts[top--];
+            double x = left + (width[f] - own[f]) / 2;
+            double y = top(depth[f]);
+
+            if(y <= y1 && y + PERSON_HEIGHT >= y0 && x <= x1 && x + own[f] >= x0)
+            {
+                painted += paintFamily(f, x, y, x0, x1, painter);
+            }
+
+            // Children are in the next row, so nothing below is in the part if that row is not
+            int count = childCount[f];
+            double childTop = top(depth[f] + 1);
+            if(count == 0 || childTop > y1)
+            {
+                continue;
+            }
+
+            // Lines from the family down to a line above the children, and down to every child
+            double bus = childTop - (ROW_HEIGHT - PERSON_HEIGHT) / 2;
+            double centre = x + own[f] / 2;
+            int[] kids = children[f];
+            painter.line(centre, y + PERSON_HEIGHT, centre, bus);
+            painter.line(left + offset[kids[0]] + width[kids[0]] / 2, bus, left + offset[kids[count - 1]] + width[kids[count - 1]] / 2, bus);
+
+            // Children are in order from left to right, so the first child in the part is found
+            // by binary search
+            int lo = 0, hi = count;
+            while(lo < hi)
+            {
+                int mid = (lo + hi) >>> 1;
+                if(left + offset[kids[mid]] + width[kids[mid]] < x0)
+                {
+                    lo = mid + 1;
+                }
+                else
+                {
+                    hi = mid;
+                }
+            }
+
+            for(int i=lo; i<count && left + offset[kids[i]] <= x1; i++)
+            {
+                int c = kids[i];
+                double childLeft = left + offset[c];
+                double childCentre = childLeft + width[c] / 2;
+                painter.line(childCentre, bus, childCentre, childTop);
+
+                if(++top == stack.length)
+                {
+                    stack = Arrays.copyOf(stack, top * 2);
+                    lefts = Arrays.copyOf(lefts, top * 2);
+                }
+                stack[top] = c;
+                lefts[top] = childLeft;
+            }
+        }
+        return painted;
+    }
+
+    /**
+     * Paint the person and spouse of a family that are in a part of the chart
+     *
+     * @param f family
+     * @param x left of family box
+     * @param y top of family box
+     * @param x0 left of part
+     * @param x1 right of part
+     * @param painter receives people and lines
+     * @return number of people painted
+     */
+    private int paintFamily(int f, double x, double y, double x0, double x1, Painter painter)
+    {
+        int painted = 0;
+        Person p = people[f];
+        if(x + PERSON_WIDTH >= x0)
+        {
+            painter.person(p, x, y);
+            painted++;
+        }
+        if(own[f] == PERSON_WIDTH)
+        {
+            return painted;
+        }
+
+        double spouseX = x + PERSON_WIDTH + SPOUSE_GAP;
+        painter.line(x + PERSON_WIDTH, y + PERSON_HEIGHT / 2, spouseX, y + PERSON_HEIGHT / 2);
+        if(spouseX <= x1)
+        {
+            painter.person(p.getSpouse(), spouseX, y);
+            painted++;
+        }
+        return painted;
+    }
+
+    /**
+     * Paint the parents of the root person, centred above the root person
+     *
+     * @param x0 left of part
+     * @param y0 top of part
+     * @param x1 right of part
+     * @param y1 bottom of part
+     * @param painter receives people and lines
+     * @return number of people painted
+     */
+    private int paintParents(double x0, double y0, double x1, double y1, Painter painter)
+    {
+        List<Person> parents = root.getParentList();
+        if(parents.isEmpty() || y0 > PERSON_HEIGHT + ROW_HEIGHT)
+        {
+            return 0;
+        }
+
+        double left = parentsLeft();
+        double right = left + parents.size() * PERSON_WIDTH + (parents.size() - 1) * SPOUSE_GAP;
+        double centre = (left + right) / 2;
+        painter.line(centre, PERSON_HEIGHT, centre, ROW_HEIGHT);
+        if(parents.size() > 1)
+        {
+            painter.line(left + PERSON_WIDTH, PERSON_HEIGHT / 2, left + PERSON_WIDTH + SPOUSE_GAP, PERSON_HEIGHT / 2);
+        }
+
+        int painted = 0;
+        for(int i=0; i<parents.size(); i++)
+        {
+            double x = left + i * (PERSON_WIDTH + SPOUSE_GAP);
+            if(y0 <= PERSON_HEIGHT && x <= x1 && x + PERSON_WIDTH >= x0)
+            {
+                painter.person(parents.get(i), x, 0);
+                painted++;
+            }
+        }
+        return painted;
+    }
+
+    /**
+     * Returns the left of the parents of the root person, who are centred above the root person
+     *
+     * @return left of first parent
+     */
+    private double parentsLeft()
+    {
+        int count = root.getParentList().size();
+        double parentsWidth = count * PERSON_WIDTH + (count - 1) * SPOUSE_GAP;
+        return (width[0] - own[0]) / 2 + (own[0] - parentsWidth) / 2;
+    }
+
+    /**
+     * Returns the top of the boxes of a generation
+     *
+     * @param generation generations below root person
+     * @return top of row
+     */
+    private static double top(int generation)
+    {
+        // Row 0 is kept for the parents of the root person
+        return (generation + 1) * ROW_HEIGHT;
+    }
+
+    /**
+     * Work out the width of a family and its descendants from the widths of its children, and
+     * place the children next to one another, centred below the family
+     *
+     * @param f family
+     */
+    private void arrange(int f)
+    {
+        int count = childCount[f];
+        double total = 0;
+        for(int i=0; i<count; i++)
+        {
+            total += width[children[f][i]];
+        }
+        total += Math.max(0, count - 1) * FAMILY_GAP;
+
+        width[f] = Math.max(own[f], total);
+        double left = (width[f] - total) / 2;
+        for(int i=0; i<count; i++)
+        {
+            int c = children[f][i];
+            offset[c] = left;
+            left += width[c] + FAMILY_GAP;
+        }
+    }
+
+    /**
+     * Returns the width of the box of a family
+     *
+     * @param p person descended from root person
+     * @return width of person, and spouse if any
+     */
+    private static double familyWidth(Person p)
+    {
+        return p.noSpouse()?PERSON_WIDTH:2 * PERSON_WIDTH + SPOUSE_GAP;
+    }
+
+    /**
+     * Add a family for a descendant of the root person, as the last child of a family
+     *
+     * @param p descendant of root person, or root person
+     * @param parentFamily family of parents; -1 for the root person
+     * @return new family
+     */
+    private int addFamily(Person p, int parentFamily)
+    {
+        if(size == people.length)
+        {
+            int capacity = size * 2;
+            people = Arrays.copyOf(people, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            depth = Arrays.copyOf(depth, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            children = Arrays.copyOf(children, capacity);
+            own = Arrays.copyOf(own, capacity);
+            width = Arrays.copyOf(width, capacity);
+            offset = Arrays.copyOf(offset, capacity);
+        }
+
+        int f = size++;
+        people[f] = p;
+        parent[f] = parentFamily;
+        depth[f] = parentFamily < 0?0:depth[parentFamily] + 1;
+        maxDepth = Math.max(maxDepth, depth[f]);
+        own[f] = familyWidth(p);
+        width[f] = own[f];
+        families.put(p, f);
+        if(!p.noSpouse())
+        {
+            families.put(p.getSpouse(), f);
+        }
+
+        if(parentFamily >= 0)
+        {
+            int[] kids = children[parentFamily];
+            int count = childCount[parentFamily];
+            if(kids == null || count == kids.length)
+            {
+                kids = kids == null?new int[4]:Arrays.copyOf(kids, count * 2);
+                children[parentFamily] = kids;
+            }
+            kids[count] = f;
+            childCount[parentFamily] = count + 1;
+        }
+        return f;
+    }
+}
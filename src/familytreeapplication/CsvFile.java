@@ -0,0 +1,538 @@
+/*
+ * Title: CsvFile class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: CsvFile.java
+ * Purpose: The purpose of this class is to export family trees into CSV files, which can be
+ *          read by spreadsheets and reporting tools, and to import them back.
+ * Assumptions/Conditions: - A family tree is saved as two files: the chosen file with one row per
+                             person, and an edge file next to it (eg. family.edges.csv for
+                             family.csv) with one row per relationship.
+                           - The person file has the columns id, name, surname, gender, type,
+                             streetNo, streetName, suburb, postcode and lifeDesc. The edge file
+                             has the columns from, to and relation, where relation is parent
+                             (from is a parent of to) or spouse.
+                           - Columns are found by the names in the first row, so they can be in
+                             any order, and other columns are ignored.
+                           - Fields are written as in RFC 4180: fields containing commas, quotes
+                             or line breaks are quoted, with quotes doubled. An empty field is a
+                             missing value, and a quoted empty field "" is an empty string.
+                           - Files are read and written as UTF-8, one row at a time, so family
+                             trees of any size can be exported and imported.
+                           - Person ids are the person ids of the registry, and the root person is
+                             the first person in the file.
+                           - Exporting and importing can report their progress, and stop with an
+                             InterruptedIOException when the thread running them is interrupted.
+ */
+package familytreeapplication;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Exports family trees into CSV files and imports them back.
+ * <p>People are written in order of id, followed by the relationships of every person in the
+ * edge file. Importing reads the people and then the relationships, linking each relationship
+ * as it is read.
+ *
+ * @author Zhiguang
+ */
+public final class CsvFile
+{
+    // Columns of the person file and the edge file, in the order they are written
+    private static final String[] PERSON_COLUMNS = {"id", "name", "surname", "gender", "type",
+        "streetNo", "streetName", "suburb", "postcode", "lifeDesc"};
+    private static final String[] EDGE_COLUMNS = {"from", "to", "relation"};
+
+    // Relations of the edge file
+    private static final String PARENT = "parent", SPOUSE = "spouse";
+
+    // Size of the buffer used to read files
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private CsvFile()
+    {}
+
+    /**
+     * Returns whether a file is a CSV file, by its extension
+     *
+     * @param file file to check
+     * @return true if the name of the file ends with .csv; false otherwise
+     */
+    public static boolean isCsv(File file)
+    {
+        return file.getName().toLowerCase().endsWith(".csv");
+    }
+
+    /**
+     * Returns the edge file saved next to a person file
+     *
+     * @param file person file
+     * @return edge file, eg. family.edges.csv for family.csv
+     */
+    public static File edgeFile(File file)
+    {
+        String name = file.getName();
+        String base = isCsv(file)?name.substring(0, name.length() - 4):name;
+        return new File(file.getAbsoluteFile().getParentFile(), base + ".edges.csv");
+    }
+
+    /**
+     * Export a family tree into a person file and its edge file
+     *
+     * @param registry registry of family tree, with the root person as id 0
+     * @param file person file to export into
+     * @param progress receives progress of export; null if not needed
+     * @throws IOException if the files cannot be written, or the export is interrupted
+     */
+    public static void save(PersonRegistry registry, File file, FamilyTreeFile.Progress progress) throws IOException
+    {
+        try(FileReplacement people = new FileReplacement(file);
+            FileReplacement edges = new FileReplacement(edgeFile(file)))
+        {
+            try(Writer peopleOut = Files.newBufferedWriter(people.getTemp(), StandardCharsets.UTF_8);
+                Writer edgesOut = Files.newBufferedWriter(edges.getTemp(), StandardCharsets.UTF_8))
+            {
+                write(registry, peopleOut, edgesOut, progress);
+            }
+            edges.replace();
+            people.replace();
+        }
+    }
+
+    /**
+     * Write every person of a registry as person rows, and their relationships as edge rows
+     *
+     * @param registry registry of family tree, with the root person as id 0
+     * @param people receives person rows
+     * @param edges receives edge rows
+     * @param progress receives progress of export; null if not needed
+     * @throws IOException if the rows cannot be written, or the export is interrupted
+     */
+    public static void write(PersonRegistry registry, Writer people, Writer edges, FamilyTreeFile.Progress progress) throws IOException
+    {
+        int size = registry.size();
+        writeRow(people, PERSON_COLUMNS);
+        writeRow(edges, EDGE_COLUMNS);
+
+        for(int id=0; id<size; id++)
+        {
+            if(id % FamilyTreeFile.REPORT_INTERVAL == 0)
+            {
+                FamilyTreeFile.report(progress, id, size, "people");
+            }
+
+            Person p = registry.get(id);
+            people.write(Integer.toString(id));
+            for(String field:new String[]{p.getName(), p.getSurname(), label(p.getGender()), label(p.getType())})
+            {
+                writeField(people, field);
+            }
+            people.write(',');
+            people.write(Integer.toString(p.getStreetNo()));
+            writeField(people, p.getStreetName());
+            writeField(people, p.getSuburb());
+            people.write(',');
+            people.write(Integer.toString(p.getPostcode()));
+            writeField(people, p.getLifeDesc());
+            people.write("\r\n");
+
+            // Every child is written by every parent, and a couple once
+            for(Person child:p.getChildList())
+            {
+                writeEdge(edges, id, registry.getId(child), PARENT);
+            }
+            int spouse = p.noSpouse()?-1:registry.getId(p.getSpouse());
+            if(spouse > id)
+            {
+                writeEdge(edges, id, spouse, SPOUSE);
+            }
+        }
+        FamilyTreeFile.report(progress, size, size, "people");
+    }
+
+    /**
+     * Import a family tree from a person file and its edge file
+     *
+     * @param file person file to import
+     * @param progress receives progress of import; null if not needed
+     * @return root person of family tree
+     * @throws IOException if the files cannot be read or are not valid, or the import is interrupted
+     */
+    public static Person load(File file, FamilyTreeFile.Progress progress) throws IOException
+    {
+        File edges = edgeFile(file);
+        try(Reader people = reader(file, progress); Reader edgeReader = reader(edges, progress))
+        {
+            return read(people, edgeReader);
+        }
+    }
+
+    /**
+     * Import a family tree from person rows and edge rows
+     *
+     * @param people reader of person rows
+     * @param edges reader of edge rows
+     * @return root person of family tree
+     * @throws IOException if the rows cannot be read or are not valid
+     */
+    public static Person read(Reader people, Reader edges) throws IOException
+    {
+        PersonIdMap ids = new PersonIdMap();
+        List<String> row = new ArrayList<>();
+
+        RowReader in = new RowReader(people);
+        int[] column = columns(in, row, PERSON_COLUMNS);
+        while(in.next(row))
+        {
+            Person p = ids.define(field(in, row, column[0], true));
+            p.setName(field(in, row, column[1], false));
+            p.setSurname(field(in, row, column[2], false));
+            p.setGender(FamilyTreeFile.gender(field(in, row, column[3], false)));
+            p.setType(FamilyTreeFile.type(field(in, row, column[4], false)));
+            p.setStreetNo(number(in, field(in, row, column[5], false)));
+            p.setStreetName(field(in, row, column[6], false));
+            p.setSuburb(field(in, row, column[7], false));
+            p.setPostcode(number(in, field(in, row, column[8], false)));
+            p.setLifeDesc(field(in, row, column[9], false));
+        }
+
+        in = new RowReader(edges);
+        column = columns(in, row, EDGE_COLUMNS);
+        while(in.next(row))
+        {
+            String from = field(in, row, column[0], true), to = field(in, row, column[1], true);
+            String relation = field(in, row, column[2], true);
+            if(relation.equalsIgnoreCase(PARENT))
+            {
+                ids.addChild(from, to);
+            }
+            else if(relation.equalsIgnoreCase(SPOUSE))
+            {
+                ids.setSpouse(from, to);
+            }
+            else
+            {
+                throw in.error("Unknown relation: " + relation);
+            }
+        }
+        return ids.finish();
+    }
+
+    /**
+     * Returns a reader of a file, reporting the bytes read
+     *
+     * @param file file to read
+     * @param progress receives progress; null if not needed
+     * @return reader
+     * @throws IOException if the file cannot be opened
+     */
+    private static Reader reader(File file, FamilyTreeFile.Progress progress) throws IOException
+    {
+        InputStream in = new FamilyTreeFile.ProgressInputStream(Files.newInputStream(file.toPath()), file.length(), progress);
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read the first row of a file, and return the position of every column needed
+     *
+     * @param in reader of rows
+     * @param row list to read the row into
+     * @param names names of the columns needed
+     * @return position of every column, in the order of names; -1 for a missing optional column
+     * @throws IOException if the file is empty, or a column is missing
+     */
+    private static int[] columns(RowReader in, List<String> row, String[] names) throws IOException
+    {
+        if(!in.next(row))
+        {
+            throw new IOException("File is empty");
+        }
+
+        int[] column = new int[names.length];
+        for(int i=0; i<names.length; i++)
+        {
+            column[i] = -1;
+            for(int j=0; j<row.size(); j++)
+            {
+                String name = row.get(j);
+                // Byte order mark is allowed at the start of the file
+                if(name != null && name.trim().replace("\uFEFF", "").equalsIgnoreCase(names[i]))
+                {
+                    column[i] = j;
+                }
+            }
+            // Only the id and the relationship columns are required
+            if(column[i] < 0 && (i == 0 || names == EDGE_COLUMNS))
+            {
+                throw new IOException("Missing column: " + names[i]);
+            }
+        }
+        return column;
+    }
+
+    /**
+     * Returns a field of a row
+     *
+     * @param in reader of rows
+     * @param row row
+     * @param column position of the field; -1 if the column is missing
+     * @param required true if the field must have a value
+     * @return field; null if missing
+     * @throws IOException if a required field is missing
+     */
+    private static String field(RowReader in, List<String> row, int column, boolean required) throws IOException
+    {
+        String value = column >= 0 && column < row.size()?row.get(column):null;
+        if(required && (value == null || value.isEmpty()))
+        {
+            throw in.error("Missing value");
+        }
+        return value;
+    }
+
+    /**
+     * Returns a field as a number
+     *
+     * @param in reader of rows
+     * @param value field; null if missing
+     * @return number; 0 if missing
+     * @throws IOException if the field is not a number
+     */
+    private static int number(RowReader in, String value) throws IOException
+    {
+        if(value == null || value.trim().isEmpty())
+        {
+            return 0;
+        }
+        try
+        {
+            return Integer.parseInt(value.trim());
+        }
+        catch(NumberFormatException e)
+        {
+            throw in.error("Not a number: " + value);
+        }
+    }
+
+    /**
+     * Returns the label of a gender or type
+     *
+     * @param value gender or type; null if none
+     * @return label; null if none
+     */
+    private static String label(Object value)
+    {
+        return value == null?null:value.toString();
+    }
+
+    /**
+     * Write a row of fields
+     *
+     * @param out receives the row
+     * @param fields fields of the row
+     * @throws IOException if the row cannot be written
+     */
+    private static void writeRow(Writer out, String[] fields) throws IOException
+    {
+        out.write(fields[0]);
+        for(int i=1; i<fields.length; i++)
+        {
+            writeField(out, fields[i]);
+        }
+        out.write("\r\n");
+    }
+
+    /**
+     * Write an edge row
+     *
+     * @param out receives the row
+     * @param from id of first person
+     * @param to id of second person
+     * @param relation relation of the people
+     * @throws IOException if the row cannot be written
+     */
+    private static void writeEdge(Writer out, int from, int to, String relation) throws IOException
+    {
+        out.write(Integer.toString(from));
+        out.write(',');
+        out.write(Integer.toString(to));
+        out.write(',');
+        out.write(relation);
+        out.write("\r\n");
+    }
+
+    /**
+     * Write a comma followed by a field, quoted if needed
+     *
+     * @param out receives the field
+     * @param field field; null for a missing value
+     * @throws IOException if the field cannot be written
+     */
+    private static void writeField(Writer out, String field) throws IOException
+    {
+        out.write(',');
+        if(field == null)
+        {
+            return;
+        }
+
+        boolean quote = field.isEmpty();
+        for(int i=0; i<field.length() && !quote; i++)
+        {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+
+        if(quote)
+        {
+            out.write('"');
+            out.write(field.replace("\"", "\"\""));
+            out.write('"');
+        }
+        else
+        {
+            out.write(field);
+        }
+    }
+
+    /**
+     * Reads the rows of a CSV file, where a quoted field may span several lines
+     */
+    private static final class RowReader
+    {
+        private final Reader in;
+        private final char[] buf = new char[BUFFER_SIZE];
+        private final StringBuilder field = new StringBuilder();
+        private int pos, end;
+
+        // Line of the character read last, and line the current row starts on, counting from 1
+        private int line = 1, rowLine;
+
+        /**
+         * Constructor which sets the reader to read rows from
+         *
+         * @param r reader
+         */
+        RowReader(Reader r)
+        {
+            in = r;
+        }
+
+        /**
+         * Read the next row, skipping empty lines
+         *
+         * @param row list to read the fields into, which is cleared first
+         * @return true if a row was read; false at the end of the file
+         * @throws IOException if the row cannot be read, or a quote is not closed
+         */
+        boolean next(List<String> row) throws IOException
+        {
+            row.clear();
+            int c;
+            do
+            {
+                c = read();
+            }
+            while(c == '\r' || c == '\n');
+
+            if(c < 0)
+            {
+                return false;
+            }
+            rowLine = line;
+
+            while(true)
+            {
+                field.setLength(0);
+                boolean quoted = c == '"';
+                if(quoted)
+                {
+                    c = readQuoted();
+                }
+                while(c >= 0 && c != ',' && c != '\r' && c != '\n')
+                {
+                    field.append((char)c);
+                    c = read();
+                }
+                row.add(quoted || field.length() > 0?field.toString():null);
+
+                if(c != ',')
+                {
+                    return true;
+                }
+                c = read();
+            }
+        }
+
+        /**
+         * Read a quoted field into the field buffer, after its opening quote
+         *
+         * @return character after the closing quote
+         * @throws IOException if the field cannot be read, or the quote is not closed
+         */
+        private int readQuoted() throws IOException
+        {
+            int start = line;
+            while(true)
+            {
+                int c = read();
+                if(c < 0)
+                {
+                    throw new IOException("Quote opened on line " + start + " is not closed");
+                }
+                if(c == '"')
+                {
+                    c = read();
+                    if(c != '"')
+                    {
+                        return c;
+                    }
+                }
+                field.append((char)c);
+            }
+        }
+
+        /**
+         * Read one character
+         *
+         * @return character; -1 at the end of the file
+         * @throws IOException if the reader cannot be read
+         */
+        private int read() throws IOException
+        {
+            if(pos == end)
+            {
+                end = in.read(buf, 0, buf.length);
+                pos = 0;
+                if(end <= 0)
+                {
+                    end = 0;
+                    return -1;
+                }
+            }
+            char c = buf[pos++];
+            if(c == '\n')
+            {
+                line++;
+            }
+            return c;
+        }
+
+        /**
+         * Returns an exception for a problem in the current row
+         *
+         * @param message problem
+         * @return exception with the problem and the line it is on
+         */
+        IOException error(String message)
+        {
+            return new IOException(message + " on line " + rowLine);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Title: DiagnosticsPanel class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: DiagnosticsPanel.java
+ * Purpose: The purpose of this class is to show how long the operations of the program take,
+ *          with the memory used and time spent collecting garbage, while the program runs.
+ * Assumptions/Conditions: - Times are taken from FamilyTreeMetrics and shown in milliseconds,
+                             and are updated every second while the panel is shown.
+                           - Garbage collection is the total of every collector since the program
+                             started, so pauses can be compared with the longest times shown.
+                           - Reset forgets every time recorded, but not garbage collection.
+                           - If the times could not be registered with JMX, the reason is shown
+                             below the table.
+                           - The panel must be stopped when it is no longer shown.
+ */
+package familytreeapplication;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.util.Duration;
+
+/**
+ * Panel which shows the count, failures, mean, percentiles and longest time of every operation
+ * timed by FamilyTreeMetrics, with memory and garbage collection below.
+ *
+ * @author Zhiguang
+ */
+public class DiagnosticsPanel extends VBox
+{
+    // Headings of the columns of the table
+    private static final String[] HEADINGS = {"Operation", "Count", "Failed", "Mean", "Median", "90%", "99%", "Max"};
+
+    private final Label[][] cells;
+    private final Label memory, collections;
+    private final Timeline refresh;
+
+    /**
+     * Constructor which lays out the panel and starts updating it every second
+     */
+    public DiagnosticsPanel()
+    {
+        super(10);
+        setPadding(new Insets(10));
+
+        FamilyTreeMetrics.Operation[] operations = FamilyTreeMetrics.Operation.values();
+        GridPane table = new GridPane();
+        table.setHgap(12);
+        table.setVgap(4);
+
+        // Numbers are lined up on the right, under their headings
+        for(int c=0; c<HEADINGS.length; c++)
+        {
+            ColumnConstraints column = new ColumnConstraints();
+            column.setHalignment(c == 0?HPos.LEFT:HPos.RIGHT);
+            table.getColumnConstraints().add(column);
+
+            Label heading = new Label(HEADINGS[c]);
+            heading.setFont(Font.font(null, FontWeight.BOLD, 12));
+            table.add(heading, c, 0);
+        }
+
+        cells = new Label[operations.length][HEADINGS.length];
+        for(int r=0; r<operations.length; r++)
+        {
+            for(int c=0; c<HEADINGS.length; c++)
+            {
+                cells[r][c] = new Label(c == 0?operations[r].toString():"");
+                table.add(cells[r][c], c, r + 1);
+            }
+        }
+
+        Label unit = new Label("Times are in milliseconds");
+        unit.setFont(Font.font(10));
+        if(FamilyTreeMetrics.getRegistrationFailure() != null)
+        {
+            unit.setText(unit.getText() + ", and are not available to JMX tools: " + FamilyTreeMetrics.getRegistrationFailure());
+        }
+        memory = new Label();
+        collections = new Label();
+
+        Button reset = new Button("Reset");
+        reset.setOnMouseClicked(evt ->
+        {
+            FamilyTreeMetrics.reset();
+            update();
+        });
+
+        getChildren().addAll(table, unit, memory, collections, reset);
+        update();
+
+        refresh = new Timeline(new KeyFrame(Duration.seconds(1), evt -> update()));
+        refresh.setCycleCount(Animation.INDEFINITE);
+        refresh.play();
+    }
+
+    /**
+     * Stop updating the panel, once it is no longer shown
+     */
+    public void stop()
+    {
+        refresh.stop();
+    }
+
+    /**
+     * Show the latest times, memory and garbage collection
+     */
+    private void update()
+    {
+        FamilyTreeMetrics.Operation[] operations = FamilyTreeMetrics.Operation.values();
+        for(int r=0; r<operations.length; r++)
+        {
+            FamilyTreeMetrics.OperationMetricsMBean m = FamilyTreeMetrics.get(operations[r]);
+            cells[r][1].setText(Long.toString(m.getCount()));
+            cells[r][2].setText(Long.toString(m.getFailures()));
+            cells[r][3].setText(millis(m.getMeanMillis()));
+            cells[r][4].setText(millis(m.getMedianMillis()));
+            cells[r][5].setText(millis(m.getPercentile90Millis()));
+            cells[r][6].setText(millis(m.getPercentile99Millis()));
+            cells[r][7].setText(millis(m.getMaxMillis()));
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        memory.setText("Heap: " + heap.getUsed() / (1024 * 1024) + " MB used of "
+                       + (heap.getMax() < 0?heap.getCommitted():heap.getMax()) / (1024 * 1024) + " MB");
+
+        long count = 0, time = 0;
+        for(GarbageCollectorMXBean gc:ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        collections.setText("Garbage collection: " + count + " collections, " + time + " ms");
+    }
+
+    /**
+     * Returns a time in milliseconds as text, to 3 decimal places below 10 ms
+     *
+     * @param ms time in milliseconds
+     * @return time as text
+     */
+    private static String millis(double ms)
+    {
+        return String.format(ms < 10?"%.3f":"%.1f", ms);
+    }
+}
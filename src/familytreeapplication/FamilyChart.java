@@ -0,0 +1,288 @@
+/*
+ * Title: FamilyChart class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyChart.java
+ * Purpose: The purpose of this class is to draw the family tree as a chart, with spouses side
+ *          by side and children below their parents, which can be zoomed and moved around.
+ * Assumptions/Conditions: - The chart is drawn on a Canvas the size of the view, and only the
+                             people inside the view are drawn.
+                           - The chart is drawn at most once per frame, however many times it is
+                             zoomed, moved or changed during the frame.
+                           - Scrolling zooms in and out around the mouse, and dragging moves the
+                             chart. Clicking a person selects the person.
+                           - Names are only drawn when the chart is zoomed in enough to read them.
+                           - The chart must be stopped when it is no longer shown.
+ */
+package familytreeapplication;
+
+import java.util.function.Consumer;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * Zoomable chart of a family tree drawn on a Canvas.
+ * <p>People are placed by a ChartLayout, which also finds the people inside the view, so drawing
+ * a frame takes time in proportion to the people that can be seen rather than the size of the
+ * family tree.
+ *
+ * @author Zhiguang
+ */
+public class FamilyChart extends Pane
+{
+    // Smallest and largest zoom, and how much one step of scrolling zooms
+    private static final double MIN_SCALE = 0.02, MAX_SCALE = 4, ZOOM_STEP = 1.15;
+
+    // Zoom below which names are too small to read, so they are not drawn
+    private static final double TEXT_SCALE = 0.35;
+
+    private final Canvas canvas;
+    private final ChartLayout layout;
+    private final AnimationTimer timer;
+    private final ChartLayout.Painter painter;
+    private GraphicsContext gc;
+
+    // Zoom, and where the left and top of the chart are in the view
+    private double scale, translateX, translateY;
+
+    // Where the mouse was pressed, and where the chart was at the time
+    private double pressX, pressY, pressTranslateX, pressTranslateY;
+
+    private boolean dirty;
+    private int lastPainted;
+    private Person selected;
+    private Consumer<Person> onSelect;
+
+    /**
+     * Constructor which sets the layout of the family tree to draw
+     *
+     * @param l layout of family tree
+     */
+    public FamilyChart(ChartLayout l)
+    {
+        layout = l;
+        scale = 1;
+        canvas = new Canvas();
+        getChildren().add(canvas);
+        painter = new CanvasPainter();
+
+        // The canvas is kept the size of the view
+        widthProperty().addListener((obs, before, after) ->
+        {
+            canvas.setWidth(after.doubleValue());
+            redraw();
+        });
+        heightProperty().addListener((obs, before, after) ->
+        {
+            canvas.setHeight(after.doubleValue());
+            redraw();
+        });
+
+        // Zoom around the mouse, so the point under the mouse stays where it is
+        setOnScroll(evt ->
+        {
+            double factor = evt.getDeltaY() > 0?ZOOM_STEP:1 / ZOOM_STEP;
+            double newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+            translateX = evt.getX() - (evt.getX() - translateX) * newScale / scale;
+            translateY = evt.getY() - (evt.getY() - translateY) * newScale / scale;
+            scale = newScale;
+            redraw();
+        });
+
+        setOnMousePressed(evt ->
+        {
+            pressX = evt.getX();
+            pressY = evt.getY();
+            pressTranslateX = translateX;
+            pressTranslateY = translateY;
+        });
+        setOnMouseDragged(evt ->
+        {
+            translateX = pressTranslateX + evt.getX() - pressX;
+            translateY = pressTranslateY + evt.getY() - pressY;
+            redraw();
+        });
+        setOnMouseClicked(evt ->
+        {
+            if(evt.isStillSincePress())
+            {
+                Person p = layout.find((evt.getX() - translateX) / scale, (evt.getY() - translateY) / scale);
+                if(p != null)
+                {
+                    select(p);
+                    if(onSelect != null)
+                    {
+                        onSelect.accept(p);
+                    }
+                }
+            }
+        });
+
+        // Changes are drawn once per frame
+        timer = new AnimationTimer()
+        {
+            @Override
+            public void handle(long now)
+            {
+                if(dirty)
+                {
+                    dirty = false;
+                    draw();
+                }
+            }
+        };
+        timer.start();
+    }
+
+    /**
+     * Set what is done when a person on the chart is clicked
+     *
+     * @param action receives person clicked
+     */
+    public void setOnSelect(Consumer<Person> action)
+    {
+        onSelect = action;
+    }
+
+    /**
+     * Highlight a person on the chart
+     *
+     * @param p person to highlight; null for no one
+     */
+    public void select(Person p)
+    {
+        selected = p;
+        redraw();
+    }
+
+    /**
+     * Move the chart so a person is in the middle of the view
+     *
+     * @param p person to show
+     */
+    public void centreOn(Person p)
+    {
+        double[] position = layout.locate(p);
+        if(position != null)
+        {
+            translateX = getWidth() / 2 - (position[0] + ChartLayout.PERSON_WIDTH / 2) * scale;
+            translateY = getHeight() / 2 - (position[1] + ChartLayout.PERSON_HEIGHT / 2) * scale;
+            redraw();
+        }
+    }
+
+    /**
+     * Update the chart after a relative is added to a person
+     *
+     * @param target person the relative is added to
+     * @param relative relative added
+     * @param type type of relative
+     */
+    public void add(Person target, Person relative, RelationType type)
+    {
+        layout.add(target, relative, type);
+        redraw();
+    }
+
+    /**
+     * Draw the chart again in the next frame, eg. after the details of a person are edited
+     */
+    public void redraw()
+    {
+        dirty = true;
+    }
+
+    /**
+     * Returns the number of people drawn in the last frame
+     *
+     * @return number of people
+     */
+    public int getLastPainted()
+    {
+        return lastPainted;
+    }
+
+    /**
+     * Stop drawing the chart, once it is no longer shown
+     */
+    public void stop()
+    {
+        timer.stop();
+    }
+
+    /**
+     * Draw the part of the chart inside the view
+     */
+    private void draw()
+    {
+        gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        gc.save();
+        gc.translate(translateX, translateY);
+        gc.scale(scale, scale);
+        gc.setLineWidth(1 / scale);
+        gc.setStroke(Color.GRAY);
+        gc.setFont(Font.font(12));
+        gc.setTextBaseline(VPos.CENTER);
+
+        // Part of the chart inside the view
+        double x0 = -translateX / scale, y0 = -translateY / scale;
+        double x1 = (canvas.getWidth() - translateX) / scale, y1 = (canvas.getHeight() - translateY) / scale;
+        lastPainted = layout.paint(x0, y0, x1, y1, painter);
+
+        gc.restore();
+    }
+
+    /**
+     * Draws people and lines on the canvas
+     */
+    private final class CanvasPainter implements ChartLayout.Painter
+    {
+        /**
+         * Draw the box of a person, coloured by gender, with the name of the person if it can be read
+         *
+         * @param p person
+         * @param x left of box
+         * @param y top of box
+         */
+        @Override
+        public void person(Person p, double x, double y)
+        {
+            gc.setFill(p.getGender() == Gender.FEMALE?Color.PINK:Color.LIGHTSTEELBLUE);
+            gc.fillRect(x, y, ChartLayout.PERSON_WIDTH, ChartLayout.PERSON_HEIGHT);
+
+            if(p == selected)
+            {
+                gc.setStroke(Color.RED);
+                gc.strokeRect(x, y, ChartLayout.PERSON_WIDTH, ChartLayout.PERSON_HEIGHT);
+                gc.setStroke(Color.GRAY);
+            }
+
+            if(scale >= TEXT_SCALE)
+            {
+                gc.setFill(Color.BLACK);
+                gc.fillText(p.getFullName(), x + 6, y + ChartLayout.PERSON_HEIGHT / 2, ChartLayout.PERSON_WIDTH - 12);
+            }
+        }
+
+        /**
+         * Draw a line between people
+         *
+         * @param x1 x of start
+         * @param y1 y of start
+         * @param x2 x of end
+         * @param y2 y of end
+         */
+        @Override
+        public void line(double x1, double y1, double x2, double y2)
+        {
+            gc.strokeLine(x1, y1, x2, y2);
+        }
+    }
+}
@@ -7,6 +7,8 @@
  * Assumptions/Conditions: - This program does not need to know the specifics of 
                              the GUI class that it is launching as they are taken 
                              care of by the class itself. 
+                           - The program is started by FamilyTreeLauncher, which runs the 
+                             command line program instead when started with --headless. 
  */
 package familytreeapplication;
 import javafx.application.Application;
@@ -33,6 +35,15 @@ public class FamilyTreeApplication extends Application
         topView.show();
     }
     
+    /**
+     * Method called when the application is closed 
+     */
+    @Override
+    public void stop()
+    {
+        new FamilyTreeUtilities().close();
+    }
+    
     /**
      * Main method to launch application 
      * 
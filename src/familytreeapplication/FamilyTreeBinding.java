@@ -0,0 +1,543 @@
+/*
+ * Title: FamilyTreeBinding class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeBinding.java
+ * Purpose: The purpose of this class is to bind the people of a family tree to the
+ *          TreeItems shown on the TreeView, so that a change to one person only
+ *          updates the TreeItems of that person instead of rebuilding the whole tree.
+ * Assumptions/Conditions: - Only the root person and the root person's descendants show
+                             their relatives on the tree.
+                           - Parents of root person and spouses are shown as leaves.
+                           - Only the root person shows a parents heading.
+                           - Headings are always shown in the order parents, spouse, children.
+                           - TreeItems are only created for the part of the tree that has been
+                             expanded, so a person might not have a TreeItem yet.
+                           - The tree is expanded for a number of generations below the root
+                             person when it is built. The number of generations can be set with
+                             the system property familytree.expandGenerations.
+                           - Without a TreeView, eg. in benchmarks, the TreeItems are built and
+                             updated in the same way but are not shown.
+ */
+package familytreeapplication;
+
+import java.util.*;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
+
+/**
+ * Binds every person on the family tree to the TreeItem that shows the person.
+ * <p>When a relative is added or details are edited, only the TreeItems of the
+ * affected people are updated, which keeps the scroll position and selection of
+ * the TreeView.
+ * <p>TreeItems are PersonTreeItems, which ask this class for their children when they
+ * are first expanded.
+ *
+ * @author Zhiguang
+ */
+public class FamilyTreeBinding
+{
+    /**
+     * Default number of generations below the root person expanded when the tree is built
+     */
+    public static final int DEFAULT_EXPAND_GENERATIONS = Integer.getInteger("familytree.expandGenerations", 2);
+
+    // Headings shown on the tree, in the order they are shown
+    private static final TreeHeading[] HEADINGS = TreeHeading.values();
+
+    private final TreeView<Person> tree;
+    private final Map<Person, PersonTreeItem> items;
+    private final int expandGenerations;
+    private PersonTreeItem rootItem;
+
+    /**
+     * Constructor which sets the TreeView to bind people to
+     *
+     * @param view TreeView showing the family tree; null if the tree is not shown
+     */
+    public FamilyTreeBinding(TreeView<Person> view)
+    {
+        this(view, DEFAULT_EXPAND_GENERATIONS);
+    }
+
+    /**
+     * Constructor which sets the TreeView to bind people to, and the number of
+     * generations to expand when the tree is built
+     *
+     * @param view TreeView showing the family tree; null if the tree is not shown
+     * @param generations number of generations below root person to expand
+     */
+    public FamilyTreeBinding(TreeView<Person> view, int generations)
+    {
+        tree = view;
+        items = new IdentityHashMap<>();
+        expandGenerations = generations;
+    }
+
+    /**
+     * Show the family tree of root person on the TreeView.
+     * <p>Only the TreeItems of the generations that are expanded are created.
+     *
+     * @param root root person of family tree
+     */
+    public void build(Person root)
+    {
+        items.clear();
+
+        rootItem = createItem(root, PersonTreeItem.Kind.ROOT);
+        expand(rootItem, expandGenerations);
+
+        if(tree != null)
+        {
+            tree.setRoot(rootItem);
+        }
+    }
+
+    /**
+     * Returns the TreeItem of the root person
+     *
+     * @return TreeItem of root person; null if the tree has not been built
+     */
+    public TreeItem<Person> getRootItem()
+    {
+        return rootItem;
+    }
+
+    /**
+     * Returns the TreeItem showing the person
+     *
+     * @param p person shown on tree
+     * @return TreeItem of person; null if person is not shown on tree, or not created yet
+     */
+    public TreeItem<Person> getItem(Person p)
+    {
+        return items.get(p);
+    }
+
+    /**
+     * Expand the tree down to the TreeItem of a person, then select and scroll to it.
+     * <p>TreeItems on the way to the person are created if they have not been expanded yet.
+     *
+     * @param p person to show
+     * @return TreeItem of person; null if person is not shown on tree
+     */
+    public TreeItem<Person> reveal(Person p)
+    {
+        if(rootItem == null)
+        {
+            return null;
+        }
+
+        // People from the person up to the root person, with the heading each is shown under
+        Deque<Person> people = new ArrayDeque<>();
+        Deque<TreeHeading> headings = new ArrayDeque<>();
+        Person root = rootItem.getValue();
+        Person next = p;
+        boolean spouse = false;
+
+        while(next != root)
+        {
+            Person parent = shownParent(next, root);
+
+            if(parent != null)
+            {
+                people.push(next);
+                headings.push(TreeHeading.CHILDREN);
+                next = parent;
+                spouse = false;
+            }
+            else if(root.getParentList().contains(next))
+            {
+                people.push(next);
+                headings.push(TreeHeading.PARENTS);
+                next = root;
+            }
+            // Spouses who married into the family are shown under their spouse
+            else if(!next.noSpouse() && !spouse)
+            {
+                people.push(next);
+                headings.push(TreeHeading.SPOUSE);
+                next = next.getSpouse();
+                spouse = true;
+            }
+            else
+            {
+                return null;
+            }
+        }
+
+        // Expand every TreeItem on the way down from the root person
+        PersonTreeItem item = rootItem;
+        while(!people.isEmpty())
+        {
+            // Headings are only found once the children of the TreeItem are created
+            item.getChildren();
+            PersonTreeItem heading = findHeading(item, headings.pop());
+            if(heading == null)
+            {
+                return null;
+            }
+            item.setExpanded(true);
+            heading.setExpanded(true);
+
+            Person person = people.pop();
+            item = null;
+            for(TreeItem<Person> child:heading.getChildren())
+            {
+                if(child.getValue() == person)
+                {
+                    item = (PersonTreeItem)child;
+                    break;
+                }
+            }
+            if(item == null)
+            {
+                return null;
+            }
+        }
+
+        if(tree != null)
+        {
+            tree.getSelectionModel().select(item);
+            tree.scrollTo(tree.getRow(item));
+        }
+        return item;
+    }
+
+    /**
+     * Update the headings and relatives shown under a person after a relative is added.
+     * <p>TreeItems of relatives already shown are kept, so only the new relatives are inserted.
+     *
+     * @param p person whose relatives have changed
+     */
+    public void refresh(Person p)
+    {
+        PersonTreeItem item = items.get(p);
+
+        // Only the root person and descendants show their relatives
+        if(item != null && item.getKind() != PersonTreeItem.Kind.LEAF)
+        {
+            if(item.isLoaded())
+            {
+                syncHeadings(item, true);
+            }
+            else
+            {
+                // Creating the headings now lets the tree show that the person has relatives
+                item.getChildren();
+            }
+        }
+    }
+
+    /**
+     * Update the label of a person after the details of the person are edited.
+     *
+     * @param p person whose details have changed
+     */
+    public void relabel(Person p)
+    {
+        if(tree != null && items.containsKey(p))
+        {
+            // Only the visible cells are updated, the TreeItems are kept
+            tree.refresh();
+        }
+    }
+
+    /**
+     * Create the children of a TreeItem from the relatives of its person.
+     * <p>Called by a PersonTreeItem the first time its children are requested.
+     *
+     * @param item TreeItem to create children for
+     */
+    void load(PersonTreeItem item)
+    {
+        if(item.getKind() == PersonTreeItem.Kind.HEADING)
+        {
+            PersonTreeItem owner = (PersonTreeItem)item.getParent();
+            TreeHeading heading = (TreeHeading)item.getValue();
+
+            syncRelatives(item, relatives(owner, heading), heading == TreeHeading.CHILDREN);
+        }
+        else
+        {
+            syncHeadings(item, false);
+        }
+    }
+
+    /**
+     * Returns true if a TreeItem has children, without creating them
+     *
+     * @param item TreeItem to check
+     * @return true if TreeItem will have children once loaded; false otherwise
+     */
+    boolean hasChildren(PersonTreeItem item)
+    {
+        switch(item.getKind())
+        {
+            case HEADING:
+                return true;
+            case LEAF:
+                return false;
+            default:
+                for(TreeHeading heading:HEADINGS)
+                {
+                    if(!relatives(item, heading).isEmpty())
+                    {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+
+    /**
+     * Expand a TreeItem and the TreeItems under it for a number of generations
+     *
+     * @param item TreeItem to expand
+     * @param generations number of generations to expand
+     */
+    private void expand(PersonTreeItem item, int generations)
+    {
+        // Every generation is shown as a person followed by a heading
+        int levels = generations * 2;
+
+        Deque<PersonTreeItem> stack = new ArrayDeque<>();
+        Deque<Integer> depth = new ArrayDeque<>();
+        stack.push(item);
+        depth.push(0);
+
+        while(!stack.isEmpty())
+        {
+            PersonTreeItem next = stack.pop();
+            int level = depth.pop();
+
+            if(level < levels && !next.isLeaf())
+            {
+                next.setExpanded(true);
+
+                for(TreeItem<Person> child:next.getChildren())
+                {
+                    stack.push((PersonTreeItem)child);
+                    depth.push(level + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Create a TreeItem for a person and record the person it shows
+     *
+     * @param p person to create TreeItem for
+     * @param kind kind of TreeItem
+     * @return TreeItem of person
+     */
+    private PersonTreeItem createItem(Person p, PersonTreeItem.Kind kind)
+    {
+        PersonTreeItem item = new PersonTreeItem(this, p, kind);
+        items.put(p, item);
+
+        return item;
+    }
+
+    /**
+     * Make the headings under a person TreeItem match the relatives of its person.
+     * <p>Headings are added or removed as needed, and the relatives under every heading
+     * that has been loaded are updated.
+     *
+     * @param item TreeItem of a person
+     * @param update true if updating an existing tree, so new headings are expanded; false otherwise
+     */
+    private void syncHeadings(PersonTreeItem item, boolean update)
+    {
+        List<TreeItem<Person>> children = item.getChildren();
+        int index = 0;
+
+        for(TreeHeading name:HEADINGS)
+        {
+            List<Person> relatives = relatives(item, name);
+            PersonTreeItem heading = findHeading(item, name);
+
+            if(relatives.isEmpty())
+            {
+                if(heading != null)
+                {
+                    removeItems(heading);
+                    children.remove(heading);
+                }
+                continue;
+            }
+
+            if(heading == null)
+            {
+                // Creating heading (every TreeItem of a heading shares the same TreeHeading)
+                heading = new PersonTreeItem(this, name, PersonTreeItem.Kind.HEADING);
+
+                children.add(index, heading);
+
+                // Show relative that was just added
+                if(update)
+                {
+                    item.setExpanded(true);
+                    heading.setExpanded(true);
+                }
+            }
+            else if(heading.isLoaded())
+            {
+                syncRelatives(heading, relatives, name == TreeHeading.CHILDREN);
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Returns the relatives of a person to show under a heading
+     *
+     * @param item TreeItem of a person
+     * @param heading heading
+     * @return list of relatives to show
+     */
+    private List<Person> relatives(PersonTreeItem item, TreeHeading heading)
+    {
+        Person p = item.getValue();
+
+        if(heading == TreeHeading.PARENTS)
+        {
+            // Only root person shows parents
+            return item.getKind() == PersonTreeItem.Kind.ROOT?p.getParentList():Collections.<Person>emptyList();
+        }
+        else if(heading == TreeHeading.SPOUSE)
+        {
+            return p.noSpouse()?Collections.<Person>emptyList():Collections.singletonList(p.getSpouse());
+        }
+        else
+        {
+            return p.getChildList();
+        }
+    }
+
+    /**
+     * Returns the parent a person is shown under on the tree, which is the root person or a
+     * descendant of the root person
+     *
+     * @param p person
+     * @param root root person
+     * @return parent shown with the person as a child; null if person is not shown as a child
+     */
+    private static Person shownParent(Person p, Person root)
+    {
+        for(Person parent:p.getParentList())
+        {
+            // Only the root person's parents are shown without parents of their own, and they show no children
+            if(parent == root || !parent.getParentList().isEmpty())
+            {
+                return parent;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the TreeItem of a heading under a TreeItem
+     *
+     * @param item TreeItem to search
+     * @param name heading
+     * @return heading TreeItem; null if heading does not exist
+     */
+    private PersonTreeItem findHeading(PersonTreeItem item, TreeHeading name)
+    {
+        for(TreeItem<Person> heading:item.getLoadedChildren())
+        {
+            if(heading.getValue() == name)
+            {
+                return (PersonTreeItem)heading;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Make the TreeItems under a heading match a list of relatives.
+     * <p>Existing TreeItems are reused so that only new relatives create TreeItems.
+     *
+     * @param heading heading TreeItem
+     * @param relatives relatives to show under heading
+     * @param branch true if relatives show their own relatives; false otherwise
+     */
+    private void syncRelatives(PersonTreeItem heading, List<Person> relatives, boolean branch)
+    {
+        PersonTreeItem.Kind kind = branch?PersonTreeItem.Kind.BRANCH:PersonTreeItem.Kind.LEAF;
+        List<TreeItem<Person>> current = heading.getChildren();
+
+        // Count the TreeItems that already show the relatives in order
+        int shown = 0;
+        while(shown < current.size() && shown < relatives.size() && current.get(shown).getValue() == relatives.get(shown))
+        {
+            shown++;
+        }
+
+        // If relatives were only added to the end of the list, only add TreeItems for them
+        if(shown == current.size())
+        {
+            List<TreeItem<Person>> added = new ArrayList<>(relatives.size() - shown);
+            for(Person r:relatives.subList(shown, relatives.size()))
+            {
+                added.add(createItem(r, kind));
+            }
+            current.addAll(added);
+            return;
+        }
+
+        // Keep TreeItems of relatives that are still shown
+        Map<Person, TreeItem<Person>> existing = new IdentityHashMap<>();
+        for(TreeItem<Person> child:current)
+        {
+            existing.put(child.getValue(), child);
+        }
+
+        List<TreeItem<Person>> updated = new ArrayList<>(relatives.size());
+        for(Person r:relatives)
+        {
+            TreeItem<Person> child = existing.remove(r);
+
+            if(child == null)
+            {
+                child = createItem(r, kind);
+            }
+            updated.add(child);
+        }
+
+        // Forget TreeItems of relatives no longer shown
+        for(TreeItem<Person> removed:existing.values())
+        {
+            removeItems((PersonTreeItem)removed);
+        }
+
+        heading.getChildren().setAll(updated);
+    }
+
+    /**
+     * Forget the TreeItems of a TreeItem and everything created under it
+     *
+     * @param item TreeItem to forget
+     */
+    private void removeItems(PersonTreeItem item)
+    {
+        Deque<PersonTreeItem> stack = new ArrayDeque<>();
+        stack.push(item);
+
+        while(!stack.isEmpty())
+        {
+            PersonTreeItem next = stack.pop();
+
+            if(items.get(next.getValue()) == next)
+            {
+                items.remove(next.getValue());
+            }
+
+            for(TreeItem<Person> child:next.getLoadedChildren())
+            {
+                stack.push((PersonTreeItem)child);
+            }
+        }
+    }
+}
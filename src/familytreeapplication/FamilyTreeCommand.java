@@ -0,0 +1,699 @@
+/*
+ * Title: FamilyTreeCommand class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeCommand.java
+ * Purpose: The purpose of this program is to check, convert, count, export and generate family
+ *          tree files from the command line, without a display, so that many files can be
+ *          processed by a batch job.
+ * Assumptions/Conditions: - This class does not use JavaFX, so it can be run on a computer
+                             without JavaFX or a display with
+                             java -cp FamilyTreeApplication.jar familytreeapplication.FamilyTreeCommand
+                             FamilyTreeApplication also runs it when started with --headless.
+                           - A folder given in place of a file stands for every .dat and .ged file
+                             in the folder and its subfolders, in order of name.
+                           - GEDCOM (.ged) files can be checked, counted and exported like .dat
+                             files. They are not converted, as they are not saved by the program.
+                           - CSV (.csv, with its .edges.csv file) and JSON Lines (.jsonl) files can
+                             be named like GEDCOM files, and family trees can be exported into
+                             them. Folders are not searched for them, as a .csv file may not be a
+                             family tree.
+                           - Several files are processed at once, by as many threads as there are
+                             processors unless --threads is given. Results are printed in the
+                             order the files were given.
+                           - .dat files are converted and exported with the compression named by
+                             --codec, or by the system property familytree.codec if it is not
+                             given. Converting without --codec keeps the compression of a file,
+                             and converting with --codec also compresses or decompresses files
+                             of the current version.
+                           - Generated family trees are made up by FamilyTreeGenerator, and are
+                             the same every time for the same number of people and seed.
+                           - Changes kept in the journal of a file are not recovered, so only the
+                             family tree saved in the file is processed.
+                           - The program exits with 0 if every file was processed and is valid, 1 if
+                             a file is not valid or could not be processed, and 2 if the command
+                             is not correct.
+ */
+package familytreeapplication;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command line program which processes family tree files without JavaFX.
+ * <p>Commands available:
+ * <ul>
+ * <li>validate: check the names, addresses and relationships of every person </li>
+ * <li>stats: count the people, couples, generations and surnames </li>
+ * <li>convert: save files of older versions of the program in the current layout, or with
+ *     another compression </li>
+ * <li>export: save a family tree as a .dat file, a GEDCOM file, CSV files, a JSON Lines file
+ *     or a text outline </li>
+ * <li>generate: make up a family tree of any size and save it as a .dat file </li>
+ * </ul>
+ *
+ * @author Zhiguang
+ */
+public final class FamilyTreeCommand
+{
+    // Exit codes
+    private static final int OK = 0, FAILED = 1, USAGE = 2;
+
+    // Most problems printed for one file
+    private static final int MAX_PROBLEMS = Integer.getInteger("familytree.maxProblems", 20);
+
+    private static final String USAGE_TEXT =
+            "Usage: familytreeapplication.FamilyTreeCommand [--threads N] [--codec NAME] <command> <arguments>\n"
+            + "Commands:\n"
+            + "  validate <file or folder>...  check every person of every family tree\n"
+            + "  stats <file or folder>...     count people, couples, generations and surnames\n"
+            + "  convert <file or folder>...   save files of older versions in the current layout\n"
+            + "  export <file> <output>        save a family tree as .dat, as GEDCOM (.ged), as CSV (.csv and .edges.csv),\n"
+            + "                                as JSON Lines (.jsonl) or as a text outline (.txt)\n"
+            + "  generate <output> <count> [seed]  make up a family tree of count people as a .dat file\n"
+            + "Options:\n"
+            + "  --threads N                   number of files processed at once\n"
+            + "  --codec NAME                  compression of .dat files converted or exported: " + String.join(", ", SaveCodecs.names());
+
+    /**
+     * Result of processing one file
+     */
+    private static final class Result
+    {
+        final String text;
+        final boolean ok;
+
+        /**
+         * Constructor which sets the text printed for the file and whether it succeeded
+         *
+         * @param t text to print
+         * @param o true if the file was processed and is valid; false otherwise
+         */
+        Result(String t, boolean o)
+        {
+            text = t;
+            ok = o;
+        }
+    }
+
+    /**
+     * Processes one file
+     */
+    private interface FileJob
+    {
+        /**
+         * Process a file
+         *
+         * @param file file to process
+         * @return result of processing file
+         * @throws Exception if the file cannot be read or written
+         */
+        Result run(File file) throws Exception;
+    }
+
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private FamilyTreeCommand()
+    {}
+
+    /**
+     * Main method to run a command
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args)
+    {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Run a command
+     *
+     * @param args command and its arguments, optionally after --headless, --threads N and --codec NAME
+     * @param out receives results
+     * @param err receives errors
+     * @return exit code
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err)
+    {
+        List<String> rest = new ArrayList<>(Arrays.asList(args));
+        int threads = Runtime.getRuntime().availableProcessors();
+        String codecName = null;
+
+        try
+        {
+            // Options before the command
+            while(!rest.isEmpty() && rest.get(0).startsWith("--"))
+            {
+                String option = rest.remove(0);
+                if(option.equals("--threads") && !rest.isEmpty())
+                {
+                    threads = Integer.parseInt(rest.remove(0));
+                }
+                else if(option.equals("--codec") && !rest.isEmpty())
+                {
+                    codecName = rest.remove(0);
+                }
+                else if(!option.equals("--headless"))
+                {
+                    return usage(err, "Unknown option: " + option);
+                }
+            }
+        }
+        catch(NumberFormatException e)
+        {
+            return usage(err, "Number of threads can only contain number!");
+        }
+
+        final boolean codecGiven = codecName != null;
+        final SaveCodec codec;
+        try
+        {
+            codec = codecGiven?SaveCodecs.get(codecName):SaveCodecs.getDefault();
+        }
+        catch(IllegalArgumentException e)
+        {
+            return usage(err, e.getMessage());
+        }
+
+        if(rest.isEmpty())
+        {
+            return usage(err, null);
+        }
+
+        String command = rest.remove(0);
+        try
+        {
+            switch(command)
+            {
+                case "validate":
+                    return batch(files(rest), threads, FamilyTreeCommand::validate, out, err);
+                case "stats":
+                    return batch(files(rest), threads, FamilyTreeCommand::stats, out, err);
+                case "convert":
+                    return batch(files(rest), threads, file -> convert(file, codecGiven?codec:null, codecGiven), out, err);
+                case "export":
+                    if(rest.size() != 2)
+                    {
+                        return usage(err, "Export needs a file and an output file!");
+                    }
+                    Result result = export(new File(rest.get(0)), new File(rest.get(1)), codec);
+                    out.println(result.text);
+                    return result.ok?OK:FAILED;
+                case "generate":
+                    if(rest.size() != 2 && rest.size() != 3)
+                    {
+                        return usage(err, "Generate needs an output file and a number of people!");
+                    }
+                    out.println(generate(rest).text);
+                    return OK;
+                default:
+                    return usage(err, "Unknown command: " + command);
+            }
+        }
+        catch(IllegalArgumentException e)
+        {
+            return usage(err, e.getMessage());
+        }
+        catch(Exception e)
+        {
+            err.println(command + ": " + e);
+            return FAILED;
+        }
+    }
+
+    /**
+     * Print how to use the program
+     *
+     * @param err receives usage
+     * @param message error to print first; null if none
+     * @return exit code for an incorrect command
+     */
+    private static int usage(PrintStream err, String message)
+    {
+        if(message != null)
+        {
+            err.println(message);
+        }
+        err.println(USAGE_TEXT);
+        return USAGE;
+    }
+
+    /**
+     * Returns the files named on the command line, with every folder replaced by the .dat and
+     * .ged files in it
+     *
+     * @param paths files and folders named
+     * @return files to process
+     * @throws IOException if a folder cannot be read
+     * @throws IllegalArgumentException if no file is named, or a file does not exist
+     */
+    private static List<File> files(List<String> paths) throws IOException
+    {
+        if(paths.isEmpty())
+        {
+            throw new IllegalArgumentException("No file given!");
+        }
+
+        List<File> files = new ArrayList<>();
+        for(String path:paths)
+        {
+            File f = new File(path);
+            if(f.isDirectory())
+            {
+                try(Stream<Path> walk = Files.walk(f.toPath()))
+                {
+                    files.addAll(walk.filter(p -> Files.isRegularFile(p) && (p.toString().toLowerCase().endsWith(".dat") || GedcomFile.isGedcom(p.toFile())))
+                            .sorted()
+                            .map(Path::toFile)
+                            .collect(Collectors.toList()));
+                }
+            }
+            else if(f.isFile())
+            {
+                files.add(f);
+            }
+            else
+            {
+                throw new IllegalArgumentException("File not found: " + path);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Run a job on every file, several files at once, printing the results in order
+     *
+     * @param files files to process
+     * @param threads number of files processed at once
+     * @param job job to run on every file
+     * @param out receives results
+     * @param err receives errors
+     * @return exit code
+     * @throws InterruptedException if the program is interrupted
+     */
+    private static int batch(List<File> files, int threads, FileJob job, PrintStream out, PrintStream err) throws InterruptedException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        int code = OK;
+
+        try
+        {
+            List<Future<Result>> results = new ArrayList<>(files.size());
+            for(File f:files)
+            {
+                results.add(pool.submit(() -> job.run(f)));
+            }
+
+            for(int i=0; i<files.size(); i++)
+            {
+                try
+                {
+                    Result result = results.get(i).get();
+                    out.println(files.get(i) + ": " + result.text);
+                    code = result.ok?code:FAILED;
+                }
+                catch(ExecutionException e)
+                {
+                    err.println(files.get(i) + ": " + e.getCause());
+                    code = FAILED;
+                }
+
+                // Results are not needed once printed
+                results.set(i, null);
+            }
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+        return code;
+    }
+
+    /**
+     * Load every person of a family tree file, or import every person of a GEDCOM, CSV or JSON
+     * Lines file
+     *
+     * @param file file to load
+     * @return registry of family tree
+     * @throws IOException if the file cannot be read
+     * @throws ClassNotFoundException if an older file contains an unknown class
+     */
+    private static PersonRegistry load(File file) throws IOException, ClassNotFoundException
+    {
+        Person root;
+        if(GedcomFile.isGedcom(file))
+        {
+            root = GedcomFile.load(file);
+        }
+        else if(CsvFile.isCsv(file))
+        {
+            root = CsvFile.load(file, null);
+        }
+        else if(JsonLinesFile.isJsonLines(file))
+        {
+            root = JsonLinesFile.load(file, null);
+        }
+        else
+        {
+            root = FamilyTreeFile.load(file);
+        }
+        return PersonRegistry.build(root);
+    }
+
+    /**
+     * Returns whether a file is imported from another format rather than loaded
+     *
+     * @param file file
+     * @return true if the file is a GEDCOM, CSV or JSON Lines file
+     */
+    private static boolean isImported(File file)
+    {
+        return GedcomFile.isGedcom(file) || CsvFile.isCsv(file) || JsonLinesFile.isJsonLines(file);
+    }
+
+    /**
+     * Check every person of a family tree file
+     *
+     * @param file file to check
+     * @return number of people, or the problems found
+     * @throws Exception if the file cannot be read
+     */
+    private static Result validate(File file) throws Exception
+    {
+        PersonRegistry registry = load(file);
+        List<String> problems = FamilyTreeValidator.validate(registry);
+
+        if(problems.isEmpty())
+        {
+            return new Result("valid, " + plural(registry.size(), "person", "people"), true);
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append(plural(problems.size(), "problem", "problems"));
+        for(int i=0; i<problems.size() && i<MAX_PROBLEMS; i++)
+        {
+            text.append(System.lineSeparator()).append("    ").append(problems.get(i));
+        }
+        if(problems.size() > MAX_PROBLEMS)
+        {
+            text.append(System.lineSeparator()).append("    ... and ").append(problems.size() - MAX_PROBLEMS).append(" more");
+        }
+        return new Result(text.toString(), false);
+    }
+
+    /**
+     * Count the people, couples, generations and surnames of a family tree file
+     *
+     * @param file file to count
+     * @return counts
+     * @throws Exception if the file cannot be read
+     */
+    private static Result stats(File file) throws Exception
+    {
+        PersonRegistry registry = load(file);
+        int males = 0, females = 0, couples = 0, mostChildren = 0;
+        Set<String> surnames = new HashSet<>();
+
+        for(int id=0; id<registry.size(); id++)
+        {
+            Person p = registry.get(id);
+            if(p.getGender() == Gender.MALE)
+            {
+                males++;
+            }
+            else if(p.getGender() == Gender.FEMALE)
+            {
+                females++;
+            }
+
+            // Every couple is counted once, by the spouse with the lower id
+            Person spouse = p.getSpouse();
+            if(spouse != null && id < registry.getId(spouse))
+            {
+                couples++;
+            }
+
+            mostChildren = Math.max(mostChildren, p.getChildList().size());
+            surnames.add(p.getSurname().toLowerCase());
+        }
+
+        String generations = "unknown generations";
+        if(!FamilyTreeValidator.hasOwnAncestor(registry))
+        {
+            AncestryIndex ancestry = AncestryIndex.build(registry);
+            int oldest = 0, youngest = 0;
+            for(int id=0; id<registry.size(); id++)
+            {
+                int generation = ancestry.getGeneration(registry.get(id));
+                oldest = Math.min(oldest, generation);
+                youngest = Math.max(youngest, generation);
+            }
+            generations = plural(youngest - oldest + 1, "generation", "generations");
+        }
+
+        return new Result(String.format("%s (%d male, %d female), %s, %s, %s, most children %d",
+                plural(registry.size(), "person", "people"), males, females, plural(couples, "couple", "couples"), generations,
+                plural(surnames.size(), "surname", "surnames"), mostChildren), true);
+    }
+
+    /**
+     * Save a family tree file of an older version of the program in the current layout, or a
+     * file compressed with another codec than the one chosen
+     *
+     * @param file file to convert
+     * @param codec codec to save with; null for no compression
+     * @param recompress true to save with codec; false to keep the compression of the file
+     * @return version and compression converted from
+     * @throws Exception if the file cannot be read or written
+     */
+    private static Result convert(File file, SaveCodec codec, boolean recompress) throws Exception
+    {
+        if(isImported(file))
+        {
+            return new Result("file of another format not converted, use export", true);
+        }
+        int version = FamilyTreeFile.version(file);
+        String compression = FamilyTreeFile.compression(file);
+        String target = recompress?SaveCodecs.name(codec):compression;
+        if(version == FamilyTreeFile.VERSION && compression.equals(target))
+        {
+            return new Result("already version " + version + compressed(compression), true);
+        }
+
+        PersonRegistry registry = load(file);
+        FamilyTreeFile.save(registry, file, SaveCodecs.get(target), null);
+        return new Result("converted " + plural(registry.size(), "person", "people") + " from " + (version == 0?"serialized file":"version " + version)
+                + compressed(compression) + " to version " + FamilyTreeFile.VERSION + compressed(target), true);
+    }
+
+    /**
+     * Returns the compression of a file as text to add to a result
+     *
+     * @param compression name of codec, or none
+     * @return compression as text; empty if the file is not compressed
+     */
+    private static String compressed(String compression)
+    {
+        return compression.equals(SaveCodecs.NONE)?"":" (" + compression + ")";
+    }
+
+    /**
+     * Generate a family tree into a .dat file
+     *
+     * @param args output file, number of people and optionally seed
+     * @return number of people generated
+     * @throws IOException if the output file cannot be written
+     * @throws IllegalArgumentException if the output file is not a .dat file, or the number of
+     *         people or seed is not a number
+     */
+    private static Result generate(List<String> args) throws IOException
+    {
+        File output = new File(args.get(0));
+        if(!output.getName().toLowerCase().endsWith(".dat"))
+        {
+            throw new IllegalArgumentException("Generated family trees can only be saved as .dat files!");
+        }
+
+        int count;
+        long seed;
+        try
+        {
+            count = Integer.parseInt(args.get(1));
+            seed = args.size() > 2?Long.parseLong(args.get(2)):FamilyTreeGenerator.DEFAULT_SEED;
+        }
+        catch(NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Number of people and seed can only contain number!");
+        }
+
+        FamilyTreeGenerator.generate(output, count, seed, null);
+        return new Result("generated " + plural(count, "person", "people") + " with seed " + seed + " to " + output, true);
+    }
+
+    /**
+     * Save a family tree file as a .dat file, a GEDCOM file, CSV files, a JSON Lines file or a
+     * text outline, chosen by the extension of the output file
+     *
+     * @param file file to export
+     * @param output file to save into
+     * @param codec codec to compress a .dat file with; null for no compression
+     * @return number of people exported
+     * @throws Exception if the file cannot be read or the output file cannot be written
+     * @throws IllegalArgumentException if the extension of the output file is not known
+     */
+    private static Result export(File file, File output, SaveCodec codec) throws Exception
+    {
+        String name = output.getName().toLowerCase();
+        if(!name.endsWith(".dat") && !name.endsWith(".txt") && !isImported(output))
+        {
+            throw new IllegalArgumentException("Unknown export format: " + output.getName());
+        }
+        if(!file.isFile())
+        {
+            throw new IllegalArgumentException("File not found: " + file);
+        }
+
+        PersonRegistry registry = load(file);
+        if(name.endsWith(".dat"))
+        {
+            FamilyTreeFile.save(registry, output, codec, null);
+        }
+        else if(GedcomFile.isGedcom(output))
+        {
+            GedcomFile.save(registry, output, null);
+        }
+        else if(CsvFile.isCsv(output))
+        {
+            CsvFile.save(registry, output, null);
+        }
+        else if(JsonLinesFile.isJsonLines(output))
+        {
+            JsonLinesFile.save(registry, output, null);
+        }
+        else
+        {
+            try(BufferedWriter writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8))
+            {
+                writeOutline(registry, writer);
+            }
+        }
+        return new Result(file + ": exported " + plural(registry.size(), "person", "people") + " to " + output, true);
+    }
+
+    /**
+     * Write a family tree as an outline, with every couple on one line and their children
+     * indented below them.
+     * <p>Every person is written once. Outlines start from the people without parents, in
+     * order of id, and are walked with an explicit stack.
+     *
+     * @param registry registry of family tree
+     * @param writer receives outline
+     * @throws IOException if the outline cannot be written
+     */
+    private static void writeOutline(PersonRegistry registry, BufferedWriter writer) throws IOException
+    {
+        int size = registry.size();
+        boolean[] written = new boolean[size];
+
+        // Ids and indentation of people waiting to be written. A child is waiting once for each
+        // parent, so the stack can grow beyond the number of people
+        int[] stack = new int[Math.max(16, size)];
+        int[] depth = new int[stack.length];
+
+        for(int start=0; start<size; start++)
+        {
+            if(written[start] || !registry.get(start).getParentList().isEmpty())
+            {
+                continue;
+            }
+
+            int top = 0;
+            stack[top] = start;
+            depth[top++] = 0;
+
+            while(top > 0)
+            {
+                top--;
+                int id = stack[top], level = depth[top];
+                if(written[id])
+                {
+                    continue;
+                }
+
+                Person p = registry.get(id);
+                written[id] = true;
+                for(int i=0; i<level; i++)
+                {
+                    writer.write("    ");
+                }
+                writer.write(describe(p));
+
+                Person spouse = p.getSpouse();
+                int spouseId = spouse == null?-1:registry.getId(spouse);
+                if(spouseId >= 0 && !written[spouseId])
+                {
+                    written[spouseId] = true;
+                    writer.write(" & ");
+                    writer.write(describe(spouse));
+                }
+                writer.newLine();
+
+                // Pushed in reverse so that the first child is written first
+                List<Person> children = p.getChildList();
+                for(int i=children.size()-1; i>=0; i--)
+                {
+                    int child = registry.getId(children.get(i));
+                    if(child >= 0 && !written[child])
+                    {
+                        if(top == stack.length)
+                        {
+                            stack = Arrays.copyOf(stack, top * 2);
+                            depth = Arrays.copyOf(depth, top * 2);
+                        }
+                        stack[top] = child;
+                        depth[top++] = level + 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a person as written in an outline
+     *
+     * @param p person
+     * @return full name, gender and address of person
+     */
+    private static String describe(Person p)
+    {
+        return p.getFullName() + " (" + p.getGender() + ", " + p.getStreetNo() + " " + p.getStreetName() + ", "
+                + p.getSuburb() + " " + p.getPostcode() + ")";
+    }
+
+    /**
+     * Returns a number followed by the singular or plural of what it counts
+     *
+     * @param n number
+     * @param one what is counted, when there is one
+     * @param many what is counted, when there are several or none
+     * @return number and what it counts, eg. 1 couple or 2 couples
+     */
+    private static String plural(long n, String one, String many)
+    {
+        return n + " " + (n == 1?one:many);
+    }
+}
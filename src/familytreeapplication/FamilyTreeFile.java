@@ -0,0 +1,1457 @@
+/*
+ * Title: FamilyTreeFile class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeFile.java
+ * Purpose: The purpose of this class is to save a family tree into a .dat file and load
+ *          it back, without recursing through the relatives of every person.
+ * Assumptions/Conditions: - Every person connected to the root person is saved.
+                           - People are saved one after the other, and relatives are saved as
+                             the id (position) of the relative in the file.
+                           - The root person is always the first person in the file.
+                           - A tree saved from a PersonRegistry is saved in order of id, so every
+                             person has the same id in the file as in the registry.
+                           - Every distinct string is saved once in a string table, and people
+                             refer to strings by their position in the table.
+                           - The file has an index of the position of every string and every
+                             person, so that it can be mapped into memory and people can be read
+                             only when they are needed (see MappedTreeFile).
+                           - A file is saved into a temporary file first, which then replaces the
+                             chosen file, so a failed save does not damage an existing file. The
+                             file is on disk by the time a save returns.
+                           - Every save gives the file a new random save id, so the journal of the
+                             file (see FamilyTreeJournal) only applies to that save of it.
+                           - Saving and loading can report their progress, and stop with an
+                             InterruptedIOException when the thread running them is interrupted.
+                           - A couple that share the same list of children still share it
+                             after loading.
+                           - Files saved by older versions of the program, as a Java serialized
+                             root person, can still be loaded.
+                           - A file can be compressed by a SaveCodec as it is saved. A compressed
+                             file starts with its own magic and the name of its codec, so it is
+                             found and decompressed when it is loaded, whatever it is named.
+                             Compressed files cannot be mapped into memory, so every person is
+                             read when they are loaded.
+ */
+package familytreeapplication;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.*;
+
+/**
+ * Saves a family tree into a .dat file and loads it back.
+ * <p>The file (version 3) is laid out as follows, with every number stored big-endian:
+ * <ul>
+ * <li>header: magic (int), version (short), reserved (short, 0), number of people (int),
+ *     number of strings (int), position of string index (long), position of record index
+ *     (long), save id (long): a random number given to the file when it is saved, which ties
+ *     the journal of the file to this save of it </li>
+ * <li>string index: position of every string (long each) </li>
+ * <li>record index: position of the record of every person, keyed by person id (long each) </li>
+ * <li>strings: every string as its length in bytes (int) followed by its UTF-8 bytes </li>
+ * <li>records: for every person the string ids of name, surname, gender, life description,
+ *     street name, suburb and type (int each, -1 for none), street number and postcode (int
+ *     each), spouse id (int, -1 for none), flags (byte), and the parent ids and child ids
+ *     (int count followed by the ids) </li>
+ * </ul>
+ * <p>Files are opened with a MappedTreeFile, so only the people that are viewed are read.
+ * <p>The file is read and written through a FileChannel with a direct ByteBuffer. Saving
+ * and loading do not recurse, so family trees of any depth can be saved and loaded.
+ * <p>Files written by older versions of the program, which serialized the root person with
+ * an ObjectOutputStream, are detected and loaded as before.
+ * <p>A compressed file is laid out as its magic (int) and the name of its codec (modified UTF-8,
+ * as written by DataOutputStream), followed by the file above compressed by the codec. It is
+ * read from start to end as it is decompressed, so the indexes of a compressed file must come before its strings, and its strings before its records, as this class and
+ * FamilyTreeGenerator write them. Records can still be in any order.
+ *
+ * @author Zhiguang
+ */
+public final class FamilyTreeFile
+{
+    /**
+     * Value at the start of every family tree file ("FTRE")
+     */
+    public static final int MAGIC = 0x46545245;
+
+    /**
+     * Version of the file layout written by this class
+     */
+    public static final int VERSION = 3;
+
+    /**
+     * Value at the start of every compressed family tree file ("FTRZ")
+     */
+    public static final int COMPRESSED_MAGIC = 0x4654525A;
+
+    // Size of the header in bytes, including the save id
+    static final int HEADER_SIZE = 40;
+
+    // Person flag set when a person shares the same list of children with the spouse
+    static final int SHARED_CHILDREN = 1;
+
+    // Size of the buffer used to read and write files
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Number of people or bytes processed between progress reports
+    static final int REPORT_INTERVAL = 4096;
+
+    // Source of save ids, which must not repeat between runs of the program
+    private static final SecureRandom SAVE_IDS = new SecureRandom();
+
+    /**
+     * Receives the progress of a save or load
+     */
+    public interface Progress
+    {
+        /**
+         * Called as a save or load progresses
+         *
+         * @param done number of people or bytes processed
+         * @param total total number of people or bytes; -1 if not known yet
+         * @param unit unit of done and total ("people" or "bytes")
+         */
+        void update(long done, long total, String unit);
+    }
+
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private FamilyTreeFile()
+    {}
+
+    /**
+     * Save root person, and every person connected to root person, into a file
+     *
+     * @param root root person of family tree
+     * @param file file to save into
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Person root, File file) throws IOException
+    {
+        save(root, file, null);
+    }
+
+    /**
+     * Save root person, and every person connected to root person, into a file,
+     * reporting progress as people are saved.
+     * <p>The file is compressed with the codec named by the system property familytree.codec.
+     *
+     * @param root root person of family tree
+     * @param file file to save into
+     * @param progress receives progress of save; null if not needed
+     * @throws IOException if the file cannot be written, or the save is interrupted
+     */
+    public static void save(Person root, File file, Progress progress) throws IOException
+    {
+        save(root, null, file, SaveCodecs.getDefault(), progress);
+    }
+
+    /**
+     * Save every person in a registry into a file in order of id, so that the id of every
+     * person in the file is the same as in the registry.
+     * <p>The file is compressed with the codec named by the system property familytree.codec.
+     *
+     * @param registry registry of family tree, with the root person as id 0
+     * @param file file to save into
+     * @param progress receives progress of save; null if not needed
+     * @throws IOException if the file cannot be written, or the save is interrupted
+     */
+    public static void save(PersonRegistry registry, File file, Progress progress) throws IOException
+    {
+        save(registry, file, SaveCodecs.getDefault(), progress);
+    }
+
+    /**
+     * Save every person in a registry into a file in order of id, compressed with a codec
+     *
+     * @param registry registry of family tree, with the root person as id 0
+     * @param file file to save into
+     * @param codec codec to compress with; null for no compression
+     * @param progress receives progress of save; null if not needed
+     * @throws IOException if the file cannot be written, or the save is interrupted
+     */
+    public static void save(PersonRegistry registry, File file, SaveCodec codec, Progress progress) throws IOException
+    {
+        save(registry.get(0), registry, file, codec, progress);
+    }
+
+    /**
+     * Save a family tree into a temporary file, which then replaces the file
+     *
+     * @param root root person of family tree
+     * @param registry registry of family tree; null to save in the order of collectAll
+     * @param file file to save into
+     * @param codec codec to compress with; null for no compression
+     * @param progress receives progress of save; null if not needed
+     * @throws IOException if the file cannot be written, or the save is interrupted
+     */
+    private static void save(Person root, PersonRegistry registry, File file, SaveCodec codec, Progress progress) throws IOException
+    {
+        // A tree saved into the file it is mapped from is read completely, as the file is replaced
+        if(root instanceof PagedPerson && ((PagedPerson)root).getFile().isMapped(file))
+        {
+            ((PagedPerson)root).getFile().release();
+        }
+
+        try(FileReplacement replacement = new FileReplacement(file))
+        {
+            try(FileChannel channel = FileChannel.open(replacement.getTemp(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+            {
+                if(codec == null)
+                {
+                    write(root, registry, channel, progress);
+                }
+                else
+                {
+                    // Magic and name of codec, followed by the file compressed by the codec
+                    OutputStream out = Channels.newOutputStream(channel);
+                    DataOutputStream header = new DataOutputStream(out);
+                    header.writeInt(COMPRESSED_MAGIC);
+                    header.writeUTF(codec.getName());
+                    header.flush();
+
+                    try(OutputStream compressed = codec.compress(out))
+                    {
+                        write(root, registry, Channels.newChannel(compressed), progress);
+                    }
+                }
+            }
+            replacement.replace();
+        }
+    }
+
+    /**
+     * Write root person, and every person connected to root person, to a channel
+     *
+     * @param root root person of family tree
+     * @param channel channel to write to
+     * @throws IOException if the channel cannot be written
+     */
+    public static void write(Person root, WritableByteChannel channel) throws IOException
+    {
+        write(root, channel, null);
+    }
+
+    /**
+     * Write root person, and every person connected to root person, to a channel,
+     * reporting progress as people are written
+     *
+     * @param root root person of family tree
+     * @param channel channel to write to
+     * @param progress receives progress of write; null if not needed
+     * @throws IOException if the channel cannot be written, or the write is interrupted
+     */
+    public static void write(Person root, WritableByteChannel channel, Progress progress) throws IOException
+    {
+        write(root, null, channel, progress);
+    }
+
+    /**
+     * Write a family tree to a channel, reporting progress as people are written
+     *
+     * @param root root person of family tree
+     * @param registry registry of family tree; null to write in the order of collectAll
+     * @param channel channel to write to
+     * @param progress receives progress of write; null if not needed
+     * @throws IOException if the channel cannot be written, or the write is interrupted
+     */
+    private static void write(Person root, PersonRegistry registry, WritableByteChannel channel, Progress progress) throws IOException
+    {
+        report(progress, 0, -1, "people");
+        List<Person> people = registry != null?registry.people():PersonTraversal.collectAll(root);
+        checkInterrupted();
+
+        // Id of every person, which is the position of the person in the file
+        Map<Person, Integer> ids = new IdentityHashMap<>();
+        for(int i=0; i<people.size(); i++)
+        {
+            ids.put(people.get(i), i);
+        }
+
+        // Id of every distinct string, in the order they are first used
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        List<byte[]> encoded = new ArrayList<>();
+        for(Person p:people)
+        {
+            for(String s:fields(p))
+            {
+                if(s != null && !strings.containsKey(s))
+                {
+                    strings.put(s, strings.size());
+                    encoded.add(s.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        TreeWriter out = new TreeWriter(channel, people.size(), encoded, newSaveId());
+
+        // Record index, from the number of relatives of every person
+        for(Person p:people)
+        {
+            out.putRecordPosition(p.getParentList().size(), p.getChildList().size());
+        }
+        out.putStrings();
+
+        // Records
+        int[] fields = new int[7];
+        int[] parents = new int[2];
+        int[] children = new int[16];
+        int written = 0;
+        for(Person p:people)
+        {
+            if(++written % REPORT_INTERVAL == 0)
+            {
+                report(progress, written, people.size(), "people");
+            }
+
+            String[] s = fields(p);
+            for(int i=0; i<s.length; i++)
+            {
+                fields[i] = s[i] == null?-1:strings.get(s[i]);
+            }
+            int spouse = p.noSpouse()?-1:ids.get(p.getSpouse());
+            boolean shared = !p.noSpouse() && p.getChildList() == p.getSpouse().getChildList();
+
+            parents = ids(p.getParentList(), ids, parents);
+            children = ids(p.getChildList(), ids, children);
+            out.putRecord(fields, p.getStreetNo(), p.getPostcode(), spouse, shared,
+                          parents, p.getParentList().size(), children, p.getChildList().size());
+        }
+
+        out.flush();
+        report(progress, people.size(), people.size(), "people");
+    }
+
+    /**
+     * Load the root person of a family tree from a file
+     *
+     * @param file file to load from
+     * @return root person of family tree
+     * @throws IOException if the file cannot be read or is not a family tree file
+     * @throws ClassNotFoundException if an older file contains an unknown class
+     */
+    public static Person load(File file) throws IOException, ClassNotFoundException
+    {
+        return load(file, null);
+    }
+
+    /**
+     * Load the root person of a family tree from a file, reporting progress as the
+     * file is read
+     *
+     * @param file file to load from
+     * @param progress receives progress of load; null if not needed
+     * @return root person of family tree
+     * @throws IOException if the file cannot be read, is not a family tree file, or the load is interrupted
+     * @throws ClassNotFoundException if an older file contains an unknown class
+     */
+    public static Person load(File file, Progress progress) throws IOException, ClassNotFoundException
+    {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            ByteBuffer header = ByteBuffer.allocate(6);
+            while(header.hasRemaining() && channel.read(header) >= 0)
+            {}
+
+            if(!header.hasRemaining() && header.getInt(0) == COMPRESSED_MAGIC)
+            {
+                return loadCompressed(channel, progress);
+            }
+            if(header.hasRemaining() || header.getInt(0) != MAGIC)
+            {
+                // File saved by older version of the program
+                channel.position(0);
+                return loadSerialized(new ProgressInputStream(Channels.newInputStream(channel), channel.size(), progress));
+            }
+
+            checkVersion(header.getShort(4) & 0xFFFF);
+
+            // Mapping stays valid after the channel is closed
+            Person root = new MappedTreeFile(file, channel).getRoot();
+            report(progress, 1, 1, "people");
+            return root;
+        }
+    }
+
+    /**
+     * Load the root person of a compressed family tree, reading every person
+     *
+     * @param channel channel positioned after the magic of the file
+     * @param progress receives progress of load; null if not needed
+     * @return root person of family tree
+     * @throws IOException if the file cannot be read or decompressed, its codec is not known, or the load is interrupted
+     */
+    private static Person loadCompressed(FileChannel channel, Progress progress) throws IOException
+    {
+        channel.position(4);
+        try(DataInputStream in = new DataInputStream(decompress(channel)))
+        {
+            if(in.readInt() != MAGIC)
+            {
+                throw new IOException("Compressed file does not contain a family tree");
+            }
+
+            checkVersion(in.readUnsignedShort());
+            return readAll(Channels.newChannel(in), progress);
+        }
+    }
+
+    /**
+     * Returns a stream which decompresses a compressed file, with the codec named in the file
+     *
+     * @param channel channel positioned after the magic of the file
+     * @return stream of the decompressed file
+     * @throws IOException if the file cannot be read, or its codec is not known
+     */
+    private static InputStream decompress(FileChannel channel) throws IOException
+    {
+        InputStream in = Channels.newInputStream(channel);
+        String name = new DataInputStream(in).readUTF();
+
+        SaveCodec codec;
+        try
+        {
+            codec = SaveCodecs.get(name);
+        }
+        catch(IllegalArgumentException e)
+        {
+            throw new IOException("File is compressed with an unknown codec: " + name, e);
+        }
+        if(codec == null)
+        {
+            throw new IOException("Compressed file does not name its codec");
+        }
+        return codec.decompress(in);
+    }
+
+    /**
+     * Returns the version of the layout a family tree file was saved in, without loading it.
+     * <p>The version of a compressed file is the version of the file inside it.
+     *
+     * @param file file to check
+     * @return version of file; 0 for a file saved by an older version of the program
+     * @throws IOException if the file cannot be read
+     */
+    public static int version(File file) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            ByteBuffer header = ByteBuffer.allocate(6);
+            while(header.hasRemaining() && channel.read(header) >= 0)
+            {}
+
+            if(!header.hasRemaining() && header.getInt(0) == COMPRESSED_MAGIC)
+            {
+                channel.position(4);
+                try(DataInputStream in = new DataInputStream(decompress(channel)))
+                {
+                    return in.readInt() != MAGIC?0:in.readUnsignedShort();
+                }
+            }
+            if(header.hasRemaining() || header.getInt(0) != MAGIC)
+            {
+                return 0;
+            }
+            return header.getShort(4) & 0xFFFF;
+        }
+    }
+
+    /**
+     * Returns the name of the codec a family tree file was compressed with, without loading it
+     *
+     * @param file file to check
+     * @return name of codec; none if the file is not compressed
+     * @throws IOException if the file cannot be read
+     */
+    public static String compression(File file) throws IOException
+    {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+        {
+            if(file.length() < 6 || in.readInt() != COMPRESSED_MAGIC)
+            {
+                return SaveCodecs.NONE;
+            }
+            return in.readUTF();
+        }
+    }
+
+    /**
+     * Returns the save id of a family tree file, which is different every time the file is saved
+     *
+     * @param file file to check
+     * @return save id of file; 0 for a file saved by an older version of the program
+     * @throws IOException if the file cannot be read, or is of an unsupported version
+     */
+    public static long saveId(File file) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+        {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while(magic.hasRemaining() && channel.read(magic) >= 0)
+            {}
+
+            DataInputStream in;
+            if(!magic.hasRemaining() && magic.getInt(0) == COMPRESSED_MAGIC)
+            {
+                in = new DataInputStream(decompress(channel));
+                if(in.readInt() != MAGIC)
+                {
+                    return 0;
+                }
+            }
+            else if(!magic.hasRemaining() && magic.getInt(0) == MAGIC)
+            {
+                in = new DataInputStream(Channels.newInputStream(channel));
+            }
+            else
+            {
+                return 0;
+            }
+
+            try
+            {
+                checkVersion(in.readUnsignedShort());
+
+                // Save id is the last number of the header, after the magic and version
+                in.readFully(new byte[HEADER_SIZE - 6 - 8]);
+                return in.readLong();
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+    }
+
+    /**
+     * Returns a new save id, which is never 0
+     *
+     * @return save id
+     */
+    private static long newSaveId()
+    {
+        long id;
+        do
+        {
+            id = SAVE_IDS.nextLong();
+        }
+        while(id == 0);
+        return id;
+    }
+
+    /**
+     * Check that a file is laid out in the version written by this class
+     *
+     * @param version version of the file
+     * @throws IOException if the version is not supported
+     */
+    private static void checkVersion(int version) throws IOException
+    {
+        if(version != VERSION)
+        {
+            throw new IOException("Unsupported file version: " + version);
+        }
+    }
+
+    /**
+     * Read every person of a file from start to end, as it is decompressed
+     *
+     * @param channel channel positioned after the file version
+     * @param progress receives progress of read; null if not needed
+     * @return root person of family tree
+     * @throws IOException if the channel cannot be read, the file is not laid out in order, or the read is interrupted
+     */
+    private static Person readAll(ReadableByteChannel channel, Progress progress) throws IOException
+    {
+        ChannelInput in = new ChannelInput(channel, 6);
+        in.getShort();
+        int count = in.getInt();
+        int stringCount = in.getInt();
+        long stringIndex = in.getLong();
+        long recordIndex = in.getLong();
+        in.getLong();
+        if(count <= 0)
+        {
+            throw new IOException("File does not contain a root person");
+        }
+        if(stringCount < 0 || stringIndex != in.position() || recordIndex != stringIndex + 8L * stringCount)
+        {
+            throw new IOException("Indexes of compressed file are not in order");
+        }
+
+        // Strings are read in order, so the string index is only checked
+        long[] stringPositions = new long[stringCount];
+        for(int i=0; i<stringCount; i++)
+        {
+            stringPositions[i] = in.getLong();
+        }
+        long[] recordPositions = new long[count];
+        for(int i=0; i<count; i++)
+        {
+            recordPositions[i] = in.getLong();
+        }
+
+        String[] strings = new String[stringCount];
+        for(int i=0; i<stringCount; i++)
+        {
+            if(in.position() != stringPositions[i])
+            {
+                throw new IOException("String " + i + " of compressed file is not in order");
+            }
+            strings[i] = in.getString();
+        }
+
+        Person[] people = new Person[count];
+        int[] spouse = new int[count];
+        boolean[] shared = new boolean[count];
+        int[][] parents = new int[count][];
+        int[][] children = new int[count][];
+
+        // Records can be saved in any order, so they are read in order of position
+        int[] order = recordOrder(recordPositions);
+        for(int i=0; i<count; i++)
+        {
+            if(i % REPORT_INTERVAL == 0)
+            {
+                report(progress, i, count, "people");
+            }
+
+            int id = order[i];
+            if(in.position() != recordPositions[id])
+            {
+                throw new IOException("Person " + id + " of compressed file is not in order");
+            }
+            readRecord(in, strings, id, people, spouse, shared, parents, children);
+        }
+
+        return link(people, spouse, shared, parents, children);
+    }
+
+    /**
+     * Returns the ids of people in order of the position of their records
+     *
+     * @param positions position of the record of every person, by id
+     * @return ids of people, from the first record to the last
+     * @throws IOException if two people have the same record
+     */
+    private static int[] recordOrder(long[] positions) throws IOException
+    {
+        int[] order = new int[positions.length];
+        boolean sorted = true;
+        for(int i=0; i<positions.length; i++)
+        {
+            order[i] = i;
+            sorted &= i == 0 || positions[i - 1] < positions[i];
+        }
+        if(sorted)
+        {
+            return order;
+        }
+
+        long[] byPosition = positions.clone();
+        Arrays.sort(byPosition);
+        Arrays.fill(order, -1);
+        for(int id=0; id<positions.length; id++)
+        {
+            int k = Arrays.binarySearch(byPosition, positions[id]);
+            if(order[k] >= 0)
+            {
+                throw new IOException("People " + order[k] + " and " + id + " have the same record");
+            }
+            order[k] = id;
+        }
+        return order;
+    }
+
+    /**
+     * Read the record of a person
+     *
+     * @param in input positioned at the record
+     * @param strings string table of the file
+     * @param i id of person
+     * @param people every person, by id
+     * @param spouse spouse id of every person
+     * @param shared true for every person that shares the list of children with the spouse
+     * @param parents parent ids of every person
+     * @param children child ids of every person
+     * @throws IOException if the record cannot be read, or refers to a string or person not in the file
+     */
+    private static void readRecord(ChannelInput in, String[] strings, int i, Person[] people, int[] spouse, boolean[] shared,
+                                   int[][] parents, int[][] children) throws IOException
+    {
+        String[] s = new String[7];
+        for(int j=0; j<s.length; j++)
+        {
+            int id = in.getInt();
+            s[j] = id < 0?null:strings[checkId(id, strings.length)];
+        }
+        int streetNo = in.getInt();
+        int postCode = in.getInt();
+
+        people[i] = new Person(s[0], s[1], gender(s[2]), s[3], streetNo, s[4], s[5], postCode, type(s[6]));
+        spouse[i] = in.getInt();
+        shared[i] = (in.getByte() & SHARED_CHILDREN) != 0;
+        parents[i] = getIds(in, people.length);
+        children[i] = getIds(in, people.length);
+    }
+
+    /**
+     * Returns the string fields of a person, in the order they are saved.
+     * <p>Gender and type are saved as their labels.
+     *
+     * @param p person
+     * @return name, surname, gender, life description, street name, suburb and type
+     */
+    static String[] fields(Person p)
+    {
+        String gender = p.getGender() == null?null:p.getGender().toString();
+        String type = p.getType() == null?null:p.getType().toString();
+        return new String[]{p.getName(), p.getSurname(), gender, p.getLifeDesc(), p.getStreetName(), p.getSuburb(), type};
+    }
+
+    /**
+     * Returns the gender saved as a label in a file
+     *
+     * @param s label
+     * @return gender; null if s is null
+     * @throws IOException if s is not the label of a gender
+     */
+    static Gender gender(String s) throws IOException
+    {
+        try
+        {
+            return Gender.parse(s);
+        }
+        catch(IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the type saved as a label in a file
+     *
+     * @param s label
+     * @return type; null if s is null
+     * @throws IOException if s is not the label of a type
+     */
+    static RelationType type(String s) throws IOException
+    {
+        try
+        {
+            return RelationType.parse(s);
+        }
+        catch(IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Link people to their relatives after every person has been read
+     *
+     * @param people every person, by id
+     * @param spouse spouse id of every person, -1 for none
+     * @param shared true for every person that shares the list of children with the spouse
+     * @param parents parent ids of every person
+     * @param children child ids of every person
+     * @return root person of family tree
+     * @throws IOException if a spouse id is invalid
+     */
+    private static Person link(Person[] people, int[] spouse, boolean[] shared, int[][] parents, int[][] children) throws IOException
+    {
+        int count = people.length;
+
+        for(int i=0; i<count; i++)
+        {
+            Person p = people[i];
+
+            if(spouse[i] >= 0)
+            {
+                p.setSpouse(people[checkId(spouse[i], count)]);
+            }
+            for(int parent:parents[i])
+            {
+                p.getParentList().add(people[parent]);
+            }
+            for(int child:children[i])
+            {
+                p.getChildList().add(people[child]);
+            }
+        }
+
+        // Couples that shared the same list of children share it again
+        for(int i=0; i<count; i++)
+        {
+            if(shared[i] && spouse[i] >= 0 && spouse[i] < i)
+            {
+                people[i].setChildList(people[spouse[i]].getChildList());
+            }
+        }
+
+        return people[0];
+    }
+
+    /**
+     * Load root person from a file saved with an ObjectOutputStream.
+     * <p>Java serialization recurses through relatives, so very deep trees saved by older
+     * versions may not load. Saving them again uses the current layout.
+     *
+     * @param in stream positioned at the start of the file
+     * @return root person of family tree
+     * @throws IOException if the file cannot be read
+     * @throws ClassNotFoundException if the file contains an unknown class
+     */
+    private static Person loadSerialized(InputStream in) throws IOException, ClassNotFoundException
+    {
+        ObjectInputStream is = new ObjectInputStream(new BufferedInputStream(in));
+        Object data = is.readObject();
+
+        if(!(data instanceof Person))
+        {
+            throw new IOException("File does not contain a family tree");
+        }
+        removeDuplicateChildren((Person)data);
+        return (Person)data;
+    }
+
+    /**
+     * Remove the second listing of every child from the lists of children of a tree.
+     * <p>Older versions of the program added every child of a couple twice to the list of
+     * children the couple shares. Every list is only cleaned once, even when it is shared.
+     *
+     * @param root root person of family tree
+     */
+    private static void removeDuplicateChildren(Person root)
+    {
+        Set<Person> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<List<Person>> cleaned = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayDeque<Person> stack = new ArrayDeque<>();
+        visited.add(root);
+        stack.push(root);
+
+        while(!stack.isEmpty())
+        {
+            Person p = stack.pop();
+            if(cleaned.add(p.getChildList()))
+            {
+                Set<Person> listed = Collections.newSetFromMap(new IdentityHashMap<>());
+                p.getChildList().removeIf(child -> !listed.add(child));
+            }
+
+            List<Person> relatives = new ArrayList<>(p.getParentList());
+            relatives.addAll(p.getChildList());
+            if(!p.noSpouse())
+            {
+                relatives.add(p.getSpouse());
+            }
+            for(Person relative:relatives)
+            {
+                if(visited.add(relative))
+                {
+                    stack.push(relative);
+                }
+            }
+        }
+    }
+
+    /**
+     * Report progress, and stop if the thread has been interrupted
+     *
+     * @param progress receives progress; null if not needed
+     * @param done number of people or bytes processed
+     * @param total total number of people or bytes; -1 if not known yet
+     * @param unit unit of done and total
+     * @throws InterruptedIOException if the thread has been interrupted
+     */
+    static void report(Progress progress, long done, long total, String unit) throws InterruptedIOException
+    {
+        checkInterrupted();
+
+        if(progress != null)
+        {
+            progress.update(done, total, unit);
+        }
+    }
+
+    /**
+     * Stop a save or load if the thread running it has been interrupted
+     *
+     * @throws InterruptedIOException if the thread has been interrupted
+     */
+    private static void checkInterrupted() throws InterruptedIOException
+    {
+        if(Thread.currentThread().isInterrupted())
+        {
+            throw new InterruptedIOException("Cancelled");
+        }
+    }
+
+    /**
+     * Returns the id of every person in a list
+     *
+     * @param list people
+     * @param ids id of every person
+     * @param into array to fill, if it is large enough
+     * @return into, or a larger array, with the ids at the start
+     */
+    private static int[] ids(List<Person> list, Map<Person, Integer> ids, int[] into)
+    {
+        int[] array = into.length < list.size()?new int[Math.max(list.size(), into.length * 2)]:into;
+        for(int i=0; i<list.size(); i++)
+        {
+            array[i] = ids.get(list.get(i));
+        }
+        return array;
+    }
+
+    /**
+     * Read ids written by TreeWriter.putRecord
+     *
+     * @param in input to read from
+     * @param count number of people in the file
+     * @return ids read
+     * @throws IOException if the ids cannot be read or are invalid
+     */
+    private static int[] getIds(ChannelInput in, int count) throws IOException
+    {
+        int[] list = new int[checkId(in.getInt(), count + 1)];
+        for(int i=0; i<list.length; i++)
+        {
+            list[i] = checkId(in.getInt(), count);
+        }
+        return list;
+    }
+
+    /**
+     * Check that an id is between 0 and a limit
+     *
+     * @param id id to check
+     * @param limit number of valid ids
+     * @return id checked
+     * @throws IOException if the id is invalid
+     */
+    private static int checkId(int id, int limit) throws IOException
+    {
+        if(id < 0 || id >= limit)
+        {
+            throw new IOException("Invalid id in file: " + id);
+        }
+        return id;
+    }
+
+    /**
+     * Reports the number of bytes read from a stream
+     */
+    static final class ProgressInputStream extends FilterInputStream
+    {
+        private final long total;
+        private final Progress progress;
+        private long done, reported;
+
+        /**
+         * Constructor which sets the stream to read from, and where to report progress
+         *
+         * @param in stream to read from
+         * @param size number of bytes in the stream
+         * @param p receives progress; null if not needed
+         */
+        ProgressInputStream(InputStream in, long size, Progress p)
+        {
+            super(in);
+            total = size;
+            progress = p;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            int b = super.read();
+            count(b < 0?0:1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            int n = super.read(b, off, len);
+            count(Math.max(n, 0));
+            return n;
+        }
+
+        /**
+         * Add bytes read, and report progress every REPORT_INTERVAL bytes
+         *
+         * @param n number of bytes read
+         * @throws InterruptedIOException if the thread has been interrupted
+         */
+        private void count(int n) throws InterruptedIOException
+        {
+            done += n;
+            if(done - reported >= REPORT_INTERVAL || (n > 0 && done == total))
+            {
+                reported = done;
+                report(progress, done, total, "bytes");
+            }
+        }
+    }
+
+    /**
+     * Writes a family tree file in the current layout, one section after the other: the
+     * header and string index, the record index, the string table, then the records.
+     * <p>The record index is either written from the number of relatives of every person
+     * before the records, or left empty and filled in once every record is written.
+     */
+    static final class TreeWriter
+    {
+        private final ChannelOutput out;
+        private final int count;
+        private final List<byte[]> strings;
+        private final long recordIndex;
+
+        // Position of the next record added to the record index, and of the next record written
+        private long indexed, position;
+
+        /**
+         * Constructor which writes the header and string index
+         *
+         * @param c channel to write to, at the start of the file
+         * @param n number of people
+         * @param s every string in UTF-8, in order of id
+         * @param saveId save id of the file; never 0
+         * @throws IOException if the channel cannot be written
+         */
+        TreeWriter(WritableByteChannel c, int n, List<byte[]> s, long saveId) throws IOException
+        {
+            out = new ChannelOutput(c);
+            count = n;
+            strings = s;
+
+            long tableSize = 0;
+            for(byte[] bytes:strings)
+            {
+                tableSize += 4 + bytes.length;
+            }
+
+            long stringIndex = HEADER_SIZE;
+            recordIndex = stringIndex + 8L * strings.size();
+            long stringData = recordIndex + 8L * count;
+            indexed = stringData + tableSize;
+            position = indexed;
+
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putShort(0);
+            out.putInt(count);
+            out.putInt(strings.size());
+            out.putLong(stringIndex);
+            out.putLong(recordIndex);
+            out.putLong(saveId);
+
+            long stringPosition = stringData;
+            for(byte[] bytes:strings)
+            {
+                out.putLong(stringPosition);
+                stringPosition += 4 + bytes.length;
+            }
+        }
+
+        /**
+         * Add the position of the next record to the record index, in the order the
+         * records are written
+         *
+         * @param parents number of parents of the person
+         * @param children number of children of the person
+         * @throws IOException if the channel cannot be written
+         */
+        void putRecordPosition(int parents, int children) throws IOException
+        {
+            out.putLong(indexed);
+            indexed += recordSize(parents, children);
+        }
+
+        /**
+         * Leave room for the whole record index, to be filled in by putRecordIndex
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        void skipRecordIndex() throws IOException
+        {
+            for(int i=0; i<count; i++)
+            {
+                out.putLong(0);
+            }
+        }
+
+        /**
+         * Write the string table, after the record index
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        void putStrings() throws IOException
+        {
+            for(byte[] bytes:strings)
+            {
+                out.putInt(bytes.length);
+                out.put(bytes);
+            }
+        }
+
+        /**
+         * Write the record of a person, after the string table
+         *
+         * @param fields string ids of name, surname, gender, life description, street name, suburb and type; -1 if not set
+         * @param streetNo street number
+         * @param postcode postcode
+         * @param spouse id of spouse; -1 if none
+         * @param sharedChildren true if the person shares the list of children with the spouse
+         * @param parents ids of parents
+         * @param parentCount number of parents, taken from the start of parents
+         * @param children ids of children
+         * @param childCount number of children, taken from the start of children
+         * @return position of the record in the file
+         * @throws IOException if the channel cannot be written
+         */
+        long putRecord(int[] fields, int streetNo, int postcode, int spouse, boolean sharedChildren,
+                       int[] parents, int parentCount, int[] children, int childCount) throws IOException
+        {
+            long record = position;
+            position += recordSize(parentCount, childCount);
+
+            for(int field:fields)
+            {
+                out.putInt(field);
+            }
+            out.putInt(streetNo);
+            out.putInt(postcode);
+            out.putInt(spouse);
+            out.putByte(sharedChildren?SHARED_CHILDREN:0);
+
+            out.putInt(parentCount);
+            for(int i=0; i<parentCount; i++)
+            {
+                out.putInt(parents[i]);
+            }
+            out.putInt(childCount);
+            for(int i=0; i<childCount; i++)
+            {
+                out.putInt(children[i]);
+            }
+            return record;
+        }
+
+        /**
+         * Write everything not yet written to the channel
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        void flush() throws IOException
+        {
+            out.flush();
+        }
+
+        /**
+         * Fill in the record index left by skipRecordIndex, once every record is written
+         *
+         * @param channel file being written
+         * @param positions position of the record of every person, by id
+         * @throws IOException if the file cannot be written
+         */
+        void putRecordIndex(FileChannel channel, long[] positions) throws IOException
+        {
+            flush();
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            long at = recordIndex;
+            for(long record:positions)
+            {
+                if(!buffer.hasRemaining())
+                {
+                    at = writeAt(channel, buffer, at);
+                }
+                buffer.putLong(record);
+            }
+            writeAt(channel, buffer, at);
+        }
+
+        /**
+         * Write a buffer of record positions into the file
+         *
+         * @param channel file being written
+         * @param buffer buffer of positions, ready to be flipped
+         * @param at position in the file to write at
+         * @return position in the file after the bytes written
+         * @throws IOException if the file cannot be written
+         */
+        private static long writeAt(FileChannel channel, ByteBuffer buffer, long at) throws IOException
+        {
+            buffer.flip();
+            long offset = at;
+            while(buffer.hasRemaining())
+            {
+                offset += channel.write(buffer, offset);
+            }
+            buffer.clear();
+            return offset;
+        }
+
+        /**
+         * Returns the size in bytes of the record of a person
+         *
+         * @param parents number of parents
+         * @param children number of children
+         * @return size of record
+         */
+        private static long recordSize(int parents, int children)
+        {
+            return 4 * 12 + 1 + 4L * (parents + children);
+        }
+    }
+
+    /**
+     * Writes numbers and bytes to a channel through a direct ByteBuffer
+     */
+    private static final class ChannelOutput
+    {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        /**
+         * Constructor which sets the channel to write to
+         *
+         * @param c channel to write to
+         */
+        ChannelOutput(WritableByteChannel c)
+        {
+            channel = c;
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+        /**
+         * Make sure the buffer has room for a number of bytes, writing it out if needed
+         *
+         * @param bytes number of bytes needed
+         * @throws IOException if the channel cannot be written
+         */
+        private void ensure(int bytes) throws IOException
+        {
+            if(buffer.remaining() < bytes)
+            {
+                flush();
+            }
+        }
+
+        /**
+         * Add a byte to the buffer
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        void putByte(int b) throws IOException
+        {
+            ensure(1);
+            buffer.put((byte)b);
+        }
+
+        /**
+         * Add a short to the buffer
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        void putShort(int s) throws IOException
+        {
+            ensure(2);
+            buffer.putShort((short)s);
+        }
+
+        /**
+         * Add an int to the buffer
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        void putInt(int i) throws IOException
+        {
+            ensure(4);
+            buffer.putInt(i);
+        }
+
+        /**
+         * Add a long to the buffer
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        void putLong(long l) throws IOException
+        {
+            ensure(8);
+            buffer.putLong(l);
+        }
+
+        /**
+         * Add an array of bytes to the buffer, writing the buffer out as it fills
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        void put(byte[] bytes) throws IOException
+        {
+            int offset = 0;
+            while(offset < bytes.length)
+            {
+                ensure(1);
+                int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        /**
+         * Write everything in the buffer to the channel
+         *
+         * @throws IOException if the channel cannot be written
+         */
+        void flush() throws IOException
+        {
+            buffer.flip();
+            while(buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Reads numbers and strings from a channel through a direct ByteBuffer
+     */
+    private static final class ChannelInput
+    {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer;
+
+        // Position in the file of the end of the bytes read into the buffer
+        private long filled;
+
+        /**
+         * Constructor which sets the channel to read from, and its position in the file
+         *
+         * @param c channel to read from
+         * @param start position in the file of the next byte of the channel
+         */
+        ChannelInput(ReadableByteChannel c, long start)
+        {
+            channel = c;
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.limit(0);
+            filled = start;
+        }
+
+        /**
+         * Returns the position in the file of the next byte
+         *
+         * @return position of next byte
+         */
+        long position()
+        {
+            return filled - buffer.remaining();
+        }
+
+        /**
+         * Make sure the buffer holds a number of bytes, reading from the channel if needed
+         *
+         * @param bytes number of bytes needed, at most the size of the buffer
+         * @throws IOException if the channel ends before the bytes are read
+         */
+        private void require(int bytes) throws IOException
+        {
+            if(buffer.remaining() < bytes)
+            {
+                buffer.compact();
+                while(buffer.position() < bytes)
+                {
+                    int read = channel.read(buffer);
+                    if(read < 0)
+                    {
+                        throw new EOFException("Unexpected end of file");
+                    }
+                    filled += read;
+                }
+                buffer.flip();
+            }
+        }
+
+        /**
+         * Returns the next byte
+         *
+         * @throws IOException if the channel cannot be read
+         */
+        int getByte() throws IOException
+        {
+            require(1);
+            return buffer.get();
+        }
+
+        /**
+         * Returns the next short, as an unsigned value
+         *
+         * @throws IOException if the channel cannot be read
+         */
+        int getShort() throws IOException
+        {
+            require(2);
+            return buffer.getShort() & 0xFFFF;
+        }
+
+        /**
+         * Returns the next int
+         *
+         * @throws IOException if the channel cannot be read
+         */
+        int getInt() throws IOException
+        {
+            require(4);
+            return buffer.getInt();
+        }
+
+        /**
+         * Returns the next long
+         *
+         * @throws IOException if the channel cannot be read
+         */
+        long getLong() throws IOException
+        {
+            require(8);
+            return buffer.getLong();
+        }
+
+        /**
+         * Returns the next string, saved as its length in bytes followed by its UTF-8 bytes
+         *
+         * @throws IOException if the channel cannot be read
+         */
+        String getString() throws IOException
+        {
+            int length = getInt();
+            if(length < 0)
+            {
+                throw new IOException("Invalid string length in file: " + length);
+            }
+
+            byte[] bytes = new byte[length];
+            int offset = 0;
+            while(offset < length)
+            {
+                require(1);
+                int part = Math.min(buffer.remaining(), length - offset);
+                buffer.get(bytes, offset, part);
+                offset += part;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * Title: FamilyTreeGenerator class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeGenerator.java
+ * Purpose: The purpose of this class is to generate made-up family trees of any size straight
+ *          into .dat files, to load and scale test the program without real family trees.
+ * Assumptions/Conditions: - The same number of people and seed always generate the same file,
+                             including its save id.
+                           - Generated trees follow the rules of the program: only the root person
+                             has parents, every person has at most 2 parents and 1 spouse of the
+                             opposite gender, and a couple share the same list of children.
+                           - The root person has a father and a mother (from 3 people) and a
+                             spouse (from 2 people). Couples have 0 to 5 children, and 70% of
+                             children marry a spouse from outside the family. Only couples have
+                             children, and every couple is given children, generation by
+                             generation, until the number of people is reached.
+                           - Children take the surname of the parent born into the family. A
+                             spouse lives at the address of his or her partner.
+                           - Names, street names and suburbs are made of letters only, so they are
+                             valid names.
+                           - People are not created as Person objects. Every person is written as
+                             soon as his or her children are known, and the details of a person
+                             are worked out from the seed and the id, so only the couples waiting
+                             for children and the position of every record are kept in memory.
+                           - The file is written by the TreeWriter of FamilyTreeFile, with
+                             every possible name in the string table, and people in the order
+                             they are written rather than in order of id.
+ */
+package familytreeapplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Generates family trees into .dat files, for load and scale testing.
+ * <p>People are given ids as they are created, generation by generation. A couple waits in a
+ * queue until its children are created, and both partners are written then, with the ids of
+ * their children. Unmarried children have no children, so they are written straight away.
+ *
+ * @author Zhiguang
+ */
+public final class FamilyTreeGenerator
+{
+    /**
+     * Seed used when none is given
+     */
+    public static final long DEFAULT_SEED = 42;
+
+    // Syllables names are made of, and number of words of 2 and 3 syllables
+    private static final String[] SYLLABLES = {"an", "bel", "cor", "da", "el", "fin", "gra", "ha",
+        "is", "jo", "ka", "lin", "mo", "na", "or", "pe", "ra", "sa", "ti", "vi"};
+    private static final int WORDS = SYLLABLES.length * SYLLABLES.length * (1 + SYLLABLES.length);
+
+    // Chance of every number of children of a couple, and of a child marrying, in percent
+    private static final int[] CHILDREN_PERCENT = {10, 15, 35, 25, 10, 5};
+    private static final int MARRIED_PERCENT = 70;
+
+    // Years of birth written in life descriptions
+    private static final int FIRST_YEAR = 1800, YEARS = 200;
+
+    // Ids of the strings of the string table: labels, words, street names and life descriptions
+    private static final String[] LABELS = {"Male", "Female", "root", "Father", "Mother", "Spouse", "Child"};
+    private static final int MALE = 0, FEMALE = 1, ROOT = 2, FATHER = 3, MOTHER = 4, SPOUSE = 5, CHILD = 6;
+    private static final int WORD_BASE = LABELS.length, STREET_BASE = WORD_BASE + WORDS, LIFE_BASE = STREET_BASE + WORDS;
+
+    // Kinds of details worked out from the seed and id of a person
+    private static final int NAME = 1, SURNAME = 2, GENDER = 3, LIFE = 4, ADDRESS = 5, CHILDREN = 6, MARRIED = 7;
+
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private FamilyTreeGenerator()
+    {}
+
+    /**
+     * Generate a family tree into a file
+     *
+     * @param file file to generate
+     * @param count number of people
+     * @param seed seed of the random details and relationships
+     * @param progress receives progress; null if not needed
+     * @throws IOException if the file cannot be written, or the thread is interrupted
+     * @throws IllegalArgumentException if the number of people is less than 1
+     */
+    public static void generate(File file, int count, long seed, FamilyTreeFile.Progress progress) throws IOException
+    {
+        if(count < 1)
+        {
+            throw new IllegalArgumentException("A family tree needs at least 1 person!");
+        }
+
+        try(FileReplacement replacement = new FileReplacement(file))
+        {
+            try(FileChannel channel = FileChannel.open(replacement.getTemp(), StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+            {
+                new Writer(channel, count, seed, progress).write();
+            }
+            replacement.replace();
+        }
+    }
+
+    /**
+     * Returns every string of the string table, in order of id
+     *
+     * @return strings
+     */
+    private static List<String> strings()
+    {
+        List<String> strings = new ArrayList<>(LIFE_BASE + 1 + YEARS);
+        strings.addAll(Arrays.asList(LABELS));
+        for(int i=0; i<WORDS; i++)
+        {
+            strings.add(word(i));
+        }
+        for(int i=0; i<WORDS; i++)
+        {
+            strings.add(word(i) + " Street");
+        }
+        strings.add("");
+        for(int i=0; i<YEARS; i++)
+        {
+            strings.add("Born in " + (FIRST_YEAR + i));
+        }
+        return strings;
+    }
+
+    /**
+     * Returns a word made of syllables, starting with a capital letter
+     *
+     * @param n number of word, from 0 to WORDS - 1
+     * @return word
+     */
+    private static String word(int n)
+    {
+        StringBuilder word = new StringBuilder();
+        int syllables = n < SYLLABLES.length * SYLLABLES.length?2:3;
+        int rest = syllables == 2?n:n - SYLLABLES.length * SYLLABLES.length;
+        for(int i=0; i<syllables; i++)
+        {
+            word.append(SYLLABLES[rest % SYLLABLES.length]);
+            rest /= SYLLABLES.length;
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+
+    /**
+     * Writes the people of one family tree to a channel
+     */
+    private static final class Writer
+    {
+        private final FileChannel channel;
+        private final int count;
+        private final long seed;
+        private final FamilyTreeFile.Progress progress;
+
+        private FamilyTreeFile.TreeWriter out;
+
+        // Position of the record of every person
+        private final long[] records;
+        private int written;
+
+        // Couples waiting for children: person, spouse, father and mother of person, and surname
+        private int[] queue = new int[5 * 1024];
+        private int head, size;
+
+        // String ids of the person, and ids of the parents and children of the couple, being written
+        private final int[] fields = new int[7];
+        private final int[] parents = new int[2];
+        private int[] children = new int[16];
+
+        // Number of people created
+        private int next;
+
+        /**
+         * Constructor which sets the channel, number of people and seed of the family tree
+         *
+         * @param c channel to write to
+         * @param n number of people
+         * @param s seed
+         * @param p receives progress; null if not needed
+         */
+        Writer(FileChannel c, int n, long s, FamilyTreeFile.Progress p)
+        {
+            channel = c;
+            count = n;
+            seed = s;
+            progress = p;
+            records = new long[n];
+        }
+
+        /**
+         * Write the header, string table and every person, then the position of every record
+         *
+         * @throws IOException if the channel cannot be written, or the thread is interrupted
+         */
+        void write() throws IOException
+        {
+            List<byte[]> strings = new ArrayList<>();
+            for(String s:strings())
+            {
+                strings.add(s.getBytes(StandardCharsets.UTF_8));
+            }
+
+            // Save id is the same for the same file, and never 0
+            out = new FamilyTreeFile.TreeWriter(channel, count, strings, hash(count, 0) | 1);
+
+            // Record index is filled in once every record is written
+            out.skipRecordIndex();
+            out.putStrings();
+
+            writePeople();
+            out.putRecordIndex(channel, records);
+            FamilyTreeFile.report(progress, count, count, "people");
+        }
+
+        /**
+         * Create and write every person, one couple at a time
+         *
+         * @throws IOException if the channel cannot be written, or the thread is interrupted
+         */
+        private void writePeople() throws IOException
+        {
+            int root = next++;
+            int father = -1, mother = -1;
+            int surname = random(root, SURNAME, WORDS);
+
+            if(count >= 3)
+            {
+                father = next++;
+                mother = next++;
+                children[0] = root;
+                writePerson(father, MALE, FATHER, surname, father, mother, -1, -1, 1);
+                writePerson(mother, FEMALE, MOTHER, random(mother, SURNAME, WORDS), father, father, -1, -1, 1);
+            }
+
+            if(next < count)
+            {
+                enqueue(root, next++, father, mother, surname);
+            }
+            else
+            {
+                writePerson(root, MALE, ROOT, surname, root, -1, father, mother, 0);
+            }
+
+            while(size > 0)
+            {
+                int person = queue[head], spouse = queue[head + 1];
+                int parent1 = queue[head + 2], parent2 = queue[head + 3];
+                int familyName = queue[head + 4];
+                head = (head + 5) % queue.length;
+                size--;
+
+                // Every couple is given children until there are enough people, and the last
+                // couple waiting always has a child who marries, so the tree keeps growing
+                boolean last = size == 0;
+                int wanted = childCount(person);
+                if(last && wanted == 0)
+                {
+                    wanted = 1;
+                }
+
+                int childCount = 0;
+                boolean married = false;
+                for(int i=0; i<wanted && next < count; i++)
+                {
+                    int child = next++;
+                    int gender = random(child, GENDER, 2);
+                    if(childCount == children.length)
+                    {
+                        children = Arrays.copyOf(children, childCount * 2);
+                    }
+                    children[childCount++] = child;
+
+                    boolean marries = random(child, MARRIED, 100) < MARRIED_PERCENT || (last && i == wanted - 1 && !married);
+                    if(marries && next < count)
+                    {
+                        enqueue(child, next++, person, spouse, familyName);
+                        married = true;
+                    }
+                    else
+                    {
+                        writePerson(child, gender, CHILD, familyName, child, -1, person, spouse, 0);
+                    }
+                }
+
+                int gender = person == root?MALE:random(person, GENDER, 2);
+                writePerson(person, gender, person == root?ROOT:CHILD, familyName, person, spouse, parent1, parent2, childCount);
+                writePerson(spouse, 1 - gender, SPOUSE, random(spouse, SURNAME, WORDS), person, person, -1, -1, childCount);
+            }
+        }
+
+        /**
+         * Write the record of a person
+         *
+         * @param id id of person
+         * @param gender MALE or FEMALE
+         * @param type id of the label of the type of person
+         * @param surname number of the word of the surname
+         * @param home id of the person whose address the person lives at
+         * @param spouse id of spouse; -1 if none
+         * @param parent1 id of first parent; -1 if none
+         * @param parent2 id of second parent; -1 if none
+         * @param childCount number of children, taken from the start of the children array
+         * @throws IOException if the channel cannot be written, or the thread is interrupted
+         */
+        private void writePerson(int id, int gender, int type, int surname, int home, int spouse, int parent1, int parent2,
+                                 int childCount) throws IOException
+        {
+            if(++written % FamilyTreeFile.REPORT_INTERVAL == 0)
+            {
+                FamilyTreeFile.report(progress, written, count, "people");
+            }
+
+            long address = hash(home, ADDRESS);
+            int life = random(id, LIFE, 4 * YEARS);
+            int parentCount = parent1 < 0?0:parent2 < 0?1:2;
+
+            fields[0] = WORD_BASE + random(id, NAME, WORDS);
+            fields[1] = WORD_BASE + surname;
+            fields[2] = gender;
+            // A quarter of the people have a year of birth in their life description
+            fields[3] = LIFE_BASE + (life < YEARS?1 + life:0);
+            fields[4] = STREET_BASE + (int)Long.remainderUnsigned(address, WORDS);
+            fields[5] = WORD_BASE + (int)Long.remainderUnsigned(address >>> 20, WORDS);
+            fields[6] = type;
+            parents[0] = parent1;
+            parents[1] = parent2;
+
+            records[id] = out.putRecord(fields, 1 + (int)Long.remainderUnsigned(address >>> 40, 200),
+                                        1000 + (int)Long.remainderUnsigned(address >>> 8, 9000),
+                                        spouse, spouse >= 0, parents, parentCount, children, childCount);
+        }
+
+        /**
+         * Add a couple to the end of the queue of couples waiting for children
+         *
+         * @param person person born into the family
+         * @param spouse spouse of person
+         * @param parent1 id of first parent of person; -1 if none
+         * @param parent2 id of second parent of person; -1 if none
+         * @param surname number of the word of the surname of person
+         */
+        private void enqueue(int person, int spouse, int parent1, int parent2, int surname)
+        {
+            if(size * 5 == queue.length)
+            {
+                // Queue is unwrapped into a larger array
+                int[] larger = new int[queue.length * 2];
+                int first = queue.length - head;
+                System.arraycopy(queue, head, larger, 0, first);
+                System.arraycopy(queue, 0, larger, first, head);
+                queue = larger;
+                head = 0;
+            }
+
+            int tail = (head + size * 5) % queue.length;
+            queue[tail] = person;
+            queue[tail + 1] = spouse;
+            queue[tail + 2] = parent1;
+            queue[tail + 3] = parent2;
+            queue[tail + 4] = surname;
+            size++;
+        }
+
+        /**
+         * Returns the number of children of a couple
+         *
+         * @param person person born into the family
+         * @return number of children
+         */
+        private int childCount(int person)
+        {
+            int chance = random(person, CHILDREN, 100);
+            for(int i=0; i<CHILDREN_PERCENT.length; i++)
+            {
+                chance -= CHILDREN_PERCENT[i];
+                if(chance < 0)
+                {
+                    return i;
+                }
+            }
+            return CHILDREN_PERCENT.length - 1;
+        }
+
+        /**
+         * Returns a random number for a detail of a person, always the same for the same seed
+         *
+         * @param id id of person
+         * @param kind kind of detail
+         * @param bound number returned is less than bound
+         * @return number from 0 to bound - 1
+         */
+        private int random(int id, int kind, int bound)
+        {
+            return (int)Long.remainderUnsigned(hash(id, kind), bound);
+        }
+
+        /**
+         * Returns random bits for a detail of a person, always the same for the same seed
+         *
+         * @param id id of person
+         * @param kind kind of detail
+         * @return random bits
+         */
+        private long hash(int id, int kind)
+        {
+            // Mixing function of SplittableRandom, applied to the seed, id and kind of detail
+            long z = seed + 0x9E3779B97F4A7C15L * ((long)id * 8 + kind + 1);
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,506 @@
+/*
+ * Title: FamilyTreeJournal class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeJournal.java
+ * Purpose: The purpose of this class is to record every change made to a saved family tree
+ *          in a journal file next to the .dat file, so that changes are kept without saving
+ *          the whole tree again, and can be recovered after the program stops unexpectedly.
+ * Assumptions/Conditions: - The journal of tree.dat is the file tree.dat.journal.
+                           - A journal only applies to the .dat file it was started for. The save
+                             id of the .dat file, which is different every time the file is saved,
+                             is kept in the journal, and a journal that does not match is
+                             discarded. Files without a save id, saved by older versions of the
+                             program, are matched by their size and last modified time instead.
+                           - People are identified by their id in the PersonRegistry of the tree,
+                             which is also their position in the .dat file. People added after the
+                             file was saved are given the next ids, in the order they were added.
+                           - Changes are written to the journal in batches. A batch is written and
+                             forced to disk when it is full, or when flush is called (eg. by
+                             autosave). Changes in a batch that was not written are lost if the
+                             program stops unexpectedly.
+                           - Every change has a checksum, and replay stops at the first change
+                             that was not completely written.
+                           - Saving the tree again into the .dat file (compaction) empties the journal.
+                             The .dat file is on disk before the journal is emptied, so a crash
+                             in between leaves the old journal, which no longer matches.
+ */
+package familytreeapplication;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Journal of the changes made to a family tree since it was last saved into a .dat file.
+ * <p>Each change is a small record holding the id of the person changed and the details
+ * of the person added or edited, so keeping a change costs the size of the change and not
+ * the size of the tree. Loading the .dat file and replaying the journal gives the tree as
+ * it was when the last change was written.
+ *
+ * @author Zhiguang
+ */
+public final class FamilyTreeJournal implements Closeable
+{
+    /**
+     * Number of changes written to the journal at a time
+     */
+    public static final int BATCH_SIZE = Integer.getInteger("familytree.journalBatch", 32);
+
+    // Magic number and version at the start of a journal, "FTJL"
+    private static final int MAGIC = 0x46544A4C;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+
+    // Types of change
+    private static final byte FATHER = 0, MOTHER = 1, SPOUSE = 2, CHILD = 3, EDIT = 4;
+
+    private final File snapshot;
+    private final long saveId;
+    private final FileChannel channel;
+    private final ByteArrayOutputStream pending;
+    private int pendingCount;
+    private int recovered;
+
+    private final PersonRegistry registry;
+
+    /**
+     * Constructor which opens the journal of a .dat file
+     *
+     * @param file .dat file
+     * @param id save id of the .dat file; 0 if it has none
+     * @param c channel of the journal
+     * @param r registry of the tree
+     */
+    private FamilyTreeJournal(File file, long id, FileChannel c, PersonRegistry r)
+    {
+        snapshot = file;
+        saveId = id;
+        channel = c;
+        registry = r;
+        pending = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Returns the journal file of a .dat file
+     *
+     * @param snapshot .dat file
+     * @return journal file
+     */
+    public static File journalFile(File snapshot)
+    {
+        return new File(snapshot.getPath() + ".journal");
+    }
+
+    /**
+     * Open the journal of a .dat file that has just been loaded, and replay the changes in
+     * it onto the loaded tree.
+     * <p>A journal that does not exist, or was started for a different version of the .dat
+     * file, is replaced by an empty journal.
+     *
+     * <p>People added by the changes are registered in the registry.
+     *
+     * @param snapshot .dat file the tree was loaded from
+     * @param registry registry of the tree loaded from the file
+     * @param progress receives progress of replay; null if not needed
+     * @return journal, positioned after the last complete change
+     * @throws IOException if the journal cannot be read or written, or the replay is interrupted
+     */
+    public static FamilyTreeJournal open(File snapshot, PersonRegistry registry, FamilyTreeFile.Progress progress) throws IOException
+    {
+        long saveId = FamilyTreeFile.saveId(snapshot);
+        FileChannel channel = FileChannel.open(journalFile(snapshot).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FamilyTreeJournal journal = new FamilyTreeJournal(snapshot, saveId, channel, registry);
+
+        try
+        {
+            long start = journal.matchSnapshot();
+            if(start >= 0)
+            {
+                journal.replay(start, progress);
+            }
+            else
+            {
+                journal.writeHeader();
+            }
+            return journal;
+        }
+        catch(IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Start an empty journal for a .dat file that has just been saved, replacing any
+     * existing journal of the file
+     *
+     * @param snapshot .dat file the tree was saved into
+     * @param registry registry the tree was saved from
+     * @return empty journal
+     * @throws IOException if the journal cannot be written
+     */
+    public static FamilyTreeJournal create(File snapshot, PersonRegistry registry) throws IOException
+    {
+        long saveId = FamilyTreeFile.saveId(snapshot);
+        FileChannel channel = FileChannel.open(journalFile(snapshot).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FamilyTreeJournal journal = new FamilyTreeJournal(snapshot, saveId, channel, registry);
+
+        try
+        {
+            journal.writeHeader();
+            return journal;
+        }
+        catch(IOException | RuntimeException e)
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the .dat file of the journal
+     *
+     * @return .dat file
+     */
+    public File getSnapshot()
+    {
+        return snapshot;
+    }
+
+    /**
+     * Returns number of changes replayed when the journal was opened
+     *
+     * @return number of changes recovered
+     */
+    public int getRecovered()
+    {
+        return recovered;
+    }
+
+    /**
+     * Returns size of the journal, including changes not written yet
+     *
+     * @return size in bytes
+     * @throws IOException if the size of the journal cannot be read
+     */
+    public long size() throws IOException
+    {
+        return channel.size() + pending.size();
+    }
+
+    /**
+     * Record a relative added to a person
+     *
+     * @param target person relative was added to
+     * @param relative relative added, which has been registered
+     * @param type type of relative (father, mother, spouse or child)
+     * @throws IOException if a batch of changes cannot be written
+     */
+    public void recordAdd(Person target, Person relative, RelationType type) throws IOException
+    {
+        byte op = type == RelationType.FATHER?FATHER:type == RelationType.MOTHER?MOTHER:type == RelationType.SPOUSE?SPOUSE:CHILD;
+        append(op, id(target), id(relative), relative);
+    }
+
+    /**
+     * Record the personal information of a person being edited
+     *
+     * @param target person edited
+     * @throws IOException if a batch of changes cannot be written
+     */
+    public void recordEdit(Person target) throws IOException
+    {
+        int id = id(target);
+        append(EDIT, id, id, target);
+    }
+
+    /**
+     * Write every change not written yet, and force the journal to disk
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void flush() throws IOException
+    {
+        if(pendingCount > 0)
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+            while(buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            pending.reset();
+            pendingCount = 0;
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Write every change not written yet, and close the journal
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns the id of a person
+     *
+     * @param p person
+     * @return id of person
+     */
+    private int id(Person p)
+    {
+        int id = registry.getId(p);
+        if(id < 0)
+        {
+            throw new IllegalArgumentException("Person is not registered: " + p.getFullName());
+        }
+        return id;
+    }
+
+    /**
+     * Check whether the journal was started for the current version of the .dat file
+     *
+     * @return position of the first change if journal matches .dat file; -1 otherwise
+     * @throws IOException if the journal cannot be read
+     */
+    private long matchSnapshot() throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while(header.hasRemaining() && channel.read(header, header.position()) >= 0)
+        {}
+        header.flip();
+
+        if(header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION || header.getLong() != saveId)
+        {
+            return -1;
+        }
+
+        // Files without a save id can only be matched by size and last modified time
+        if(saveId == 0 && (header.getLong() != snapshot.length() || header.getLong() != snapshot.lastModified()))
+        {
+            return -1;
+        }
+        return HEADER_SIZE;
+    }
+
+    /**
+     * Replace the journal with an empty journal for the current version of the .dat file
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    private void writeHeader() throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(saveId).putLong(snapshot.length()).putLong(snapshot.lastModified());
+        header.flip();
+
+        channel.truncate(0);
+        channel.position(0);
+        while(header.hasRemaining())
+        {
+            channel.write(header);
+        }
+        channel.force(true);
+    }
+
+    /**
+     * Apply every complete change in the journal to the tree, and remove any change that
+     * was not completely written
+     *
+     * @param start position of the first change
+     * @param progress receives progress of replay; null if not needed
+     * @throws IOException if the journal cannot be read, or the replay is interrupted
+     */
+    private void replay(long start, FamilyTreeFile.Progress progress) throws IOException
+    {
+        long size = channel.size();
+        long position = start;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(position))));
+        CRC32 crc = new CRC32();
+
+        while(position + 4 <= size)
+        {
+            if(Thread.currentThread().isInterrupted())
+            {
+                throw new InterruptedIOException("Cancelled");
+            }
+
+            // A change is its length, its contents and a checksum of the contents
+            int length = in.readInt();
+            if(length <= 0 || position + 8 + length > size)
+            {
+                break;
+            }
+            byte[] record = new byte[length];
+            in.readFully(record);
+            crc.reset();
+            crc.update(record, 0, length);
+            if(in.readInt() != (int)crc.getValue())
+            {
+                break;
+            }
+
+            apply(record);
+            position += 8 + length;
+            recovered++;
+
+            if(progress != null)
+            {
+                progress.update(position, size, "journal bytes");
+            }
+        }
+
+        // Changes after the last complete change are lost, and are overwritten by new changes
+        channel.truncate(position);
+        channel.position(position);
+    }
+
+    /**
+     * Apply a change read from the journal to the tree
+     *
+     * @param record contents of change
+     * @throws IOException if the change is invalid
+     */
+    private void apply(byte[] record) throws IOException
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte op = in.readByte();
+        int targetId = in.readInt();
+        int id = in.readInt();
+        if(targetId < 0 || targetId >= registry.size())
+        {
+            throw new IOException("Invalid id in journal: " + targetId);
+        }
+        Person target = registry.get(targetId);
+        Person details = readPerson(in);
+
+        if(op == EDIT)
+        {
+            FamilyTreeMutations.editDetails(target, details);
+            registry.update(target);
+        }
+        else if(op >= FATHER && op <= CHILD && id == registry.size())
+        {
+            if(op == SPOUSE)
+            {
+                FamilyTreeMutations.addSpouse(target, details);
+            }
+            else if(op == CHILD)
+            {
+                FamilyTreeMutations.addChild(target, details);
+            }
+            else
+            {
+                FamilyTreeMutations.addParent(target, details);
+            }
+            registry.register(details);
+        }
+        else
+        {
+            throw new IOException("Invalid change in journal");
+        }
+    }
+
+    /**
+     * Add a change to the current batch, writing the batch if it is full
+     *
+     * @param op type of change
+     * @param target id of person changed
+     * @param id id of person added or edited
+     * @param p person added or edited
+     * @throws IOException if the batch cannot be written
+     */
+    private void append(byte op, int target, int id, Person p) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(op);
+        out.writeInt(target);
+        out.writeInt(id);
+        writePerson(out, p);
+
+        byte[] record = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+
+        DataOutputStream batch = new DataOutputStream(pending);
+        batch.writeInt(record.length);
+        batch.write(record);
+        batch.writeInt((int)crc.getValue());
+        pendingCount++;
+
+        if(pendingCount >= BATCH_SIZE)
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Write the personal information of a person
+     *
+     * @param out stream to write to
+     * @param p person to write
+     * @throws IOException if the stream cannot be written
+     */
+    private static void writePerson(DataOutputStream out, Person p) throws IOException
+    {
+        for(String s:FamilyTreeFile.fields(p))
+        {
+            if(s == null)
+            {
+                out.writeInt(-1);
+            }
+            else
+            {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+        out.writeInt(p.getStreetNo());
+        out.writeInt(p.getPostcode());
+    }
+
+    /**
+     * Read the personal information of a person
+     *
+     * @param in stream to read from
+     * @return new person with the personal information read
+     * @throws IOException if the stream cannot be read
+     */
+    private static Person readPerson(DataInputStream in) throws IOException
+    {
+        String[] s = new String[7];
+        for(int i=0; i<s.length; i++)
+        {
+            int length = in.readInt();
+            if(length >= 0)
+            {
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                s[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+        }
+        int streetNo = in.readInt();
+        int postCode = in.readInt();
+
+        return new Person(s[0], s[1], FamilyTreeFile.gender(s[2]), s[3], streetNo, s[4], s[5], postCode, FamilyTreeFile.type(s[6]));
+    }
+}
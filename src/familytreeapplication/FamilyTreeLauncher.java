@@ -0,0 +1,47 @@
+/*
+ * Title: FamilyTreeLauncher class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeLauncher.java
+ * Purpose: The purpose of this program is to start either the window of the program or, when
+ *          started with --headless, the command line program FamilyTreeCommand.
+ * Assumptions/Conditions: - This class must not extend Application. The Java launcher starts
+                             JavaFX before main when the main class is an Application, which
+                             fails on a computer without a display.
+                           - --headless must be the first argument. Every other argument is
+                             passed on unchanged.
+ */
+package familytreeapplication;
+
+import javafx.application.Application;
+
+/**
+ * Main class of the program, which starts JavaFX only when a window is needed.
+ *
+ * @author Zhiguang
+ */
+public final class FamilyTreeLauncher
+{
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private FamilyTreeLauncher()
+    {}
+
+    /**
+     * Main method to start the window or the command line program
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args)
+    {
+        if(args.length > 0 && args[0].equals("--headless"))
+        {
+            FamilyTreeCommand.main(args);
+        }
+        else
+        {
+            Application.launch(FamilyTreeApplication.class, args);
+        }
+    }
+}
@@ -0,0 +1,551 @@
+/*
+ * Title: FamilyTreeMetrics class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeMetrics.java
+ * Purpose: The purpose of this class is to record how long loading, saving, showing and changing
+ *          family trees take, and to make the times available to JMX tools, Java Flight Recorder
+ *          and the diagnostics window of the program.
+ * Assumptions/Conditions: - Every operation has a LatencyHistogram and a count of failures, and is
+                             registered as an MBean named familytreeapplication:type=Metrics,name=
+                             followed by the name of the operation, eg. loadTree. Resetting an
+                             MBean forgets the times of its operation.
+                           - Times are still recorded if the MBeans cannot be registered. The
+                             failure is logged, and returned by getRegistrationFailure.
+                           - Operations other than drawing tree cells are also recorded as
+                             familytreeapplication.Operation events of Java Flight Recorder, with
+                             the operation, what it was done to and whether it succeeded, so they
+                             can be lined up with garbage collection and file events. Tree cells
+                             are drawn too often for an event each.
+                           - Flight Recorder events are created through reflection, as the program
+                             is built for Java 8, and are left out when the Java running the
+                             program has no jdk.jfr module. They cost nothing unless a recording
+                             is running.
+                           - Nothing is recorded or registered if the system property
+                             familytree.metrics is false.
+ */
+package familytreeapplication;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Times of the operations of the program, shown through JMX, Java Flight Recorder and the
+ * diagnostics window.
+ * <p>An operation is timed by calling begin before it and end on the Timing returned after it.
+ * Operations done very often, such as drawing a tree cell, are recorded with record instead,
+ * which does not allocate.
+ *
+ * @author Zhiguang
+ */
+public final class FamilyTreeMetrics
+{
+    /**
+     * Whether times are recorded, false if the system property familytree.metrics is false
+     */
+    public static final boolean ENABLED = !"false".equals(System.getProperty("familytree.metrics"));
+
+    /**
+     * Operations timed by the program
+     */
+    public enum Operation
+    {
+        LOAD_TREE("loadTree"),
+        SAVE_TO_FILE("saveToFile"),
+        CREATE_TREE("createTree"),
+        ADD_PERSON("addPerson"),
+        PERSONAL_INFO("personalInfo"),
+        RENDER_CELL("renderCell");
+
+        private final String label;
+
+        /**
+         * Constructor which sets the name of the operation
+         *
+         * @param l name of operation, as used by JMX and Flight Recorder
+         */
+        Operation(String l)
+        {
+            label = l;
+        }
+
+        /**
+         * Returns the name of the operation
+         *
+         * @return name of operation
+         */
+        @Override
+        public String toString()
+        {
+            return label;
+        }
+    }
+
+    /**
+     * Attributes of an operation shown through JMX
+     */
+    public interface OperationMetricsMBean
+    {
+        /**
+         * Returns the number of times the operation was done
+         *
+         * @return number of times
+         */
+        long getCount();
+
+        /**
+         * Returns the number of times the operation failed, was cancelled or was refused
+         *
+         * @return number of failures
+         */
+        long getFailures();
+
+        /**
+         * Returns the time taken by the operation altogether
+         *
+         * @return total time in milliseconds
+         */
+        double getTotalMillis();
+
+        /**
+         * Returns the mean time taken by the operation
+         *
+         * @return mean time in milliseconds
+         */
+        double getMeanMillis();
+
+        /**
+         * Returns the time half of the operations took at most
+         *
+         * @return median time in milliseconds
+         */
+        double getMedianMillis();
+
+        /**
+         * Returns the time 90% of the operations took at most
+         *
+         * @return 90th percentile in milliseconds
+         */
+        double getPercentile90Millis();
+
+        /**
+         * Returns the time 99% of the operations took at most
+         *
+         * @return 99th percentile in milliseconds
+         */
+        double getPercentile99Millis();
+
+        /**
+         * Returns the longest time taken by the operation
+         *
+         * @return longest time in milliseconds
+         */
+        double getMaxMillis();
+
+        /**
+         * Forget every time recorded for the operation
+         */
+        void reset();
+    }
+
+    /**
+     * Times and failures of one operation
+     */
+    private static final class OperationMetrics implements OperationMetricsMBean
+    {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LongAdder failures = new LongAdder();
+
+        /**
+         * Returns the number of times the operation was done
+         *
+         * @return number of times
+         */
+        @Override
+        public long getCount()
+        {
+            return histogram.getCount();
+        }
+
+        /**
+         * Returns the number of times the operation failed, was cancelled or was refused
+         *
+         * @return number of failures
+         */
+        @Override
+        public long getFailures()
+        {
+            return failures.sum();
+        }
+
+        /**
+         * Returns the time taken by the operation altogether
+         *
+         * @return total time in milliseconds
+         */
+        @Override
+        public double getTotalMillis()
+        {
+            return histogram.getTotal() / 1e6;
+        }
+
+        /**
+         * Returns the mean time taken by the operation
+         *
+         * @return mean time in milliseconds
+         */
+        @Override
+        public double getMeanMillis()
+        {
+            return histogram.getMean() / 1e6;
+        }
+
+        /**
+         * Returns the time half of the operations took at most
+         *
+         * @return median time in milliseconds
+         */
+        @Override
+        public double getMedianMillis()
+        {
+            return histogram.getPercentile(0.5) / 1e6;
+        }
+
+        /**
+         * Returns the time 90% of the operations took at most
+         *
+         * @return 90th percentile in milliseconds
+         */
+        @Override
+        public double getPercentile90Millis()
+        {
+            return histogram.getPercentile(0.9) / 1e6;
+        }
+
+        /**
+         * Returns the time 99% of the operations took at most
+         *
+         * @return 99th percentile in milliseconds
+         */
+        @Override
+        public double getPercentile99Millis()
+        {
+            return histogram.getPercentile(0.99) / 1e6;
+        }
+
+        /**
+         * Returns the longest time taken by the operation
+         *
+         * @return longest time in milliseconds
+         */
+        @Override
+        public double getMaxMillis()
+        {
+            return histogram.getMax() / 1e6;
+        }
+
+        /**
+         * Forget every time recorded for the operation
+         */
+        @Override
+        public void reset()
+        {
+            histogram.reset();
+            failures.reset();
+        }
+    }
+
+    /**
+     * Time of one operation in progress
+     */
+    public static final class Timing
+    {
+        private final Operation operation;
+        private final long start;
+        private final Object event;
+
+        /**
+         * Constructor which sets the operation, when it started and its Flight Recorder event
+         *
+         * @param o operation timed
+         * @param s System.nanoTime when the operation started
+         * @param e Flight Recorder event begun; null if none
+         */
+        private Timing(Operation o, long s, Object e)
+        {
+            operation = o;
+            start = s;
+            event = e;
+        }
+
+        /**
+         * Record the time taken by the operation, once it is done
+         *
+         * @param succeeded true if the operation succeeded; false if it failed, was cancelled
+         *                  or was refused
+         */
+        public void end(boolean succeeded)
+        {
+            if(operation == null)
+            {
+                return;
+            }
+
+            OperationMetrics m = METRICS.get(operation);
+            m.histogram.record(System.nanoTime() - start);
+            if(!succeeded)
+            {
+                m.failures.increment();
+            }
+            if(event != null)
+            {
+                Jfr.commit(event, succeeded);
+            }
+        }
+    }
+
+    // Times of every operation
+    private static final Map<Operation, OperationMetrics> METRICS = new EnumMap<>(Operation.class);
+
+    // Timing of operations which are not recorded
+    private static final Timing NONE = new Timing(null, 0, null);
+
+    // Why the MBeans could not be registered; null if they were
+    private static volatile String registrationFailure;
+
+    static
+    {
+        for(Operation o:Operation.values())
+        {
+            METRICS.put(o, new OperationMetrics());
+        }
+        if(ENABLED)
+        {
+            register();
+        }
+    }
+
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private FamilyTreeMetrics()
+    {}
+
+    /**
+     * Start timing an operation
+     *
+     * @param operation operation to time
+     * @param detail what the operation is done to, eg. the name of a file; null if nothing
+     * @return timing to end once the operation is done
+     */
+    public static Timing begin(Operation operation, String detail)
+    {
+        if(!ENABLED)
+        {
+            return NONE;
+        }
+        return new Timing(operation, System.nanoTime(), Jfr.begin(operation, detail));
+    }
+
+    /**
+     * Record the time taken by an operation done very often, without a Flight Recorder event
+     *
+     * @param operation operation timed
+     * @param start System.nanoTime when the operation started
+     */
+    public static void record(Operation operation, long start)
+    {
+        if(ENABLED)
+        {
+            METRICS.get(operation).histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the times of an operation
+     *
+     * @param operation operation timed
+     * @return times and failures of operation
+     */
+    public static OperationMetricsMBean get(Operation operation)
+    {
+        return METRICS.get(operation);
+    }
+
+    /**
+     * Returns why the times could not be registered with the MBean server, in which case they
+     * are only shown in the diagnostics window
+     *
+     * @return reason registration failed; null if the times were registered or are not recorded
+     */
+    public static String getRegistrationFailure()
+    {
+        return registrationFailure;
+    }
+
+    /**
+     * Forget the times of every operation
+     */
+    public static void reset()
+    {
+        for(OperationMetrics m:METRICS.values())
+        {
+            m.reset();
+        }
+    }
+
+    /**
+     * Register the times of every operation with the MBean server of the platform.
+     * <p>Times are still recorded if they cannot be registered.
+     */
+    private static void register()
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for(Operation o:Operation.values())
+            {
+                ObjectName name = new ObjectName("familytreeapplication:type=Metrics,name=" + o);
+                if(!server.isRegistered(name))
+                {
+                    server.registerMBean(new StandardMBean(METRICS.get(o), OperationMetricsMBean.class), name);
+                }
+            }
+        }
+        catch(Exception | LinkageError e)
+        {
+            registrationFailure = e.toString();
+            Logger.getLogger(FamilyTreeMetrics.class.getName()).log(Level.WARNING, "Unable to register metrics with JMX", e);
+        }
+    }
+
+    /**
+     * Creates Java Flight Recorder events through reflection, so the program still runs on a
+     * Java without Flight Recorder
+     */
+    private static final class Jfr
+    {
+        // Factory of events, and methods of jdk.jfr.EventFactory and jdk.jfr.Event
+        private static final Object FACTORY;
+        private static final Method NEW_EVENT, BEGIN, END, SHOULD_COMMIT, SET, COMMIT;
+
+        // Fields of an event, in order
+        private static final int OPERATION = 0, DETAIL = 1, SUCCEEDED = 2;
+
+        static
+        {
+            Object factory = null;
+            Method newEvent = null, begin = null, end = null, shouldCommit = null, set = null, commit = null;
+            if(ENABLED)
+            {
+                try
+                {
+                    Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+                    Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+                    Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+                    Class<?> event = Class.forName("jdk.jfr.Event");
+
+                    Constructor<?> annotation = annotationElement.getConstructor(Class.class, Object.class);
+                    Constructor<?> field = valueDescriptor.getConstructor(Class.class, String.class);
+
+                    List<Object> annotations = new ArrayList<>();
+                    annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Name"), "familytreeapplication.Operation"));
+                    annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Label"), "Family Tree Operation"));
+                    annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Category"), new String[]{"Family Tree"}));
+                    List<Object> fields = Arrays.asList(field.newInstance(String.class, "operation"),
+                                                        field.newInstance(String.class, "detail"),
+                                                        field.newInstance(boolean.class, "succeeded"));
+
+                    factory = eventFactory.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+                    newEvent = eventFactory.getMethod("newEvent");
+                    begin = event.getMethod("begin");
+                    end = event.getMethod("end");
+                    shouldCommit = event.getMethod("shouldCommit");
+                    set = event.getMethod("set", int.class, Object.class);
+                    commit = event.getMethod("commit");
+                }
+                catch(ReflectiveOperationException | RuntimeException | LinkageError e)
+                {
+                    // Java without Flight Recorder, so only JMX and the diagnostics window show times
+                    factory = null;
+                }
+            }
+            FACTORY = factory;
+            NEW_EVENT = newEvent;
+            BEGIN = begin;
+            END = end;
+            SHOULD_COMMIT = shouldCommit;
+            SET = set;
+            COMMIT = commit;
+        }
+
+        /**
+         * Private constructor as this class only has static methods
+         */
+        private Jfr()
+        {}
+
+        /**
+         * Begin an event for an operation
+         *
+         * @param operation operation timed
+         * @param detail what the operation is done to; null if nothing
+         * @return event begun; null if Flight Recorder is not available
+         */
+        static Object begin(Operation operation, String detail)
+        {
+            if(FACTORY == null)
+            {
+                return null;
+            }
+
+            try
+            {
+                Object event = NEW_EVENT.invoke(FACTORY);
+                SET.invoke(event, OPERATION, operation.toString());
+                SET.invoke(event, DETAIL, detail);
+                BEGIN.invoke(event);
+                return event;
+            }
+            catch(ReflectiveOperationException e)
+            {
+                return null;
+            }
+        }
+
+        /**
+         * End an event and commit it, if a recording wants it
+         *
+         * @param event event begun
+         * @param succeeded true if the operation succeeded; false otherwise
+         */
+        static void commit(Object event, boolean succeeded)
+        {
+            try
+            {
+                END.invoke(event);
+                if((Boolean)SHOULD_COMMIT.invoke(event))
+                {
+                    SET.invoke(event, SUCCEEDED, succeeded);
+                    COMMIT.invoke(event);
+                }
+            }
+            catch(ReflectiveOperationException e)
+            {
+                // Event is lost, but the time is already recorded
+            }
+        }
+    }
+}
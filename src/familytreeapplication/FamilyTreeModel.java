@@ -0,0 +1,535 @@
+/*
+ * Title: FamilyTreeModel class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeModel.java
+ * Purpose: The purpose of this class is to hold one family tree together with its registry and
+ *          indexes, and to add relatives and edit personal information in a way that keeps them
+ *          all up to date, without any user interface.
+ * Assumptions/Conditions: - A family tree always has a root person, who has id 0.
+                           - A father must be male and a mother female. A person can have only 1
+                             father, 1 mother and 1 spouse, and a spouse must be of the opposite
+                             gender. Only the root person can have parents added, parents of the
+                             root person can only add a spouse, and a spouse can only add
+                             children. Relatives that break these rules are not added.
+                           - Changes can be made from any thread. Only one change is made at a
+                             time, and searches and queries wait for a change to finish.
+                           - The search index is only built the first time the tree is searched,
+                             and the ancestry index the first time it is requested, so a tree
+                             opened from a file is not read completely until then. Changes wait
+                             while an index is being built.
+                           - Listeners are told of a change after it is made, on the thread that
+                             made it and before the next change can be made, so they are told of
+                             changes in the order they were made. A listener must not wait for
+                             another thread that changes the tree, and a listener that updates a
+                             user interface must pass the change on to the thread of the user
+                             interface.
+                           - The registry and indexes returned by the getters are not locked, and
+                             must only be used on the thread that makes changes, or inside read.
+                           - Several family trees can be open at once, each in its own model.
+ */
+package familytreeapplication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Family tree with its registry, search index, ancestry index and cache of relatives.
+ * <p>Every change goes through this class, so the indexes never fall behind the tree, and
+ * listeners, such as the user interface or the journal, are told about every change.
+ *
+ * @author Zhiguang
+ */
+public final class FamilyTreeModel
+{
+    /**
+     * Receives the changes made to a family tree, in the order they were made
+     */
+    public interface Listener
+    {
+        /**
+         * Called after a relative is added to a person
+         *
+         * @param target person the relative was added to
+         * @param relative relative added
+         * @param type type of relative
+         */
+        void relativeAdded(Person target, Person relative, RelationType type);
+
+        /**
+         * Called after the personal information of a person is edited
+         *
+         * @param target person edited
+         */
+        void detailsEdited(Person target);
+    }
+
+    private final Person root;
+    private final PersonRegistry registry;
+    private final RelativeCache relatives;
+
+    // Built the first time the tree is searched
+    private PersonSearchIndex searchIndex;
+
+    // Built the first time it is requested, and read without the lock once it is built
+    private volatile AncestryIndex ancestry;
+
+    // Changes, searches and relatives hold the write lock, as the indexes keep working space
+    private final ReentrantReadWriteLock lock;
+    private final List<Listener> listeners;
+
+    /**
+     * Constructor which starts a new family tree with a root person
+     *
+     * @param rootPerson root person of new family tree
+     */
+    public FamilyTreeModel(Person rootPerson)
+    {
+        this(rootPerson, new PersonRegistry());
+    }
+
+    /**
+     * Constructor which holds a family tree that was loaded, whose indexes are built when they
+     * are first needed
+     *
+     * @param rootPerson root person of family tree
+     * @param r registry of family tree, with the root person as id 0
+     */
+    public FamilyTreeModel(Person rootPerson, PersonRegistry r)
+    {
+        root = rootPerson;
+        registry = r;
+
+        // Root person of a new tree is given id 0
+        if(r.size() == 0)
+        {
+            r.register(rootPerson);
+        }
+
+        relatives = new RelativeCache(r);
+        lock = new ReentrantReadWriteLock();
+        listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Add a listener, which is told about every change made after it is added
+     *
+     * @param l listener
+     */
+    public void addListener(Listener l)
+    {
+        listeners.add(l);
+    }
+
+    /**
+     * Remove a listener
+     *
+     * @param l listener
+     */
+    public void removeListener(Listener l)
+    {
+        listeners.remove(l);
+    }
+
+    /**
+     * Returns the root person
+     *
+     * @return root person
+     */
+    public Person getRoot()
+    {
+        return root;
+    }
+
+    /**
+     * Returns the registry of the family tree
+     *
+     * @return registry
+     */
+    public PersonRegistry getRegistry()
+    {
+        return registry;
+    }
+
+    /**
+     * Returns the ancestry index of the family tree, building it the first time, which reads
+     * every person of the tree
+     *
+     * @return ancestry index
+     */
+    public AncestryIndex getAncestry()
+    {
+        Lock write = lock.writeLock();
+        write.lock();
+        try
+        {
+            if(ancestry == null)
+            {
+                ancestry = AncestryIndex.build(registry);
+            }
+            return ancestry;
+        }
+        finally
+        {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Returns the ancestry index of the family tree if it has been built, without waiting
+     *
+     * @return ancestry index; null if not built yet
+     */
+    public AncestryIndex getBuiltAncestry()
+    {
+        return ancestry;
+    }
+
+    /**
+     * Returns the number of people in the family tree
+     *
+     * @return number of people
+     */
+    public int size()
+    {
+        return read(registry::size);
+    }
+
+    /**
+     * Add a father to a person
+     *
+     * @param target person to add father to
+     * @param father father to add
+     * @throws IllegalArgumentException if the father cannot be added
+     */
+    public void addFather(Person target, Person father)
+    {
+        add(target, father, RelationType.FATHER);
+    }
+
+    /**
+     * Add a mother to a person
+     *
+     * @param target person to add mother to
+     * @param mother mother to add
+     * @throws IllegalArgumentException if the mother cannot be added
+     */
+    public void addMother(Person target, Person mother)
+    {
+        add(target, mother, RelationType.MOTHER);
+    }
+
+    /**
+     * Add a spouse to a person
+     *
+     * @param target person to add spouse to
+     * @param spouse spouse to add
+     * @throws IllegalArgumentException if the spouse cannot be added
+     */
+    public void addSpouse(Person target, Person spouse)
+    {
+        add(target, spouse, RelationType.SPOUSE);
+    }
+
+    /**
+     * Add a child to a person, and to the person's spouse
+     *
+     * @param target person to add child to
+     * @param child child to add
+     * @throws IllegalArgumentException if the child cannot be added
+     */
+    public void addChild(Person target, Person child)
+    {
+        add(target, child, RelationType.CHILD);
+    }
+
+    /**
+     * Add a relative of the given type to a person
+     *
+     * @param target person to add relative to
+     * @param relative new person to add
+     * @param type type of relative (father, mother, spouse or child)
+     * @throws IllegalArgumentException if the relative cannot be added
+     */
+    public void add(Person target, Person relative, RelationType type)
+    {
+        Lock write = lock.writeLock();
+        write.lock();
+        try
+        {
+            if(registry.getId(relative) >= 0)
+            {
+                throw new IllegalArgumentException(relative.getFullName() + " is already in the family tree!");
+            }
+            String problem = checkRelative(target, relative.getGender(), type);
+            if(problem != null)
+            {
+                throw new IllegalArgumentException(problem);
+            }
+
+            relative.setType(type);
+            FamilyTreeMutations.add(target, relative, type);
+            registry.register(relative);
+            if(searchIndex != null)
+            {
+                searchIndex.add(relative);
+            }
+            if(ancestry != null)
+            {
+                ancestry.add(relative);
+            }
+
+            // Relatives shown for the people around the new relative have changed
+            relatives.invalidate(target);
+            relatives.invalidate(relative);
+
+            // Listeners are told while the lock is held, so they see changes in order
+            for(Listener l:listeners)
+            {
+                l.relativeAdded(target, relative, type);
+            }
+        }
+        finally
+        {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Set the personal information of a person to that of another person.
+     * <p>Gender and type of the person are not changed.
+     *
+     * @param target person to edit
+     * @param details person with the new personal information
+     * @throws IllegalArgumentException if the person is not in the family tree
+     */
+    public void editDetails(Person target, Person details)
+    {
+        Lock write = lock.writeLock();
+        write.lock();
+        try
+        {
+            checkRegistered(target);
+
+            // Person is indexed again by the new personal information
+            if(searchIndex != null)
+            {
+                searchIndex.remove(target);
+            }
+            FamilyTreeMutations.editDetails(target, details);
+            registry.update(target);
+            if(searchIndex != null)
+            {
+                searchIndex.add(target);
+            }
+
+            for(Listener l:listeners)
+            {
+                l.detailsEdited(target);
+            }
+        }
+        finally
+        {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Check whether a relative of the given gender and type can be added to a person
+     *
+     * @param target person to add relative to
+     * @param gender gender of relative
+     * @param type type of relative (father, mother, spouse or child)
+     * @return why the relative cannot be added; null if it can be added
+     * @throws IllegalArgumentException if the person is not in the family tree
+     */
+    public String checkRelative(Person target, Gender gender, RelationType type)
+    {
+        Lock read = lock.readLock();
+        read.lock();
+        try
+        {
+            checkRegistered(target);
+
+            // Only fathers, mothers, spouses and children can be added
+            if(type == null || type == RelationType.ROOT)
+            {
+                return "Select a type!";
+            }
+            // Relatives that can be added depend on the type of the person, as in the form
+            else if(type.isParent() && target.getType() != RelationType.ROOT)
+            {
+                return "Only the root person can add parents!";
+            }
+            else if(target.getType() != null && target.getType().isParent() && type != RelationType.SPOUSE)
+            {
+                return "Parents of root person can only add spouse!";
+            }
+            else if(target.getType() == RelationType.SPOUSE && type != RelationType.CHILD)
+            {
+                return "A spouse can only add children!";
+            }
+            // If father or mother is chosen as the type, check if gender is correct
+            else if(type == RelationType.FATHER && gender != Gender.MALE)
+            {
+                return "Wrong gender selected for father!";
+            }
+            else if(type == RelationType.MOTHER && gender != Gender.FEMALE)
+            {
+                return "Wrong gender selected for mother!";
+            }
+            // A person can only have one spouse, of the opposite gender
+            else if(type == RelationType.SPOUSE && !target.noSpouse())
+            {
+                return "Spouse already exist!\nA person can only have one spouse.";
+            }
+            else if(type == RelationType.SPOUSE && target.getGender() == gender)
+            {
+                return "Spouse must be of opposite gender!";
+            }
+            // There can only be one father and one mother
+            else if(type.isParent())
+            {
+                for(Person parent:target.getParentList())
+                {
+                    if(parent.getGender() == gender)
+                    {
+                        return type + " already exists!\nA person can only have 1 father and 1 mother.";
+                    }
+                }
+            }
+            return null;
+        }
+        finally
+        {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Returns the people whose personal information contains every word of a query, best
+     * matches first.
+     * <p>The first search builds the search index, which reads every person of the tree.
+     *
+     * @param query words to search for
+     * @param limit most people returned
+     * @return people found
+     */
+    public List<Person> search(String query, int limit)
+    {
+        Lock write = lock.writeLock();
+        write.lock();
+        try
+        {
+            if(searchIndex == null)
+            {
+                searchIndex = PersonSearchIndex.build(registry);
+            }
+            return searchIndex.search(query, limit);
+        }
+        catch(IOException e)
+        {
+            // Only thrown when the thread is interrupted while the index is built
+            throw new UncheckedIOException(e);
+        }
+        finally
+        {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Returns the people whose personal information contains every word of a query, up to
+     * the default number of results
+     *
+     * @param query words to search for
+     * @return people found
+     */
+    public List<Person> search(String query)
+    {
+        return search(query, PersonSearchIndex.DEFAULT_LIMIT);
+    }
+
+    /**
+     * Returns the people with a full name, ignoring case
+     *
+     * @param fullName full name, as surname and first name
+     * @return people found
+     */
+    public List<Person> findByFullName(String fullName)
+    {
+        // Names of a tree mapped from a file are indexed the first time they are used
+        Lock write = lock.writeLock();
+        write.lock();
+        try
+        {
+            return registry.findByFullName(fullName);
+        }
+        finally
+        {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Returns the father, mother, spouse, children and grandchildren of a person
+     *
+     * @param p person
+     * @return relatives of person
+     */
+    public RelativeCache.Relatives getRelatives(Person p)
+    {
+        // Relatives are kept once worked out, so this changes the cache
+        Lock write = lock.writeLock();
+        write.lock();
+        try
+        {
+            return relatives.get(p);
+        }
+        finally
+        {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Run a query over the family tree while no change can be made, eg. a RelationshipQuery
+     * over the registry and ancestry index
+     *
+     * @param <T> type of result
+     * @param query query to run
+     * @return result of query
+     */
+    public <T> T read(Supplier<T> query)
+    {
+        Lock read = lock.readLock();
+        read.lock();
+        try
+        {
+            return query.get();
+        }
+        finally
+        {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Check that a person is in the family tree
+     *
+     * @param p person
+     * @throws IllegalArgumentException if the person is not registered
+     */
+    private void checkRegistered(Person p)
+    {
+        if(registry.getId(p) < 0)
+        {
+            throw new IllegalArgumentException(p.getFullName() + " is not in the family tree!");
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Title: FamilyTreeMutations class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeMutations.java
+ * Purpose: The purpose of this class is to add relatives to a person and edit the details
+ *          of a person, linking every relative affected by the change.
+ * Assumptions/Conditions: - Input has already been checked by the caller (eg. gender of father,
+                             one spouse per person, maximum of 2 parents).
+                           - Father and mother of a person are each other's spouse.
+                           - A spouse becomes a parent of every child of the person.
+                           - A spouse of a parent of the root person becomes a father or mother.
+                           - A child becomes a child of the person's spouse.
+ */
+package familytreeapplication;
+
+/**
+ * Adds relatives to a person and edits the details of a person.
+ * <p>Used by the form in FamilyTreeUtilities, and to replay changes saved in a
+ * FamilyTreeJournal.
+ *
+ * @author Zhiguang
+ */
+public final class FamilyTreeMutations
+{
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private FamilyTreeMutations()
+    {}
+
+    /**
+     * Add a relative of the given type to a person
+     *
+     * @param target person to add relative to
+     * @param relative relative to add
+     * @param type type of relative (father, mother, spouse or child)
+     */
+    public static void add(Person target, Person relative, RelationType type)
+    {
+        if(type.isParent())
+        {
+            addParent(target, relative);
+        }
+        else if(type == RelationType.SPOUSE)
+        {
+            addSpouse(target, relative);
+        }
+        else
+        {
+            addChild(target, relative);
+        }
+    }
+
+    /**
+     * Add a father or mother to a person
+     *
+     * @param target person to add parent to
+     * @param parent parent to add
+     */
+    public static void addParent(Person target, Person parent)
+    {
+        // Add target as parent's child
+        parent.getChildList().add(target);
+
+        // Adding father and mother as each other's spouse
+        if(!target.getParentList().isEmpty())
+        {
+            parent.setSpouse(target.getParentList().get(0));
+            target.getParentList().get(0).setSpouse(parent);
+        }
+
+        // Add parent as target's parent
+        target.getParentList().add(parent);
+    }
+
+    /**
+     * Add a spouse to a person
+     *
+     * @param target person to add spouse to
+     * @param spouse spouse to add
+     */
+    public static void addSpouse(Person target, Person spouse)
+    {
+        // If adding spouse to father or mother, change type to corresponding value
+        if(!target.getChildList().isEmpty() && target.getChildList().get(0).getType() == RelationType.ROOT)
+        {
+            spouse.setType(RelationType.parentOf(spouse.getGender()));
+        }
+
+        // Set target as spouse's spouse
+        spouse.setSpouse(target);
+
+        // Add spouse as all children's parent
+        if(!target.getChildList().isEmpty())
+        {
+            spouse.setChildList(target.getChildList());
+
+            for(Person child:target.getChildList())
+            {
+                child.getParentList().add(spouse);
+            }
+        }
+
+        // Add spouse as target's spouse
+        target.setSpouse(spouse);
+    }
+
+    /**
+     * Add a child to a person, and to the person's spouse, so that the child is listed once by
+     * each parent
+     *
+     * @param target person to add child to
+     * @param child child to add
+     */
+    public static void addChild(Person target, Person child)
+    {
+        // Add target to child's parentList
+        child.getParentList().add(target);
+
+        // if target has a spouse, add relationship
+        if(!target.noSpouse())
+        {
+            child.getParentList().add(target.getSpouse());
+
+            // A couple may share one list of children, which must only get the child once
+            if(target.getSpouse().getChildList() != target.getChildList())
+            {
+                target.getSpouse().getChildList().add(child);
+            }
+        }
+
+        // Add child to target's childList
+        target.getChildList().add(child);
+    }
+
+    /**
+     * Set the personal information of a person to that of another person.
+     * <p>Gender and type of the person are not changed.
+     *
+     * @param target person to edit
+     * @param details person with the new personal information
+     */
+    public static void editDetails(Person target, Person details)
+    {
+        Gender gender = target.getGender();
+
+        target.setDetails(details);
+        target.setGender(gender);
+    }
+}
@@ -35,9 +35,53 @@
                            - Personal information shown when selecting a person on the tree includes 
                              person's personal information, address information and relative information. 
                            - Relative information includes father, mother, children and grandchildren. 
+                             Children and grandchildren are shown in lists, and clicking one shows 
+                             the personal information of that person. Relatives are kept for every 
+                             person shown, until a relative is added to them or a close relative. 
                            - An empty family tree cannot be saved. 
-                           - The program can only load and save .dat files. 
+                           - The program can only load and save .dat files, and import and export 
+                             GEDCOM (.ged), CSV (.csv) and JSON Lines (.jsonl) files. A tree 
+                             imported from another format has no file or journal until it is 
+                             saved as a .dat file. Exporting does not 
+                             change the file or journal of the tree. 
                            - The user can determine the name of the file when saving a tree. 
+                           - Saving and loading run in the background, showing progress on the 
+                             footnote, a progress bar and its tab, and can be cancelled. The tree cannot 
+                             be changed while its save or load is running. 
+                           - Changes to a tree that was loaded or saved are recorded in a journal 
+                             next to its file, which is written to disk by autosave. Loading the 
+                             file again recovers the changes in the journal. When the journal grows 
+                             too large, the tree is saved into its file again and the journal emptied. 
+                           - Pressing enter in the search box lists the people whose name, address 
+                             or life description contain every word entered. Clicking a person in 
+                             the list expands the tree down to the person and selects it. 
+                           - The relationships of the selected person can be queried: ancestors and 
+                             descendants to a number of generations, cousins of a degree and times 
+                             removed, and the relationship, nearest common ancestor and shortest 
+                             chain of relatives to another person found by name. 
+                           - People on the tree are coloured by generation, which is kept for every 
+                             person together with a label that tells whether one person is an 
+                             ancestor of another without walking the tree. Generations of a loaded 
+                             tree are worked out in the background once the tree is shown, and 
+                             people are shown in black until then. 
+                           - The tree can be shown as a chart in a window of its own, which can be 
+                             zoomed by scrolling and moved by dragging. The chart is closed when 
+                             another tree is loaded or created. 
+                           - The family tree and its indexes are kept in a FamilyTreeModel, which 
+                             makes every change. The tree, chart and journal are updated when the 
+                             model tells them of a change. 
+                           - Several trees can be open at once, each in a tab of its own with its own 
+                             model, chart and journal. Several files can be loaded at once, each 
+                             into its own tab. A file can only be open in one tab, so only one tree 
+                             writes to its journal. Creating a tree opens a new tab. 
+                           - Names, surnames, street names and suburbs are pooled, so a string shared 
+                             by many people or by several trees is kept in memory only once. 
+                           - Loading, saving, creating trees, adding people, showing personal 
+                             information and drawing tree cells are timed by FamilyTreeMetrics. 
+                             Pressing F12 shows the times in a diagnostics window of its own. 
+                           - .dat files are compressed as they are saved when the system property 
+                             familytree.codec names a codec, eg. deflate or gzip. Compressed files 
+                             are recognised and loaded whatever the property is set to. 
  */
 package familytreeapplication;
 import java.util.*;
@@ -53,8 +97,18 @@ import javafx.geometry.Pos;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
 import javafx.stage.FileChooser;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.application.Platform;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.util.Duration;
 import java.io.*;
+import java.nio.file.NoSuchFileException;
 
 /**
  * The purpose of this class is to display a GUI interface that allows the user to add 
@@ -69,24 +123,55 @@ public class FamilyTreeUtilities implements Serializable
     private static FlowPane fpane;
     private static VBox appBox, infoBox;
     private static HBox selection, detailBox; 
-    private static ScrollPane treePane, infoPane;
+    private static ScrollPane infoPane;
+    private static TabPane treeTabs;
     private static Label heading, footnote;
-    private static Button load, save, create, add, saveForm, discardForm;
+    private static Button load, save, create, chartBtn, add, saveForm, discardForm;
     private static Text infoText, selectText;
     private static HBox typeBox, nameBox, sNameBox, GenderBox, lifeDescBox, stNoBox, stNameBox, subBox, postBox, fatherBox, motherBox, spouseBox, childBox, gChildBox, formBtnBox;
     private static TextField nameField, sNameField, stNoField, stNameField, subField, postField;
     private static Text typeText, personHeading, nameText, sNameText, genderText, lifeDescText, addHeading, stNoText, stNameText, subText, postText, relativeHeading, fatherText, motherText, spouseText, childText, gChildText;
-    private static ComboBox<String> genderComboBox, typeComboBox;
+    private static ComboBox<Gender> genderComboBox;
+    private static ComboBox<RelationType> typeComboBox;
     private static TextArea lifeDescField;
-    private static Person rootPerson;
-    private static TreeView<Person> famTree;
+    private static List<TreeTab> openTabs;
+    private static TreeTab current;
+    private static TextField searchField;
+    private static ListView<Person> searchResults;
+    private static Text searchHeading;
+    private static Text relHeading, relSummary;
+    private static ComboBox<String> relQueryBox;
+    private static TextField relDepthField, relRemovedField, relOtherField;
+    private static HBox relNumberBox, relBtnBox;
+    private static Button findRelBtn, relBackBtn, relationshipBtn;
+    private static ListView<Person> relResults;
     private static Alert alert;
     private static Text infoFather, infoMother, infoSpouse, infoChild, infoGrandChild;
     private static TextField infoGend;
-    private static VBox childVBox, gChildVBox;
+    private static ListView<Person> childListView, gChildListView;
     private static Button editDetailBtn, addRelativeBtn;
     private static HBox infoBtnBox;
     private static FileChooser chooseFile;
+    private static ProgressBar taskProgress;
+    private static Button cancelTask;
+    private static Timeline autosave;
+    private static Stage diagnosticsStage;
+    private static DiagnosticsPanel diagnostics;
+    
+    // Seconds between autosaves, and size of journal at which the tree is saved into its file again 
+    private static final int AUTOSAVE_SECONDS = Integer.getInteger("familytree.autosaveSeconds", 30);
+    private static final long COMPACT_SIZE = Long.getLong("familytree.compactBytes", 1024 * 1024);
+    
+    // Height of a row in the lists of children and grandchildren, and the most rows shown before scrolling 
+    private static final double RELATIVE_ROW_HEIGHT = 24;
+    private static final int RELATIVE_ROWS = Integer.getInteger("familytree.relativeRows", 6);
+    
+    // Height of a row on the family tree 
+    private static final double TREE_ROW_HEIGHT = 24;
+    
+    // Title of a tab without a tree, and size of the progress shown on a tab 
+    private static final String NEW_TAB = "New tree";
+    private static final double TAB_PROGRESS_SIZE = 16;
     
     /**
      * Default constructor 
@@ -105,6 +190,9 @@ public class FamilyTreeUtilities implements Serializable
         fpane = new FlowPane();
         fpane.setOrientation(Orientation.VERTICAL);
         topView.setScene(new Scene(fpane,450, 495));
+        
+        // F12 shows how long the operations of the program take 
+        topView.getScene().getAccelerators().put(new KeyCodeCombination(KeyCode.F12), () -> showDiagnostics());
         topView.setResizable(false);
         
         // Setting title of application 
@@ -130,9 +218,26 @@ public class FamilyTreeUtilities implements Serializable
         load = new Button("Load Tree");
         save = new Button("Save Tree");
         create = new Button("Create New Tree");
+        chartBtn = new Button("Chart");
+        
+        // Progress bar and cancel button, only shown while saving or loading 
+        taskProgress = new ProgressBar();
+        taskProgress.setPrefWidth(80);
+        taskProgress.setVisible(false);
+        cancelTask = new Button("Cancel");
+        cancelTask.setVisible(false);
+        
+        // Progress bar and cancel button only take up space while shown 
+        taskProgress.managedProperty().bind(taskProgress.visibleProperty());
+        cancelTask.managedProperty().bind(cancelTask.visibleProperty());
+        
+        // TextField to search for people by name, address or life description 
+        searchField = new TextField();
+        searchField.setPromptText("Search");
+        searchField.setPrefWidth(110);
         
         // Adding buttons into selection 
-        selection.getChildren().addAll(load, save, create);
+        selection.getChildren().addAll(load, save, create, chartBtn, searchField, taskProgress, cancelTask);
         selection.setSpacing(5);
         selection.setPadding(new Insets(0, 0, 0, 10));
         
@@ -144,11 +249,11 @@ public class FamilyTreeUtilities implements Serializable
         detailBox.setBackground(new Background(new BackgroundFill(Color.WHITESMOKE, CornerRadii.EMPTY, Insets.EMPTY)));
         detailBox.setPrefSize(450, 470);
         
-        // ScrollPane to contain family tree 
-        famTree = new TreeView<>();
-        treePane = new ScrollPane(famTree);
-        treePane.setPrefSize(210, 470);
-        detailBox.getChildren().add(treePane);
+        // Tabs to contain family trees, each in a ScrollPane of its own 
+        treeTabs = new TabPane();
+        treeTabs.setPrefSize(210, 470);
+        openTabs = new ArrayList<>();
+        detailBox.getChildren().add(treeTabs);
         
         infoText = new Text("Load a tree or add a new root \nperson");
         infoText.setFont(Font.font(15));
@@ -195,7 +300,7 @@ public class FamilyTreeUtilities implements Serializable
         GenderBox = new HBox(43);
         genderText = new Text("Gender");
         genderComboBox = new ComboBox<>();
-        genderComboBox.getItems().addAll("Male","Female");
+        genderComboBox.getItems().addAll(Gender.values());
         GenderBox.getChildren().addAll(genderText, genderComboBox);
         
         lifeDescBox = new HBox();
@@ -268,37 +373,108 @@ public class FamilyTreeUtilities implements Serializable
         infoSpouse = new Text();
         spouseBox.getChildren().addAll(spouseText, infoSpouse);
         
+        // Children and grandchildren are shown in lists, which only create cells for the rows in view 
         childBox = new HBox(39);
         childText = new Text("Children");
-        childVBox = new VBox(5);
-        childBox.getChildren().addAll(childText, childVBox);
+        infoChild = new Text("None");
+        childListView = new ListView<>();
+        childListView.setFixedCellSize(RELATIVE_ROW_HEIGHT);
+        childListView.setPrefWidth(150);
+        childBox.getChildren().addAll(childText, infoChild);
         
         gChildBox = new HBox(4);
         gChildText = new Text("Grand Children");
-        gChildVBox = new VBox(5);
-        gChildBox.getChildren().addAll(gChildText,gChildVBox);
+        infoGrandChild = new Text("None");
+        gChildListView = new ListView<>();
+        gChildListView.setFixedCellSize(RELATIVE_ROW_HEIGHT);
+        gChildListView.setPrefWidth(150);
+        gChildBox.getChildren().addAll(gChildText, infoGrandChild);
         
         infoBtnBox = new HBox(5);
         editDetailBtn = new Button("Edit Details");
         addRelativeBtn = new Button("Add Relative");
-        infoBtnBox.getChildren().addAll(editDetailBtn, addRelativeBtn);
+        relationshipBtn = new Button("Relationships");
+        infoBtnBox.getChildren().addAll(editDetailBtn, addRelativeBtn, relationshipBtn);
+        
+        // Relationship queries of the selected person 
+        relHeading = new Text();
+        relHeading.setFont(Font.font(15));
+        relQueryBox = new ComboBox<>();
+        relQueryBox.getItems().addAll("Ancestors", "Descendants", "Cousins", "Relationship to", "Common ancestor", "Shortest path");
+        relDepthField = new TextField();
+        relDepthField.setPromptText("Generations / degree");
+        relDepthField.setPrefWidth(125);
+        relRemovedField = new TextField();
+        relRemovedField.setPromptText("Times removed");
+        relRemovedField.setPrefWidth(100);
+        relNumberBox = new HBox(5);
+        relNumberBox.getChildren().addAll(relDepthField, relRemovedField);
+        relOtherField = new TextField();
+        relOtherField.setPromptText("Full name of other person");
+        findRelBtn = new Button("Find");
+        relBackBtn = new Button("Back");
+        relBtnBox = new HBox(5);
+        relBtnBox.getChildren().addAll(findRelBtn, relBackBtn);
+        relSummary = new Text();
+        relSummary.setWrappingWidth(240);
+        relResults = new ListView<>();
+        relResults.setPrefSize(240, 250);
+        
+        // List of people found by a search 
+        searchHeading = new Text();
+        searchHeading.setFont(Font.font(15));
+        searchResults = new ListView<>();
+        searchResults.setPrefSize(240, 400);
         
         // Event handling 
-        create.setOnMouseClicked(evt -> createNewPrompt());
-        add.setOnMouseClicked(evt -> showForm("empty", rootPerson));
+        create.setOnMouseClicked(evt -> newTab());
+        chartBtn.setOnMouseClicked(evt -> showChart());
+        add.setOnMouseClicked(evt -> showForm(null, null));
         save.setOnMouseClicked(evt -> saveToFile());
         load.setOnMouseClicked(evt -> loadTree());
+        cancelTask.setOnMouseClicked(evt -> current.runningTask.cancel());
+        searchField.setOnAction(evt -> search(searchField.getText()));
+        searchResults.setOnMouseClicked(evt -> showResult(searchResults.getSelectionModel().getSelectedItem()));
+        relResults.setOnMouseClicked(evt -> showResult(relResults.getSelectionModel().getSelectedItem()));
+        childListView.setOnMouseClicked(evt -> showResult(childListView.getSelectionModel().getSelectedItem()));
+        gChildListView.setOnMouseClicked(evt -> showResult(gChildListView.getSelectionModel().getSelectedItem()));
+        
+        // Write changes in the journal to disk regularly 
+        autosave = new Timeline(new KeyFrame(Duration.seconds(AUTOSAVE_SECONDS), evt -> autosave()));
+        autosave.setCycleCount(Animation.INDEFINITE);
+        autosave.play();
+        
+        // Show the tree of a tab when the tab is selected, starting with an empty tab 
+        treeTabs.getSelectionModel().selectedItemProperty().addListener((obs, before, after) -> selectTab(after));
+        newTab();
+    }
+    
+    /**
+     * Stop autosave and close the journals of every tree. 
+     * <p>Called when the application is closed. 
+     */
+    public void close()
+    {
+        if(autosave != null)
+        {
+            autosave.stop();
+        }
+        closeDiagnostics();
+        for(TreeTab t:openTabs)
+        {
+            closeJournal(t);
+        }
     }
     
     /**
      * Save root person to the folder Family Tree Data, or any chosen directory. 
-     * <p>File will be saved in .dat format. 
+     * <p>File will be saved in .dat format, or exported if a .ged, .csv or .jsonl file is chosen. 
      */
     private void saveToFile()
     {
         try
         {
-            if(rootPerson == null)
+            if(current.model == null)
             {
                 throw(null);
             }
@@ -309,45 +485,28 @@ public class FamilyTreeUtilities implements Serializable
             // Setting initial directory 
             chooseFile.setInitialDirectory(new File("Family Tree Data/"));
 
-            // Setting filter so only .dat files are displayed 
-            FileChooser.ExtensionFilter filter = new FileChooser.ExtensionFilter("DAT File", "*.dat");
-            chooseFile.getExtensionFilters().add(filter);
+            // Setting filter so only files that can be saved or exported are displayed 
+            addFileFilters(chooseFile);
 
             File selectedFile = chooseFile.showSaveDialog(null);
 
-            if(selectedFile != null)
+            // A file open in another tab would lose the changes in its journal 
+            TreeTab open = findTab(selectedFile);
+            if(open != null && open != current)
             {
-                try(ObjectOutputStream os = new ObjectOutputStream(new FileOutputStream(selectedFile)))
-                {
-                    // Writing rootPerson into file 
-                    os.writeObject(rootPerson);
-
-                    // Popup to inform user of successful save 
-                    alert = new Alert(Alert.AlertType.INFORMATION);
-                    alert.setHeaderText(null);
-                    alert.setTitle("Save Successful");
-                    alert.setContentText("File " + selectedFile.getName() + " saved successfully!\n"
-                                         + "File is saved into the directory: " + selectedFile.getPath());
-                    alert.showAndWait();
-
-                    footnote.setText("File saved");
-                }
-                catch(FileNotFoundException e)
-                {
-                    alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setHeaderText(null);
-                    alert.setTitle("Save Error");
-                    alert.setContentText("File not found!");
-                    alert.showAndWait();
-                }
-                catch(IOException e)
-                {
-                    alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setHeaderText(null);
-                    alert.setTitle("Save Error");
-                    alert.setContentText("Unable to save file!");
-                    alert.showAndWait();
-                }
+                alert = new Alert(Alert.AlertType.ERROR);
+                alert.setHeaderText(null);
+                alert.setTitle("Save Error");
+                alert.setContentText("File is open in another tab!\nClose the tab before saving into the file.");
+                alert.showAndWait();
+            }
+            else if(selectedFile != null && isImported(selectedFile))
+            {
+                exportTree(current, selectedFile);
+            }
+            else if(selectedFile != null)
+            {
+                saveTree(current, selectedFile, false);
             }
         }
         catch(NullPointerException e)
@@ -361,7 +520,127 @@ public class FamilyTreeUtilities implements Serializable
     }
     
     /**
-     * Load root person of selected file into program 
+     * Save root person into a file in the background, and start an empty journal for the file. 
+     * 
+     * @param t tab of tree to save 
+     * @param selectedFile file to save into 
+     * @param compact true if saving only to empty the journal of the file, in which case 
+     *                no message is shown unless the save fails 
+     */
+    private void saveTree(TreeTab t, File selectedFile, boolean compact)
+    {
+        final PersonRegistry people = t.model.getRegistry();
+        
+        // Changes not written yet are part of the file being saved 
+        flushJournal(t);
+        
+        FileTask<Void> task = new FileTask<Void>(compact?"Autosaving":"Saving", FamilyTreeMetrics.Operation.SAVE_TO_FILE, selectedFile)
+        {
+            @Override
+            protected Void work() throws Exception
+            {
+                // Writing every person in the tree into file, in order of id 
+                FamilyTreeFile.save(people, selectedFile, this);
+                
+                // Changes are recorded from the saved file onwards 
+                this.journal = FamilyTreeJournal.create(selectedFile, people);
+                return null;
+            }
+        };
+        
+        task.setOnSucceeded(evt -> 
+        {
+            closeJournal(t);
+            t.journal = task.journal;
+            t.file = selectedFile;
+            t.tab.setText(selectedFile.getName());
+            
+            if(compact)
+            {
+                footnote.setText("Tree autosaved into " + selectedFile.getName());
+            }
+            else
+            {
+                // Popup to inform user of successful save 
+                alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setHeaderText(null);
+                alert.setTitle("Save Successful");
+                alert.setContentText("File " + selectedFile.getName() + " saved successfully!\n"
+                                     + "File is saved into the directory: " + selectedFile.getPath());
+                alert.showAndWait();
+
+                footnote.setText("File saved");
+            }
+        });
+        task.setOnFailed(evt -> 
+        {
+            closeTaskJournal(t, task, selectedFile);
+            showFileError("Save Error", task.getException(), "Unable to save file!");
+        });
+        task.setOnCancelled(evt -> 
+        {
+            closeTaskJournal(t, task, selectedFile);
+            footnote.setText("Save cancelled");
+        });
+        
+        runTask(t, task);
+    }
+    
+    /**
+     * Export every person of a tree into a GEDCOM, CSV or JSON Lines file in the background. 
+     * <p>The tree keeps the file and journal it had, as an exported file cannot be loaded again 
+     * with its journal. 
+     * 
+     * @param t tab of tree to export 
+     * @param selectedFile file to export into 
+     */
+    private void exportTree(TreeTab t, File selectedFile)
+    {
+        final PersonRegistry people = t.model.getRegistry();
+        
+        FileTask<Void> task = new FileTask<Void>("Exporting", FamilyTreeMetrics.Operation.SAVE_TO_FILE, selectedFile)
+        {
+            @Override
+            protected Void work() throws Exception
+            {
+                if(GedcomFile.isGedcom(selectedFile))
+                {
+                    GedcomFile.save(people, selectedFile, this);
+                }
+                else if(CsvFile.isCsv(selectedFile))
+                {
+                    CsvFile.save(people, selectedFile, this);
+                }
+                else
+                {
+                    JsonLinesFile.save(people, selectedFile, this);
+                }
+                return null;
+            }
+        };
+        
+        task.setOnSucceeded(evt -> 
+        {
+            alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setHeaderText(null);
+            alert.setTitle("Export Successful");
+            alert.setContentText("File " + selectedFile.getName() + " exported successfully!\n"
+                                 + "File is exported into the directory: " + selectedFile.getPath());
+            alert.showAndWait();
+            
+            footnote.setText("File exported");
+        });
+        task.setOnFailed(evt -> showFileError("Export Error", task.getException(), "Unable to export file!"));
+        task.setOnCancelled(evt -> footnote.setText("Export cancelled"));
+        
+        runTask(t, task);
+    }
+    
+    /**
+     * Load root person of selected file into program. 
+     * <p>The file is loaded into the selected tab if it has no tree, or into a new tab, so 
+     * several files can be loaded at once. A file that is already open is shown instead. 
+     * <p>A GEDCOM, CSV or JSON Lines file is imported as a tree without a file or journal. 
      */
     private void loadTree()
     {
@@ -371,73 +650,287 @@ public class FamilyTreeUtilities implements Serializable
         // Setting initial directory 
         chooseFile.setInitialDirectory(new File("Family Tree Data/"));
         
-        // Setting filter so only .dat files are displayed 
-        FileChooser.ExtensionFilter filter = new FileChooser.ExtensionFilter("DAT File", "*.dat");
-        chooseFile.getExtensionFilters().add(filter);
+        // Setting filter so only files that can be loaded or imported are displayed 
+        addFileFilters(chooseFile);
         
         File selectedFile = chooseFile.showOpenDialog(null);
         
         if(selectedFile != null)
         {
-            try(ObjectInputStream is = new ObjectInputStream(new FileInputStream(selectedFile)))
+            // A file is only open in one tab, so only one tab writes to its journal 
+            TreeTab open = findTab(selectedFile);
+            if(open != null)
+            {
+                treeTabs.getSelectionModel().select(open.tab);
+                footnote.setText("File already open: " + selectedFile.getName());
+                return;
+            }
+            
+            TreeTab t = current.isEmpty()?current:newTab();
+            t.file = selectedFile;
+            t.tab.setText(selectedFile.getName());
+            
+            final boolean imported = isImported(selectedFile);
+            FileTask<Person> task = new FileTask<Person>(imported?"Importing":"Loading", FamilyTreeMetrics.Operation.LOAD_TREE, selectedFile)
+            {
+                @Override
+                protected Person work() throws Exception
+                {
+                    // An imported tree has no journal until it is saved as a .dat file 
+                    if(imported)
+                    {
+                        Person root = importFile(selectedFile, this);
+                        this.model = new FamilyTreeModel(root, PersonRegistry.build(root, this));
+                        return root;
+                    }
+                    
+                    // Read file 
+                    Person root = FamilyTreeFile.load(selectedFile, this);
+                    PersonRegistry people = PersonRegistry.build(root, this);
+                    
+                    // Recover changes made after the file was saved 
+                    this.journal = FamilyTreeJournal.open(selectedFile, people, this);
+                    
+                    // People are indexed once the tree is shown, so only the people shown are read now 
+                    this.model = new FamilyTreeModel(root, people);
+                    return root;
+                }
+            };
+            
+            // Tree is only shown once the file is loaded 
+            task.setOnSucceeded(evt -> 
             {
-                // Read file and store into root person 
-                Object data = is.readObject();
-                rootPerson = (Person)data;
+                t.journal = task.journal;
+                t.setModel(task.model);
                 
-                createTree(true);
+                createTree(t, true);
                 
-                footnote.setText("File opened from: " + selectedFile);
+                if(imported)
+                {
+                    t.file = null;
+                    footnote.setText("File imported from: " + selectedFile);
+                }
+                else if(t.journal.getRecovered() > 0)
+                {
+                    footnote.setText(selectedFile.getName() + " opened, " + t.journal.getRecovered() + " unsaved changes recovered");
+                }
+                else
+                {
+                    footnote.setText("File opened from: " + selectedFile);
+                }
+            });
+            task.setOnFailed(evt -> 
+            {
+                closeTaskJournal(t, task, null);
+                t.clearFile();
+                showFileError("Load Error", task.getException(), "Unable to load file!");
+            });
+            task.setOnCancelled(evt -> 
+            {
+                closeTaskJournal(t, task, null);
+                t.clearFile();
+                footnote.setText("Load cancelled");
+            });
+            
+            runTask(t, task);
+        }
+    }
+    
+    /**
+     * Work out the generation of every person of a tree in the background, and colour the 
+     * tree by generation once it is done. 
+     * <p>Changes to the tree wait until the generations are worked out. 
+     * 
+     * @param t tab of tree 
+     */
+    private void buildAncestry(TreeTab t)
+    {
+        final FamilyTreeModel m = t.model;
+        Thread thread = new Thread(() -> 
+        {
+            try
+            {
+                m.getAncestry();
             }
-            catch(FileNotFoundException e)
+            catch(RuntimeException e)
             {
-                alert = new Alert(Alert.AlertType.ERROR);
-                alert.setHeaderText(null);
-                alert.setTitle("Load Error");
-                alert.setContentText("File not found!");
-                alert.showAndWait();
+                // People stay black, and the error is shown when generations are next needed 
+                return;
             }
-            catch(IOException | ClassNotFoundException e)
+            
+            Platform.runLater(() -> 
             {
-                alert = new Alert(Alert.AlertType.ERROR);
-                alert.setHeaderText(null);
-                alert.setTitle("Load Error");
-                alert.setContentText("Unable to load file!");
-                alert.showAndWait();
+                if(t.model == m)
+                {
+                    t.famTree.refresh();
+                }
+            });
+        }, "Family tree ancestry");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Add the filters of every format that can be saved, loaded, imported or exported to a 
+     * file chooser, with .dat files first. 
+     * 
+     * @param chooser file chooser 
+     */
+    private static void addFileFilters(FileChooser chooser)
+    {
+        chooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("DAT File", "*.dat"),
+                                             new FileChooser.ExtensionFilter("GEDCOM File", "*.ged"),
+                                             new FileChooser.ExtensionFilter("CSV File", "*.csv"),
+                                             new FileChooser.ExtensionFilter("JSON Lines File", "*.jsonl"));
+    }
+    
+    /**
+     * Returns whether a file is imported and exported, rather than loaded and saved. 
+     * 
+     * @param file file 
+     * @return true if the file is a GEDCOM, CSV or JSON Lines file 
+     */
+    private static boolean isImported(File file)
+    {
+        return GedcomFile.isGedcom(file) || CsvFile.isCsv(file) || JsonLinesFile.isJsonLines(file);
+    }
+    
+    /**
+     * Import a family tree from a GEDCOM, CSV or JSON Lines file. 
+     * 
+     * @param file file to import 
+     * @param progress receives progress of import 
+     * @return root person of family tree 
+     * @throws IOException if the file cannot be read or is not valid 
+     */
+    private static Person importFile(File file, FamilyTreeFile.Progress progress) throws IOException
+    {
+        if(GedcomFile.isGedcom(file))
+        {
+            return GedcomFile.load(file, progress);
+        }
+        else if(CsvFile.isCsv(file))
+        {
+            return CsvFile.load(file, progress);
+        }
+        return JsonLinesFile.load(file, progress);
+    }
+    
+    /**
+     * Run a save or load of the tree of a tab in the background. 
+     * <p>Progress is shown on the tab, and the tree cannot be changed until the task ends. 
+     * Trees of other tabs can be changed, saved and loaded while it runs. 
+     * 
+     * @param t tab the task is for 
+     * @param task task to run 
+     */
+    private void runTask(TreeTab t, Task<?> task)
+    {
+        t.runningTask = task;
+        
+        // Show progress on the tab, and on the footnote and progress bar while the tab is selected 
+        ProgressIndicator indicator = new ProgressIndicator();
+        indicator.setPrefSize(TAB_PROGRESS_SIZE, TAB_PROGRESS_SIZE);
+        indicator.progressProperty().bind(task.progressProperty());
+        t.tab.setGraphic(indicator);
+        task.messageProperty().addListener((obs, oldMsg, msg) -> 
+        {
+            if(t == current)
+            {
+                footnote.setText(msg);
             }
+        });
+        
+        // Tree of the tab cannot be changed until the task ends 
+        t.pane.setDisable(true);
+        showTaskState();
+        task.stateProperty().addListener((obs, oldState, state) -> 
+        {
+            if(state == Worker.State.SUCCEEDED || state == Worker.State.FAILED || state == Worker.State.CANCELLED)
+            {
+                t.tab.setGraphic(null);
+                t.pane.setDisable(false);
+                t.runningTask = null;
+                showTaskState();
+            }
+        });
+        
+        Thread thread = new Thread(task, "Family tree file");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Show the progress of the save or load of the selected tab, if one is running, and 
+     * disable the controls that would change its tree 
+     */
+    private void showTaskState()
+    {
+        Task<?> task = current.runningTask;
+        
+        taskProgress.progressProperty().unbind();
+        if(task != null)
+        {
+            taskProgress.progressProperty().bind(task.progressProperty());
         }
+        taskProgress.setVisible(task != null);
+        cancelTask.setVisible(task != null);
+        setTaskControlsDisabled(task != null);
     }
     
     /**
-     * Prompt user for confirmation when create new tree button is pressed. 
-     * <p>If ok is selected, clear root person and change user interface to 
-     * default screen.
-     * <p>If cancel is selected, do nothing. 
+     * Disable or enable the controls that can change the tree of the selected tab. 
+     * <p>Loading and creating trees open other tabs, so they are always enabled. 
+     * 
+     * @param bool true to disable controls; false to enable them 
      */
-    private void createNewPrompt()
+    private void setTaskControlsDisabled(boolean bool)
     {
-        alert = new Alert(Alert.AlertType.CONFIRMATION);
-        alert.setTitle("Create New Confirmation");
+        save.setDisable(bool);
+        chartBtn.setDisable(bool);
+        searchField.setDisable(bool);
+        infoPane.setDisable(bool);
+    }
+    
+    /**
+     * Display error message for a save or load that failed 
+     * 
+     * @param title title of error message 
+     * @param e exception that caused the failure 
+     * @param message message to show if file was found 
+     */
+    private void showFileError(String title, Throwable e, String message)
+    {
+        alert = new Alert(Alert.AlertType.ERROR);
         alert.setHeaderText(null);
-        alert.setContentText("Are you sure you want to create new family tree?");
+        alert.setTitle(title);
         
-        Optional<ButtonType> result = alert.showAndWait();
-        if (result.get() == ButtonType.OK)
+        if(e instanceof FileNotFoundException || e instanceof NoSuchFileException)
+        {
+            alert.setContentText("File not found!");
+        }
+        else
         {
-            createNew();
+            alert.setContentText(message);
         }
+        alert.showAndWait();
+        
+        footnote.setText("Program loaded");
     }
     
     /**
-     * Create new family tree. 
+     * Create new family tree in the selected tab. 
      * <p>Clear existing root person and reset user interface. 
      */
     private void createNew()
     {
-        rootPerson = null;
+        closeJournal(current);
+        closeChart(current);
+        current.setModel(null);
+        current.clearFile();
         
-        famTree = new TreeView<>();
-        treePane.setContent(famTree);
+        current.famTree = new TreeView<>();
+        current.pane.setContent(current.famTree);
 
         infoBox.getChildren().clear();
         infoBox.getChildren().addAll(add, infoText);
@@ -445,16 +938,110 @@ public class FamilyTreeUtilities implements Serializable
         footnote.setText("Program loaded");
     }
     
+    /**
+     * Open a new tab without a tree, and select it 
+     * 
+     * @return tab opened 
+     */
+    private TreeTab newTab()
+    {
+        TreeTab t = new TreeTab();
+        openTabs.add(t);
+        treeTabs.getTabs().add(t.tab);
+        treeTabs.getSelectionModel().select(t.tab);
+        return t;
+    }
+    
+    /**
+     * Show the tree of the tab selected. 
+     * <p>A form shown for the tree of the previous tab is discarded. 
+     * 
+     * @param tab tab selected; null if no tab is left 
+     */
+    private void selectTab(Tab tab)
+    {
+        if(tab == null)
+        {
+            return;
+        }
+        
+        // Tree of the previous tab can be clicked again once it is selected again 
+        if(current != null && current.model != null)
+        {
+            current.famTree.setOnMouseClicked(evt -> showSelection(evt));
+        }
+        current = (TreeTab) tab.getUserData();
+        
+        if(current.model == null)
+        {
+            infoBox.getChildren().clear();
+            infoBox.getChildren().addAll(add, infoText);
+        }
+        else
+        {
+            setTreeSelectable(true);
+        }
+        showTaskState();
+        
+        footnote.setText(current.file != null?"Showing " + current.file:"Program loaded");
+    }
+    
+    /**
+     * Close a tab, stopping its save or load and closing its journal and chart. 
+     * <p>A new tab is opened if no tab is left. 
+     * 
+     * @param t tab to close 
+     */
+    private void closeTab(TreeTab t)
+    {
+        if(t.runningTask != null)
+        {
+            t.runningTask.cancel();
+        }
+        closeChart(t);
+        closeJournal(t);
+        t.setModel(null);
+        
+        openTabs.remove(t);
+        treeTabs.getTabs().remove(t.tab);
+        if(openTabs.isEmpty())
+        {
+            newTab();
+        }
+    }
+    
+    /**
+     * Returns the tab a file is open in 
+     * 
+     * @param selectedFile file; may be null 
+     * @return tab of file; null if the file is not open 
+     */
+    private TreeTab findTab(File selectedFile)
+    {
+        if(selectedFile != null)
+        {
+            File file = selectedFile.getAbsoluteFile();
+            for(TreeTab t:openTabs)
+            {
+                if(t.file != null && t.file.getAbsoluteFile().equals(file))
+                {
+                    return t;
+                }
+            }
+        }
+        return null;
+    }
+    
     /**
      * Display a form for user to fill in personal information 
      * 
-     * @param indicator indicates the type of form to show
+     * @param indicator type of the person to show the form for; null if adding the root person 
      * @param p Person to show the form for 
      */
-    private void showForm(String indicator, Person p)
+    private void showForm(RelationType indicator, Person p)
     {
         // Change footnote information 
-        if(indicator.equalsIgnoreCase("empty"))
+        if(indicator == null)
         {
             footnote.setText("Adding root person");
         }
@@ -466,29 +1053,29 @@ public class FamilyTreeUtilities implements Serializable
         infoBox.getChildren().clear();
         
         // Add type of relative selection box if root person exists 
-        if(!indicator.equalsIgnoreCase("empty"))
+        if(indicator != null)
         {
-            createTree(false);
+            setTreeSelectable(false);
             infoBox.getChildren().clear();
             typeBox.getChildren().clear();
             //typeComboBox = new ComboBox<>();
             typeComboBox.getItems().clear();
             
-            if(indicator.equalsIgnoreCase("root"))
+            if(indicator == RelationType.ROOT)
             {
-                typeComboBox.getItems().addAll("Father", "Mother", "Spouse", "Child");
+                typeComboBox.getItems().addAll(RelationType.FATHER, RelationType.MOTHER, RelationType.SPOUSE, RelationType.CHILD);
             }
-            else if(indicator.equalsIgnoreCase("father") || indicator.equalsIgnoreCase("mother"))
+            else if(indicator.isParent())
             {
-                typeComboBox.getItems().addAll("Spouse");
+                typeComboBox.getItems().addAll(RelationType.SPOUSE);
             }
-            else if(indicator.equalsIgnoreCase("spouse"))
+            else if(indicator == RelationType.SPOUSE)
             {
-                typeComboBox.getItems().addAll("Child");
+                typeComboBox.getItems().addAll(RelationType.CHILD);
             }
             else
             {
-                typeComboBox.getItems().addAll("Spouse", "Child");
+                typeComboBox.getItems().addAll(RelationType.SPOUSE, RelationType.CHILD);
             }
             
             typeBox.getChildren().addAll(typeText, typeComboBox);
@@ -525,13 +1112,13 @@ public class FamilyTreeUtilities implements Serializable
         infoBox.getChildren().addAll(personHeading, nameBox, sNameBox, GenderBox, lifeDescBox, addHeading, stNoBox, stNameBox, subBox, postBox, formBtnBox);
         
         // Event handling 
-        if(indicator.equalsIgnoreCase("empty"))
+        if(indicator == null)
         {
-            saveForm.setOnMouseClicked(evt -> addPerson(p, "empty"));
+            saveForm.setOnMouseClicked(evt -> addPerson(p, RelationType.ROOT, false));
         }
         else
         {
-            saveForm.setOnMouseClicked(evt -> addPerson(p, typeComboBox.getValue()));
+            saveForm.setOnMouseClicked(evt -> addPerson(p, typeComboBox.getValue(), false));
         }
         
         discardForm.setOnMouseClicked(evt -> discard(indicator));
@@ -539,12 +1126,12 @@ public class FamilyTreeUtilities implements Serializable
     
     /**
      * Discard any changes made to form. 
-     * <p>Passing the string "empty" into the parameter indicates a discard for create root person form. 
+     * <p>Passing null into the parameter indicates a discard for create root person form. 
      * <p>Otherwise, discard for edit details or add relative. 
      * 
      * @param s indicates type of discard to execute 
      */
-    private void discard(String s)
+    private void discard(RelationType s)
     {
         // Confirmation popup 
         alert = new Alert(Alert.AlertType.CONFIRMATION);
@@ -556,16 +1143,13 @@ public class FamilyTreeUtilities implements Serializable
         Optional<ButtonType> result = alert.showAndWait();
         if (result.get() == ButtonType.OK)
         {
-            if(s.equalsIgnoreCase("empty"))
+            if(s == null)
             {
                 createNew();
             }
             else
             {
-                createTree(true);
-                
-                infoBox.getChildren().clear();
-                infoBox.getChildren().add(selectText);
+                setTreeSelectable(true);
             }
             
             footnote.setText("Program loaded");
@@ -574,18 +1158,20 @@ public class FamilyTreeUtilities implements Serializable
     
     /**
      * Add person or relative to tree. 
-     * <p>This function also edits personal information of person if type 
-     * passed into parameter is the string "edit". 
+     * <p>This function also edits personal information of person if edit is true. 
      * 
-     * @param target person to add relative to 
-     * @param type type of person to add 
+     * @param target person to add relative to, or person to edit 
+     * @param type type of person to add; ROOT if adding the root person, null if no type was selected 
+     * @param edit true if editing personal information of target; false otherwise 
      */
-    private void addPerson(Person target, String type)
+    private void addPerson(Person target, RelationType type, boolean edit)
     {
+        FamilyTreeMetrics.Timing timing = FamilyTreeMetrics.begin(FamilyTreeMetrics.Operation.ADD_PERSON, edit?"Edit":String.valueOf(type));
+        
         // Getting user input 
         String name = nameField.getText();
         String sName = sNameField.getText();
-        String gender = null;
+        Gender gender = null;
         String life = lifeDescField.getText();
         String stAddr = stNameField.getText();
         String sub = subField.getText();
@@ -601,7 +1187,7 @@ public class FamilyTreeUtilities implements Serializable
         // Checking for any invalid input 
         try
         {
-            if(!type.equalsIgnoreCase("edit"))
+            if(!edit)
             {
                 gender = genderComboBox.getValue();
             }
@@ -614,7 +1200,7 @@ public class FamilyTreeUtilities implements Serializable
                 check = false;
             }
             // Check for valid gender. If editing information, gender will be be null as user cannot change gender when editing 
-            else if(gender == null && !type.equalsIgnoreCase("edit"))
+            else if(gender == null && !edit)
             {
                 alert.setTitle("Invalid Gender");
                 alert.setContentText("Please select a gender!");
@@ -627,64 +1213,32 @@ public class FamilyTreeUtilities implements Serializable
                 alert.setContentText("Address can only contain alphabets and space!\nAddress must be at least 2 characters long.");
                 check = false;
             }
-            // No need to check type if adding rootPerson or editing personal information
-            else if(!type.equalsIgnoreCase("empty") && !type.equalsIgnoreCase("edit"))
+            // Check if a type of relative is selected. Type is not changed when editing, so a person 
+            // without a type can still be edited 
+            else if(type == null && !edit)
             {
-                // If type is null, will throw NullPointerException and corresponding error will be shown
-                // If father or mother is chosen as the type, check if gender is correct
-                if(type.equalsIgnoreCase("father") && !gender.equalsIgnoreCase("male"))
-                {
-                    alert.setTitle("Invalid gender");
-                    alert.setContentText("Wrong gender selected for father!");
-                    check = false;
-                }
-                else if(type.equalsIgnoreCase("mother") && !gender.equalsIgnoreCase("female"))
-                {
-                    alert.setTitle("Invalid gender");
-                    alert.setContentText("Wrong gender selected for mother!");
-                    check = false;
-                }
-                // If adding spouse, check if the specified person already has a spouse
-                else if(type.equalsIgnoreCase("spouse") && !target.noSpouse())
-                {
-                    alert.setTitle("Invalid spouse");
-                    alert.setContentText("Spouse already exist!\nA person can only have one spouse.");
-                    check = false;
-                }
-                // Check if gender of spouse is valid. 
-                // Eg. male must have female spouse, vice versa. 
-                else if(type.equalsIgnoreCase("spouse") && target.getGender().equalsIgnoreCase(gender))
+                alert.setTitle("Invalid Type");
+                alert.setContentText("Select a type!");
+                check = false;
+            }
+            // No need to check type if adding rootPerson or editing personal information 
+            else if(type != RelationType.ROOT && !edit)
+            {
+                // Father, mother and spouse must be of the right gender, and there can only be 
+                // one father, one mother and one spouse 
+                String problem = current.model.checkRelative(target, gender, type);
+                if(problem != null)
                 {
-                    alert.setTitle("Invalid spouse");
-                    alert.setContentText("Spouse must be of opposite gender!");
+                    alert.setTitle("Invalid " + type.toString().toLowerCase());
+                    alert.setContentText(problem);
                     check = false;
                 }
-                // If rootPerson already has parents, check if that parent already exists 
-                // This means that there can only be one father and one mother 
-                else if(!target.getParentList().isEmpty() && (type.equalsIgnoreCase("father") || type.equalsIgnoreCase("mother")))
-                {
-                    for(Person pItem:target.getParentList())
-                    {
-                        if(gender.equalsIgnoreCase(pItem.getGender()))
-                        {
-                            alert.setTitle("Invalid parent");
-                            alert.setContentText(type + " already exists!\nA person can only have 1 father and 1 mother.");
-                            check = false;
-                        }
-                    }
-                }
             }
 
             // Assign street number and post code, and check if user input is an integer 
             stNo = Integer.parseInt(stNoField.getText());
             pCode = Integer.parseInt(postField.getText());
         }
-        catch(NullPointerException e)
-        {
-            alert.setTitle("Invalid Type");
-            alert.setContentText("Select a type!");
-            check = false;
-        }
         catch(NumberFormatException e)
         {
             alert.setTitle("Invalid Address");
@@ -692,108 +1246,205 @@ public class FamilyTreeUtilities implements Serializable
             check = false;
         }
         
-        // Display corresponding error message if any of the checks fail 
+        // Display corresponding error message if any of the checks fail. Time spent reading 
+        // the message is not counted 
         if(!check)
         {
+            timing.end(false);
             alert.showAndWait();
         }
         // Only save person if all inputs are correct
         else
         {
+            // If editing personal information 
+            // Gender remains the same 
+            if(edit)
+            {
+                Person temp = new Person(name, sName, target.getGender(), life, stNo, stAddr, sub, pCode, target.getType());
+                current.model.editDetails(target, temp);
+            }
             // If adding rootPerson
-            if(type.equalsIgnoreCase("empty"))
+            else if(type == RelationType.ROOT)
             {
-                rootPerson = new Person(name, sName, gender, life, stNo, stAddr, sub, pCode, "root");
+                // Root person is given id 0 
+                current.setModel(new FamilyTreeModel(new Person(name, sName, gender, life, stNo, stAddr, sub, pCode, RelationType.ROOT)));
+                current.tab.setText(current.model.getRoot().getFullName());
             }
-            // If editing personal information 
-            // Gender remains the same 
-            else if(type.equalsIgnoreCase("edit"))
+            // If adding parents, spouse or children. The tree, chart and journal are updated by TreeListener 
+            else
             {
-                Person temp = new Person(name, sName, target.getGender(), life, stNo, stAddr, sub, pCode, type);
-                target.setDetails(temp);
+                current.model.add(target, new Person(name, sName, gender, life, stNo, stAddr, sub, pCode, type), type);
             }
-            // If adding parents 
-            else if(type.equalsIgnoreCase("father") || type.equalsIgnoreCase("mother"))
+            
+            // Create family tree for new root person, other changes are already shown on the tree 
+            if(!edit && type == RelationType.ROOT)
             {
-                Person temp = new Person(name, sName, gender, life, stNo, stAddr, sub, pCode, type);
-                
-                // Add target as parent's child 
-                temp.getChildList().add(target);
-                
-                // Adding father and mother as each other's spouse
-                if(!target.getParentList().isEmpty())
-                {
-                    temp.setSpouse(target.getParentList().get(0));
-                    target.getParentList().get(0).setSpouse(temp);
-                }
-                
-                // Add parent as target's parent 
-                target.getParentList().add(temp);
+                createTree(current, true);
+            }
+            else
+            {
+                setTreeSelectable(true);
+            }
+            
+            // Change footnote to corresponding message 
+            if(edit)
+            {
+                footnote.setText("Personal information of " + target.getFullName() + " edited");
             }
-            // If adding spouse
-            else if(type.equalsIgnoreCase("spouse"))
+            else if(type == RelationType.ROOT)
             {
-                //1 If adding spouse to father or mother, change type to corresponding value 
-                if(!target.getChildList().isEmpty() && target.getChildList().get(0).getType().equalsIgnoreCase("root"))
+                footnote.setText("Root person added");
+            }
+            else
+            {
+                footnote.setText("Relative added");
+            }
+            
+            timing.end(true);
+        }
+    }
+    
+    /**
+     * Record a change to the tree in the journal of the file the tree was loaded from or saved into 
+     * 
+     * @param t tab of tree changed 
+     * @param target person changed 
+     * @param relative relative added; null if personal information of target was edited 
+     * @param type type of relative added 
+     */
+    private void recordChange(TreeTab t, Person target, Person relative, RelationType type)
+    {
+        if(t.journal != null)
+        {
+            try
+            {
+                if(relative == null)
                 {
-                    type = gender.equalsIgnoreCase("male")?"Father":"Mother";
+                    t.journal.recordEdit(target);
                 }
-                
-                Person temp = new Person(name, sName, gender, life, stNo, stAddr, sub, pCode, type);
-                
-                // Set target as spouse's spouse 
-                temp.setSpouse(target);
-                
-                // Add spouse as all children's parent 
-                if(!target.getChildList().isEmpty())
+                else
                 {
-                    temp.setChildList(target.getChildList());
+                    t.journal.recordAdd(target, relative, type);
+                }
+            }
+            catch(IOException e)
+            {
+                closeJournal(t);
+                showJournalError();
+            }
+        }
+    }
+    
+    /**
+     * Write changes in the journals of every tab to disk, and save a tree into its file again 
+     * if its journal has grown too large. 
+     * <p>Nothing is done for a tab while its save or load is running. 
+     */
+    private void autosave()
+    {
+        for(TreeTab t:new ArrayList<>(openTabs))
+        {
+            if(t.journal != null && t.runningTask == null)
+            {
+                try
+                {
+                    t.journal.flush();
                     
-                    for(Person child:target.getChildList())
+                    if(t.journal.size() > COMPACT_SIZE)
                     {
-                        child.getParentList().add(temp);
+                        saveTree(t, t.journal.getSnapshot(), true);
                     }
                 }
-                
-                // Add temp as taget's spouse 
-                target.setSpouse(temp);
-            }
-            // If adding children
-            else
-            {
-                Person temp = new Person(name, sName, gender, life, stNo, stAddr, sub, pCode, type);
-                
-                // Add target to child's parentList
-                temp.getParentList().add(target);
-                
-                // if target has a spouse, add relationship 
-                if(!target.noSpouse())
+                catch(IOException e)
                 {
-                    temp.getParentList().add(target.getSpouse());
-                    target.getSpouse().getChildList().add(temp);
+                    closeJournal(t);
+                    showJournalError();
                 }
-                
-                // Add child to target's childList
-                target.getChildList().add(temp);
             }
-            
-            // Create family tree that is selectable 
-            createTree(true);
-            
-            // Change footnote to corresponding message 
-            if(type.equalsIgnoreCase("empty"))
+        }
+    }
+    
+    /**
+     * Write changes in the journal of a tab to disk, closing the journal if they cannot be written 
+     * 
+     * @param t tab of tree 
+     */
+    private void flushJournal(TreeTab t)
+    {
+        if(t.journal != null)
+        {
+            try
             {
-                footnote.setText("Root person added");
+                t.journal.flush();
             }
-            else if(type.equalsIgnoreCase("edit"))
+            catch(IOException e)
             {
-                footnote.setText("Personal information of " + target.getFullName() + " edited");
+                closeJournal(t);
+                showJournalError();
             }
-            else
+        }
+    }
+    
+    /**
+     * Close the journals that no longer apply after a save or load did not complete 
+     * 
+     * @param t tab the task was for 
+     * @param task save or load that did not complete 
+     * @param savedFile file that was being saved into; null for a load 
+     */
+    private void closeTaskJournal(TreeTab t, FileTask<?> task, File savedFile)
+    {
+        // Journal opened by the task is not used 
+        if(task.journal != null)
+        {
+            try
             {
-                footnote.setText("Relative added");
+                task.journal.close();
+            }
+            catch(IOException e)
+            {
+                footnote.setText("Unable to write journal");
             }
         }
+        
+        // File may have been replaced, so its current journal no longer applies 
+        if(savedFile != null && t.journal != null && t.journal.getSnapshot().equals(savedFile))
+        {
+            closeJournal(t);
+        }
+    }
+    
+    /**
+     * Write any remaining changes to the journal of a tab and close it 
+     * 
+     * @param t tab of tree 
+     */
+    private void closeJournal(TreeTab t)
+    {
+        if(t.journal != null)
+        {
+            try
+            {
+                t.journal.close();
+            }
+            catch(IOException e)
+            {
+                footnote.setText("Unable to write journal");
+            }
+            t.journal = null;
+        }
+    }
+    
+    /**
+     * Display error message when changes cannot be written to the journal 
+     */
+    private void showJournalError()
+    {
+        alert = new Alert(Alert.AlertType.ERROR);
+        alert.setHeaderText(null);
+        alert.setTitle("Autosave Error");
+        alert.setContentText("Unable to write changes to journal!\nSave the tree to keep changes.");
+        alert.showAndWait();
     }
     
     /**
@@ -804,140 +1455,217 @@ public class FamilyTreeUtilities implements Serializable
      */
     private boolean checkName(String name)
     {
-        // Name length must be at least 2 characters long 
-        if(name.length() < 2)
+        return FamilyTreeValidator.checkName(name);
+    }
+    
+    /**
+     * Show the family tree of the selected tab as a chart in a window of its own. 
+     * <p>If the chart is already shown, its window is brought to the front. Clicking a person 
+     * on the chart shows the personal information of the person, unless a form is shown or 
+     * another tab is selected. 
+     */
+    private void showChart()
+    {
+        TreeTab t = current;
+        if(t.model == null)
         {
-            return false;
+            alert = new Alert(Alert.AlertType.ERROR);
+            alert.setHeaderText(null);
+            alert.setTitle("Chart Error");
+            alert.setContentText("No root person to show on a chart!");
+            alert.showAndWait();
+            return;
         }
-        // First 2 characters must be alphabets 
-        else if(Character.isLetter(name.charAt(0)) == false || Character.isLetter(name.charAt(1)) == false)
+        
+        if(t.chartStage != null)
         {
-            return false;
+            t.chartStage.toFront();
+            return;
         }
-        else 
+        
+        // People are laid out once, and only people in view are drawn 
+        t.familyChart = new FamilyChart(new ChartLayout(t.model.getRoot()));
+        t.familyChart.setOnSelect(p -> 
         {
-            // If name is not composed of alphabets and blank space
-            for(int i=0; i<name.length(); i++)
+            if(t == current && t.famTree.getOnMouseClicked() != null)
             {
-                if(Character.isLetter(name.charAt(i)) == false && name.charAt(i) != ' ')
-                {
-                    return false;
-                }
+                showResult(p);
             }
+        });
+        
+        t.chartStage = new Stage();
+        t.chartStage.setTitle("Family Chart - " + t.tab.getText());
+        t.chartStage.setScene(new Scene(t.familyChart, 800, 600));
+        t.chartStage.setOnCloseRequest(evt -> closeChart(t));
+        t.chartStage.show();
+        
+        t.familyChart.centreOn(t.model.getRoot());
+        footnote.setText("Chart shows " + t.model.getRoot().getFullName() + " and descendants");
+    }
+    
+    /**
+     * Show how long the operations of the program take in a window of its own. 
+     * <p>If the window is already shown, it is brought to the front. 
+     */
+    private void showDiagnostics()
+    {
+        if(diagnosticsStage != null)
+        {
+            diagnosticsStage.toFront();
+            return;
+        }
+        
+        diagnostics = new DiagnosticsPanel();
+        diagnosticsStage = new Stage();
+        diagnosticsStage.setTitle("Diagnostics");
+        diagnosticsStage.setScene(new Scene(diagnostics));
+        diagnosticsStage.setOnCloseRequest(evt -> closeDiagnostics());
+        diagnosticsStage.show();
+    }
+    
+    /**
+     * Close the diagnostics window, if it is shown 
+     */
+    private void closeDiagnostics()
+    {
+        if(diagnosticsStage != null)
+        {
+            diagnostics.stop();
+            diagnosticsStage.close();
+            diagnostics = null;
+            diagnosticsStage = null;
+        }
+    }
+    
+    /**
+     * Close the chart window of a tab, if it is shown 
+     * 
+     * @param t tab of tree 
+     */
+    private void closeChart(TreeTab t)
+    {
+        if(t.chartStage != null)
+        {
+            t.familyChart.stop();
+            t.chartStage.close();
+            t.familyChart = null;
+            t.chartStage = null;
         }
-        return true;
     }
     
     /**
-     * Create family tree. 
+     * Create family tree of a tab. 
      * 
+     * @param t tab of tree 
      * @param bool true if TreeItems can be selected; false otherwise 
      */
-    private void createTree(boolean bool)
+    private void createTree(TreeTab t, boolean bool)
     {
+        FamilyTreeMetrics.Timing timing = FamilyTreeMetrics.begin(FamilyTreeMetrics.Operation.CREATE_TREE, t.tab.getText());
+        
+        // Chart of the previous tree is closed 
+        closeChart(t);
+        
         // Initialise tree 
-        famTree = new TreeView<>();
-        TreeItem<Person> root = new TreeItem<>(rootPerson);
-        famTree.setRoot(root);
+        t.famTree = new TreeView<>();
+        t.treeBinding = new FamilyTreeBinding(t.famTree);
         
-        // Add parent 
-        if(!rootPerson.getParentList().isEmpty())
-        {
-            Person pNode = new Person();
-            pNode.setName("Parents");
-            TreeItem<Person> p = new TreeItem<>(pNode);
-            root.getChildren().add(p);
-            
-            for(Person parent:rootPerson.getParentList())
-            {
-                TreeItem<Person> pItem = new TreeItem<>(parent);
-                p.getChildren().add(pItem);
-            }   
-        }
+        // People are shown in the colour of their generation. Every row has the same height, 
+        // so the TreeView does not measure every cell it shows while scrolling 
+        FamilyTreeModel model = t.model;
+        t.famTree.setCellFactory(view -> new PersonTreeCell(model));
+        t.famTree.setFixedCellSize(TREE_ROW_HEIGHT);
         
-        // Recursion function to add spouse and children 
-        addTreeRecur(root);
+        // Add root person. TreeItems of relatives are only created when they are expanded 
+        t.treeBinding.build(t.model.getRoot());
         
         // Show tree 
-        treePane.setContent(famTree);
+        t.pane.setContent(t.famTree);
+        
+        // Information shown is only changed if the tab is selected 
+        if(t == current)
+        {
+            setTreeSelectable(bool);
+        }
+        else
+        {
+            t.famTree.setOnMouseClicked(bool?evt -> showSelection(evt):null);
+        }
+        
+        // Generations are worked out after the tree is shown 
+        buildAncestry(t);
+        timing.end(true);
+    }
+    
+    /**
+     * Set whether TreeItems on the existing family tree can be selected. 
+     * <p>Tree is kept as it is, so that scroll position and selection are not lost. 
+     * 
+     * @param bool true if TreeItems can be selected; false otherwise 
+     */
+    private void setTreeSelectable(boolean bool)
+    {
         infoBox.getChildren().clear();
         infoBox.getChildren().add(selectText);
         
-        // Expand all nodes on family tree 
-        expandTreeView(root);
-        
         // Event handling
         // Allow tree item to show personal information when clicked if bool is true 
         if(bool)
         {
-            famTree.setOnMouseClicked(evt -> showSelection(evt));
+            current.famTree.setOnMouseClicked(evt -> showSelection(evt));
+        }
+        else
+        {
+            current.famTree.setOnMouseClicked(null);
         }
     }
     
     /**
-     * Recursive method that sets every TreeItem in tree to expanded form 
+     * Search for people by name, address or life description, and show the people found. 
+     * <p>Nothing is done if there is no tree, or while a form is shown. 
      * 
-     * @param item TreeItem of any type 
+     * @param query words to search for 
      */
-    private void expandTreeView(TreeItem<?> item)
+    private void search(String query)
     {
-        if(item != null && !item.isLeaf())
+        // Searching while a form is shown would lose what was entered 
+        if(current.model == null || current.famTree.getOnMouseClicked() == null)
         {
-            item.setExpanded(true);
-            
-            for(TreeItem<?> child:item.getChildren())
-            {
-                expandTreeView(child);
-            }
+            return;
         }
+        
+        long start = System.nanoTime();
+        List<Person> found = current.model.search(query);
+        long micros = (System.nanoTime() - start) / 1000;
+        
+        infoBox.getChildren().clear();
+        if(found.isEmpty())
+        {
+            searchHeading.setText("No one found");
+            infoBox.getChildren().add(searchHeading);
+        }
+        else
+        {
+            searchHeading.setText("Search results");
+            searchResults.getItems().setAll(found);
+            infoBox.getChildren().addAll(searchHeading, searchResults);
+        }
+        
+        footnote.setText(found.size() + " found for \"" + query.trim() + "\" in " + micros / 1000.0 + " ms");
     }
     
     /**
-     * Recursive method to add spouse and children to tree 
+     * Select a person found by a search on the tree, and display the person's personal information 
      * 
-     * @param parent TreeItem to add children to 
-     * @param p Person to add TreeItem for 
+     * @param p person found; null if none is selected 
      */
-    private void addTreeRecur(TreeItem<Person> parent)
+    private void showResult(Person p)
     {
-        Person p = parent.getValue();
-        
-        if(!p.noSpouse())
+        if(p != null)
         {
-            // Creating spouse heading (Person with spouse as the name)
-            Person sNode = new Person();
-            sNode.setName("Spouse");
-            TreeItem<Person> spouse = new TreeItem<>(sNode);
-            
-            // Adding heading to tree 
-            parent.getChildren().add(spouse);
-            
-            // Creating TreeItem of parent's spouse 
-            TreeItem<Person> sp = new TreeItem<>(p.getSpouse());
-            
-            // Adding spouse under spouse heading 
-            spouse.getChildren().add(sp);
-        }
-        
-        if(!p.getChildList().isEmpty())
-        {
-            // Creating children heading 
-            Person cNode = new Person();
-            cNode.setName("Children");
-            TreeItem<Person> child = new TreeItem<>(cNode);
-            
-            // Adding heading to tree  
-            parent.getChildren().add(child);
-            
-            for(Person c:p.getChildList())
-            {
-                // Add child to tree 
-                TreeItem<Person> cItem = new TreeItem<>(c);
-                child.getChildren().add(cItem);
-                
-                // Call recursive method on the children of every child 
-                addTreeRecur(cItem);
-            }
+            // Tree is expanded down to the person, so the person can be seen on the tree 
+            current.treeBinding.reveal(p);
+            personalInfo(p);
         }
     }
     
@@ -956,7 +1684,7 @@ public class FamilyTreeUtilities implements Serializable
         for(TreeItem<Person> item:selectedItem)
         {
             // Only display personal information for people, and not for the various headings created 
-            if(!item.getValue().getName().equalsIgnoreCase("parents") && !item.getValue().getName().equalsIgnoreCase("Spouse") && !item.getValue().getName().equalsIgnoreCase("Children"))
+            if(!(item.getValue() instanceof TreeHeading))
             {
                 personalInfo(item.getValue());
                 footnote.setText("Display details for: " + item.getValue());
@@ -971,9 +1699,17 @@ public class FamilyTreeUtilities implements Serializable
      */
     private void personalInfo(Person p)
     {
+        FamilyTreeMetrics.Timing timing = FamilyTreeMetrics.begin(FamilyTreeMetrics.Operation.PERSONAL_INFO, p.getFullName());
+        
         infoBox.getChildren().clear();
         footnote.setText("Personal information of: " + p.getFullName());
         
+        // Person is highlighted on the chart as well 
+        if(current.familyChart != null)
+        {
+            current.familyChart.select(p);
+        }
+        
         // Set the various TextFields to contain the relevant information, and set the TextFields to not editable 
         nameField.setText(p.getName());
         nameField.setEditable(false);
@@ -982,7 +1718,7 @@ public class FamilyTreeUtilities implements Serializable
         sNameField.setEditable(false);
         
         GenderBox.getChildren().clear();
-        infoGend.setText(p.getGender());
+        infoGend.setText(p.getGender() == null?"Unknown":p.getGender().toString());
         infoGend.setEditable(false);
         GenderBox.getChildren().addAll(genderText, infoGend);
         
@@ -1001,96 +1737,211 @@ public class FamilyTreeUtilities implements Serializable
         postField.setText(Integer.toString(p.getPostcode()));
         postField.setEditable(false);
         
-        // Set father and mother to not provided 
-        infoFather.setText("Not provided");
-        infoMother.setText("Not provided");
+        // Relatives are only worked out the first time the person is shown after a change 
+        RelativeCache.Relatives relatives = current.model.getRelatives(p);
         
-        // If father and/or mother exists, replace text with full name of parent 
-        if(!p.getParentList().isEmpty())
-        {
-            for(Person parent:p.getParentList())
-            {
-                if(parent.getGender().equalsIgnoreCase("male"))
-                {
-                    infoFather.setText(parent.getFullName());
-                }
-                else
-                {
-                    infoMother.setText(parent.getFullName());
-                }
-            }
-        }
+        // Father, mother and spouse are shown by full name, if they exist 
+        infoFather.setText(relatives.getFather() == null?"Not provided":relatives.getFather().getFullName());
+        infoMother.setText(relatives.getMother() == null?"Not provided":relatives.getMother().getFullName());
+        infoSpouse.setText(relatives.getSpouse() == null?"None":relatives.getSpouse().getFullName());
         
-        // Set spouse to none 
-        infoSpouse.setText("None");
+        // Show children and grandchildren in their lists, or none if there are none 
+        showRelatives(childBox, infoChild, childListView, relatives.getChildren());
+        showRelatives(gChildBox, infoGrandChild, gChildListView, relatives.getGrandChildren());
         
-        // if spouse exists, replace text with spouse's full name 
-        if(!p.noSpouse())
-        {
-            infoSpouse.setText(p.getSpouse().getFullName());
-        }
+        infoBox.getChildren().addAll(personHeading, nameBox, sNameBox, GenderBox, lifeDescBox, addHeading, stNoBox, stNameBox, subBox, postBox, relativeHeading, fatherBox, motherBox, spouseBox, childBox, gChildBox, infoBtnBox);
         
-        // Clear childVBox, which is used to store child's full name
-        childVBox.getChildren().clear();
+        // Event handling
+        editDetailBtn.setOnMouseClicked(evt -> editDetail(p));
+        addRelativeBtn.setOnMouseClicked(evt -> showForm(p.getType(), p));
+        relationshipBtn.setOnMouseClicked(evt -> showRelationships(p));
         
-        // If person does not have child, set text to none 
-        if(p.getChildList().isEmpty())
+        timing.end(true);
+    }
+    
+    /**
+     * Show a list of relatives next to its label, or none if there are no relatives. 
+     * <p>The list is only as tall as the relatives in it, up to a number of rows. 
+     * 
+     * @param box HBox containing the label of the relatives 
+     * @param none text shown when there are no relatives 
+     * @param view list the relatives are shown in 
+     * @param people relatives to show 
+     */
+    private void showRelatives(HBox box, Text none, ListView<Person> view, List<Person> people)
+    {
+        // Keep the label and replace what is shown next to it 
+        box.getChildren().remove(1);
+        if(people.isEmpty())
         {
-            infoChild = new Text("None");
-            childVBox.getChildren().add(infoChild);
+            box.getChildren().add(none);
         }
         else
         {
-            // If there is child, add all children into childVBox
-            for(Person child:p.getChildList())
-            {
-                infoChild = new Text(child.getFullName());
-                childVBox.getChildren().add(infoChild);
-            }
+            view.getItems().setAll(people);
+            view.setPrefHeight(Math.min(people.size(), RELATIVE_ROWS) * RELATIVE_ROW_HEIGHT + 2);
+            view.scrollTo(0);
+            box.getChildren().add(view);
         }
+    }
+    
+    /**
+     * Display the relationship queries of a person 
+     * 
+     * @param p person to query relationships of 
+     */
+    private void showRelationships(Person p)
+    {
+        relHeading.setText("Relationships of " + p.getFullName());
+        relSummary.setText("");
+        relResults.getItems().clear();
+        
+        infoBox.getChildren().clear();
+        infoBox.getChildren().addAll(relHeading, relQueryBox, relNumberBox, relOtherField, relBtnBox, relSummary, relResults);
+        
+        // Event handling 
+        findRelBtn.setOnMouseClicked(evt -> findRelationships(p));
+        relBackBtn.setOnMouseClicked(evt -> personalInfo(p));
+    }
+    
+    /**
+     * Run the relationship query selected for a person, and display the people found. 
+     * <p>Generations default to every generation, degree of cousin to 1 and times removed to 0. 
+     * 
+     * @param p person to query relationships of 
+     */
+    private void findRelationships(Person p)
+    {
+        String query = relQueryBox.getValue();
+        RelationshipQuery relationships = new RelationshipQuery(current.model.getRegistry(), current.model.getAncestry());
+        List<Person> found;
+        String summary;
         
-        // Clear gChildVBox, which is used to store grandchild's full name
-        gChildVBox.getChildren().clear();
+        // Initialise alert type 
+        alert = new Alert(Alert.AlertType.ERROR);
+        alert.setHeaderText(null);
         
-        // If no child, set grandchild to none 
-        if(p.getChildList().isEmpty())
+        if(query == null)
         {
-            infoGrandChild = new Text("None");
-            gChildVBox.getChildren().add(infoGrandChild);
+            alert.setTitle("Invalid Query");
+            alert.setContentText("Select a query!");
+            alert.showAndWait();
+            return;
         }
-        else
+        
+        long start = System.nanoTime();
+        try
         {
-            // Counter to count number of grandchildren 
-            int count = 0;
-            
-            // Add every child's child 
-            for(Person child:p.getChildList())
+            if(query.equals("Ancestors") || query.equals("Descendants"))
+            {
+                int depth = readCount(relDepthField, Integer.MAX_VALUE);
+                found = query.equals("Ancestors")?relationships.ancestors(p, depth):relationships.descendants(p, depth);
+                summary = found.size() + " " + query.toLowerCase();
+            }
+            else if(query.equals("Cousins"))
+            {
+                int degree = readCount(relDepthField, 1);
+                int removed = readCount(relRemovedField, 0);
+                found = relationships.cousins(p, degree, removed);
+                summary = found.size() + " found";
+            }
+            else
             {
-                if(!child.getChildList().isEmpty())
+                // Other queries are between the person and another person 
+                Person other = findPerson(relOtherField.getText());
+                if(other == null)
+                {
+                    alert.setTitle("Invalid Person");
+                    alert.setContentText("No one found with that name!");
+                    alert.showAndWait();
+                    return;
+                }
+                
+                if(query.equals("Shortest path"))
                 {
-                    for(Person gchild:child.getChildList())
+                    found = relationships.path(p, other);
+                    
+                    // Show what every person is to the one before, eg. Tan Ah Kow, father: Tan Ah Beng 
+                    StringBuilder chain = new StringBuilder(found.isEmpty()?"Not connected":p.getFullName());
+                    for(int i=1; i<found.size(); i++)
                     {
-                        infoGrandChild = new Text(gchild.getFullName());
-                        gChildVBox.getChildren().add(infoGrandChild);
-                        count++;
+                        chain.append(", ").append(RelationshipQuery.relation(found.get(i - 1), found.get(i))).append(": ").append(found.get(i).getFullName());
+                    }
+                    summary = chain.toString();
+                }
+                else
+                {
+                    RelationshipQuery.Kinship kinship = relationships.kinship(p, other);
+                    found = relationships.commonAncestors(p, other);
+                    
+                    if(kinship == null)
+                    {
+                        summary = other.getFullName() + " is not related by blood to " + p.getFullName();
+                    }
+                    else if(query.equals("Relationship to"))
+                    {
+                        summary = other.getFullName() + " is the " + kinship + " of " + p.getFullName();
+                    }
+                    else
+                    {
+                        summary = "Nearest common ancestor, " + kinship.getUp() + " and " + kinship.getDown() + " generations up";
                     }
                 }
-            }
-            
-            // If there is no grand child, set text to none 
-            if(count == 0)
-            {
-                infoGrandChild = new Text("None");
-                gChildVBox.getChildren().add(infoGrandChild);
             }
         }
+        catch(NumberFormatException e)
+        {
+            alert.setTitle("Invalid Number");
+            alert.setContentText("Generations, degree and times removed can only contain a positive number!");
+            alert.showAndWait();
+            return;
+        }
         
-        infoBox.getChildren().addAll(personHeading, nameBox, sNameBox, GenderBox, lifeDescBox, addHeading, stNoBox, stNameBox, subBox, postBox, relativeHeading, fatherBox, motherBox, spouseBox, childBox, gChildBox, infoBtnBox);
+        relSummary.setText(summary);
+        relResults.getItems().setAll(found);
+        footnote.setText(query + " of " + p.getFullName() + " found in " + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+    
+    /**
+     * Read a positive number from a TextField 
+     * 
+     * @param field TextField to read 
+     * @param empty number to return if the TextField is empty 
+     * @return number entered 
+     * @throws NumberFormatException if the text is not a positive number 
+     */
+    private static int readCount(TextField field, int empty)
+    {
+        String text = field.getText() == null?"":field.getText().trim();
+        if(text.isEmpty())
+        {
+            return empty;
+        }
         
-        // Event handling
-        editDetailBtn.setOnMouseClicked(evt -> editDetail(p));
-        addRelativeBtn.setOnMouseClicked(evt -> showForm(p.getType(), p));
+        int count = Integer.parseInt(text);
+        if(count < 0)
+        {
+            throw new NumberFormatException("Negative number: " + count);
+        }
+        return count;
+    }
+    
+    /**
+     * Find a person by full name, or by the best match of a search if no one has the full name 
+     * 
+     * @param name full name, or words to search for 
+     * @return person found; null if no one is found 
+     */
+    private Person findPerson(String name)
+    {
+        List<Person> found = current.model.findByFullName(name);
+        if(found.isEmpty())
+        {
+            found = current.model.search(name, 1);
+        }
+        return found.isEmpty()?null:found.get(0);
     }
+
     
     /**
      * Edit personal information of selected person 
@@ -1110,7 +1961,7 @@ public class FamilyTreeUtilities implements Serializable
         
         // Gender cannot be edited to reduce complication
         GenderBox.getChildren().clear();
-        infoGend.setText(target.getGender());
+        infoGend.setText(target.getGender() == null?"Unknown":target.getGender().toString());
         infoGend.setEditable(false);
         GenderBox.getChildren().addAll(genderText, infoGend);
         
@@ -1129,15 +1980,278 @@ public class FamilyTreeUtilities implements Serializable
         postField.setText(Integer.toString(target.getPostcode()));
         postField.setEditable(true);
         
-        // Create a tree that does not show details when clicked 
-        createTree(false);
+        // Tree does not show details when clicked 
+        setTreeSelectable(false);
         
         // Show personal information 
         infoBox.getChildren().clear();
         infoBox.getChildren().addAll(personHeading, nameBox, sNameBox, GenderBox, lifeDescBox, addHeading, stNoBox, stNameBox, subBox, postBox, formBtnBox);
         
         // Event handling 
-        saveForm.setOnMouseClicked(evt -> addPerson(target, "edit"));
+        saveForm.setOnMouseClicked(evt -> addPerson(target, target.getType(), true));
         discardForm.setOnMouseClicked(evt -> discard(target.getType()));
     }
+    
+    /**
+     * A tab holding one family tree, with its own chart, journal and save or load. 
+     * <p>Each tree is changed only through its own model, so trees in different tabs do not 
+     * affect each other. Closing a tree that was never saved asks for confirmation. 
+     */
+    private final class TreeTab
+    {
+        final Tab tab;
+        final ScrollPane pane;
+        TreeView<Person> famTree;
+        FamilyTreeBinding treeBinding;
+        FamilyTreeModel model;
+        FamilyTreeJournal journal;
+        FamilyChart familyChart;
+        Stage chartStage;
+        Task<?> runningTask;
+        
+        // File the tree was loaded from or saved into; null if none 
+        File file;
+        
+        // Listener of the model, removed when the tree is replaced 
+        private TreeListener listener;
+        
+        /**
+         * Default constructor, which creates a tab without a tree 
+         */
+        TreeTab()
+        {
+            famTree = new TreeView<>();
+            pane = new ScrollPane(famTree);
+            tab = new Tab(NEW_TAB, pane);
+            tab.setUserData(this);
+            
+            // Changes to a tree that was never saved are lost when its tab is closed 
+            tab.setOnCloseRequest(evt -> 
+            {
+                if(model != null && journal == null)
+                {
+                    alert = new Alert(Alert.AlertType.CONFIRMATION);
+                    alert.setTitle("Close Confirmation");
+                    alert.setHeaderText(null);
+                    alert.setContentText("Are you sure you want to close " + tab.getText() + "?\nThe tree has not been saved.");
+                    
+                    Optional<ButtonType> result = alert.showAndWait();
+                    if(!result.isPresent() || result.get() != ButtonType.OK)
+                    {
+                        evt.consume();
+                    }
+                }
+            });
+            tab.setOnClosed(evt -> closeTab(this));
+        }
+        
+        /**
+         * Returns whether the tab has no tree and is not loading one 
+         * 
+         * @return true if the tab is empty; false otherwise 
+         */
+        boolean isEmpty()
+        {
+            return model == null && runningTask == null;
+        }
+        
+        /**
+         * Replace the family tree of the tab, and listen for changes made to the new tree 
+         * 
+         * @param m model of new family tree; null if the tab has no tree 
+         */
+        void setModel(FamilyTreeModel m)
+        {
+            if(model != null)
+            {
+                model.removeListener(listener);
+            }
+            model = m;
+            listener = null;
+            if(m != null)
+            {
+                listener = new TreeListener(this, m);
+                m.addListener(listener);
+            }
+        }
+        
+        /**
+         * Forget the file of the tab, when a load fails or the tree is cleared 
+         */
+        void clearFile()
+        {
+            file = null;
+            tab.setText(model != null?model.getRoot().getFullName():NEW_TAB);
+        }
+    }
+    
+    /**
+     * Shows the changes made to a family tree on the tree and the chart, and records them in 
+     * the journal. 
+     * <p>Changes made on another thread are shown on the application thread, in the order 
+     * they were made. Changes to a tree that is no longer shown are ignored. 
+     */
+    private final class TreeListener implements FamilyTreeModel.Listener
+    {
+        private final TreeTab tab;
+        private final FamilyTreeModel owner;
+        
+        /**
+         * Constructor which sets the family tree listened to, and the tab it is shown in 
+         * 
+         * @param t tab of family tree 
+         * @param m model of family tree 
+         */
+        TreeListener(TreeTab t, FamilyTreeModel m)
+        {
+            tab = t;
+            owner = m;
+        }
+        
+        /**
+         * Show a relative added to a person 
+         * 
+         * @param target person the relative was added to 
+         * @param relative relative added 
+         * @param type type of relative 
+         */
+        @Override
+        public void relativeAdded(Person target, Person relative, RelationType type)
+        {
+            if(!Platform.isFxApplicationThread())
+            {
+                Platform.runLater(() -> relativeAdded(target, relative, type));
+                return;
+            }
+            if(owner != tab.model)
+            {
+                return;
+            }
+            
+            // Only the families above the new relative are laid out again on the chart 
+            if(tab.familyChart != null)
+            {
+                tab.familyChart.add(target, relative, type);
+            }
+            
+            // Spouse is shown under target, and as a parent of root person if target is a parent 
+            tab.treeBinding.refresh(target);
+            if(type == RelationType.SPOUSE)
+            {
+                for(Person child:target.getChildList())
+                {
+                    tab.treeBinding.refresh(child);
+                }
+            }
+            // A spouse is shown without relatives, so a child added to a spouse is shown under the partner 
+            else if(type == RelationType.CHILD && !target.noSpouse())
+            {
+                tab.treeBinding.refresh(target.getSpouse());
+            }
+            recordChange(tab, target, relative, type);
+        }
+        
+        /**
+         * Show the new personal information of a person 
+         * 
+         * @param target person edited 
+         */
+        @Override
+        public void detailsEdited(Person target)
+        {
+            if(!Platform.isFxApplicationThread())
+            {
+                Platform.runLater(() -> detailsEdited(target));
+                return;
+            }
+            if(owner != tab.model)
+            {
+                return;
+            }
+            
+            tab.treeBinding.relabel(target);
+            if(tab.familyChart != null)
+            {
+                tab.familyChart.redraw();
+            }
+            recordChange(tab, target, null, target.getType());
+        }
+    }
+    
+    /**
+     * Task that saves or loads a file, and reports progress as a message and as progress. 
+     * <p>The task also registers the people of the file, and opens the journal of the file. 
+     * 
+     * @param <V> type of result of the task 
+     */
+    private abstract static class FileTask<V> extends Task<V> implements FamilyTreeFile.Progress
+    {
+        private final String action;
+        private final FamilyTreeMetrics.Operation operation;
+        private final File file;
+        
+        // Family tree and journal of the file, handed to the application thread when the task succeeds 
+        FamilyTreeModel model;
+        FamilyTreeJournal journal;
+        
+        /**
+         * Constructor which sets the action shown in the progress message, and the operation 
+         * the task is timed as 
+         * 
+         * @param a action of task, eg. Saving 
+         * @param o operation timed 
+         * @param f file saved or loaded 
+         */
+        FileTask(String a, FamilyTreeMetrics.Operation o, File f)
+        {
+            action = a;
+            operation = o;
+            file = f;
+        }
+        
+        /**
+         * Save or load the file, timing how long it takes 
+         * 
+         * @return result of task 
+         * @throws Exception if the file cannot be saved or loaded 
+         */
+        @Override
+        protected final V call() throws Exception
+        {
+            FamilyTreeMetrics.Timing timing = FamilyTreeMetrics.begin(operation, action + " " + file.getName());
+            boolean succeeded = false;
+            try
+            {
+                V result = work();
+                succeeded = !isCancelled();
+                return result;
+            }
+            finally
+            {
+                timing.end(succeeded);
+            }
+        }
+        
+        /**
+         * Save or load the file, in the background 
+         * 
+         * @return result of task 
+         * @throws Exception if the file cannot be saved or loaded 
+         */
+        protected abstract V work() throws Exception;
+        
+        /**
+         * Report progress of save or load 
+         * 
+         * @param done number of people or bytes processed 
+         * @param total total number of people or bytes; -1 if not known yet 
+         * @param unit unit of done and total 
+         */
+        @Override
+        public void update(long done, long total, String unit)
+        {
+            updateProgress(done, total);
+            updateMessage(action + ": " + done + (total < 0?"":" of " + total) + " " + unit);
+        }
+    }
 }
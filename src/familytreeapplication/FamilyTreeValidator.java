@@ -0,0 +1,297 @@
+/*
+ * Title: FamilyTreeValidator class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeValidator.java
+ * Purpose: The purpose of this class is to check that names and addresses are valid, and that
+ *          every person of a family tree is related to the others in the way the program
+ *          relates them.
+ * Assumptions/Conditions: - Names and addresses must be at least 2 characters long, start with 2
+                             letters, and contain only letters and spaces.
+                           - A person has at most 1 father and 1 mother, and at most 1 spouse, who
+                             is of the opposite gender and has the person as spouse.
+                           - A parent has the child in its list of children, and a child has the
+                             parent in its list of parents. A child is listed once by each
+                             parent, even when a couple shares the same list of children.
+                           - No person is an ancestor of himself or herself.
+                           - Checking a family tree does not change it.
+ */
+package familytreeapplication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks the names, addresses and relationships of the people in a family tree.
+ * <p>The same checks on names and addresses are used when a person is entered in the program,
+ * so a family tree created by the program is always valid. Family trees are checked in time
+ * in proportion to the number of people and relationships, without recursion.
+ *
+ * @author Zhiguang
+ */
+public final class FamilyTreeValidator
+{
+    // State of a person while looking for a person who is his or her own ancestor
+    private static final byte UNSEEN = 0, VISITING = 1, DONE = 2;
+
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private FamilyTreeValidator()
+    {}
+
+    /**
+     * Checks if name comprises of only alphabets and space
+     *
+     * @param name name to check
+     * @return true if name is valid; false otherwise
+     */
+    public static boolean checkName(String name)
+    {
+        // Name length must be at least 2 characters long
+        if(name == null || name.length() < 2)
+        {
+            return false;
+        }
+        // First 2 characters must be alphabets
+        else if(Character.isLetter(name.charAt(0)) == false || Character.isLetter(name.charAt(1)) == false)
+        {
+            return false;
+        }
+        else
+        {
+            // If name is not composed of alphabets and blank space
+            for(int i=0; i<name.length(); i++)
+            {
+                if(Character.isLetter(name.charAt(i)) == false && name.charAt(i) != ' ')
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check every person of a family tree
+     *
+     * @param registry registry of family tree
+     * @return description of every problem found; empty if the family tree is valid
+     */
+    public static List<String> validate(PersonRegistry registry)
+    {
+        List<String> problems = new ArrayList<>();
+
+        for(int id=0; id<registry.size(); id++)
+        {
+            Person p = registry.get(id);
+            checkDetails(registry, p, problems);
+            checkSpouse(registry, p, problems);
+            checkParents(registry, p, problems);
+            checkChildren(registry, p, problems);
+        }
+
+        int id = findOwnAncestor(registry);
+        if(id >= 0)
+        {
+            problems.add(describe(registry, registry.get(id)) + " is his or her own ancestor");
+        }
+        return problems;
+    }
+
+    /**
+     * Returns whether any person of a family tree is his or her own ancestor.
+     * <p>Generations cannot be given to the people of such a family tree.
+     *
+     * @param registry registry of family tree
+     * @return true if a person is his or her own ancestor; false otherwise
+     */
+    public static boolean hasOwnAncestor(PersonRegistry registry)
+    {
+        return findOwnAncestor(registry) >= 0;
+    }
+
+    /**
+     * Check the name, address, gender and type of a person
+     *
+     * @param registry registry of family tree
+     * @param p person to check
+     * @param problems receives problems found
+     */
+    private static void checkDetails(PersonRegistry registry, Person p, List<String> problems)
+    {
+        if(!checkName(p.getName()) || !checkName(p.getSurname()))
+        {
+            problems.add(describe(registry, p) + " has an invalid name");
+        }
+        if(!checkName(p.getStreetName()) || !checkName(p.getSuburb()))
+        {
+            problems.add(describe(registry, p) + " has an invalid address");
+        }
+        if(p.getGender() == null)
+        {
+            problems.add(describe(registry, p) + " has no gender");
+        }
+        if(p.getType() == null)
+        {
+            problems.add(describe(registry, p) + " has no type");
+        }
+        else if(p.getType() == RelationType.ROOT && registry.getId(p) != 0)
+        {
+            problems.add(describe(registry, p) + " is a second root person");
+        }
+    }
+
+    /**
+     * Check that the spouse of a person is of the opposite gender and has the person as spouse
+     *
+     * @param registry registry of family tree
+     * @param p person to check
+     * @param problems receives problems found
+     */
+    private static void checkSpouse(PersonRegistry registry, Person p, List<String> problems)
+    {
+        Person spouse = p.getSpouse();
+        if(spouse == null)
+        {
+            return;
+        }
+
+        if(spouse.getSpouse() != p)
+        {
+            problems.add(describe(registry, p) + " is not the spouse of " + describe(registry, spouse));
+        }
+        // Only reported once for each couple
+        else if(p.getGender() != null && p.getGender() == spouse.getGender() && registry.getId(p) < registry.getId(spouse))
+        {
+            problems.add(describe(registry, p) + " and " + describe(registry, spouse) + " are spouses of the same gender");
+        }
+    }
+
+    /**
+     * Check that a person has at most 1 father and 1 mother, who each have the person as child
+     *
+     * @param registry registry of family tree
+     * @param p person to check
+     * @param problems receives problems found
+     */
+    private static void checkParents(PersonRegistry registry, Person p, List<String> problems)
+    {
+        List<Person> parents = p.getParentList();
+        if(parents.size() > 2)
+        {
+            problems.add(describe(registry, p) + " has " + parents.size() + " parents");
+        }
+        else if(parents.size() == 2 && parents.get(0).getGender() == parents.get(1).getGender())
+        {
+            problems.add(describe(registry, p) + " has 2 parents of the same gender");
+        }
+
+        for(Person parent:parents)
+        {
+            if(!parent.getChildList().contains(p))
+            {
+                problems.add(describe(registry, p) + " is not a child of " + describe(registry, parent));
+            }
+        }
+    }
+
+    /**
+     * Check that every child of a person is listed once, and has the person as parent
+     *
+     * @param registry registry of family tree
+     * @param p person to check
+     * @param problems receives problems found
+     */
+    private static void checkChildren(PersonRegistry registry, Person p, List<String> problems)
+    {
+        Set<Person> listed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for(Person child:p.getChildList())
+        {
+            if(!listed.add(child))
+            {
+                problems.add(describe(registry, p) + " lists " + describe(registry, child) + " as child twice");
+            }
+            else if(!child.getParentList().contains(p))
+            {
+                problems.add(describe(registry, p) + " is not a parent of " + describe(registry, child));
+            }
+        }
+    }
+
+    /**
+     * Find a person who is his or her own ancestor, by walking up the parents of every person
+     * with an explicit stack
+     *
+     * @param registry registry of family tree
+     * @return id of a person who is his or her own ancestor; -1 if there is none
+     */
+    private static int findOwnAncestor(PersonRegistry registry)
+    {
+        int size = registry.size();
+        byte[] state = new byte[size];
+        int[] stack = new int[size];
+
+        // Position in the list of parents reached by each person on the stack
+        int[] next = new int[size];
+
+        for(int start=0; start<size; start++)
+        {
+            if(state[start] != UNSEEN)
+            {
+                continue;
+            }
+
+            int top = 0;
+            stack[top++] = start;
+            state[start] = VISITING;
+
+            while(top > 0)
+            {
+                int id = stack[top - 1];
+                List<Person> parents = registry.get(id).getParentList();
+
+                if(next[id] < parents.size())
+                {
+                    int parent = registry.getId(parents.get(next[id]++));
+
+                    // A parent outside the registry is not connected to the tree
+                    if(parent < 0)
+                    {
+                        continue;
+                    }
+                    if(state[parent] == VISITING)
+                    {
+                        return parent;
+                    }
+                    if(state[parent] == UNSEEN)
+                    {
+                        state[parent] = VISITING;
+                        stack[top++] = parent;
+                    }
+                }
+                else
+                {
+                    state[id] = DONE;
+                    top--;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the full name and id of a person, as shown in a problem
+     *
+     * @param registry registry of family tree
+     * @param p person
+     * @return description of person
+     */
+    private static String describe(PersonRegistry registry, Person p)
+    {
+        return p.getFullName() + " (id " + registry.getId(p) + ")";
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Title: FileReplacement class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FileReplacement.java
+ * Purpose: The purpose of this class is to write a file into a temporary file next to it, which
+ *          then replaces the file, so that a failed save does not damage an existing file.
+ * Assumptions/Conditions: - The temporary file is created in the folder of the file, so that it
+                             can be moved over the file, and is named after the file with .tmp
+                             at the end.
+                           - The temporary file is created with the default permissions of new
+                             files. If the file already exists, its permissions are given to the
+                             temporary file before it replaces the file, so a save never changes
+                             who can read the file.
+                           - The temporary file is forced to disk before it replaces the file, and
+                             the folder is forced to disk after, so once replace returns the new
+                             file is kept even if the computer stops. Folders cannot be forced on
+                             some systems, eg. Windows, where the move is left to the system.
+                           - The temporary file is deleted when the replacement is closed, unless
+                             it has replaced the file.
+ */
+package familytreeapplication;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Temporary file that replaces a file once it has been written.
+ * <p>Used as a resource, so the temporary file is removed if writing it fails:
+ * <pre>
+ * try(FileReplacement replacement = new FileReplacement(file))
+ * {
+ *     write(replacement.getTemp());
+ *     replacement.replace();
+ * }
+ * </pre>
+ *
+ * @author Zhiguang
+ */
+final class FileReplacement implements Closeable
+{
+    private final Path target;
+    private final Path temp;
+    private boolean replaced;
+
+    /**
+     * Constructor which creates an empty temporary file next to a file
+     *
+     * @param file file to replace
+     * @throws IOException if the temporary file cannot be created
+     */
+    FileReplacement(File file) throws IOException
+    {
+        target = file.toPath().toAbsolutePath();
+        temp = createTemp(target);
+    }
+
+    /**
+     * Returns the temporary file to write into
+     *
+     * @return temporary file
+     */
+    Path getTemp()
+    {
+        return temp;
+    }
+
+    /**
+     * Replace the file with the temporary file, keeping the permissions of the file, and force
+     * both to disk
+     *
+     * @throws IOException if the temporary file cannot be forced to disk or moved over the file
+     */
+    void replace() throws IOException
+    {
+        PosixFileAttributeView view = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+        if(view != null && Files.exists(target))
+        {
+            Files.setPosixFilePermissions(temp, view.readAttributes().permissions());
+        }
+
+        // Contents must be on disk before the file is replaced, or a crash could leave it empty
+        try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE))
+        {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        replaced = true;
+
+        // Move is only kept once the folder holding the file is on disk
+        try(FileChannel folder = FileChannel.open(target.getParent(), StandardOpenOption.READ))
+        {
+            folder.force(true);
+        }
+        catch(IOException e)
+        {
+            // Folders cannot be opened or forced on this system
+        }
+    }
+
+    /**
+     * Delete the temporary file, if it has not replaced the file
+     *
+     * @throws IOException if the temporary file cannot be deleted
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if(!replaced)
+        {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Create an empty file with a name that is not used yet, in the folder of a file.
+     * <p>Files.createTempFile is not used, as it only lets the owner read the file.
+     *
+     * @param target file the temporary file replaces
+     * @return temporary file
+     * @throws IOException if the file cannot be created
+     */
+    private static Path createTemp(Path target) throws IOException
+    {
+        while(true)
+        {
+            String name = target.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 1) + ".tmp";
+            try
+            {
+                return Files.createFile(target.resolveSibling(name));
+            }
+            catch(FileAlreadyExistsException e)
+            {
+                // Name is taken, so another name is tried
+            }
+        }
+    }
+}
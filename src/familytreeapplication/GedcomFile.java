@@ -0,0 +1,1605 @@
+/*
+ * Title: GedcomFile class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: GedcomFile.java
+ * Purpose: The purpose of this class is to import family trees from GEDCOM files, which are
+ *          written by most other genealogy programs, and to export family trees into them.
+ * Assumptions/Conditions: - GEDCOM 5.5.1 and 7.0 files are read. Files are written as GEDCOM 5.5.1
+                             unless version 7.0 is chosen, eg. with -Dfamilytree.gedcomVersion=7.0
+                           - Files are read and written as UTF-8. A byte order mark is skipped.
+                           - Files are read one line at a time, and only the people and families
+                             read so far are kept, so files of any size can be imported.
+                           - Only INDI, FAM and shared note records are read. Of an individual, the
+                             first NAME (or its GIVN and SURN), SEX, the first address (ADDR with
+                             ADR1, CITY and POST, on its own or under RESI), NOTE and SNOTE, FAMC
+                             and FAMS are read. Everything else is skipped.
+                           - The street number is the number at the start of the address, and the
+                             rest of the address is the street name.
+                           - A person is given the first spouse of his or her families who has no
+                             spouse yet, and at most 2 parents, from the first families listing the
+                             person as a child.
+                           - A partner of unknown sex is male if listed as husband (HUSB) and female
+                             if listed as wife (WIFE). Otherwise the person has no gender.
+                           - The first individual of the file is the root person, and only people
+                             connected to the root person are part of the family tree.
+                           - Types are worked out from relationships: parents of the root person
+                             are father and mother, people with parents are children, people who
+                             married into the family are spouses, and the oldest ancestors are
+                             fathers and mothers.
+                           - A family is written for every couple, and for the parents of every
+                             child. Person ids in the file are the person ids of the registry + 1.
+                           - Loading and saving can report their progress, and stop with an
+                             InterruptedIOException when the thread running them is interrupted.
+ */
+package familytreeapplication;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Imports family trees from GEDCOM files and exports them into GEDCOM files.
+ * <p>Individuals (INDI) become people and families (FAM) become the spouses, parents and
+ * children of the people in them. Notes of an individual become the life description.
+ * <p>Files are read as a stream of lines. Individuals and families may refer to each other
+ * before they are read, so relatives are only linked once the whole file is read.
+ *
+ * @author Zhiguang
+ */
+public final class GedcomFile
+{
+    /**
+     * GEDCOM versions that can be written
+     */
+    public static final String VERSION_5 = "5.5.1", VERSION_7 = "7.0";
+
+    /**
+     * GEDCOM version written unless another is chosen
+     */
+    public static final String DEFAULT_VERSION = System.getProperty("familytree.gedcomVersion", VERSION_5);
+
+    // Size of the buffer used to read and write files
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Longest line value written into a version 5.5.1 file before it is continued with CONC
+    private static final int MAX_VALUE = 200;
+
+    // Name of the program written into the header
+    private static final String SOURCE = "FamilyTreeApplication";
+
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private GedcomFile()
+    {}
+
+    /**
+     * Returns whether a file is a GEDCOM file, by its extension
+     *
+     * @param file file to check
+     * @return true if the name of the file ends with .ged; false otherwise
+     */
+    public static boolean isGedcom(File file)
+    {
+        return file.getName().toLowerCase().endsWith(".ged");
+    }
+
+    /**
+     * Import a family tree from a GEDCOM file
+     *
+     * @param file file to import
+     * @return root person of family tree
+     * @throws IOException if the file cannot be read or is not a GEDCOM file
+     */
+    public static Person load(File file) throws IOException
+    {
+        return load(file, null);
+    }
+
+    /**
+     * Import a family tree from a GEDCOM file, reporting progress as the file is read
+     *
+     * @param file file to import
+     * @param progress receives progress of import; null if not needed
+     * @return root person of family tree
+     * @throws IOException if the file cannot be read, is not a GEDCOM file, or the import is interrupted
+     */
+    public static Person load(File file, FamilyTreeFile.Progress progress) throws IOException
+    {
+        InputStream in = new FamilyTreeFile.ProgressInputStream(Files.newInputStream(file.toPath()), file.length(), progress);
+        try(Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8))
+        {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Import a family tree from GEDCOM lines
+     *
+     * @param in reader of lines
+     * @return root person of family tree
+     * @throws IOException if the lines cannot be read or are not GEDCOM
+     */
+    public static Person read(Reader in) throws IOException
+    {
+        LineReader reader = new LineReader(in);
+        Importer importer = new Importer();
+        Line line = new Line();
+        String text = reader.readLine();
+
+        // Byte order mark is allowed at the start of the file
+        if(text != null && text.startsWith("\uFEFF"))
+        {
+            text = text.substring(1);
+        }
+        if(text == null || !text.trim().equals("0 HEAD"))
+        {
+            throw new IOException("Not a GEDCOM file");
+        }
+
+        int number = 1;
+        while(text != null)
+        {
+            // Blank lines are not allowed, but are written by some programs
+            if(!text.isEmpty() && (text.charAt(0) > ' ' || !text.trim().isEmpty()))
+            {
+                line.parse(text, number);
+                if(line.level == 0 && line.is("TRLR"))
+                {
+                    break;
+                }
+                importer.line(line);
+            }
+            text = reader.readLine();
+            number++;
+        }
+        return importer.link();
+    }
+
+    /**
+     * Export every person in a registry into a GEDCOM file of the default version
+     *
+     * @param registry registry of family tree, with the root person as id 0
+     * @param file file to save into
+     * @param progress receives progress of export; null if not needed
+     * @throws IOException if the file cannot be written, or the export is interrupted
+     */
+    public static void save(PersonRegistry registry, File file, FamilyTreeFile.Progress progress) throws IOException
+    {
+        save(registry, file, DEFAULT_VERSION, progress);
+    }
+
+    /**
+     * Export every person in a registry into a temporary GEDCOM file, which then replaces
+     * the file
+     *
+     * @param registry registry of family tree, with the root person as id 0
+     * @param file file to save into
+     * @param version GEDCOM version to write (VERSION_5 or VERSION_7)
+     * @param progress receives progress of export; null if not needed
+     * @throws IOException if the file cannot be written, or the export is interrupted
+     */
+    public static void save(PersonRegistry registry, File file, String version, FamilyTreeFile.Progress progress) throws IOException
+    {
+        try(FileReplacement replacement = new FileReplacement(file))
+        {
+            try(Writer writer = new OutputStreamWriter(Files.newOutputStream(replacement.getTemp()), StandardCharsets.UTF_8))
+            {
+                write(registry, writer, version, progress);
+            }
+            replacement.replace();
+        }
+    }
+
+    /**
+     * Write every person in a registry as GEDCOM lines
+     *
+     * @param registry registry of family tree, with the root person as id 0
+     * @param writer receives lines
+     * @param version GEDCOM version to write (VERSION_5 or VERSION_7)
+     * @param progress receives progress of export; null if not needed
+     * @throws IOException if the lines cannot be written, or the export is interrupted
+     */
+    public static void write(PersonRegistry registry, Writer writer, String version, FamilyTreeFile.Progress progress) throws IOException
+    {
+        boolean version7 = isVersion7(version);
+        Families families = new Families(registry);
+        LineWriter out = new LineWriter(writer);
+        int size = registry.size();
+
+        // Header, with the submitter required by version 5.5.1
+        out.line("0 HEAD");
+        out.line("1 GEDC");
+        out.line(2, "VERS", version7?VERSION_7:VERSION_5);
+        if(!version7)
+        {
+            out.line("2 FORM LINEAGE-LINKED");
+            out.line("1 CHAR UTF-8");
+            out.line("1 SUBM @U1@");
+        }
+        out.line(1, "SOUR", SOURCE);
+        if(!version7)
+        {
+            out.line("0 @U1@ SUBM");
+            out.line(1, "NAME", SOURCE);
+        }
+
+        for(int id=0; id<size; id++)
+        {
+            if(id % FamilyTreeFile.REPORT_INTERVAL == 0)
+            {
+                FamilyTreeFile.report(progress, id, size, "people");
+            }
+            writeIndividual(registry.get(id), id, families, out, version7);
+        }
+
+        for(int f=0; f<families.count; f++)
+        {
+            out.record('F', f + 1, "FAM");
+            if(families.husband[f] >= 0)
+            {
+                out.pointer(1, "HUSB", 'I', families.husband[f] + 1);
+            }
+            if(families.wife[f] >= 0)
+            {
+                out.pointer(1, "WIFE", 'I', families.wife[f] + 1);
+            }
+            for(int i=families.childStart[f]; i<families.childStart[f + 1]; i++)
+            {
+                out.pointer(1, "CHIL", 'I', families.children[i] + 1);
+            }
+        }
+
+        out.line("0 TRLR");
+        out.flush();
+        FamilyTreeFile.report(progress, size, size, "people");
+    }
+
+    /**
+     * Write the record of one individual
+     *
+     * @param p person
+     * @param id id of person
+     * @param families families of the family tree
+     * @param out receives lines
+     * @param version7 true if writing GEDCOM 7.0
+     * @throws IOException if the lines cannot be written
+     */
+    private static void writeIndividual(Person p, int id, Families families, LineWriter out, boolean version7) throws IOException
+    {
+        String name = escape(nonNull(p.getName()), version7);
+        String surname = escape(nonNull(p.getSurname()), version7);
+
+        out.record('I', id + 1, "INDI");
+        out.name(name, surname);
+        out.line(2, "GIVN", name);
+        out.line(2, "SURN", surname);
+        out.line(p.getGender() == Gender.MALE?"1 SEX M":p.getGender() == Gender.FEMALE?"1 SEX F":"1 SEX U");
+
+        // Address is left out if the person has none
+        String street = escape(nonNull(p.getStreetName()), version7);
+        String suburb = escape(nonNull(p.getSuburb()), version7);
+        if(p.getStreetNo() != 0 || !street.isEmpty() || !suburb.isEmpty() || p.getPostcode() != 0)
+        {
+            out.line("1 RESI");
+            out.line(2, "ADDR", (p.getStreetNo() == 0?street:p.getStreetNo() + " " + street).trim());
+            if(!suburb.isEmpty())
+            {
+                out.line(3, "CITY", suburb);
+            }
+            if(p.getPostcode() != 0)
+            {
+                out.line(3, "POST", Integer.toString(p.getPostcode()));
+            }
+        }
+
+        if(p.getLifeDesc() != null && !p.getLifeDesc().isEmpty())
+        {
+            writeText(out, 1, "NOTE", p.getLifeDesc(), version7);
+        }
+
+        if(families.childFamily[id] >= 0)
+        {
+            out.pointer(1, "FAMC", 'F', families.childFamily[id] + 1);
+        }
+        for(int i=families.spouseStart[id]; i<families.spouseStart[id + 1]; i++)
+        {
+            out.pointer(1, "FAMS", 'F', families.spouseFamilies[i] + 1);
+        }
+    }
+
+    /**
+     * Write text of several lines, continuing every line break with CONT. In version 5.5.1 long
+     * lines are also split with CONC, between two characters that are not spaces.
+     *
+     * @param out receives lines
+     * @param level level of first line
+     * @param tag tag of first line
+     * @param text text to write
+     * @param version7 true if writing GEDCOM 7.0
+     * @throws IOException if the lines cannot be written
+     */
+    private static void writeText(LineWriter out, int level, String tag, String text, boolean version7) throws IOException
+    {
+        String[] lines = text.split("\r\n|\r|\n", -1);
+        for(int i=0; i<lines.length; i++)
+        {
+            String value = escape(lines[i], version7);
+            String lineTag = i == 0?tag:"CONT";
+            int lineLevel = i == 0?level:level + 1;
+
+            while(!version7 && value.length() > MAX_VALUE)
+            {
+                int split = MAX_VALUE;
+                while(split > 1 && (value.charAt(split - 1) == ' ' || value.charAt(split) == ' '
+                        || Character.isHighSurrogate(value.charAt(split - 1))))
+                {
+                    split--;
+                }
+                if(split == 1)
+                {
+                    split = MAX_VALUE;
+                }
+
+                out.line(lineLevel, lineTag, value.substring(0, split));
+                value = value.substring(split);
+                lineTag = "CONC";
+                lineLevel = level + 1;
+            }
+            out.line(lineLevel, lineTag, value);
+        }
+    }
+
+    /**
+     * Returns a value as written in a GEDCOM file, with @ doubled so that it is not read as a
+     * pointer. Version 7.0 only doubles an @ at the start of a value.
+     *
+     * @param value value
+     * @param version7 true if writing GEDCOM 7.0
+     * @return escaped value
+     */
+    private static String escape(String value, boolean version7)
+    {
+        if(version7)
+        {
+            return value.startsWith("@")?"@" + value:value;
+        }
+        return value.indexOf('@') < 0?value:value.replace("@", "@@");
+    }
+
+    /**
+     * Returns a string, or an empty string in place of null
+     *
+     * @param s string
+     * @return s; empty if s is null
+     */
+    private static String nonNull(String s)
+    {
+        return s == null?"":s;
+    }
+
+    /**
+     * Returns whether a GEDCOM version is version 7
+     *
+     * @param version version, eg. 7.0
+     * @return true for version 7; false otherwise
+     */
+    private static boolean isVersion7(String version)
+    {
+        return version != null && version.trim().startsWith("7");
+    }
+
+    /**
+     * Collects lines in a buffer and writes them to a writer in large blocks, without building
+     * a string for every line
+     */
+    private static final class LineWriter
+    {
+        private final Writer out;
+        private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 1024);
+        private final String lineBreak = System.lineSeparator();
+        private char[] chars = new char[0];
+
+        /**
+         * Constructor which sets the writer to write lines to
+         *
+         * @param w writer
+         */
+        LineWriter(Writer w)
+        {
+            out = w;
+        }
+
+        /**
+         * Write a line
+         *
+         * @param text line, already escaped
+         * @throws IOException if the writer cannot be written
+         */
+        void line(String text) throws IOException
+        {
+            buffer.append(text);
+            end();
+        }
+
+        /**
+         * Write a line, leaving out the value if it is empty
+         *
+         * @param level level of line
+         * @param tag tag of line
+         * @param value value of line, already escaped
+         * @throws IOException if the writer cannot be written
+         */
+        void line(int level, String tag, String value) throws IOException
+        {
+            buffer.append(level).append(' ').append(tag);
+            if(!value.isEmpty())
+            {
+                buffer.append(' ').append(value);
+            }
+            end();
+        }
+
+        /**
+         * Write the name of an individual, with the surname between slashes
+         *
+         * @param name first name, already escaped
+         * @param surname surname, already escaped
+         * @throws IOException if the writer cannot be written
+         */
+        void name(String name, String surname) throws IOException
+        {
+            buffer.append("1 NAME ").append(name).append(" /").append(surname).append('/');
+            end();
+        }
+
+        /**
+         * Write the first line of a record
+         *
+         * @param kind letter of the cross-reference id of the record, eg. I
+         * @param number number of the record
+         * @param tag tag of the record, eg. INDI
+         * @throws IOException if the writer cannot be written
+         */
+        void record(char kind, int number, String tag) throws IOException
+        {
+            buffer.append("0 @").append(kind).append(number).append("@ ").append(tag);
+            end();
+        }
+
+        /**
+         * Write a line pointing to a record
+         *
+         * @param level level of line
+         * @param tag tag of line, eg. FAMC
+         * @param kind letter of the cross-reference id of the record, eg. F
+         * @param number number of the record
+         * @throws IOException if the writer cannot be written
+         */
+        void pointer(int level, String tag, char kind, int number) throws IOException
+        {
+            buffer.append(level).append(' ').append(tag).append(" @").append(kind).append(number).append('@');
+            end();
+        }
+
+        /**
+         * Write every line collected to the writer
+         *
+         * @throws IOException if the writer cannot be written
+         */
+        void flush() throws IOException
+        {
+            int length = buffer.length();
+            if(chars.length < length)
+            {
+                chars = new char[length];
+            }
+            buffer.getChars(0, length, chars, 0);
+            out.write(chars, 0, length);
+            buffer.setLength(0);
+        }
+
+        /**
+         * End a line, writing the lines collected once the buffer is full
+         *
+         * @throws IOException if the writer cannot be written
+         */
+        private void end() throws IOException
+        {
+            buffer.append(lineBreak);
+            if(buffer.length() >= BUFFER_SIZE)
+            {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Reads lines from a reader into strings without copying them more than once, as every
+     * line of a large file is read
+     */
+    private static final class LineReader
+    {
+        private final Reader in;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position, limit;
+
+        // True if the last line ended with a carriage return, which may be followed by a line feed
+        private boolean skipLineFeed;
+
+        /**
+         * Constructor which sets the reader to read lines from
+         *
+         * @param r reader
+         */
+        LineReader(Reader r)
+        {
+            in = r;
+        }
+
+        /**
+         * Returns the next line, without its line break
+         *
+         * @return line; null at the end of the reader
+         * @throws IOException if the reader cannot be read
+         */
+        String readLine() throws IOException
+        {
+            StringBuilder longLine = null;
+            while(true)
+            {
+                if(position == limit && !fill())
+                {
+                    return longLine == null?null:longLine.toString();
+                }
+                if(skipLineFeed)
+                {
+                    skipLineFeed = false;
+                    if(buffer[position] == '\n')
+                    {
+                        position++;
+                        continue;
+                    }
+                }
+
+                int start = position;
+                while(position < limit && buffer[position] != '\n' && buffer[position] != '\r')
+                {
+                    position++;
+                }
+
+                // Line continues past the end of the buffer
+                if(position == limit)
+                {
+                    if(longLine == null)
+                    {
+                        longLine = new StringBuilder();
+                    }
+                    longLine.append(buffer, start, position - start);
+                    continue;
+                }
+
+                skipLineFeed = buffer[position] == '\r';
+                String line;
+                if(longLine == null)
+                {
+                    line = new String(buffer, start, position - start);
+                }
+                else
+                {
+                    line = longLine.append(buffer, start, position - start).toString();
+                }
+                position++;
+                return line;
+            }
+        }
+
+        /**
+         * Read more characters into the buffer
+         *
+         * @return true if characters were read; false at the end of the reader
+         * @throws IOException if the reader cannot be read
+         */
+        private boolean fill() throws IOException
+        {
+            int n;
+            do
+            {
+                n = in.read(buffer, 0, buffer.length);
+            }
+            while(n == 0);
+
+            position = 0;
+            limit = Math.max(n, 0);
+            return n > 0;
+        }
+    }
+
+    /**
+     * One line of a GEDCOM file, split into level, cross-reference id, tag and value without
+     * copying the parts that are not needed
+     */
+    private static final class Line
+    {
+        String text;
+        int level;
+        int tagStart, tagEnd, valueStart;
+
+        // Cross-reference id of the record, and the id the value points to (-1 for none)
+        int xrefStart, xrefEnd, pointerStart, pointerEnd;
+
+        /**
+         * Split a line into its parts
+         *
+         * @param s line
+         * @param number line number, shown if the line is not valid
+         * @throws IOException if the line is not a GEDCOM line
+         */
+        void parse(String s, int number) throws IOException
+        {
+            text = s;
+            int length = s.length();
+            int i = 0;
+
+            // Leading spaces are not allowed, but are written by some programs
+            while(i < length && s.charAt(i) == ' ')
+            {
+                i++;
+            }
+            int start = i;
+            level = 0;
+            while(i < length && s.charAt(i) >= '0' && s.charAt(i) <= '9' && i - start < 3)
+            {
+                level = level * 10 + (s.charAt(i++) - '0');
+            }
+            if(i == start || i == length || s.charAt(i) != ' ')
+            {
+                throw new IOException("Invalid GEDCOM line " + number + ": " + s);
+            }
+            i++;
+
+            xrefStart = -1;
+            if(i < length && s.charAt(i) == '@')
+            {
+                int end = s.indexOf('@', i + 1);
+                if(end < 0 || end + 1 >= length)
+                {
+                    throw new IOException("Invalid GEDCOM line " + number + ": " + s);
+                }
+                xrefStart = i + 1;
+                xrefEnd = end;
+                i = end + 2;
+            }
+
+            tagStart = i;
+            while(i < length && s.charAt(i) != ' ')
+            {
+                i++;
+            }
+            tagEnd = i;
+            valueStart = Math.min(i + 1, length);
+
+            pointerStart = -1;
+            if(length - valueStart > 2 && s.charAt(valueStart) == '@' && s.charAt(valueStart + 1) != '@'
+                    && s.charAt(length - 1) == '@')
+            {
+                pointerStart = valueStart + 1;
+                pointerEnd = length - 1;
+            }
+        }
+
+        /**
+         * Returns whether the line has a tag
+         *
+         * @param tag tag, eg. INDI
+         * @return true if the line has the tag; false otherwise
+         */
+        boolean is(String tag)
+        {
+            return tagEnd - tagStart == tag.length() && text.startsWith(tag, tagStart);
+        }
+
+        /**
+         * Returns the value of the line
+         *
+         * @return value; empty if the line has no value
+         */
+        String value()
+        {
+            return text.substring(valueStart);
+        }
+
+        /**
+         * Returns whether the value of the line points to a record
+         *
+         * @return true if the value is a cross-reference id between @; false otherwise
+         */
+        boolean isPointer()
+        {
+            return pointerStart >= 0;
+        }
+    }
+
+    /**
+     * Gives every cross-reference id of a kind of record a number, starting from 0, in the
+     * order the ids are first seen.
+     * <p>Most programs number their records, eg. I1, I2, ..., so ids made of the same prefix and
+     * a number are looked up in an array by their number, without creating a string for them.
+     * Other ids are looked up by string.
+     */
+    private static final class XrefIndex
+    {
+        // Largest number looked up in the array, so that a few large numbers do not waste memory
+        private static final int MAX_NUMBERED = 1 << 23;
+
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        // Prefix of numbered ids, taken from the first id, and id + 1 of every number (0 for none)
+        private String prefix;
+        private int[] numbered = new int[1024];
+        private int size;
+
+        /**
+         * Returns the number of a cross-reference id, giving it a number if it has not been seen
+         *
+         * @param text line containing the id
+         * @param start position of the id in the line
+         * @param end position after the id in the line
+         * @return number of id
+         */
+        int get(String text, int start, int end)
+        {
+            if(prefix == null)
+            {
+                int digits = end;
+                while(digits > start && Character.isDigit(text.charAt(digits - 1)))
+                {
+                    digits--;
+                }
+                prefix = text.substring(start, digits);
+            }
+
+            int number = number(text, start + prefix.length(), end);
+            if(number >= 0 && text.startsWith(prefix, start))
+            {
+                if(number >= numbered.length)
+                {
+                    numbered = Arrays.copyOf(numbered, Math.max(number + 1, numbered.length * 2));
+                }
+                if(numbered[number] == 0)
+                {
+                    numbered[number] = ++size;
+                }
+                return numbered[number] - 1;
+            }
+
+            String xref = text.substring(start, end);
+            Integer id = ids.get(xref);
+            if(id == null)
+            {
+                id = size++;
+                ids.put(xref, id);
+            }
+            return id;
+        }
+
+        /**
+         * Returns the number written in part of a line, if it can be looked up in the array
+         *
+         * @param text line
+         * @param start position of the number
+         * @param end position after the number
+         * @return number; -1 if the part is not a number without leading zeros, or is too large
+         */
+        private static int number(String text, int start, int end)
+        {
+            if(start >= end || end - start > 7 || (text.charAt(start) == '0' && end - start > 1))
+            {
+                return -1;
+            }
+            int number = 0;
+            for(int i=start; i<end; i++)
+            {
+                char c = text.charAt(i);
+                if(c < '0' || c > '9')
+                {
+                    return -1;
+                }
+                number = number * 10 + (c - '0');
+            }
+            return number < MAX_NUMBERED?number:-1;
+        }
+    }
+
+    /**
+     * Builds people and families from the lines of a GEDCOM file, and links them once every
+     * line is read
+     */
+    private static final class Importer
+    {
+        // Records read
+        private static final int OTHER = 0, HEAD = 1, INDI = 2, FAM = 3, NOTE = 4;
+
+        // Structures at level 1 of a record that have structures of their own read
+        private static final int NAME = 1, RESI = 2, GEDC = 3;
+
+        // People by cross-reference id, given an id when first seen, in a record or a pointer
+        private final XrefIndex personIds = new XrefIndex();
+        private Person[] people = new Person[1024];
+
+        // Ids of people in the order their records are read
+        private int[] read = new int[1024];
+        private int readCount;
+
+        // Families by cross-reference id, with the ids of husband, wife and children (-1 for none)
+        private final XrefIndex familyIds = new XrefIndex();
+        private int[] husband = new int[256], wife = new int[256], childCount = new int[256];
+        private int[][] children = new int[256][];
+        private int familyCount;
+
+        // Shared notes by cross-reference id, and pairs of person id and note id pointed to
+        private final XrefIndex noteIds = new XrefIndex();
+        private String[] notes = new String[16];
+        private int[] noteRefs = new int[32];
+        private int noteRefCount;
+
+        // Version 7 only escapes @ at the start of a value
+        private boolean version7;
+
+        // Record being read, its id, and the structure at level 1 being read
+        private int record = OTHER, current, structure;
+
+        // Level of the note or address being continued; -1 if none
+        private int noteLevel = -1, addressLevel = -1;
+
+        // Individual being read
+        private String given, surname, givn, surn, street, suburb;
+        private int streetNo, postcode;
+        private Gender gender;
+        private boolean named, addressed;
+        private final StringBuilder text = new StringBuilder();
+        private int[] famc = new int[4], fams = new int[4];
+        private int famcCount, famsCount;
+
+        /**
+         * Read one line
+         *
+         * @param line line to read
+         * @throws IOException if a record is read twice
+         */
+        void line(Line line) throws IOException
+        {
+            if(line.level == 0)
+            {
+                endRecord();
+                startRecord(line);
+                return;
+            }
+
+            // Notes and addresses end at the next line of the same level or above
+            if(line.level <= noteLevel)
+            {
+                noteLevel = -1;
+            }
+            if(line.level <= addressLevel)
+            {
+                addressLevel = -1;
+            }
+            if(line.level == 1)
+            {
+                structure = line.is("NAME")?NAME:line.is("RESI")?RESI:line.is("GEDC")?GEDC:OTHER;
+            }
+
+            if(line.level == noteLevel + 1 && (line.is("CONT") || line.is("CONC")))
+            {
+                if(line.is("CONT"))
+                {
+                    text.append('\n');
+                }
+                text.append(unescape(line.value()));
+            }
+            else if(record == INDI)
+            {
+                individualLine(line);
+            }
+            else if(record == FAM && line.level == 1)
+            {
+                familyLine(line);
+            }
+            else if(record == HEAD && line.level == 2 && structure == GEDC && line.is("VERS"))
+            {
+                version7 = isVersion7(line.value());
+            }
+        }
+
+        /**
+         * Read one line of an individual record
+         *
+         * @param line line to read
+         */
+        private void individualLine(Line line)
+        {
+            if(line.level == addressLevel + 1)
+            {
+                if(line.is("ADR1") && street == null)
+                {
+                    parseStreet(unescape(line.value()));
+                }
+                else if(line.is("CITY"))
+                {
+                    suburb = unescape(line.value()).trim();
+                }
+                else if(line.is("POST"))
+                {
+                    postcode = parseNumber(line.value());
+                }
+            }
+            else if(line.level == 1)
+            {
+                if(line.is("NAME") && !named)
+                {
+                    named = true;
+                    parseName(unescape(line.value()));
+                }
+                else if(line.is("NAME"))
+                {
+                    // Only the GIVN and SURN of the first name are read
+                    structure = OTHER;
+                }
+                else if(line.is("SEX"))
+                {
+                    String sex = line.value().trim();
+                    gender = sex.equals("M")?Gender.MALE:sex.equals("F")?Gender.FEMALE:null;
+                }
+                else if(line.is("NOTE") || line.is("SNOTE"))
+                {
+                    if(line.isPointer())
+                    {
+                        addNoteRef(current, noteId(line.text, line.pointerStart, line.pointerEnd));
+                    }
+                    else
+                    {
+                        if(text.length() > 0)
+                        {
+                            text.append('\n');
+                        }
+                        text.append(unescape(line.value()));
+                        noteLevel = 1;
+                    }
+                }
+                else if(line.is("FAMC") && line.isPointer())
+                {
+                    famc = add(famc, famcCount++, familyId(line.text, line.pointerStart, line.pointerEnd));
+                }
+                else if(line.is("FAMS") && line.isPointer())
+                {
+                    fams = add(fams, famsCount++, familyId(line.text, line.pointerStart, line.pointerEnd));
+                }
+                else if(line.is("ADDR") && !addressed)
+                {
+                    addressed = true;
+                    parseStreet(unescape(line.value()));
+                    addressLevel = 1;
+                }
+            }
+            else if(line.level == 2 && structure == NAME)
+            {
+                if(line.is("GIVN"))
+                {
+                    givn = unescape(line.value()).trim();
+                }
+                else if(line.is("SURN"))
+                {
+                    surn = unescape(line.value()).trim();
+                }
+            }
+            else if(line.level == 2 && structure == RESI && line.is("ADDR") && !addressed)
+            {
+                addressed = true;
+                parseStreet(unescape(line.value()));
+                addressLevel = 2;
+            }
+        }
+
+        /**
+         * Read one line at level 1 of a family record
+         *
+         * @param line line to read
+         */
+        private void familyLine(Line line)
+        {
+            if(!line.isPointer())
+            {
+                return;
+            }
+
+            int id = personId(line.text, line.pointerStart, line.pointerEnd);
+            if(line.is("HUSB"))
+            {
+                husband[current] = id;
+            }
+            else if(line.is("WIFE"))
+            {
+                wife[current] = id;
+            }
+            else if(line.is("CHIL"))
+            {
+                addChild(current, id);
+            }
+        }
+
+        /**
+         * Start reading a record
+         *
+         * @param line first line of record
+         */
+        private void startRecord(Line line)
+        {
+            structure = OTHER;
+            noteLevel = -1;
+            addressLevel = -1;
+            record = OTHER;
+
+            if(line.is("HEAD"))
+            {
+                record = HEAD;
+            }
+            else if(line.xrefStart < 0)
+            {
+                return;
+            }
+            else if(line.is("INDI"))
+            {
+                record = INDI;
+                current = personId(line.text, line.xrefStart, line.xrefEnd);
+                given = surname = givn = surn = street = suburb = null;
+                streetNo = postcode = 0;
+                gender = null;
+                named = addressed = false;
+                text.setLength(0);
+                famcCount = famsCount = 0;
+            }
+            else if(line.is("FAM"))
+            {
+                record = FAM;
+                current = familyId(line.text, line.xrefStart, line.xrefEnd);
+            }
+            else if(line.is("NOTE") || line.is("SNOTE"))
+            {
+                // Shared note, whose text starts on the first line
+                record = NOTE;
+                current = noteId(line.text, line.xrefStart, line.xrefEnd);
+                text.setLength(0);
+                text.append(unescape(line.value()));
+                noteLevel = 0;
+            }
+        }
+
+        /**
+         * Finish reading a record
+         *
+         * @throws IOException if an individual is read twice
+         */
+        private void endRecord() throws IOException
+        {
+            if(record == INDI)
+            {
+                if(people[current] != null)
+                {
+                    throw new IOException("Individual is read twice");
+                }
+
+                String first = givn != null && !givn.isEmpty()?givn:given;
+                String last = surn != null && !surn.isEmpty()?surn:surname;
+                people[current] = new Person(nonNull(first), nonNull(last), gender, text.toString(), streetNo, nonNull(street),
+                        nonNull(suburb), postcode, null);
+                read = add(read, readCount++, current);
+
+                for(int i=0; i<famcCount; i++)
+                {
+                    addChild(famc[i], current);
+                }
+                for(int i=0; i<famsCount; i++)
+                {
+                    addPartner(fams[i], current);
+                }
+            }
+            else if(record == NOTE)
+            {
+                notes[current] = text.toString();
+            }
+            record = OTHER;
+        }
+
+        /**
+         * Link every person to the relatives in his or her families, and give every person a
+         * type. Called once every line is read.
+         *
+         * @return root person of family tree
+         * @throws IOException if the file has no individual
+         */
+        Person link() throws IOException
+        {
+            endRecord();
+            if(readCount == 0)
+            {
+                throw new IOException("File does not contain any individual");
+            }
+
+            // Shared notes are added to the life description
+            for(int i=0; i<noteRefCount; i+=2)
+            {
+                Person p = person(noteRefs[i]);
+                String note = notes[noteRefs[i + 1]];
+                if(p != null && note != null)
+                {
+                    p.setLifeDesc(p.getLifeDesc().isEmpty()?note:p.getLifeDesc() + "\n" + note);
+                }
+            }
+
+            for(int f=0; f<familyCount; f++)
+            {
+                Person h = person(husband[f]), w = person(wife[f]);
+                if(h == w)
+                {
+                    w = null;
+                }
+
+                // Partners of unknown sex are given the gender of their role in the family
+                if(h != null && h.getGender() == null)
+                {
+                    h.setGender(Gender.MALE);
+                }
+                if(w != null && w.getGender() == null)
+                {
+                    w.setGender(Gender.FEMALE);
+                }
+                if(h != null && w != null && h.noSpouse() && w.noSpouse())
+                {
+                    h.setSpouse(w);
+                    w.setSpouse(h);
+                }
+
+                for(int i=0; i<childCount[f]; i++)
+                {
+                    Person child = person(children[f][i]);
+                    if(child != null && child != h && child != w)
+                    {
+                        addParent(child, h);
+                        addParent(child, w);
+                    }
+                }
+            }
+
+            Person root = people[read[0]];
+            for(int i=0; i<readCount; i++)
+            {
+                Person p = people[read[i]];
+                p.setType(p == root?RelationType.ROOT:type(p, root));
+            }
+            return root;
+        }
+
+        /**
+         * Returns the type of a person, worked out from the relatives of the person
+         *
+         * @param p person
+         * @param root root person
+         * @return type of person
+         */
+        private static RelationType type(Person p, Person root)
+        {
+            Person spouse = p.getSpouse();
+            if(p.getGender() != null && root.getParentList().contains(p))
+            {
+                return RelationType.parentOf(p.getGender());
+            }
+            else if(!p.getParentList().isEmpty())
+            {
+                return RelationType.CHILD;
+            }
+            // Married into the family
+            else if(spouse != null && !spouse.getParentList().isEmpty())
+            {
+                return RelationType.SPOUSE;
+            }
+            else if(p.getGender() != null && !p.getChildList().isEmpty())
+            {
+                return RelationType.parentOf(p.getGender());
+            }
+            return spouse != null?RelationType.SPOUSE:RelationType.CHILD;
+        }
+
+        /**
+         * Add a parent to a child, unless the child already has the parent or 2 parents
+         *
+         * @param child child
+         * @param parent parent; null if none
+         */
+        private static void addParent(Person child, Person parent)
+        {
+            if(parent != null && child.getParentList().size() < 2 && !child.getParentList().contains(parent))
+            {
+                child.getParentList().add(parent);
+                parent.getChildList().add(child);
+            }
+        }
+
+        /**
+         * Returns the id of an individual, giving it an id if it has not been seen yet
+         *
+         * @param text line containing the cross-reference id of individual
+         * @param start position of the id
+         * @param end position after the id
+         * @return id of individual
+         */
+        private int personId(String text, int start, int end)
+        {
+            int id = personIds.get(text, start, end);
+            if(id == people.length)
+            {
+                people = Arrays.copyOf(people, id * 2);
+            }
+            return id;
+        }
+
+        /**
+         * Returns the person with an id
+         *
+         * @param id id of person; -1 for none
+         * @return person; null if none, or if the record of the person was not read
+         */
+        private Person person(int id)
+        {
+            return id < 0?null:people[id];
+        }
+
+        /**
+         * Returns the id of a family, giving it an id if it has not been seen yet
+         *
+         * @param text line containing the cross-reference id of family
+         * @param start position of the id
+         * @param end position after the id
+         * @return id of family
+         */
+        private int familyId(String text, int start, int end)
+        {
+            int id = familyIds.get(text, start, end);
+            if(id == familyCount)
+            {
+                familyCount++;
+                if(id == husband.length)
+                {
+                    int capacity = id * 2;
+                    husband = Arrays.copyOf(husband, capacity);
+                    wife = Arrays.copyOf(wife, capacity);
+                    childCount = Arrays.copyOf(childCount, capacity);
+                    children = Arrays.copyOf(children, capacity);
+                }
+                husband[id] = -1;
+                wife[id] = -1;
+                children[id] = new int[2];
+            }
+            return id;
+        }
+
+        /**
+         * Add a child to a family, unless the family already lists the child
+         *
+         * @param family id of family
+         * @param child id of child
+         */
+        private void addChild(int family, int child)
+        {
+            for(int i=0; i<childCount[family]; i++)
+            {
+                if(children[family][i] == child)
+                {
+                    return;
+                }
+            }
+            children[family] = add(children[family], childCount[family]++, child);
+        }
+
+        /**
+         * Add the individual being read as a partner of a family, unless the family already
+         * lists the individual
+         *
+         * @param family id of family
+         * @param partner id of individual
+         */
+        private void addPartner(int family, int partner)
+        {
+            if(husband[family] == partner || wife[family] == partner)
+            {
+                return;
+            }
+            if(gender != Gender.FEMALE && husband[family] < 0)
+            {
+                husband[family] = partner;
+            }
+            else if(wife[family] < 0)
+            {
+                wife[family] = partner;
+            }
+        }
+
+        /**
+         * Returns the id of a shared note, giving it an id if it has not been seen yet
+         *
+         * @param text line containing the cross-reference id of note
+         * @param start position of the id
+         * @param end position after the id
+         * @return id of note
+         */
+        private int noteId(String text, int start, int end)
+        {
+            int id = noteIds.get(text, start, end);
+            if(id == notes.length)
+            {
+                notes = Arrays.copyOf(notes, id * 2);
+            }
+            return id;
+        }
+
+        /**
+         * Remember that a person points to a shared note, which may not have been read yet
+         *
+         * @param person id of person
+         * @param note id of note
+         */
+        private void addNoteRef(int person, int note)
+        {
+            noteRefs = add(noteRefs, noteRefCount++, person);
+            noteRefs = add(noteRefs, noteRefCount++, note);
+        }
+
+        /**
+         * Split a name into first name and surname, which is written between slashes
+         *
+         * @param name name, eg. John /Smith/
+         */
+        private void parseName(String name)
+        {
+            int start = name.indexOf('/');
+            if(start < 0)
+            {
+                given = name.trim();
+                return;
+            }
+            int end = name.indexOf('/', start + 1);
+            given = name.substring(0, start).trim();
+            surname = name.substring(start + 1, end < 0?name.length():end).trim();
+        }
+
+        /**
+         * Split the first line of an address into street number and street name
+         *
+         * @param address first line of address, eg. 12 Main Street
+         */
+        private void parseStreet(String address)
+        {
+            String s = address.trim();
+            if(s.isEmpty())
+            {
+                return;
+            }
+            int i = 0;
+            while(i < s.length() && Character.isDigit(s.charAt(i)))
+            {
+                i++;
+            }
+            streetNo = parseNumber(s.substring(0, i));
+            street = s.substring(i).trim();
+        }
+
+        /**
+         * Returns the number at the start of a value
+         *
+         * @param value value, eg. 3000
+         * @return number; 0 if the value does not start with a number
+         */
+        private static int parseNumber(String value)
+        {
+            String s = value.trim();
+            int number = 0;
+            for(int i=0; i<s.length() && i<9 && Character.isDigit(s.charAt(i)); i++)
+            {
+                number = number * 10 + Character.digit(s.charAt(i), 10);
+            }
+            return number;
+        }
+
+        /**
+         * Returns a value as it was before it was written into the file
+         *
+         * @param value value read
+         * @return value with doubled @ made single
+         */
+        private String unescape(String value)
+        {
+            if(version7)
+            {
+                return value.startsWith("@@")?value.substring(1):value;
+            }
+            return value.indexOf("@@") < 0?value:value.replace("@@", "@");
+        }
+
+        /**
+         * Add a number to an array, growing the array if it is full
+         *
+         * @param array array
+         * @param size number of numbers in the array
+         * @param value number to add
+         * @return array with the number added
+         */
+        private static int[] add(int[] array, int size, int value)
+        {
+            int[] result = size == array.length?Arrays.copyOf(array, Math.max(4, size * 2)):array;
+            result[size] = value;
+            return result;
+        }
+    }
+
+    /**
+     * Families of a family tree that is exported, found from the couples and from the
+     * parents of every child
+     */
+    private static final class Families
+    {
+        // Husband and wife of every family (-1 for none)
+        int[] husband = new int[256], wife = new int[256];
+        int count;
+
+        // Family of the parents of every person (-1 for none)
+        final int[] childFamily;
+
+        // Children of family f are children[childStart[f]] to children[childStart[f + 1] - 1]
+        int[] childStart;
+        int[] children;
+
+        // Families of person id are spouseFamilies[spouseStart[id]] to spouseFamilies[spouseStart[id + 1] - 1]
+        int[] spouseStart;
+        int[] spouseFamilies;
+
+        /**
+         * Constructor which finds the families of every person in a registry
+         *
+         * @param registry registry of family tree
+         */
+        Families(PersonRegistry registry)
+        {
+            int size = registry.size();
+            Map<Long, Integer> ids = new HashMap<>();
+            childFamily = new int[size];
+
+            for(int id=0; id<size; id++)
+            {
+                Person p = registry.get(id);
+
+                // Every couple is a family, even without children
+                int spouse = p.getSpouse() == null?-1:registry.getId(p.getSpouse());
+                if(spouse > id)
+                {
+                    family(registry, ids, id, spouse);
+                }
+
+                // At most 2 parents are written
+                int first = -1, second = -1;
+                for(Person parent:p.getParentList())
+                {
+                    int parentId = registry.getId(parent);
+                    if(parentId >= 0 && first < 0)
+                    {
+                        first = parentId;
+                    }
+                    else if(parentId >= 0 && second < 0 && parentId != first)
+                    {
+                        second = parentId;
+                    }
+                }
+                childFamily[id] = first < 0?-1:family(registry, ids, first, second);
+            }
+
+            // Children of every family, in order of id
+            childStart = new int[count + 1];
+            for(int id=0; id<size; id++)
+            {
+                if(childFamily[id] >= 0)
+                {
+                    childStart[childFamily[id] + 1]++;
+                }
+            }
+            for(int f=0; f<count; f++)
+            {
+                childStart[f + 1] += childStart[f];
+            }
+            children = new int[childStart[count]];
+            int[] next = Arrays.copyOf(childStart, count);
+            for(int id=0; id<size; id++)
+            {
+                if(childFamily[id] >= 0)
+                {
+                    children[next[childFamily[id]]++] = id;
+                }
+            }
+
+            // Families of every husband and wife, in order of family
+            spouseStart = new int[size + 1];
+            for(int f=0; f<count; f++)
+            {
+                for(int partner:new int[]{husband[f], wife[f]})
+                {
+                    if(partner >= 0)
+                    {
+                        spouseStart[partner + 1]++;
+                    }
+                }
+            }
+            for(int id=0; id<size; id++)
+            {
+                spouseStart[id + 1] += spouseStart[id];
+            }
+            spouseFamilies = new int[spouseStart[size]];
+            next = Arrays.copyOf(spouseStart, size);
+            for(int f=0; f<count; f++)
+            {
+                for(int partner:new int[]{husband[f], wife[f]})
+                {
+                    if(partner >= 0)
+                    {
+                        spouseFamilies[next[partner]++] = f;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the family of two partners, adding it if it is new. The male partner, or the
+         * partner with the lower id if that cannot be told, is the husband.
+         *
+         * @param registry registry of family tree
+         * @param ids family of every pair of husband and wife
+         * @param a id of a partner
+         * @param b id of the other partner; -1 for none
+         * @return id of family
+         */
+        private int family(PersonRegistry registry, Map<Long, Integer> ids, int a, int b)
+        {
+            Gender genderA = registry.get(a).getGender();
+            Gender genderB = b < 0?null:registry.get(b).getGender();
+            boolean aIsHusband;
+            if(b < 0)
+            {
+                aIsHusband = genderA != Gender.FEMALE;
+            }
+            else if(genderA != genderB && genderA != null && genderB != null)
+            {
+                aIsHusband = genderA == Gender.MALE;
+            }
+            else
+            {
+                aIsHusband = genderA == Gender.MALE || (genderB != Gender.MALE && a < b);
+            }
+            int h = aIsHusband?a:b, w = aIsHusband?b:a;
+
+            Long key = ((long)(h + 1) << 32) | (w + 1);
+            Integer id = ids.get(key);
+            if(id == null)
+            {
+                id = count++;
+                ids.put(key, id);
+                if(id == husband.length)
+                {
+                    husband = Arrays.copyOf(husband, id * 2);
+                    wife = Arrays.copyOf(wife, id * 2);
+                }
+                husband[id] = h;
+                wife[id] = w;
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Title: Gender enum
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: Gender.java
+ * Purpose: The purpose of this enum is to store the gender of a person.
+ * Assumptions/Conditions: - Gender can only be male or female.
+                           - Gender is saved into files as its label, so files saved when gender
+                             was a string can still be loaded.
+ */
+package familytreeapplication;
+
+/**
+ * Gender of a person.
+ *
+ * @author Zhiguang
+ */
+public enum Gender
+{
+    MALE("Male"),
+    FEMALE("Female");
+
+    private final String label;
+
+    /**
+     * Constructor which sets the label shown for the gender
+     *
+     * @param l label
+     */
+    Gender(String l)
+    {
+        label = l;
+    }
+
+    /**
+     * Returns the opposite gender, which is the gender of a spouse
+     *
+     * @return opposite gender
+     */
+    public Gender opposite()
+    {
+        return this == MALE?FEMALE:MALE;
+    }
+
+    /**
+     * Returns the gender with the given label, ignoring case
+     *
+     * @param s label, eg. Male
+     * @return gender; null if s is null
+     * @throws IllegalArgumentException if s is not the label of a gender
+     */
+    public static Gender parse(String s)
+    {
+        if(s == null)
+        {
+            return null;
+        }
+        for(Gender g:values())
+        {
+            if(g.label.equalsIgnoreCase(s))
+            {
+                return g;
+            }
+        }
+        throw new IllegalArgumentException("Unknown gender: " + s);
+    }
+
+    /**
+     * Returns label of gender, as shown to the user and saved into files
+     *
+     * @return label
+     */
+    @Override
+    public String toString()
+    {
+        return label;
+    }
+}
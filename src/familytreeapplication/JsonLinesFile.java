@@ -0,0 +1,600 @@
+/*
+ * Title: JsonLinesFile class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: JsonLinesFile.java
+ * Purpose: The purpose of this class is to export family trees into JSON Lines files, which can
+ *          be fed one line at a time into reporting pipelines, and to import them back.
+ * Assumptions/Conditions: - Every line is a JSON object for one person, with the members id, name,
+                             surname, gender, type, streetNo, streetName, suburb, postcode,
+                             lifeDesc, spouse (id, left out if none) and children (array of ids).
+                           - Parents are not written, as they are the people listing a person as
+                             a child.
+                           - Ids can be numbers or strings. A person may be referred to before the
+                             line of the person.
+                           - Members can be in any order, other members are ignored, and missing
+                             members are left empty. Empty lines are skipped.
+                           - A byte order mark at the start of the file is skipped.
+                           - Files are read and written as UTF-8, one line at a time, so family
+                             trees of any size can be exported and imported.
+                           - Person ids are the person ids of the registry, and the root person is
+                             the first person in the file.
+                           - Exporting and importing can report their progress, and stop with an
+                             InterruptedIOException when the thread running them is interrupted.
+ */
+package familytreeapplication;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports family trees into JSON Lines files and imports them back.
+ * <p>People are written in order of id, one object per line. Importing links the spouse and
+ * children of every person as its line is read, creating people referred to before their
+ * line, so the file is read only once.
+ *
+ * @author Zhiguang
+ */
+public final class JsonLinesFile
+{
+    // Size of the buffer used to read files
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private JsonLinesFile()
+    {}
+
+    /**
+     * Returns whether a file is a JSON Lines file, by its extension
+     *
+     * @param file file to check
+     * @return true if the name of the file ends with .jsonl; false otherwise
+     */
+    public static boolean isJsonLines(File file)
+    {
+        return file.getName().toLowerCase().endsWith(".jsonl");
+    }
+
+    /**
+     * Export a family tree into a JSON Lines file
+     *
+     * @param registry registry of family tree, with the root person as id 0
+     * @param file file to export into
+     * @param progress receives progress of export; null if not needed
+     * @throws IOException if the file cannot be written, or the export is interrupted
+     */
+    public static void save(PersonRegistry registry, File file, FamilyTreeFile.Progress progress) throws IOException
+    {
+        try(FileReplacement replacement = new FileReplacement(file))
+        {
+            try(Writer writer = Files.newBufferedWriter(replacement.getTemp(), StandardCharsets.UTF_8))
+            {
+                write(registry, writer, progress);
+            }
+            replacement.replace();
+        }
+    }
+
+    /**
+     * Write every person of a registry as a line
+     *
+     * @param registry registry of family tree, with the root person as id 0
+     * @param out receives lines
+     * @param progress receives progress of export; null if not needed
+     * @throws IOException if the lines cannot be written, or the export is interrupted
+     */
+    public static void write(PersonRegistry registry, Writer out, FamilyTreeFile.Progress progress) throws IOException
+    {
+        int size = registry.size();
+        StringBuilder line = new StringBuilder(256);
+
+        for(int id=0; id<size; id++)
+        {
+            if(id % FamilyTreeFile.REPORT_INTERVAL == 0)
+            {
+                FamilyTreeFile.report(progress, id, size, "people");
+            }
+
+            Person p = registry.get(id);
+            line.setLength(0);
+            line.append("{\"id\":").append(id);
+            appendString(line, "name", p.getName());
+            appendString(line, "surname", p.getSurname());
+            appendString(line, "gender", p.getGender() == null?null:p.getGender().toString());
+            appendString(line, "type", p.getType() == null?null:p.getType().toString());
+            line.append(",\"streetNo\":").append(p.getStreetNo());
+            appendString(line, "streetName", p.getStreetName());
+            appendString(line, "suburb", p.getSuburb());
+            line.append(",\"postcode\":").append(p.getPostcode());
+            appendString(line, "lifeDesc", p.getLifeDesc());
+            if(!p.noSpouse())
+            {
+                line.append(",\"spouse\":").append(registry.getId(p.getSpouse()));
+            }
+            line.append(",\"children\":[");
+            for(int i=0; i<p.getChildList().size(); i++)
+            {
+                line.append(i == 0?"":",").append(registry.getId(p.getChildList().get(i)));
+            }
+            line.append("]}\n");
+            out.append(line);
+        }
+        FamilyTreeFile.report(progress, size, size, "people");
+    }
+
+    /**
+     * Import a family tree from a JSON Lines file
+     *
+     * @param file file to import
+     * @param progress receives progress of import; null if not needed
+     * @return root person of family tree
+     * @throws IOException if the file cannot be read or is not valid, or the import is interrupted
+     */
+    public static Person load(File file, FamilyTreeFile.Progress progress) throws IOException
+    {
+        InputStream in = new FamilyTreeFile.ProgressInputStream(Files.newInputStream(file.toPath()), file.length(), progress);
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE))
+        {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Import a family tree from JSON lines
+     *
+     * @param in reader of lines
+     * @return root person of family tree
+     * @throws IOException if the lines cannot be read or are not valid
+     */
+    public static Person read(BufferedReader in) throws IOException
+    {
+        PersonIdMap ids = new PersonIdMap();
+        Parser parser = new Parser();
+        String text;
+        int number = 0;
+
+        while((text = in.readLine()) != null)
+        {
+            number++;
+            // Byte order mark is allowed at the start of the file
+            if(number == 1 && text.startsWith("\uFEFF"))
+            {
+                text = text.substring(1);
+            }
+            if(!text.trim().isEmpty())
+            {
+                parser.parse(text, number, ids);
+            }
+        }
+        return ids.finish();
+    }
+
+    /**
+     * Append a member with a string value to an object
+     *
+     * @param line object being written
+     * @param name name of member
+     * @param value value of member; null to write null
+     */
+    private static void appendString(StringBuilder line, String name, String value)
+    {
+        line.append(",\"").append(name).append("\":");
+        if(value == null)
+        {
+            line.append("null");
+            return;
+        }
+
+        line.append('"');
+        for(int i=0; i<value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch(c)
+            {
+                case '"':
+                    line.append("\\\"");
+                    break;
+                case '\\':
+                    line.append("\\\\");
+                    break;
+                case '\n':
+                    line.append("\\n");
+                    break;
+                case '\r':
+                    line.append("\\r");
+                    break;
+                case '\t':
+                    line.append("\\t");
+                    break;
+                default:
+                    if(c < 0x20 || c == '\u2028' || c == '\u2029')
+                    {
+                        line.append(String.format("\\u%04x", (int)c));
+                    }
+                    else
+                    {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    /**
+     * Reads the person of one line and links the person to the spouse and children.
+     * <p>Only the JSON needed for people is read: objects, arrays, strings, numbers, true,
+     * false and null.
+     */
+    private static final class Parser
+    {
+        private final StringBuilder string = new StringBuilder();
+        private String text;
+        private int pos, number;
+
+        /**
+         * Read the person of a line
+         *
+         * @param line line
+         * @param lineNumber number of the line, for errors
+         * @param ids people read so far, by id
+         * @throws IOException if the line is not a valid person
+         */
+        void parse(String line, int lineNumber, PersonIdMap ids) throws IOException
+        {
+            text = line;
+            pos = 0;
+            number = lineNumber;
+
+            // Members are kept until the id is known
+            String id = null, name = null, surname = null, gender = null, type = null;
+            String streetName = null, suburb = null, lifeDesc = null, spouse = null;
+            int streetNo = 0, postcode = 0;
+            List<String> children = new ArrayList<>();
+
+            expect('{');
+            if(!consume('}'))
+            {
+                do
+                {
+                    String member = readString();
+                    expect(':');
+                    switch(member)
+                    {
+                        case "id":
+                            id = readId();
+                            break;
+                        case "name":
+                            name = readNullableString();
+                            break;
+                        case "surname":
+                            surname = readNullableString();
+                            break;
+                        case "gender":
+                            gender = readNullableString();
+                            break;
+                        case "type":
+                            type = readNullableString();
+                            break;
+                        case "streetNo":
+                            streetNo = readInt();
+                            break;
+                        case "streetName":
+                            streetName = readNullableString();
+                            break;
+                        case "suburb":
+                            suburb = readNullableString();
+                            break;
+                        case "postcode":
+                            postcode = readInt();
+                            break;
+                        case "lifeDesc":
+                            lifeDesc = readNullableString();
+                            break;
+                        case "spouse":
+                            spouse = consumeWord("null")?null:readId();
+                            break;
+                        case "children":
+                            expect('[');
+                            if(!consume(']'))
+                            {
+                                do
+                                {
+                                    children.add(readId());
+                                }
+                                while(consume(','));
+                                expect(']');
+                            }
+                            break;
+                        default:
+                            skipValue();
+                    }
+                }
+                while(consume(','));
+                expect('}');
+            }
+            skipSpace();
+            if(pos < text.length())
+            {
+                throw error("Unexpected text after object");
+            }
+            if(id == null)
+            {
+                throw error("Missing id");
+            }
+
+            Person p = ids.define(id);
+            p.setName(name);
+            p.setSurname(surname);
+            p.setGender(FamilyTreeFile.gender(gender));
+            p.setType(FamilyTreeFile.type(type));
+            p.setStreetNo(streetNo);
+            p.setStreetName(streetName);
+            p.setSuburb(suburb);
+            p.setPostcode(postcode);
+            p.setLifeDesc(lifeDesc);
+
+            if(spouse != null)
+            {
+                ids.setSpouse(id, spouse);
+            }
+            for(String child:children)
+            {
+                ids.addChild(id, child);
+            }
+        }
+
+        /**
+         * Read an id, written as a number or a string
+         *
+         * @return id
+         * @throws IOException if there is no id
+         */
+        private String readId() throws IOException
+        {
+            skipSpace();
+            if(pos < text.length() && text.charAt(pos) == '"')
+            {
+                return readString();
+            }
+            int start = pos;
+            while(pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '-'))
+            {
+                pos++;
+            }
+            if(start == pos)
+            {
+                throw error("Expected id");
+            }
+            return text.substring(start, pos);
+        }
+
+        /**
+         * Read a whole number
+         *
+         * @return number; 0 if null
+         * @throws IOException if there is no whole number
+         */
+        private int readInt() throws IOException
+        {
+            if(consumeWord("null"))
+            {
+                return 0;
+            }
+            String value = readId();
+            try
+            {
+                return Integer.parseInt(value.trim());
+            }
+            catch(NumberFormatException e)
+            {
+                throw error("Not a number: " + value);
+            }
+        }
+
+        /**
+         * Read a string or null
+         *
+         * @return string; null if null
+         * @throws IOException if there is no string
+         */
+        private String readNullableString() throws IOException
+        {
+            return consumeWord("null")?null:readString();
+        }
+
+        /**
+         * Read a string, replacing escapes by the characters they stand for
+         *
+         * @return string
+         * @throws IOException if there is no string, or it is not closed
+         */
+        private String readString() throws IOException
+        {
+            expect('"');
+            string.setLength(0);
+            while(true)
+            {
+                if(pos >= text.length())
+                {
+                    throw error("String is not closed");
+                }
+                char c = text.charAt(pos++);
+                if(c == '"')
+                {
+                    return string.toString();
+                }
+                if(c != '\\')
+                {
+                    string.append(c);
+                    continue;
+                }
+
+                if(pos >= text.length())
+                {
+                    throw error("String is not closed");
+                }
+                c = text.charAt(pos++);
+                switch(c)
+                {
+                    case 'n':
+                        string.append('\n');
+                        break;
+                    case 'r':
+                        string.append('\r');
+                        break;
+                    case 't':
+                        string.append('\t');
+                        break;
+                    case 'b':
+                        string.append('\b');
+                        break;
+                    case 'f':
+                        string.append('\f');
+                        break;
+                    case 'u':
+                        if(pos + 4 > text.length())
+                        {
+                            throw error("Invalid escape");
+                        }
+                        try
+                        {
+                            string.append((char)Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        }
+                        catch(NumberFormatException e)
+                        {
+                            throw error("Invalid escape");
+                        }
+                        pos += 4;
+                        break;
+                    default:
+                        string.append(c);
+                }
+            }
+        }
+
+        /**
+         * Skip a value of a member that is not read
+         *
+         * @throws IOException if there is no valid value
+         */
+        private void skipValue() throws IOException
+        {
+            skipSpace();
+            if(pos >= text.length())
+            {
+                throw error("Expected value");
+            }
+            char c = text.charAt(pos);
+            if(c == '"')
+            {
+                readString();
+            }
+            else if(c == '{' || c == '[')
+            {
+                char close = c == '{'?'}':']';
+                pos++;
+                if(!consume(close))
+                {
+                    do
+                    {
+                        if(c == '{')
+                        {
+                            readString();
+                            expect(':');
+                        }
+                        skipValue();
+                    }
+                    while(consume(','));
+                    expect(close);
+                }
+            }
+            else
+            {
+                int start = pos;
+                while(pos < text.length() && "+-.eE0123456789truefalsn".indexOf(text.charAt(pos)) >= 0)
+                {
+                    pos++;
+                }
+                if(start == pos)
+                {
+                    throw error("Expected value");
+                }
+            }
+        }
+
+        /**
+         * Skip a character, which must be next
+         *
+         * @param c character
+         * @throws IOException if the character is not next
+         */
+        private void expect(char c) throws IOException
+        {
+            if(!consume(c))
+            {
+                throw error("Expected " + c);
+            }
+        }
+
+        /**
+         * Skip a character if it is next
+         *
+         * @param c character
+         * @return true if the character was skipped
+         */
+        private boolean consume(char c)
+        {
+            skipSpace();
+            if(pos < text.length() && text.charAt(pos) == c)
+            {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Skip a word, eg. null, if it is next
+         *
+         * @param word word
+         * @return true if the word was skipped
+         */
+        private boolean consumeWord(String word)
+        {
+            skipSpace();
+            if(text.startsWith(word, pos))
+            {
+                pos += word.length();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Skip spaces between tokens
+         */
+        private void skipSpace()
+        {
+            while(pos < text.length() && Character.isWhitespace(text.charAt(pos)))
+            {
+                pos++;
+            }
+        }
+
+        /**
+         * Returns an exception for a problem in the current line
+         *
+         * @param message problem
+         * @return exception with the problem and the line it is on
+         */
+        private IOException error(String message)
+        {
+            return new IOException(message + " on line " + number);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Title: LatencyHistogram class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: LatencyHistogram.java
+ * Purpose: The purpose of this class is to count how long an operation takes, so that the mean,
+ *          percentiles and longest time of the operation can be shown.
+ * Assumptions/Conditions: - Times are recorded in nanoseconds. Times below 8 nanoseconds are kept
+                             exactly, and longer times are kept to within an eighth of their value,
+                             in 8 buckets for every power of 2.
+                           - Percentiles are the longest time of the bucket they fall into, and
+                             never more than the longest time recorded.
+                           - Times can be recorded by several threads at once without locking.
+                             A percentile read while times are being recorded may not include
+                             the latest times.
+ */
+package familytreeapplication;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of times taken by an operation, with a fixed number of buckets whose width grows
+ * with the time, so recording a time never allocates.
+ *
+ * @author Zhiguang
+ */
+public final class LatencyHistogram
+{
+    // Buckets for every power of 2, as a number of bits
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    // Enough buckets for the longest time that fits in a long
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a time
+     *
+     * @param nanos time taken in nanoseconds; negative times are recorded as 0
+     */
+    public void record(long nanos)
+    {
+        long time = Math.max(0, nanos);
+        buckets.incrementAndGet(bucket(time));
+        count.increment();
+        total.add(time);
+
+        long longest = max.get();
+        while(time > longest && !max.compareAndSet(longest, time))
+        {
+            longest = max.get();
+        }
+    }
+
+    /**
+     * Returns the number of times recorded
+     *
+     * @return number of times
+     */
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the times recorded
+     *
+     * @return total time in nanoseconds
+     */
+    public long getTotal()
+    {
+        return total.sum();
+    }
+
+    /**
+     * Returns the mean of the times recorded
+     *
+     * @return mean time in nanoseconds; 0 if no time is recorded
+     */
+    public double getMean()
+    {
+        long n = count.sum();
+        return n == 0?0:(double)total.sum() / n;
+    }
+
+    /**
+     * Returns the longest time recorded
+     *
+     * @return longest time in nanoseconds; 0 if no time is recorded
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Returns the time which a fraction of the times recorded are not longer than
+     *
+     * @param fraction fraction of times, eg. 0.99 for the 99th percentile
+     * @return time in nanoseconds; 0 if no time is recorded
+     */
+    public long getPercentile(double fraction)
+    {
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for(int i=0; i<BUCKETS; i++)
+        {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+        if(n == 0)
+        {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long)Math.ceil(Math.min(1, Math.max(0, fraction)) * n));
+        long seen = 0;
+        for(int i=0; i<BUCKETS; i++)
+        {
+            seen += counts[i];
+            if(seen >= rank)
+            {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forget every time recorded
+     */
+    public void reset()
+    {
+        for(int i=0; i<BUCKETS; i++)
+        {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Returns the bucket a time is counted in
+     *
+     * @param nanos time in nanoseconds, not negative
+     * @return number of bucket
+     */
+    private static int bucket(long nanos)
+    {
+        if(nanos < SUB_BUCKETS)
+        {
+            return (int)nanos;
+        }
+
+        // Highest bit of the time picks the power of 2, and the bits below it the bucket
+        int bit = 63 - Long.numberOfLeadingZeros(nanos);
+        return ((bit - SUB_BITS + 1) << SUB_BITS) | (int)((nanos >>> (bit - SUB_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Returns the longest time counted in a bucket
+     *
+     * @param bucket number of bucket
+     * @return longest time in nanoseconds
+     */
+    private static long upperBound(int bucket)
+    {
+        if(bucket < SUB_BUCKETS)
+        {
+            return bucket;
+        }
+
+        int shift = (bucket >>> SUB_BITS) - 1;
+        long lowest = (long)(SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
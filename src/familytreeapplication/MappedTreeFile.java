@@ -0,0 +1,405 @@
+/*
+ * Title: MappedTreeFile class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: MappedTreeFile.java
+ * Purpose: The purpose of this class is to open a family tree file by mapping it into
+ *          memory, and to read people from the file only when they are needed.
+ * Assumptions/Conditions: - The file is an uncompressed family tree file written by FamilyTreeFile.
+                           - The file is mapped in parts of 1 GB, so files larger than 2 GB
+                             can be opened.
+                           - A person is read from the file the first time the person is
+                             requested, and the same Person object is returned afterwards.
+                           - The relatives of a person are only read when they are requested.
+                           - Strings are read the first time they are used, and shared between
+                             every person that uses them.
+                           - People can be read by several threads at once, eg. while the tree is
+                             shown and indexed in the background. Each person is still only read
+                             once.
+                           - Some systems, eg. Windows, do not let a mapped file be replaced. Before
+                             the tree is saved into the file it was mapped from, every person is
+                             read and the mapping is no longer used (see release). The JDK only
+                             unmaps the file once the mapping is garbage collected.
+ */
+package familytreeapplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Family tree file mapped into memory, with people read from the file on demand.
+ * <p>The file has a fixed-size index of record offsets keyed by person id, so any person
+ * can be read without reading the people before it. Opening a file only reads its header,
+ * and heap usage grows with the number of people that are actually viewed.
+ *
+ * @author Zhiguang
+ */
+public final class MappedTreeFile
+{
+    // Every part of the file is mapped separately, as a mapping cannot exceed 2 GB
+    private static final int PART_BITS = 30;
+    private static final long PART_SIZE = 1L << PART_BITS;
+
+    // Parts overlap by this many bytes so that a number never spans two parts
+    private static final int OVERLAP = 8;
+
+    // Offsets of fields in a person record
+    private static final int SPOUSE_OFFSET = 4 * 9;
+    private static final int FLAGS_OFFSET = 4 * 10;
+    private static final int PARENTS_OFFSET = 4 * 10 + 1;
+
+    // Parts of the mapping; null once released
+    private volatile MappedByteBuffer[] parts;
+    private final Path path;
+    private final int count;
+    private final int stringCount;
+    private final long stringIndex;
+    private final long recordIndex;
+    private final Map<Integer, Person> people;
+    private final Map<Integer, String> strings;
+
+    /**
+     * Map a family tree file into memory and read its header
+     *
+     * @param file file to map
+     * @param channel channel of the file, open for reading
+     * @throws IOException if the file cannot be mapped or is not a family tree file of the current version
+     */
+    public MappedTreeFile(File file, FileChannel channel) throws IOException
+    {
+        long size = channel.size();
+        MappedByteBuffer[] mapped = new MappedByteBuffer[(int)((size + PART_SIZE - 1) >>> PART_BITS)];
+
+        for(int i=0; i<mapped.length; i++)
+        {
+            long start = (long)i << PART_BITS;
+            mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(PART_SIZE + OVERLAP, size - start));
+        }
+        parts = mapped;
+        path = file.toPath().toAbsolutePath();
+
+        if(size < FamilyTreeFile.HEADER_SIZE || getInt(0) != FamilyTreeFile.MAGIC || getShort(4) != FamilyTreeFile.VERSION)
+        {
+            throw new IOException("Not a family tree file of version " + FamilyTreeFile.VERSION);
+        }
+
+        count = getInt(8);
+        stringCount = getInt(12);
+        stringIndex = getLong(16);
+        recordIndex = getLong(24);
+
+        if(count <= 0 || stringCount < 0 || stringIndex + 8L * stringCount > size || recordIndex + 8L * count > size)
+        {
+            throw new IOException("Invalid family tree file header");
+        }
+
+        people = new HashMap<>();
+        strings = new HashMap<>();
+    }
+
+    /**
+     * Returns the root person of the family tree
+     *
+     * @return root person
+     * @throws IOException if the root person cannot be read
+     */
+    public Person getRoot() throws IOException
+    {
+        return person(0);
+    }
+
+    /**
+     * Returns number of people in the file
+     *
+     * @return number of people
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /**
+     * Returns number of people read from the file so far
+     *
+     * @return number of people read
+     */
+    public synchronized int loadedCount()
+    {
+        return people.size();
+    }
+
+    /**
+     * Returns true if the mapping of the file is still used, and the file is a given file
+     *
+     * @param file file to compare with
+     * @return true if the file is mapped; false otherwise
+     * @throws IOException if the files cannot be compared
+     */
+    synchronized boolean isMapped(File file) throws IOException
+    {
+        return parts != null && file.exists() && Files.isSameFile(path, file.toPath());
+    }
+
+    /**
+     * Read every person with their relatives, and stop using the mapping, so that the file
+     * can be replaced.
+     * <p>People can still be requested afterwards, but nothing else can be read from the file.
+     *
+     * @throws IOException if a record is invalid
+     */
+    synchronized void release() throws IOException
+    {
+        if(parts != null)
+        {
+            for(int id=0; id<count; id++)
+            {
+                Person p = person(id);
+                p.getParentList();
+                p.getSpouse();
+                p.getChildList();
+            }
+            strings.clear();
+            parts = null;
+        }
+    }
+
+    /**
+     * Returns the person with the given id, reading the person's record if needed
+     *
+     * @param id id of person
+     * @return person
+     * @throws IOException if the id or record is invalid
+     */
+    synchronized Person person(int id) throws IOException
+    {
+        Person p = people.get(id);
+
+        if(p == null)
+        {
+            long record = record(id);
+
+            String[] s = new String[7];
+            for(int i=0; i<s.length; i++)
+            {
+                s[i] = string(getInt(record + 4L * i));
+            }
+            int streetNo = getInt(record + 4 * 7);
+            int postCode = getInt(record + 4 * 8);
+
+            p = new PagedPerson(this, id, s[0], s[1], FamilyTreeFile.gender(s[2]), s[3], streetNo, s[4], s[5], postCode, FamilyTreeFile.type(s[6]));
+            people.put(id, p);
+        }
+        return p;
+    }
+
+    /**
+     * Returns the spouse of a person
+     *
+     * @param id id of person
+     * @return spouse; null if person has no spouse
+     * @throws IOException if the record is invalid
+     */
+    Person spouse(int id) throws IOException
+    {
+        int spouse = getInt(record(id) + SPOUSE_OFFSET);
+        return spouse < 0?null:person(spouse);
+    }
+
+    /**
+     * Returns true if a person shares the same list of children with the spouse
+     *
+     * @param id id of person
+     * @return true if list of children is shared; false otherwise
+     * @throws IOException if the record is invalid
+     */
+    boolean sharesChildren(int id) throws IOException
+    {
+        return (getByte(record(id) + FLAGS_OFFSET) & FamilyTreeFile.SHARED_CHILDREN) != 0;
+    }
+
+    /**
+     * Returns the parents of a person
+     *
+     * @param id id of person
+     * @return new list of parents
+     * @throws IOException if the record is invalid
+     */
+    ArrayList<Person> parents(int id) throws IOException
+    {
+        return relatives(ids(record(id) + PARENTS_OFFSET));
+    }
+
+    /**
+     * Returns the children of a person
+     *
+     * @param id id of person
+     * @return new list of children
+     * @throws IOException if the record is invalid
+     */
+    ArrayList<Person> children(int id) throws IOException
+    {
+        long parents = record(id) + PARENTS_OFFSET;
+        return relatives(ids(parents + 4 + 4L * getInt(parents)));
+    }
+
+    /**
+     * Returns the people with the given ids
+     *
+     * @param ids ids of people
+     * @return new list of people
+     * @throws IOException if an id is invalid
+     */
+    private ArrayList<Person> relatives(int[] ids) throws IOException
+    {
+        ArrayList<Person> list = new ArrayList<>(ids.length);
+        for(int id:ids)
+        {
+            list.add(person(id));
+        }
+        return list;
+    }
+
+    /**
+     * Read a list of person ids, stored as a count followed by the ids
+     *
+     * @param position position of the count in the file
+     * @return ids read
+     * @throws IOException if the count is invalid
+     */
+    private int[] ids(long position) throws IOException
+    {
+        int size = getInt(position);
+        if(size < 0 || size > count)
+        {
+            throw new IOException("Invalid number of relatives in file: " + size);
+        }
+
+        int[] ids = new int[size];
+        for(int i=0; i<size; i++)
+        {
+            ids[i] = getInt(position + 4 + 4L * i);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the position of the record of a person
+     *
+     * @param id id of person
+     * @return position of record in the file
+     * @throws IOException if the id is invalid
+     */
+    private long record(int id) throws IOException
+    {
+        if(id < 0 || id >= count)
+        {
+            throw new IOException("Invalid id in file: " + id);
+        }
+        return getLong(recordIndex + 8L * id);
+    }
+
+    /**
+     * Returns the string with the given id, reading it if needed
+     *
+     * @param id id of string, -1 for none
+     * @return string; null if id is -1
+     * @throws IOException if the id is invalid
+     */
+    private String string(int id) throws IOException
+    {
+        if(id < 0)
+        {
+            return null;
+        }
+        if(id >= stringCount)
+        {
+            throw new IOException("Invalid string id in file: " + id);
+        }
+
+        String s = strings.get(id);
+        if(s == null)
+        {
+            long position = getLong(stringIndex + 8L * id);
+            byte[] bytes = new byte[getInt(position)];
+            getBytes(position + 4, bytes);
+
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings.put(id, s);
+        }
+        return s;
+    }
+
+    /**
+     * Returns the byte at a position in the file
+     *
+     * @param position position in the file
+     * @return byte
+     */
+    private int getByte(long position)
+    {
+        return parts[(int)(position >>> PART_BITS)].get((int)(position & (PART_SIZE - 1)));
+    }
+
+    /**
+     * Returns the short at a position in the file
+     *
+     * @param position position in the file
+     * @return short, as an unsigned value
+     */
+    private int getShort(long position)
+    {
+        return parts[(int)(position >>> PART_BITS)].getShort((int)(position & (PART_SIZE - 1))) & 0xFFFF;
+    }
+
+    /**
+     * Returns the int at a position in the file
+     *
+     * @param position position in the file
+     * @return int
+     */
+    private int getInt(long position)
+    {
+        return parts[(int)(position >>> PART_BITS)].getInt((int)(position & (PART_SIZE - 1)));
+    }
+
+    /**
+     * Returns the long at a position in the file
+     *
+     * @param position position in the file
+     * @return long
+     */
+    private long getLong(long position)
+    {
+        return parts[(int)(position >>> PART_BITS)].getLong((int)(position & (PART_SIZE - 1)));
+    }
+
+    /**
+     * Copy bytes starting at a position in the file, which may span more than one part
+     *
+     * @param position position in the file
+     * @param bytes array to fill
+     */
+    private void getBytes(long position, byte[] bytes)
+    {
+        int offset = 0;
+        while(offset < bytes.length)
+        {
+            long at = position + offset;
+            MappedByteBuffer part = parts[(int)(at >>> PART_BITS)];
+            int start = (int)(at & (PART_SIZE - 1));
+            int length = (int)Math.min(bytes.length - offset, PART_SIZE - start);
+
+            for(int i=0; i<length; i++)
+            {
+                bytes[offset + i] = part.get(start + i);
+            }
+            offset += length;
+        }
+    }
+}
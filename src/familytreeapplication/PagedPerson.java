@@ -0,0 +1,218 @@
+/*
+ * Title: PagedPerson class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PagedPerson.java
+ * Purpose: The purpose of this class is to store a person read from a mapped family tree
+ *          file, whose relatives are only read from the file when they are requested.
+ * Assumptions/Conditions: - Personal information is read when the person is created.
+                           - Parents, spouse and children are each read the first time they
+                             are requested, and can be changed like any other person after that.
+                           - A couple that share the same list of children in the file share
+                             the same list after it is read.
+                           - Relatives can be requested by several threads at once. They are read
+                             while holding the lock of the file, so they are only read once.
+ */
+package familytreeapplication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+
+/**
+ * Person read from a MappedTreeFile, with relatives read from the file on first request.
+ *
+ * @author Zhiguang
+ */
+final class PagedPerson extends Person
+{
+    // Person is Serializable, but trees are saved by FamilyTreeFile, which never serializes people
+    private static final long serialVersionUID = 1L;
+
+    private final transient MappedTreeFile file;
+    private final int id;
+    private volatile boolean parentsLoaded, spouseLoaded, childrenLoaded;
+
+    /**
+     * Constructor which sets all personal information of person, and the file to read
+     * relatives from
+     *
+     * @param f file person was read from
+     * @param i id of person in file
+     * @param fname first name
+     * @param lname surname
+     * @param sex gender
+     * @param desc life description
+     * @param sNo street number
+     * @param street street name
+     * @param sub suburb
+     * @param post postcode
+     * @param t type of person
+     */
+    PagedPerson(MappedTreeFile f, int i, String fname, String lname, Gender sex, String desc, int sNo, String street, String sub, int post, RelationType t)
+    {
+        super(fname, lname, sex, desc, sNo, street, sub, post, t);
+        file = f;
+        id = i;
+    }
+
+    /**
+     * Returns the file person was read from
+     *
+     * @return file person was read from
+     */
+    MappedTreeFile getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Returns the id of person in the file
+     *
+     * @return id of person
+     */
+    int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Set spouse of person
+     *
+     * @param partner spouse
+     */
+    @Override
+    public void setSpouse(Person partner)
+    {
+        super.setSpouse(partner);
+        spouseLoaded = true;
+    }
+
+    /**
+     * Return spouse of person, reading it from the file on first call
+     *
+     * @return spouse
+     */
+    @Override
+    public Person getSpouse()
+    {
+        if(!spouseLoaded)
+        {
+            synchronized(file)
+            {
+                try
+                {
+                    if(!spouseLoaded)
+                    {
+                        setSpouse(file.spouse(id));
+                    }
+                }
+                catch(IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return super.getSpouse();
+    }
+
+    /**
+     * Returns true if person does not have a spouse
+     *
+     * @return true if spouse is null; false otherwise
+     */
+    @Override
+    public boolean noSpouse()
+    {
+        return getSpouse() == null;
+    }
+
+    /**
+     * Set person's list of children
+     *
+     * @param children ArrayList of person's children
+     */
+    @Override
+    public void setChildList(ArrayList<Person> children)
+    {
+        super.setChildList(children);
+        childrenLoaded = true;
+    }
+
+    /**
+     * Return person's list of children, reading it from the file on first call
+     *
+     * @return person's list of children
+     */
+    @Override
+    public ArrayList<Person> getChildList()
+    {
+        if(!childrenLoaded)
+        {
+            synchronized(file)
+            {
+                try
+                {
+                    if(!childrenLoaded)
+                    {
+                        // Share the list with the spouse if it was shared when saved and is already read
+                        Person spouse = getSpouse();
+                        if(file.sharesChildren(id) && spouse instanceof PagedPerson && ((PagedPerson)spouse).childrenLoaded)
+                        {
+                            setChildList(spouse.getChildList());
+                        }
+                        else
+                        {
+                            setChildList(file.children(id));
+                        }
+                    }
+                }
+                catch(IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return super.getChildList();
+    }
+
+    /**
+     * Set person's list of parent
+     *
+     * @param parent person's list of parent
+     */
+    @Override
+    public void setParentList(ArrayList<Person> parent)
+    {
+        super.setParentList(parent);
+        parentsLoaded = true;
+    }
+
+    /**
+     * Return person's list of parent, reading it from the file on first call
+     *
+     * @return person's list of parent
+     */
+    @Override
+    public ArrayList<Person> getParentList()
+    {
+        if(!parentsLoaded)
+        {
+            synchronized(file)
+            {
+                try
+                {
+                    if(!parentsLoaded)
+                    {
+                        setParentList(file.parents(id));
+                    }
+                }
+                catch(IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return super.getParentList();
+    }
+}
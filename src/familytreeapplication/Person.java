@@ -9,9 +9,18 @@
                              person added to the family tree. 
                            - A person can only have one spouse. 
                            - Spouse must be of opposite gender. 
+                           - Gender and type are saved as strings when serialized, so files 
+                             saved when they were strings can still be loaded. 
+                           - Names, surnames, street names and suburbs are kept in the shared 
+                             StringPool, so a string used by many people is only stored once. 
  */
 package familytreeapplication;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
 
@@ -23,9 +32,30 @@ import java.util.ArrayList;
  */
 public class Person implements Serializable
 {
+    // Same as the computed value of the class before gender and type were enums 
+    private static final long serialVersionUID = -4631732435311219885L;
+    
+    // Fields as they are serialized, with gender and type as strings 
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("name", String.class),
+        new ObjectStreamField("surname", String.class),
+        new ObjectStreamField("gender", String.class),
+        new ObjectStreamField("lifeDesc", String.class),
+        new ObjectStreamField("streetName", String.class),
+        new ObjectStreamField("suburb", String.class),
+        new ObjectStreamField("type", String.class),
+        new ObjectStreamField("streetNo", int.class),
+        new ObjectStreamField("postCode", int.class),
+        new ObjectStreamField("spouse", Person.class),
+        new ObjectStreamField("parentList", ArrayList.class),
+        new ObjectStreamField("childrenList", ArrayList.class)
+    };
+    
     // Declaring private variables so that variables cannot be accessed directly 
-    private String name, surname, gender, lifeDesc; 
-    private String streetName, suburb, type; 
+    private String name, surname, lifeDesc; 
+    private String streetName, suburb; 
+    private Gender gender; 
+    private RelationType type; 
     private int streetNo, postCode; 
     private Person spouse; 
     private ArrayList<Person> parentList, childrenList;
@@ -52,15 +82,15 @@ public class Person implements Serializable
      * @param post postcode 
      * @param t type of person 
      */
-    public Person(String fname, String lname, String sex, String desc, int sNo, String street, String sub, int post, String t)
+    public Person(String fname, String lname, Gender sex, String desc, int sNo, String street, String sub, int post, RelationType t)
     {
-        name = fname;
-        surname = lname;
+        name = StringPool.SHARED.intern(fname);
+        surname = StringPool.SHARED.intern(lname);
         gender = sex;
         lifeDesc = desc; 
         streetNo = sNo;
-        streetName = street;
-        suburb = sub;
+        streetName = StringPool.SHARED.intern(street);
+        suburb = StringPool.SHARED.intern(sub);
         postCode = post; 
         type = t;
         
@@ -75,7 +105,7 @@ public class Person implements Serializable
      */
     public void setName(String fname)
     {
-        name = fname;
+        name = StringPool.SHARED.intern(fname);
     }
     
     /**
@@ -95,7 +125,7 @@ public class Person implements Serializable
      */
     public void setSurname(String lname)
     {
-        surname = lname;
+        surname = StringPool.SHARED.intern(lname);
     }
     
     /**
@@ -127,7 +157,7 @@ public class Person implements Serializable
      * 
      * @param sex gender
      */
-    public void setGender(String sex)
+    public void setGender(Gender sex)
     {
         gender = sex;
     }
@@ -137,7 +167,7 @@ public class Person implements Serializable
      * 
      * @return gender 
      */
-    public String getGender()
+    public Gender getGender()
     {
         return gender;
     }
@@ -169,7 +199,7 @@ public class Person implements Serializable
      */
     public void setStreetName(String sName)
     {
-        streetName = sName;
+        streetName = StringPool.SHARED.intern(sName);
     }
     
     /**
@@ -189,7 +219,7 @@ public class Person implements Serializable
      */
     public void setSuburb(String sub)
     {
-        suburb = sub;
+        suburb = StringPool.SHARED.intern(sub);
     }
     
     /**
@@ -317,7 +347,7 @@ public class Person implements Serializable
      * 
      * @param t type 
      */
-    public void setType(String t)
+    public void setType(RelationType t)
     {
         type = t;
     }
@@ -327,7 +357,7 @@ public class Person implements Serializable
      * 
      * @return type 
      */
-    public String getType()
+    public RelationType getType()
     {
         return type;
     }
@@ -351,16 +381,72 @@ public class Person implements Serializable
     
     /**
      * Returns full name of person 
-     * <p>If the person's name is parents, spouse or children, return the name instead. </p>
      * <ul type="circle">
-     * <li>Used to show desired result on TreeView</li>
+     * <li>Used to show desired result on TreeView. Headings are shown by TreeHeading</li>
      * </ul>
      * 
-     * @return name if name is parents, spouse or children; full name otherwise 
+     * @return full name 
      */
     @Override
     public String toString()
     {
-        return (name.equalsIgnoreCase("parents") || name.equalsIgnoreCase("spouse") || name.equalsIgnoreCase("children"))?getName():getFullName();
+        return getFullName();
+    }
+    
+    /**
+     * Write person to a stream, with gender and type as strings 
+     * 
+     * @param out stream to write to 
+     * @throws IOException if the stream cannot be written 
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("name", name);
+        fields.put("surname", surname);
+        fields.put("gender", gender == null?null:gender.toString());
+        fields.put("lifeDesc", lifeDesc);
+        fields.put("streetName", streetName);
+        fields.put("suburb", suburb);
+        fields.put("type", type == null?null:type.toString());
+        fields.put("streetNo", streetNo);
+        fields.put("postCode", postCode);
+        fields.put("spouse", spouse);
+        fields.put("parentList", parentList);
+        fields.put("childrenList", childrenList);
+        out.writeFields();
+    }
+    
+    /**
+     * Read person from a stream, converting gender and type from strings 
+     * 
+     * @param in stream to read from 
+     * @throws IOException if the stream cannot be read, or gender or type is unknown 
+     * @throws ClassNotFoundException if the stream contains an unknown class 
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        ObjectInputStream.GetField fields = in.readFields();
+        name = StringPool.SHARED.intern((String)fields.get("name", null));
+        surname = StringPool.SHARED.intern((String)fields.get("surname", null));
+        lifeDesc = (String)fields.get("lifeDesc", null);
+        streetName = StringPool.SHARED.intern((String)fields.get("streetName", null));
+        suburb = StringPool.SHARED.intern((String)fields.get("suburb", null));
+        streetNo = fields.get("streetNo", 0);
+        postCode = fields.get("postCode", 0);
+        spouse = (Person)fields.get("spouse", null);
+        parentList = (ArrayList<Person>)fields.get("parentList", null);
+        childrenList = (ArrayList<Person>)fields.get("childrenList", null);
+        
+        try
+        {
+            gender = Gender.parse((String)fields.get("gender", null));
+            type = RelationType.parse((String)fields.get("type", null));
+        }
+        catch(IllegalArgumentException e)
+        {
+            throw new InvalidObjectException(e.getMessage());
+        }
     }
 }
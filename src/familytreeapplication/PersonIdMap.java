@@ -0,0 +1,239 @@
+/*
+ * Title: PersonIdMap class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PersonIdMap.java
+ * Purpose: The purpose of this class is to rebuild the relatives of people read from a file
+ *          where people refer to each other by id, in a single pass over the file.
+ * Assumptions/Conditions: - Ids are strings. Ids that are small numbers without leading zeros,
+                             as written by this program, are looked up in an array.
+                           - A person may be referred to before it is defined, in which case an
+                             empty person is created and filled in once it is defined.
+                           - The first person defined is the root person.
+                           - Every person referred to must be defined, and defined only once.
+                           - A person can have only one spouse. A child is added to a parent only
+                             once.
+                           - A couple with the same children share the same list of children, as
+                             couples do in the program.
+ */
+package familytreeapplication;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Map from the ids of a file to the people read from it, which links people to their relatives
+ * as soon as a relationship is read.
+ *
+ * @author Zhiguang
+ */
+final class PersonIdMap
+{
+    // Largest id looked up in the array, so that a few large ids do not waste memory
+    private static final int MAX_NUMBERED = 1 << 23;
+
+    private Person[] numbered = new Person[1024];
+    private boolean[] numberedDefined = new boolean[1024];
+    private final Map<String, Person> named = new HashMap<>();
+
+    // Ids of other form referred to but not defined yet, and number of people not defined yet
+    private final Set<String> namedUndefined = new HashSet<>();
+    private int undefined;
+    private final List<Person> defined = new ArrayList<>();
+
+    /**
+     * Returns the person with an id, which is defined by the current row of the file
+     *
+     * @param id id of person
+     * @return person to fill in
+     * @throws IOException if the person has already been defined
+     */
+    Person define(String id) throws IOException
+    {
+        Person p = get(id);
+        int number = number(id);
+        boolean first = number >= 0?!numberedDefined[number]:namedUndefined.remove(id);
+        if(!first)
+        {
+            throw new IOException("Person " + id + " is defined twice");
+        }
+        if(number >= 0)
+        {
+            numberedDefined[number] = true;
+        }
+        undefined--;
+        defined.add(p);
+        return p;
+    }
+
+    /**
+     * Add a child to a parent, and the parent to the child
+     *
+     * @param parentId id of parent
+     * @param childId id of child
+     * @throws IOException if the parent and child are the same person
+     */
+    void addChild(String parentId, String childId) throws IOException
+    {
+        Person parent = get(parentId), child = get(childId);
+        if(parent == child)
+        {
+            throw new IOException("Person " + parentId + " is his or her own parent");
+        }
+        if(!parent.getChildList().contains(child))
+        {
+            parent.getChildList().add(child);
+        }
+        if(!child.getParentList().contains(parent))
+        {
+            child.getParentList().add(parent);
+        }
+    }
+
+    /**
+     * Set two people as the spouse of each other
+     *
+     * @param id id of one person
+     * @param spouseId id of the other person
+     * @throws IOException if the people are the same person, or either already has another spouse
+     */
+    void setSpouse(String id, String spouseId) throws IOException
+    {
+        Person p = get(id), spouse = get(spouseId);
+        if(p == spouse)
+        {
+            throw new IOException("Person " + id + " is his or her own spouse");
+        }
+        if(p.getSpouse() != null && p.getSpouse() != spouse)
+        {
+            throw new IOException("Person " + id + " has more than one spouse");
+        }
+        if(spouse.getSpouse() != null && spouse.getSpouse() != p)
+        {
+            throw new IOException("Person " + spouseId + " has more than one spouse");
+        }
+        p.setSpouse(spouse);
+        spouse.setSpouse(p);
+    }
+
+    /**
+     * Returns the number of people defined
+     *
+     * @return number of people
+     */
+    int size()
+    {
+        return defined.size();
+    }
+
+    /**
+     * Check that every person referred to has been defined, and share the list of children of
+     * couples with the same children
+     *
+     * @return root person, the first person defined
+     * @throws IOException if there are no people, or a person referred to is not defined
+     */
+    Person finish() throws IOException
+    {
+        if(undefined > 0)
+        {
+            String id = namedUndefined.isEmpty()?null:namedUndefined.iterator().next();
+            for(int i=0; id==null; i++)
+            {
+                if(numbered[i] != null && !numberedDefined[i])
+                {
+                    id = Integer.toString(i);
+                }
+            }
+            throw new IOException("Person " + id + " is referred to but not defined");
+        }
+        if(defined.isEmpty())
+        {
+            throw new IOException("No people in file");
+        }
+
+        for(Person p:defined)
+        {
+            Person spouse = p.getSpouse();
+            if(spouse != null && spouse.getChildList() != p.getChildList() && !p.getChildList().isEmpty()
+                    && spouse.getChildList().equals(p.getChildList()))
+            {
+                spouse.setChildList(p.getChildList());
+            }
+        }
+        return defined.get(0);
+    }
+
+    /**
+     * Returns the person with an id, creating an empty person if the id has not been seen
+     *
+     * @param id id of person
+     * @return person
+     */
+    private Person get(String id)
+    {
+        int number = number(id);
+        Person p;
+        if(number >= 0)
+        {
+            if(number >= numbered.length)
+            {
+                numbered = Arrays.copyOf(numbered, Math.max(number + 1, numbered.length * 2));
+                numberedDefined = Arrays.copyOf(numberedDefined, numbered.length);
+            }
+            p = numbered[number];
+            if(p == null)
+            {
+                p = numbered[number] = create();
+            }
+        }
+        else
+        {
+            p = named.get(id);
+            if(p == null)
+            {
+                p = create();
+                named.put(id, p);
+                namedUndefined.add(id);
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Create an empty person that is not defined yet
+     *
+     * @return person
+     */
+    private Person create()
+    {
+        undefined++;
+        return new Person();
+    }
+
+    /**
+     * Returns an id as a number, if it can be looked up in the array
+     *
+     * @param id id
+     * @return number; -1 if the id is not a number without leading zeros, or is too large
+     */
+    private static int number(String id)
+    {
+        int length = id.length();
+        if(length == 0 || length > 7 || (id.charAt(0) == '0' && length > 1))
+        {
+            return -1;
+        }
+        int number = 0;
+        for(int i=0; i<length; i++)
+        {
+            char c = id.charAt(i);
+            if(c < '0' || c > '9')
+            {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number < MAX_NUMBERED?number:-1;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Title: PersonLabel class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PersonLabel.java
+ * Purpose: The purpose of this class is to keep the label a person is shown with on the family
+ *          tree, so that scrolling through the tree does not build the full name of a person
+ *          every time the person is shown.
+ * Assumptions/Conditions: - The label of a person is the full name of the person, and the label
+                             of a heading is the heading.
+                           - The label is built again if the first name or surname of the person
+                             is set to a different String, so editing the details of a person
+                             never leaves an old label.
+ */
+package familytreeapplication;
+
+/**
+ * Label of one person, built once and kept until the name of the person changes.
+ *
+ * @author Zhiguang
+ */
+public final class PersonLabel
+{
+    private String label, name, surname;
+
+    /**
+     * Returns the label of a person, building it only if the name of the person has changed
+     * since the label was last built
+     *
+     * @param p person or heading
+     * @return label of person
+     */
+    public String get(Person p)
+    {
+        // Names are compared by identity, which is enough to tell that they were set again
+        if(label == null || name != p.getName() || surname != p.getSurname())
+        {
+            name = p.getName();
+            surname = p.getSurname();
+            label = p.toString();
+        }
+        return label;
+    }
+}
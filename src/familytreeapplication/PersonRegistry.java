@@ -0,0 +1,464 @@
+/*
+ * Title: PersonRegistry class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PersonRegistry.java
+ * Purpose: The purpose of this class is to give every person in a family tree an id, and to
+ *          find people by id, full name, surname or postcode without walking the tree.
+ * Assumptions/Conditions: - Ids start at 0 and have no gaps. The root person has id 0.
+                           - A person keeps the same id until the tree is closed, and the tree is
+                             saved in order of id, so ids are also kept when the tree is saved
+                             and loaded again.
+                           - People are never removed from a tree, so ids are never reused.
+                           - Names are found without regard to case.
+                           - A person whose personal information is edited must be updated so
+                             that the person can be found by the new name, surname and postcode.
+                           - A registry of a tree mapped from a file (see MappedTreeFile) does not
+                             read the file when it is built. People are read when they are first
+                             requested, and names and postcodes are only indexed the first time
+                             people are found by them, so finding changes the registry.
+ */
+package familytreeapplication;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Registry of every person in a family tree, by id.
+ * <p>People are stored in an array indexed by id, and indexed by full name, surname and
+ * postcode, so that looking up a person takes constant time however large the tree is.
+ *
+ * @author Zhiguang
+ */
+public final class PersonRegistry
+{
+    // Number of people registered between each progress report when building a registry
+    private static final int REPORT_INTERVAL = 4096;
+
+    private Person[] people;
+    private int size;
+    private final Map<Person, Integer> ids;
+
+    // File the first people are read from, with their id in the file as their id; null if none
+    private final MappedTreeFile file;
+
+    // Keys each person is indexed by, so the person can be removed from the indexes when edited;
+    // null until people are indexed
+    private String[] fullNameKeys, surnameKeys;
+    private int[] postcodeKeys;
+
+    private final Map<String, IdList> byFullName, bySurname;
+    private final Map<Integer, IdList> byPostcode;
+
+    /**
+     * Default constructor, which creates an empty registry
+     */
+    public PersonRegistry()
+    {
+        this(null);
+    }
+
+    /**
+     * Constructor which creates a registry of every person in a mapped file, without reading
+     * them
+     *
+     * @param f file people are read from; null for an empty registry
+     */
+    private PersonRegistry(MappedTreeFile f)
+    {
+        file = f;
+        size = f == null?0:f.size();
+        people = new Person[Math.max(16, size)];
+
+        ids = new IdentityHashMap<>();
+        byFullName = new HashMap<>();
+        bySurname = new HashMap<>();
+        byPostcode = new HashMap<>();
+
+        // An empty registry indexes people as they are registered
+        if(size == 0)
+        {
+            indexAll();
+        }
+    }
+
+    /**
+     * Register every person connected to a root person
+     *
+     * @param root root person of family tree
+     * @return registry with root person as id 0
+     * @throws IOException if a person cannot be read from a mapped file
+     */
+    public static PersonRegistry build(Person root) throws IOException
+    {
+        return build(root, null);
+    }
+
+    /**
+     * Register every person connected to a root person, reporting progress as people are
+     * registered.
+     * <p>A tree read from a mapped file is registered in the order of the file, without reading
+     * any person until the person is requested. Any other tree is registered in the order saved
+     * by FamilyTreeFile.
+     *
+     * @param root root person of family tree
+     * @param progress receives progress; null if not needed
+     * @return registry with root person as id 0
+     * @throws IOException if a person cannot be read from a mapped file, or the thread is interrupted
+     */
+    public static PersonRegistry build(Person root, FamilyTreeFile.Progress progress) throws IOException
+    {
+        if(root instanceof PagedPerson)
+        {
+            PersonRegistry registry = new PersonRegistry(((PagedPerson)root).getFile());
+            report(progress, registry.size(), registry.size());
+            return registry;
+        }
+
+        PersonRegistry registry = new PersonRegistry();
+        List<Person> all = PersonTraversal.collectAll(root);
+        for(Person p:all)
+        {
+            report(progress, registry.register(p) + 1, all.size());
+        }
+        return registry;
+    }
+
+    /**
+     * Register a person, if the person is not registered yet
+     *
+     * @param p person to register
+     * @return id of person
+     */
+    public int register(Person p)
+    {
+        int existing = getId(p);
+        if(existing >= 0)
+        {
+            return existing;
+        }
+
+        if(size == people.length)
+        {
+            int capacity = size * 2;
+            people = Arrays.copyOf(people, capacity);
+            if(fullNameKeys != null)
+            {
+                fullNameKeys = Arrays.copyOf(fullNameKeys, capacity);
+                surnameKeys = Arrays.copyOf(surnameKeys, capacity);
+                postcodeKeys = Arrays.copyOf(postcodeKeys, capacity);
+            }
+        }
+
+        int id = size++;
+        people[id] = p;
+        ids.put(p, id);
+        if(fullNameKeys != null)
+        {
+            index(id);
+        }
+        return id;
+    }
+
+    /**
+     * Update the indexes of a person whose personal information was edited
+     *
+     * @param p person edited
+     */
+    public void update(Person p)
+    {
+        int id = getId(p);
+        if(id < 0)
+        {
+            throw new IllegalArgumentException("Person is not registered: " + p.getFullName());
+        }
+        if(fullNameKeys == null)
+        {
+            return;
+        }
+
+        byFullName.get(fullNameKeys[id]).remove(id);
+        bySurname.get(surnameKeys[id]).remove(id);
+        byPostcode.get(postcodeKeys[id]).remove(id);
+        index(id);
+    }
+
+    /**
+     * Returns the id of a person
+     *
+     * @param p person
+     * @return id of person; -1 if person is not registered
+     */
+    public int getId(Person p)
+    {
+        // People of the mapped file keep their id in the file
+        if(file != null && p instanceof PagedPerson && ((PagedPerson)p).getFile() == file)
+        {
+            return ((PagedPerson)p).getId();
+        }
+
+        Integer id = ids.get(p);
+        return id == null?-1:id;
+    }
+
+    /**
+     * Returns the person with the given id, reading the person from the mapped file if needed
+     *
+     * @param id id of person
+     * @return person
+     * @throws UncheckedIOException if the person cannot be read from the mapped file
+     */
+    public Person get(int id)
+    {
+        if(id < 0 || id >= size)
+        {
+            throw new IndexOutOfBoundsException("No person with id " + id);
+        }
+
+        Person p = people[id];
+        if(p == null)
+        {
+            try
+            {
+                p = file.person(id);
+            }
+            catch(IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+            people[id] = p;
+        }
+        return p;
+    }
+
+    /**
+     * Returns number of people registered
+     *
+     * @return number of people
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns every person registered, in order of id
+     *
+     * @return unmodifiable list of people, which reflects people registered later
+     */
+    public List<Person> people()
+    {
+        return new AbstractList<Person>()
+        {
+            @Override
+            public Person get(int index)
+            {
+                return PersonRegistry.this.get(index);
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns every person with the given full name (surname followed by name)
+     *
+     * @param fullName full name to find
+     * @return people with the full name, in order of id
+     */
+    public List<Person> findByFullName(String fullName)
+    {
+        indexAll();
+        return find(byFullName.get(key(fullName)));
+    }
+
+    /**
+     * Returns every person with the given surname
+     *
+     * @param surname surname to find
+     * @return people with the surname, in order of id
+     */
+    public List<Person> findBySurname(String surname)
+    {
+        indexAll();
+        return find(bySurname.get(key(surname)));
+    }
+
+    /**
+     * Returns every person living in the given postcode
+     *
+     * @param postcode postcode to find
+     * @return people with the postcode, in order of id
+     */
+    public List<Person> findByPostcode(int postcode)
+    {
+        indexAll();
+        return find(byPostcode.get(postcode));
+    }
+
+    /**
+     * Index every person registered, if people are not indexed yet.
+     * <p>People registered afterwards are indexed as they are registered.
+     */
+    private void indexAll()
+    {
+        if(fullNameKeys == null)
+        {
+            fullNameKeys = new String[people.length];
+            surnameKeys = new String[people.length];
+            postcodeKeys = new int[people.length];
+            for(int id=0; id<size; id++)
+            {
+                index(id);
+            }
+        }
+    }
+
+    /**
+     * Add a person to the indexes, by the person's current personal information
+     *
+     * @param id id of person
+     */
+    private void index(int id)
+    {
+        Person p = get(id);
+
+        fullNameKeys[id] = key(p.getFullName());
+        surnameKeys[id] = key(p.getSurname());
+        postcodeKeys[id] = p.getPostcode();
+
+        add(byFullName, fullNameKeys[id], id);
+        add(bySurname, surnameKeys[id], id);
+        add(byPostcode, postcodeKeys[id], id);
+    }
+
+    /**
+     * Add an id to the list of ids of a key in an index
+     *
+     * @param <K> type of key
+     * @param index index to add to
+     * @param key key of index
+     * @param id id to add
+     */
+    private static <K> void add(Map<K, IdList> index, K key, int id)
+    {
+        IdList list = index.get(key);
+        if(list == null)
+        {
+            list = new IdList();
+            index.put(key, list);
+        }
+        list.add(id);
+    }
+
+    /**
+     * Returns the people with the ids in a list
+     *
+     * @param list list of ids; null if there are none
+     * @return people, in order of id
+     */
+    private List<Person> find(IdList list)
+    {
+        if(list == null)
+        {
+            return Collections.emptyList();
+        }
+
+        List<Person> found = new ArrayList<>(list.size);
+        for(int i=0; i<list.size; i++)
+        {
+            found.add(get(list.ids[i]));
+        }
+        return found;
+    }
+
+    /**
+     * Returns the key a name is indexed by
+     *
+     * @param name name
+     * @return name in lower case, without surrounding space
+     */
+    private static String key(String name)
+    {
+        return name == null?"":name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Report progress of building a registry or search index
+     *
+     * @param progress receives progress; null if not needed
+     * @param done number of people registered
+     * @param total total number of people
+     * @throws InterruptedIOException if the thread has been interrupted
+     */
+    static void report(FamilyTreeFile.Progress progress, long done, long total) throws InterruptedIOException
+    {
+        if(done % REPORT_INTERVAL == 0 || done == total)
+        {
+            if(Thread.currentThread().isInterrupted())
+            {
+                throw new InterruptedIOException("Cancelled");
+            }
+            if(progress != null)
+            {
+                progress.update(done, total, "people indexed");
+            }
+        }
+    }
+
+    /**
+     * List of ids in increasing order, stored without boxing
+     */
+    private static final class IdList
+    {
+        private int[] ids = new int[2];
+        private int size;
+
+        /**
+         * Add an id, which is larger than every id in the list unless a person was edited
+         *
+         * @param id id to add
+         */
+        void add(int id)
+        {
+            if(size == ids.length)
+            {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+
+            // Keep ids in order, so that people are found in order of id
+            int i = size;
+            while(i > 0 && ids[i - 1] > id)
+            {
+                ids[i] = ids[i - 1];
+                i--;
+            }
+            ids[i] = id;
+            size++;
+        }
+
+        /**
+         * Remove an id
+         *
+         * @param id id to remove
+         */
+        void remove(int id)
+        {
+            for(int i=0; i<size; i++)
+            {
+                if(ids[i] == id)
+                {
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+    }
+}
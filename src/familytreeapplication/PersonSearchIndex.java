@@ -0,0 +1,570 @@
+/*
+ * Title: PersonSearchIndex class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PersonSearchIndex.java
+ * Purpose: The purpose of this class is to find people in a family tree by any word of their
+ *          name, address or life description, without going through every person.
+ * Assumptions/Conditions: - People are identified by their id in a PersonRegistry.
+                           - Words are split at every character that is not a letter or digit,
+                             and are found without regard to case.
+                           - A search word of at least 2 characters also finds the words it is
+                             the start of. A single character only finds words of 1 character,
+                             as it would otherwise find most of the tree.
+                           - Every word of a search must be found for a person to be found.
+                           - A person whose personal information is edited must be removed before
+                             the edit and added again after it.
+                           - Ids are stored in an int with the field the word was found in, so at
+                             most 2^29 people can be indexed.
+ */
+package familytreeapplication;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Inverted index from words to the people whose name, address or life description contain them.
+ * <p>Every distinct word has a sorted list of postings, and the distinct words are kept in a
+ * sorted array so that the words starting with a search word are next to each other.
+ * <p>Results are ranked by where each word was found (name before address before life
+ * description), with a whole word ranked above the start of a word, and then by id.
+ *
+ * @author Zhiguang
+ */
+public final class PersonSearchIndex
+{
+    /**
+     * Default number of people returned by a search
+     */
+    public static final int DEFAULT_LIMIT = Integer.getInteger("familytree.searchLimit", 50);
+
+    // Fields a word can be found in, stored in the lowest 2 bits of a posting
+    private static final int NAME = 0, ADDRESS = 1, DESCRIPTION = 2;
+    private static final int[] WEIGHTS = {8, 4, 1};
+
+    // Shortest search word that also finds the words it is the start of
+    private static final int MIN_PREFIX = 2;
+
+    private final PersonRegistry registry;
+    private final Map<String, Postings> postings;
+
+    // Every distinct word, sorted when a search needs it
+    private String[] words;
+    private int wordCount;
+    private boolean sorted;
+
+    // Reused by every search, indexed by id
+    private int[] matched, scores, best;
+
+    /**
+     * Constructor which creates an empty index of the people in a registry
+     *
+     * @param r registry of family tree
+     */
+    public PersonSearchIndex(PersonRegistry r)
+    {
+        registry = r;
+        postings = new HashMap<>();
+        words = new String[64];
+        sorted = true;
+    }
+
+    /**
+     * Index every person in a registry
+     *
+     * @param registry registry of family tree
+     * @return index of every person
+     * @throws IOException if the thread is interrupted
+     */
+    public static PersonSearchIndex build(PersonRegistry registry) throws IOException
+    {
+        return build(registry, null);
+    }
+
+    /**
+     * Index every person in a registry, reporting progress as people are indexed
+     *
+     * @param registry registry of family tree
+     * @param progress receives progress; null if not needed
+     * @return index of every person
+     * @throws IOException if the thread is interrupted
+     */
+    public static PersonSearchIndex build(PersonRegistry registry, FamilyTreeFile.Progress progress) throws IOException
+    {
+        PersonSearchIndex index = new PersonSearchIndex(registry);
+
+        for(int id=0; id<registry.size(); id++)
+        {
+            index.add(id, registry.get(id));
+            PersonRegistry.report(progress, id + 1, registry.size());
+        }
+
+        // Sorting now keeps the first search fast, as later words are added one at a time
+        index.sort();
+        index.prepare();
+        return index;
+    }
+
+    /**
+     * Add a person to the index, by the person's current personal information
+     *
+     * @param p registered person
+     */
+    public void add(Person p)
+    {
+        add(id(p), p);
+    }
+
+    /**
+     * Remove a person from the index, by the person's current personal information.
+     * <p>Must be called before the personal information of the person is edited.
+     *
+     * @param p registered person
+     */
+    public void remove(Person p)
+    {
+        int id = id(p);
+
+        for(String word:words(p.getFullName()))
+        {
+            removePosting(word, id);
+        }
+        for(String word:words(p.getStreetName() + " " + p.getSuburb()))
+        {
+            removePosting(word, id);
+        }
+        for(String word:words(p.getLifeDesc()))
+        {
+            removePosting(word, id);
+        }
+    }
+
+    /**
+     * Returns the people matching a search, best match first
+     *
+     * @param query words to find
+     * @return at most DEFAULT_LIMIT people
+     */
+    public List<Person> search(String query)
+    {
+        return search(query, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Returns the people matching a search, best match first
+     *
+     * @param query words to find
+     * @param limit maximum number of people to return
+     * @return people matching every word of the search
+     */
+    public List<Person> search(String query, int limit)
+    {
+        List<String> terms = words(query);
+        if(terms.isEmpty() || limit <= 0)
+        {
+            return Collections.emptyList();
+        }
+
+        sort();
+        prepare();
+
+        // Range of words found by each search word, searching the rarest first
+        int[][] ranges = new int[terms.size()][];
+        for(int t=0; t<terms.size(); t++)
+        {
+            ranges[t] = range(terms.get(t));
+            if(ranges[t][2] == 0)
+            {
+                return Collections.emptyList();
+            }
+        }
+        Arrays.sort(ranges, (a, b) -> Integer.compare(a[2], b[2]));
+
+        // Ids found by the rarest word, the only ones that can match every word
+        int[] found = new int[16];
+        int foundCount = 0;
+
+        for(int t=0; t<ranges.length; t++)
+        {
+            for(int w=ranges[t][0]; w<ranges[t][1]; w++)
+            {
+                Postings list = postings.get(words[w]);
+                boolean whole = words[w].length() == ranges[t][3];
+
+                for(int i=0; i<list.size; i++)
+                {
+                    int id = list.values[i] >>> 2;
+                    int score = WEIGHTS[list.values[i] & 3] * (whole?2:1);
+
+                    if(matched[id] == t)
+                    {
+                        // First word found for this search word
+                        if(t == 0)
+                        {
+                            if(foundCount == found.length)
+                            {
+                                found = Arrays.copyOf(found, foundCount * 2);
+                            }
+                            found[foundCount++] = id;
+                        }
+                        matched[id] = t + 1;
+                        scores[id] += score;
+                        best[id] = score;
+                    }
+                    else if(matched[id] == t + 1 && score > best[id])
+                    {
+                        // Keep the best match of each search word
+                        scores[id] += score - best[id];
+                        best[id] = score;
+                    }
+                }
+            }
+        }
+
+        List<Person> results = rank(found, foundCount, ranges.length, limit);
+
+        for(int i=0; i<foundCount; i++)
+        {
+            matched[found[i]] = 0;
+            scores[found[i]] = 0;
+        }
+        return results;
+    }
+
+    /**
+     * Add a person with the given id to the index
+     *
+     * @param id id of person
+     * @param p person
+     */
+    private void add(int id, Person p)
+    {
+        for(String word:words(p.getFullName()))
+        {
+            addPosting(word, id, NAME);
+        }
+        for(String word:words(p.getStreetName() + " " + p.getSuburb()))
+        {
+            addPosting(word, id, ADDRESS);
+        }
+        for(String word:words(p.getLifeDesc()))
+        {
+            addPosting(word, id, DESCRIPTION);
+        }
+    }
+
+    /**
+     * Add a posting to the postings of a word, adding the word if it is new
+     *
+     * @param word word found
+     * @param id id of person
+     * @param field field the word was found in
+     */
+    private void addPosting(String word, int id, int field)
+    {
+        Postings list = postings.get(word);
+        if(list == null)
+        {
+            list = new Postings();
+            postings.put(word, list);
+
+            if(wordCount == words.length)
+            {
+                words = Arrays.copyOf(words, wordCount * 2);
+            }
+            words[wordCount++] = word;
+            sorted = false;
+        }
+        list.add(id << 2 | field);
+    }
+
+    /**
+     * Remove every posting of a person from the postings of a word.
+     * <p>The word is kept even if no one is left, as it may be added again.
+     *
+     * @param word word found
+     * @param id id of person
+     */
+    private void removePosting(String word, int id)
+    {
+        Postings list = postings.get(word);
+        if(list != null)
+        {
+            list.removeId(id);
+        }
+    }
+
+    /**
+     * Returns the range of sorted words found by a search word
+     *
+     * @param term search word
+     * @return first word, end of range, number of postings and length of search word
+     */
+    private int[] range(String term)
+    {
+        int start = lowerBound(term);
+        int end = start;
+
+        if(term.length() < MIN_PREFIX)
+        {
+            end = start < wordCount && words[start].equals(term)?start + 1:start;
+        }
+        else
+        {
+            while(end < wordCount && words[end].startsWith(term))
+            {
+                end++;
+            }
+        }
+
+        int count = 0;
+        for(int w=start; w<end; w++)
+        {
+            count += postings.get(words[w]).size;
+        }
+        return new int[]{start, end, count, term.length()};
+    }
+
+    /**
+     * Returns the index of the first sorted word that is not less than a search word
+     *
+     * @param term search word
+     * @return index of word; wordCount if every word is less
+     */
+    private int lowerBound(String term)
+    {
+        int low = 0, high = wordCount;
+        while(low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if(words[mid].compareTo(term) < 0)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the people found by every search word with the highest scores
+     *
+     * @param found ids found by the first search word
+     * @param foundCount number of ids found
+     * @param terms number of search words
+     * @param limit maximum number of people to return
+     * @return people, highest score first, then lowest id first
+     */
+    private List<Person> rank(int[] found, int foundCount, int terms, int limit)
+    {
+        // Min heap of the best results so far, each stored as score and id in a long
+        long[] heap = new long[Math.min(limit, foundCount)];
+        int size = 0;
+
+        for(int i=0; i<foundCount; i++)
+        {
+            int id = found[i];
+            if(matched[id] != terms)
+            {
+                continue;
+            }
+
+            // Lower ids rank higher, so they are stored as larger values
+            long key = (long)scores[id] << 32 | (Integer.MAX_VALUE - id);
+            if(size < heap.length)
+            {
+                heap[size] = key;
+                siftUp(heap, size++);
+            }
+            else if(key > heap[0])
+            {
+                heap[0] = key;
+                siftDown(heap, size);
+            }
+        }
+
+        Arrays.sort(heap, 0, size);
+        List<Person> results = new ArrayList<>(size);
+        for(int i=size - 1; i>=0; i--)
+        {
+            results.add(registry.get(Integer.MAX_VALUE - (int)heap[i]));
+        }
+        return results;
+    }
+
+    /**
+     * Move the last value of a min heap up to its place
+     *
+     * @param heap heap
+     * @param i index of value
+     */
+    private static void siftUp(long[] heap, int i)
+    {
+        while(i > 0 && heap[(i - 1) / 2] > heap[i])
+        {
+            long parent = heap[(i - 1) / 2];
+            heap[(i - 1) / 2] = heap[i];
+            heap[i] = parent;
+            i = (i - 1) / 2;
+        }
+    }
+
+    /**
+     * Move the first value of a min heap down to its place
+     *
+     * @param heap heap
+     * @param size number of values in heap
+     */
+    private static void siftDown(long[] heap, int size)
+    {
+        int i = 0;
+        while(2 * i + 1 < size)
+        {
+            int child = 2 * i + 1;
+            if(child + 1 < size && heap[child + 1] < heap[child])
+            {
+                child++;
+            }
+            if(heap[i] <= heap[child])
+            {
+                return;
+            }
+
+            long value = heap[i];
+            heap[i] = heap[child];
+            heap[child] = value;
+            i = child;
+        }
+    }
+
+    /**
+     * Sort the words, if words were added since they were last sorted
+     */
+    private void sort()
+    {
+        if(!sorted)
+        {
+            Arrays.sort(words, 0, wordCount);
+            sorted = true;
+        }
+    }
+
+    /**
+     * Make sure the arrays used by a search can hold every registered id
+     */
+    private void prepare()
+    {
+        if(matched == null || matched.length < registry.size())
+        {
+            int capacity = Math.max(registry.size(), 16);
+            matched = matched == null?new int[capacity]:Arrays.copyOf(matched, capacity);
+            scores = scores == null?new int[capacity]:Arrays.copyOf(scores, capacity);
+            best = new int[capacity];
+        }
+    }
+
+    /**
+     * Returns the id of a registered person
+     *
+     * @param p person
+     * @return id of person
+     */
+    private int id(Person p)
+    {
+        int id = registry.getId(p);
+        if(id < 0)
+        {
+            throw new IllegalArgumentException("Person is not registered: " + p.getFullName());
+        }
+        return id;
+    }
+
+    /**
+     * Split text into words in lower case
+     *
+     * @param text text to split; null if none
+     * @return words, in the order they appear
+     */
+    static List<String> words(String text)
+    {
+        List<String> words = new ArrayList<>();
+        if(text == null)
+        {
+            return words;
+        }
+
+        int start = -1;
+        for(int i=0; i<=text.length(); i++)
+        {
+            boolean letter = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if(letter && start < 0)
+            {
+                start = i;
+            }
+            else if(!letter && start >= 0)
+            {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Sorted list of postings of a word, each the id of a person and the field the word was
+     * found in, stored without boxing
+     */
+    private static final class Postings
+    {
+        private int[] values = new int[2];
+        private int size;
+
+        /**
+         * Add a posting, which is larger than every posting in the list unless a person was edited
+         *
+         * @param value posting to add
+         */
+        void add(int value)
+        {
+            // A word found twice in the same field of a person is only stored once
+            int i = size;
+            while(i > 0 && values[i - 1] > value)
+            {
+                i--;
+            }
+            if(i > 0 && values[i - 1] == value)
+            {
+                return;
+            }
+
+            if(size == values.length)
+            {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = value;
+            size++;
+        }
+
+        /**
+         * Remove every posting of a person
+         *
+         * @param id id of person
+         */
+        void removeId(int id)
+        {
+            int kept = 0;
+            for(int i=0; i<size; i++)
+            {
+                if(values[i] >>> 2 != id)
+                {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+        }
+    }
+}
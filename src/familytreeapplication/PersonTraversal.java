@@ -0,0 +1,174 @@
+/*
+ * Title: PersonTraversal class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PersonTraversal.java
+ * Purpose: The purpose of this class is to visit the people of a family tree without
+ *          recursion, so that very deep family trees do not run out of stack space.
+ * Assumptions/Conditions: - Every traversal keeps its own stack or queue on the heap.
+                           - Every person is visited at most once, even if the person can be
+                             reached from more than one relative (eg. a child of a couple).
+ */
+package familytreeapplication;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Visits the people of a family tree using an explicit stack or queue instead of recursion.
+ * <p>Traversals available:
+ * <ul>
+ * <li>pre-order over descendants </li>
+ * <li>level-order (generation by generation) over descendants </li>
+ * <li>ancestor walk over parents </li>
+ * <li>every person connected by any relationship </li>
+ * </ul>
+ *
+ * @author Zhiguang
+ */
+public final class PersonTraversal
+{
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private PersonTraversal()
+    {}
+
+    /**
+     * Visit a person and every descendant of the person in pre-order.
+     * <p>Children are visited in the order of the person's list of children.
+     *
+     * @param root person to start from
+     * @param visitor action to run on every person
+     */
+    public static void preOrder(Person root, Consumer<Person> visitor)
+    {
+        Set<Person> visited = newVisitedSet();
+        Deque<Person> stack = new ArrayDeque<>();
+        stack.push(root);
+
+        while(!stack.isEmpty())
+        {
+            Person p = stack.pop();
+
+            if(visited.add(p))
+            {
+                visitor.accept(p);
+
+                // Push in reverse so that the first child is visited first
+                List<Person> children = p.getChildList();
+                for(int i=children.size()-1; i>=0; i--)
+                {
+                    stack.push(children.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit a person and every descendant of the person one generation at a time
+     *
+     * @param root person to start from
+     * @param visitor action to run on every person
+     */
+    public static void levelOrder(Person root, Consumer<Person> visitor)
+    {
+        Set<Person> visited = newVisitedSet();
+        Deque<Person> queue = new ArrayDeque<>();
+        visited.add(root);
+        queue.add(root);
+
+        while(!queue.isEmpty())
+        {
+            Person p = queue.poll();
+            visitor.accept(p);
+
+            for(Person child:p.getChildList())
+            {
+                if(visited.add(child))
+                {
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit every ancestor of a person, nearest generation first.
+     * <p>The person itself is not visited.
+     *
+     * @param p person to find ancestors of
+     * @param visitor action to run on every ancestor
+     */
+    public static void ancestors(Person p, Consumer<Person> visitor)
+    {
+        Set<Person> visited = newVisitedSet();
+        Deque<Person> queue = new ArrayDeque<>();
+        queue.add(p);
+
+        while(!queue.isEmpty())
+        {
+            for(Person parent:queue.poll().getParentList())
+            {
+                if(visited.add(parent))
+                {
+                    visitor.accept(parent);
+                    queue.add(parent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns every person connected to a person by any relationship.
+     * <p>People are returned in pre-order, starting with the person passed in, and
+     * following parents, spouse and children.
+     *
+     * @param start person to start from
+     * @return list of every connected person
+     */
+    public static List<Person> collectAll(Person start)
+    {
+        List<Person> people = new ArrayList<>();
+        Set<Person> visited = newVisitedSet();
+        Deque<Person> stack = new ArrayDeque<>();
+        stack.push(start);
+
+        while(!stack.isEmpty())
+        {
+            Person p = stack.pop();
+
+            if(visited.add(p))
+            {
+                people.add(p);
+
+                // Pushed in reverse of the order they are visited in
+                List<Person> children = p.getChildList();
+                for(int i=children.size()-1; i>=0; i--)
+                {
+                    stack.push(children.get(i));
+                }
+                if(!p.noSpouse())
+                {
+                    stack.push(p.getSpouse());
+                }
+                List<Person> parents = p.getParentList();
+                for(int i=parents.size()-1; i>=0; i--)
+                {
+                    stack.push(parents.get(i));
+                }
+            }
+        }
+        return people;
+    }
+
+    /**
+     * Returns an empty set which compares people by reference
+     *
+     * @return empty set of people
+     */
+    private static Set<Person> newVisitedSet()
+    {
+        return Collections.newSetFromMap(new IdentityHashMap<Person, Boolean>());
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Title: PersonTreeCell class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PersonTreeCell.java
+ * Purpose: The purpose of this class is to show a person on the family tree in the colour of
+ *          the person's generation, with marks for the gender and type of the person, without
+ *          creating anything new while the tree is scrolled.
+ * Assumptions/Conditions: - Headings are shown in black, without marks.
+                           - Colours repeat every 8 generations.
+                           - A person not indexed by the AncestryIndex yet is shown in black, as
+                             is every person until the AncestryIndex of the tree is built.
+                           - Gender is shown as a blue or pink dot, and type as a symbol after it.
+                           - The marks of a cell are created once with the cell, and only their
+                             colour and symbol are changed when the cell shows another person.
+                           - Labels are kept by the PersonTreeItem of the person, so the full name
+                             of a person is not built every time the person is shown.
+                           - The time taken to show every person or heading is recorded by
+                             FamilyTreeMetrics.
+ */
+package familytreeapplication;
+
+import javafx.scene.control.TreeCell;
+import javafx.scene.control.TreeItem;
+import javafx.scene.layout.HBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Circle;
+import javafx.scene.text.Text;
+
+/**
+ * TreeCell which shows the full name of a person in the colour of the person's generation,
+ * after marks for the gender and type of the person.
+ * <p>A TreeView only creates enough cells to fill its height, and gives them another person
+ * to show as it is scrolled, so a cell reuses its marks and the label kept by the TreeItem.
+ *
+ * @author Zhiguang
+ */
+public class PersonTreeCell extends TreeCell<Person>
+{
+    // Colour of each generation, spread evenly around the colour wheel
+    private static final Color[] GENERATION_COLOURS = new Color[8];
+    static
+    {
+        for(int i=0; i<GENERATION_COLOURS.length; i++)
+        {
+            GENERATION_COLOURS[i] = Color.hsb(i * 360.0 / GENERATION_COLOURS.length, 0.8, 0.6);
+        }
+    }
+
+    // Symbol of each type of person, in order of RelationType: diamond for the root person,
+    // up for parents, dot for spouses and down for children
+    private static final String[] TYPE_SYMBOLS = {"\u25C6", "\u25B2", "\u25B2", "\u25CF", "\u25BC"};
+
+    private final FamilyTreeModel model;
+
+    // Marks shown before the label, created once for the cell
+    private final Circle genderMark;
+    private final Text typeMark;
+    private final HBox marks;
+
+    /**
+     * Constructor which sets the family tree whose ancestry index the generations of people
+     * are found in
+     *
+     * @param m model of family tree
+     */
+    public PersonTreeCell(FamilyTreeModel m)
+    {
+        model = m;
+        genderMark = new Circle(4);
+        typeMark = new Text();
+        typeMark.setFill(Color.DIMGRAY);
+        marks = new HBox(3, genderMark, typeMark);
+    }
+
+    /**
+     * Returns the colour of a generation
+     *
+     * @param generation generations below the root person
+     * @return colour of generation
+     */
+    public static Color generationColour(int generation)
+    {
+        return GENERATION_COLOURS[Math.floorMod(generation, GENERATION_COLOURS.length)];
+    }
+
+    /**
+     * Show a person or heading in the cell
+     *
+     * @param item person or heading; null if cell is empty
+     * @param empty true if cell is empty
+     */
+    @Override
+    protected void updateItem(Person item, boolean empty)
+    {
+        long start = System.nanoTime();
+        super.updateItem(item, empty);
+        show(item, empty);
+        FamilyTreeMetrics.record(FamilyTreeMetrics.Operation.RENDER_CELL, start);
+    }
+
+    /**
+     * Show the label and marks of a person or heading
+     *
+     * @param item person or heading; null if cell is empty
+     * @param empty true if cell is empty
+     */
+    private void show(Person item, boolean empty)
+    {
+        if(empty || item == null)
+        {
+            setText(null);
+            setGraphic(null);
+            return;
+        }
+
+        // Label is kept by the TreeItem, and only built if the name has changed
+        TreeItem<Person> treeItem = getTreeItem();
+        setText(treeItem instanceof PersonTreeItem?((PersonTreeItem)treeItem).getLabel():item.toString());
+
+        if(item instanceof TreeHeading)
+        {
+            setTextFill(Color.BLACK);
+            setGraphic(null);
+            return;
+        }
+
+        AncestryIndex ancestry = model.getBuiltAncestry();
+        setTextFill(ancestry == null || !ancestry.contains(item)?Color.BLACK:generationColour(ancestry.getGeneration(item)));
+
+        // Marks are changed in place rather than created for every person shown
+        genderMark.setFill(item.getGender() == Gender.FEMALE?Color.PALEVIOLETRED:Color.STEELBLUE);
+        typeMark.setText(item.getType() == null?"":TYPE_SYMBOLS[item.getType().ordinal()]);
+        if(getGraphic() != marks)
+        {
+            setGraphic(marks);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Title: PersonTreeItem class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: PersonTreeItem.java
+ * Purpose: The purpose of this class is to show a person or a heading on the family tree,
+ *          creating the TreeItems under it only when they are first needed.
+ * Assumptions/Conditions: - TreeItems under a TreeItem are only created when the TreeItem
+                             is expanded, or when its children are requested.
+                           - Leaf TreeItems (parents of root person and spouses) never have
+                             TreeItems under them.
+                           - The label of a TreeItem is kept, so it is not built every time the
+                             TreeItem is shown while scrolling.
+ */
+package familytreeapplication;
+
+import java.util.Collections;
+import java.util.List;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+/**
+ * TreeItem of a person or heading on the family tree which creates its children lazily.
+ * <p>The children are created by the FamilyTreeBinding the TreeItem belongs to, from the
+ * relatives of the person, when the TreeItem is first expanded.
+ *
+ * @author Zhiguang
+ */
+public class PersonTreeItem extends TreeItem<Person>
+{
+    /**
+     * Kind of TreeItem shown on the family tree
+     */
+    public enum Kind
+    {
+        /** Root person, shows parents, spouse and children */
+        ROOT,
+        /** Descendant of root person, shows spouse and children */
+        BRANCH,
+        /** Parent of root person or spouse, does not show relatives */
+        LEAF,
+        /** Parents, spouse or children heading */
+        HEADING
+    }
+
+    private final FamilyTreeBinding binding;
+    private final Kind kind;
+    private final PersonLabel label;
+    private boolean loaded;
+
+    /**
+     * Constructor which sets the person shown and the kind of TreeItem
+     *
+     * @param b binding that creates the children of this TreeItem
+     * @param p person or heading shown
+     * @param k kind of TreeItem
+     */
+    public PersonTreeItem(FamilyTreeBinding b, Person p, Kind k)
+    {
+        super(p);
+        binding = b;
+        kind = k;
+        label = new PersonLabel();
+        loaded = k == Kind.LEAF;
+    }
+
+    /**
+     * Returns the label shown for this TreeItem, which is only built again when the name of
+     * its person changes
+     *
+     * @return full name of person, or heading
+     */
+    public String getLabel()
+    {
+        return label.get(getValue());
+    }
+
+    /**
+     * Returns kind of TreeItem
+     *
+     * @return kind
+     */
+    public Kind getKind()
+    {
+        return kind;
+    }
+
+    /**
+     * Returns true if the children of this TreeItem have been created
+     *
+     * @return true if children are created; false otherwise
+     */
+    public boolean isLoaded()
+    {
+        return loaded;
+    }
+
+    /**
+     * Returns the children of this TreeItem that have been created, without creating any
+     *
+     * @return children if they are created; empty list otherwise
+     */
+    public List<TreeItem<Person>> getLoadedChildren()
+    {
+        return loaded?super.getChildren():Collections.<TreeItem<Person>>emptyList();
+    }
+
+    /**
+     * Returns the children of this TreeItem, creating them on first call
+     *
+     * @return children of TreeItem
+     */
+    @Override
+    public ObservableList<TreeItem<Person>> getChildren()
+    {
+        if(!loaded)
+        {
+            // Set before loading, as loading adds to the list returned by this method
+            loaded = true;
+            binding.load(this);
+        }
+        return super.getChildren();
+    }
+
+    /**
+     * Returns true if this TreeItem has no children, without creating them
+     *
+     * @return true if TreeItem has no children; false otherwise
+     */
+    @Override
+    public boolean isLeaf()
+    {
+        if(loaded)
+        {
+            return super.getChildren().isEmpty();
+        }
+        return !binding.hasChildren(this);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Title: RelationType enum
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: RelationType.java
+ * Purpose: The purpose of this enum is to store the type of a person in a family tree, which
+ *          is the relation of the person to the root person or to the person it was added to.
+ * Assumptions/Conditions: - There is only one root person in a tree.
+                           - Father and mother are the parents of the root person.
+                           - Type is saved into files as its label, so files saved when type was
+                             a string can still be loaded.
+ */
+package familytreeapplication;
+
+/**
+ * Type of a person in a family tree.
+ *
+ * @author Zhiguang
+ */
+public enum RelationType
+{
+    ROOT("root"),
+    FATHER("Father"),
+    MOTHER("Mother"),
+    SPOUSE("Spouse"),
+    CHILD("Child");
+
+    private final String label;
+
+    /**
+     * Constructor which sets the label shown for the type
+     *
+     * @param l label
+     */
+    RelationType(String l)
+    {
+        label = l;
+    }
+
+    /**
+     * Returns true if the type is father or mother
+     *
+     * @return true if parent of root person; false otherwise
+     */
+    public boolean isParent()
+    {
+        return this == FATHER || this == MOTHER;
+    }
+
+    /**
+     * Returns the type of parent of the given gender
+     *
+     * @param g gender of parent
+     * @return father or mother
+     */
+    public static RelationType parentOf(Gender g)
+    {
+        return g == Gender.MALE?FATHER:MOTHER;
+    }
+
+    /**
+     * Returns the type with the given label, ignoring case
+     *
+     * @param s label, eg. Father
+     * @return type; null if s is null
+     * @throws IllegalArgumentException if s is not the label of a type
+     */
+    public static RelationType parse(String s)
+    {
+        if(s == null)
+        {
+            return null;
+        }
+        for(RelationType t:values())
+        {
+            if(t.label.equalsIgnoreCase(s))
+            {
+                return t;
+            }
+        }
+        throw new IllegalArgumentException("Unknown type: " + s);
+    }
+
+    /**
+     * Returns label of type, as shown to the user and saved into files
+     *
+     * @return label
+     */
+    @Override
+    public String toString()
+    {
+        return label;
+    }
+}
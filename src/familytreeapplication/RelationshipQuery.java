@@ -0,0 +1,694 @@
+/*
+ * Title: RelationshipQuery class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: RelationshipQuery.java
+ * Purpose: The purpose of this class is to answer questions about how people in a family tree
+ *          are related, such as the ancestors or cousins of a person, the common ancestor of
+ *          two people and the shortest chain of relatives between them.
+ * Assumptions/Conditions: - Every person asked about is registered in the PersonRegistry.
+                           - People are related by blood through parents and children. Spouses are
+                             only used to find the shortest chain of relatives.
+                           - A generation is one step from a person to a parent or child.
+                           - People are visited at most once per query, which is recorded in a
+                             BitSet indexed by id, so a query takes time in proportion to the number
+                             of people it visits.
+                           - When an AncestryIndex is given, a person who is an ancestor of the
+                             other is found without walking, and the generations between them are
+                             the difference of their generations.
+ */
+package familytreeapplication;
+
+import java.util.*;
+
+/**
+ * Queries over the relatives of people in a family tree.
+ * <p>Walks are breadth first, one generation at a time, so people are found in order of how
+ * closely they are related. The shortest chain between two people is found by walking from
+ * both people at once until the walks meet.
+ *
+ * @author Zhiguang
+ */
+public final class RelationshipQuery
+{
+    private final PersonRegistry registry;
+    private final AncestryIndex ancestry;
+
+    // Person each person was reached from in the last shortest chain, indexed by id
+    private int[] fromA, fromB;
+
+    /**
+     * Constructor which sets the registry of the family tree to query
+     *
+     * @param r registry of family tree
+     */
+    public RelationshipQuery(PersonRegistry r)
+    {
+        this(r, null);
+    }
+
+    /**
+     * Constructor which sets the registry of the family tree to query, and the ancestry
+     * index of the same tree
+     *
+     * @param r registry of family tree
+     * @param a ancestry index of family tree; null to walk the tree instead
+     */
+    public RelationshipQuery(PersonRegistry r, AncestryIndex a)
+    {
+        registry = r;
+        ancestry = a;
+    }
+
+    /**
+     * Returns whether a person is an ancestor of another
+     *
+     * @param a person
+     * @param b other person
+     * @return true if a is a parent, grandparent or older ancestor of b; false otherwise
+     */
+    public boolean isAncestor(Person a, Person b)
+    {
+        if(ancestry != null)
+        {
+            return ancestry.isAncestor(a, b);
+        }
+
+        BitSet ancestors = new BitSet();
+        for(Person p:walk(b, Integer.MAX_VALUE, true))
+        {
+            ancestors.set(id(p));
+        }
+        return ancestors.get(id(a));
+    }
+
+    /**
+     * Returns the ancestors of a person up to a number of generations
+     *
+     * @param p person
+     * @param depth number of generations to go up; 1 for parents only
+     * @return ancestors, nearest generation first
+     */
+    public List<Person> ancestors(Person p, int depth)
+    {
+        return walk(p, depth, true);
+    }
+
+    /**
+     * Returns every descendant of a person
+     *
+     * @param p person
+     * @return descendants, nearest generation first
+     */
+    public List<Person> descendants(Person p)
+    {
+        return walk(p, Integer.MAX_VALUE, false);
+    }
+
+    /**
+     * Returns the descendants of a person down to a number of generations
+     *
+     * @param p person
+     * @param depth number of generations to go down; 1 for children only
+     * @return descendants, nearest generation first
+     */
+    public List<Person> descendants(Person p, int depth)
+    {
+        return walk(p, depth, false);
+    }
+
+    /**
+     * Returns the people exactly a number of generations above or below a person
+     *
+     * @param p person
+     * @param generations generations below the person, or above the person if negative
+     * @return people of the generation, eg. grandchildren for 2 and grandparents for -2
+     */
+    public List<Person> generation(Person p, int generations)
+    {
+        return level(Collections.singletonList(p), Math.abs(generations), generations < 0, new BitSet());
+    }
+
+    /**
+     * Returns the nth cousins of a person, a number of times removed.
+     * <p>Cousins removed are found in both older and younger generations. Degree 0 gives
+     * siblings, and when removed, nieces, nephews, aunts and uncles.
+     *
+     * @param p person
+     * @param degree degree of cousin, eg. 1 for first cousins
+     * @param removed number of generations between the person and the cousins
+     * @return cousins
+     */
+    public List<Person> cousins(Person p, int degree, int removed)
+    {
+        if(degree < 0 || removed < 0)
+        {
+            throw new IllegalArgumentException("Degree and times removed cannot be negative");
+        }
+
+        BitSet found = new BitSet();
+        List<Person> cousins = new ArrayList<>();
+
+        // Cousins in younger generations share an ancestor degree + 1 generations above the person
+        addCousins(p, degree + 1, degree + 1 + removed, found, cousins);
+        if(removed > 0)
+        {
+            // Cousins in older generations share an ancestor further above the person
+            addCousins(p, degree + 1 + removed, degree + 1, found, cousins);
+        }
+        return cousins;
+    }
+
+    /**
+     * Returns the nearest common ancestors of two people.
+     * <p>Nearest means the fewest generations from both people together, so both parents of
+     * siblings are returned.
+     *
+     * @param a person
+     * @param b other person
+     * @return nearest common ancestors; empty if not related by blood. A person who is an ancestor
+     *         of the other is their own nearest common ancestor
+     */
+    public List<Person> commonAncestors(Person a, Person b)
+    {
+        List<Person> common = new ArrayList<>();
+        for(Kinship k:nearest(a, b))
+        {
+            common.add(k.getAncestor());
+        }
+        return common;
+    }
+
+    /**
+     * Returns how one person is related to another by blood
+     *
+     * @param a person
+     * @param b relative of person
+     * @return kinship of b to a; null if not related by blood
+     */
+    public Kinship kinship(Person a, Person b)
+    {
+        List<Kinship> nearest = nearest(a, b);
+        return nearest.isEmpty()?null:nearest.get(0);
+    }
+
+    /**
+     * Returns the shortest chain of parents, children and spouses from one person to another
+     *
+     * @param a first person
+     * @param b last person
+     * @return people from a to b; empty if there is no chain
+     */
+    public List<Person> path(Person a, Person b)
+    {
+        int idA = id(a), idB = id(b);
+        if(idA == idB)
+        {
+            return Collections.singletonList(a);
+        }
+
+        if(fromA == null || fromA.length < registry.size())
+        {
+            fromA = new int[registry.size()];
+            fromB = new int[registry.size()];
+        }
+
+        BitSet seenA = new BitSet(), seenB = new BitSet();
+        ArrayDeque<Integer> frontA = new ArrayDeque<>(), frontB = new ArrayDeque<>();
+        seenA.set(idA);
+        seenB.set(idB);
+        fromA[idA] = -1;
+        fromB[idB] = -1;
+        frontA.add(idA);
+        frontB.add(idB);
+
+        while(!frontA.isEmpty() && !frontB.isEmpty())
+        {
+            // Expanding the smaller side keeps the number of people visited low
+            int meet = frontA.size() <= frontB.size()?expand(frontA, seenA, fromA, seenB):expand(frontB, seenB, fromB, seenA);
+            if(meet >= 0)
+            {
+                LinkedList<Person> path = new LinkedList<>();
+                for(int id=meet; id>=0; id=fromA[id])
+                {
+                    path.addFirst(registry.get(id));
+                }
+                for(int id=fromB[meet]; id>=0; id=fromB[id])
+                {
+                    path.addLast(registry.get(id));
+                }
+                return new ArrayList<>(path);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns what one person is to another next to them in a chain of relatives
+     *
+     * @param from person
+     * @param to parent, child or spouse of person
+     * @return eg. father, daughter or wife; relative if not a parent, child or spouse
+     */
+    public static String relation(Person from, Person to)
+    {
+        boolean male = to.getGender() == Gender.MALE;
+
+        if(from.getParentList().contains(to))
+        {
+            return male?"father":"mother";
+        }
+        else if(from.getChildList().contains(to))
+        {
+            return male?"son":"daughter";
+        }
+        else if(from.getSpouse() == to)
+        {
+            return male?"husband":"wife";
+        }
+        return "relative";
+    }
+
+    /**
+     * Walk up or down from a person for a number of generations
+     *
+     * @param p person
+     * @param depth number of generations
+     * @param up true to walk to parents; false to walk to children
+     * @return people found, nearest generation first
+     */
+    private List<Person> walk(Person p, int depth, boolean up)
+    {
+        BitSet seen = new BitSet();
+        seen.set(id(p));
+
+        List<Person> found = new ArrayList<>();
+        List<Person> level = Collections.singletonList(p);
+
+        for(int g=0; g<depth && !level.isEmpty(); g++)
+        {
+            List<Person> next = new ArrayList<>();
+            for(Person person:level)
+            {
+                for(Person relative:up?person.getParentList():person.getChildList())
+                {
+                    if(visit(relative, seen))
+                    {
+                        next.add(relative);
+                    }
+                }
+            }
+            found.addAll(next);
+            level = next;
+        }
+        return found;
+    }
+
+    /**
+     * Returns the people exactly a number of generations from a group of people
+     *
+     * @param start people to start from
+     * @param generations number of generations
+     * @param up true to walk to parents; false to walk to children
+     * @param blocked people not to walk through, which is updated with every person visited
+     * @return people of the last generation
+     */
+    private List<Person> level(List<Person> start, int generations, boolean up, BitSet blocked)
+    {
+        List<Person> level = new ArrayList<>(start);
+
+        for(int g=0; g<generations && !level.isEmpty(); g++)
+        {
+            List<Person> next = new ArrayList<>();
+            for(Person person:level)
+            {
+                for(Person relative:up?person.getParentList():person.getChildList())
+                {
+                    if(visit(relative, blocked))
+                    {
+                        next.add(relative);
+                    }
+                }
+            }
+            level = next;
+        }
+        return level;
+    }
+
+    /**
+     * Add the cousins of a person that share an ancestor a number of generations above the
+     * person, and are a number of generations below the ancestor
+     *
+     * @param p person
+     * @param up generations from person to shared ancestor
+     * @param down generations from shared ancestor to cousins
+     * @param found cousins already found
+     * @param cousins receives cousins not found yet
+     */
+    private void addCousins(Person p, int up, int down, BitSet found, List<Person> cousins)
+    {
+        // The ancestor one generation below the shared ancestor is on the person's own line,
+        // so no cousin is found through it
+        BitSet blocked = new BitSet();
+        blocked.set(id(p));
+        for(Person line:generation(p, -(up - 1)))
+        {
+            blocked.set(id(line));
+        }
+
+        List<Person> shared = generation(p, -up);
+        for(Person cousin:level(shared, down, false, blocked))
+        {
+            if(visit(cousin, found))
+            {
+                cousins.add(cousin);
+            }
+        }
+    }
+
+    /**
+     * Returns the nearest common ancestors of two people, with the generations from each person
+     *
+     * @param a person
+     * @param b other person
+     * @return kinship of b to a through every nearest common ancestor
+     */
+    private List<Kinship> nearest(Person a, Person b)
+    {
+        // A person who is an ancestor of the other is the only nearest common ancestor
+        if(ancestry != null && a != b)
+        {
+            if(ancestry.isAncestor(a, b))
+            {
+                return Collections.singletonList(new Kinship(b, a, 0, ancestry.generationGap(a, b)));
+            }
+            if(ancestry.isAncestor(b, a))
+            {
+                return Collections.singletonList(new Kinship(b, b, ancestry.generationGap(b, a), 0));
+            }
+        }
+
+        // Generations from a to each of its ancestors, including a itself
+        Map<Person, Integer> fromPerson = new IdentityHashMap<>();
+        fromPerson.put(a, 0);
+        List<Person> level = Collections.singletonList(a);
+        for(int g=1; !level.isEmpty(); g++)
+        {
+            List<Person> next = new ArrayList<>();
+            for(Person person:level)
+            {
+                for(Person parent:person.getParentList())
+                {
+                    if(!fromPerson.containsKey(parent))
+                    {
+                        fromPerson.put(parent, g);
+                        next.add(parent);
+                    }
+                }
+            }
+            level = next;
+        }
+
+        // Walk up from b, keeping the ancestors with the fewest generations in total
+        List<Kinship> nearest = new ArrayList<>();
+        int best = Integer.MAX_VALUE;
+        BitSet seen = new BitSet();
+        seen.set(id(b));
+        level = Collections.singletonList(b);
+
+        for(int g=0; !level.isEmpty() && g<best; g++)
+        {
+            List<Person> next = new ArrayList<>();
+            for(Person person:level)
+            {
+                Integer up = fromPerson.get(person);
+                if(up != null)
+                {
+                    if(up + g < best)
+                    {
+                        best = up + g;
+                        nearest.clear();
+                    }
+                    if(up + g == best)
+                    {
+                        nearest.add(new Kinship(b, person, up, g));
+                    }
+                    // Ancestors of a common ancestor are further away
+                    continue;
+                }
+                for(Person parent:person.getParentList())
+                {
+                    if(visit(parent, seen))
+                    {
+                        next.add(parent);
+                    }
+                }
+            }
+            level = next;
+        }
+        return nearest;
+    }
+
+    /**
+     * Expand one side of a shortest chain search by a generation
+     *
+     * @param front people at the edge of this side
+     * @param seen people reached by this side
+     * @param from person each person was reached from by this side
+     * @param other people reached by the other side
+     * @return id of a person reached by both sides; -1 if the sides have not met
+     */
+    private int expand(ArrayDeque<Integer> front, BitSet seen, int[] from, BitSet other)
+    {
+        for(int n=front.size(); n>0; n--)
+        {
+            int id = front.remove();
+            Person p = registry.get(id);
+
+            for(Person relative:p.getParentList())
+            {
+                int meet = reach(relative, id, front, seen, from, other);
+                if(meet >= 0)
+                {
+                    return meet;
+                }
+            }
+            for(Person relative:p.getChildList())
+            {
+                int meet = reach(relative, id, front, seen, from, other);
+                if(meet >= 0)
+                {
+                    return meet;
+                }
+            }
+            if(!p.noSpouse())
+            {
+                int meet = reach(p.getSpouse(), id, front, seen, from, other);
+                if(meet >= 0)
+                {
+                    return meet;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reach a relative from a person in a shortest chain search
+     *
+     * @param relative relative reached
+     * @param id id of person the relative is reached from
+     * @param front people at the edge of this side
+     * @param seen people reached by this side
+     * @param from person each person was reached from by this side
+     * @param other people reached by the other side
+     * @return id of relative if the other side reached it too; -1 otherwise
+     */
+    private int reach(Person relative, int id, ArrayDeque<Integer> front, BitSet seen, int[] from, BitSet other)
+    {
+        int r = id(relative);
+        if(seen.get(r))
+        {
+            return -1;
+        }
+
+        seen.set(r);
+        from[r] = id;
+        front.add(r);
+        return other.get(r)?r:-1;
+    }
+
+    /**
+     * Mark a person as visited
+     *
+     * @param p person
+     * @param seen people visited
+     * @return true if the person was not visited before; false otherwise
+     */
+    private boolean visit(Person p, BitSet seen)
+    {
+        int id = id(p);
+        if(seen.get(id))
+        {
+            return false;
+        }
+        seen.set(id);
+        return true;
+    }
+
+    /**
+     * Returns the id of a registered person
+     *
+     * @param p person
+     * @return id of person
+     */
+    private int id(Person p)
+    {
+        int id = registry.getId(p);
+        if(id < 0)
+        {
+            throw new IllegalArgumentException("Person is not registered: " + p.getFullName());
+        }
+        return id;
+    }
+
+    /**
+     * How a person is related by blood to another person, through their common ancestor
+     */
+    public static final class Kinship
+    {
+        private final Person relative, ancestor;
+        private final int up, down;
+
+        /**
+         * Constructor which sets the relative, common ancestor and generations
+         *
+         * @param r relative being described
+         * @param a common ancestor
+         * @param u generations from the person to the common ancestor
+         * @param d generations from the relative to the common ancestor
+         */
+        Kinship(Person r, Person a, int u, int d)
+        {
+            relative = r;
+            ancestor = a;
+            up = u;
+            down = d;
+        }
+
+        /**
+         * Returns the common ancestor
+         *
+         * @return common ancestor
+         */
+        public Person getAncestor()
+        {
+            return ancestor;
+        }
+
+        /**
+         * Returns the generations from the person to the common ancestor
+         *
+         * @return generations
+         */
+        public int getUp()
+        {
+            return up;
+        }
+
+        /**
+         * Returns the generations from the relative to the common ancestor
+         *
+         * @return generations
+         */
+        public int getDown()
+        {
+            return down;
+        }
+
+        /**
+         * Returns the degree of cousin, which is one less than the fewer of the generations
+         * to the common ancestor
+         *
+         * @return degree of cousin; 0 for siblings, -1 for a direct ancestor or descendant
+         */
+        public int getDegree()
+        {
+            return Math.min(up, down) - 1;
+        }
+
+        /**
+         * Returns the number of generations between the person and the relative
+         *
+         * @return times removed
+         */
+        public int getRemoved()
+        {
+            return Math.abs(up - down);
+        }
+
+        /**
+         * Returns what the relative is to the person, eg. grandfather or 2nd cousin once removed
+         *
+         * @return name of relationship
+         */
+        @Override
+        public String toString()
+        {
+            boolean male = relative.getGender() == Gender.MALE;
+
+            if(up == 0 && down == 0)
+            {
+                return "self";
+            }
+            // Relative is an ancestor or descendant of the person
+            else if(up == 0 || down == 0)
+            {
+                int g = up + down;
+                return greats(g - 2) + (g > 1?"grand":"") + (down == 0?(male?"father":"mother"):(male?"son":"daughter"));
+            }
+            else if(up == 1 && down == 1)
+            {
+                return male?"brother":"sister";
+            }
+            // Relative is a niece, nephew, aunt or uncle of some generation
+            else if(up == 1 || down == 1)
+            {
+                String name = up == 1?(male?"nephew":"niece"):(male?"uncle":"aunt");
+                return greats(Math.max(up, down) - 3) + (Math.max(up, down) > 2?"grand":"") + name;
+            }
+
+            String removed = getRemoved() == 0?"":getRemoved() == 1?" once removed":getRemoved() == 2?" twice removed":" " + getRemoved() + " times removed";
+            return ordinal(getDegree()) + " cousin" + removed;
+        }
+
+        /**
+         * Returns "great-" repeated a number of times
+         *
+         * @param n number of times
+         * @return prefix for relationship
+         */
+        private static String greats(int n)
+        {
+            StringBuilder s = new StringBuilder();
+            for(int i=0; i<n; i++)
+            {
+                s.append("great-");
+            }
+            return s.toString();
+        }
+
+        /**
+         * Returns a number as an ordinal, eg. 1st or 2nd
+         *
+         * @param n number
+         * @return ordinal
+         */
+        private static String ordinal(int n)
+        {
+            int tens = n % 100, ones = n % 10;
+            String suffix = tens >= 11 && tens <= 13?"th":ones == 1?"st":ones == 2?"nd":ones == 3?"rd":"th";
+            return n + suffix;
+        }
+    }
+}
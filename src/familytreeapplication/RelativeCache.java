@@ -0,0 +1,223 @@
+/*
+ * Title: RelativeCache class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: RelativeCache.java
+ * Purpose: The purpose of this class is to keep the relatives shown in the personal information
+ *          of a person, so that selecting the same person again does not look through the
+ *          parents and children of the person again.
+ * Assumptions/Conditions: - Every person asked about is registered in the PersonRegistry.
+                           - The relatives of a person are worked out the first time they are
+                             asked for, and kept until a relative is added to the person or to a
+                             close relative of the person.
+                           - A person who has relatives added must be invalidated, and so must
+                             the person added.
+                           - Relatives are kept as people rather than names, so editing the
+                             personal information of a person does not invalidate anything.
+ */
+package familytreeapplication;
+
+import java.util.*;
+
+/**
+ * Cache of the father, mother, spouse, children and grandchildren of people, by id.
+ *
+ * @author Zhiguang
+ */
+public final class RelativeCache
+{
+    private final PersonRegistry registry;
+
+    // Relatives of each person worked out so far, indexed by id; null if not worked out
+    private Relatives[] relatives;
+
+    /**
+     * Constructor which creates an empty cache over the people of a registry
+     *
+     * @param r registry of family tree
+     */
+    public RelativeCache(PersonRegistry r)
+    {
+        registry = r;
+        relatives = new Relatives[16];
+    }
+
+    /**
+     * Returns the relatives of a person, working them out if they are not cached
+     *
+     * @param p person
+     * @return relatives of person
+     */
+    public Relatives get(Person p)
+    {
+        int id = registry.getId(p);
+        if(id < 0)
+        {
+            throw new IllegalArgumentException("Person is not registered: " + p.getFullName());
+        }
+
+        if(id >= relatives.length)
+        {
+            relatives = Arrays.copyOf(relatives, Math.max(id + 1, relatives.length * 2));
+        }
+        if(relatives[id] == null)
+        {
+            relatives[id] = new Relatives(p);
+        }
+        return relatives[id];
+    }
+
+    /**
+     * Forget the relatives of a person whose parents, spouse or children changed, and of every
+     * person whose relatives include them.
+     * <p>The children, parents and spouse of the person are forgotten, as well as the parents of
+     * the person and spouse, whose grandchildren might have changed.
+     *
+     * @param p person whose relatives changed
+     */
+    public void invalidate(Person p)
+    {
+        forget(p);
+        for(Person child:p.getChildList())
+        {
+            forget(child);
+        }
+        for(Person parent:p.getParentList())
+        {
+            forget(parent);
+        }
+        if(!p.noSpouse())
+        {
+            forget(p.getSpouse());
+            for(Person parent:p.getSpouse().getParentList())
+            {
+                forget(parent);
+            }
+        }
+    }
+
+    /**
+     * Forget the relatives of one person
+     *
+     * @param p person
+     */
+    private void forget(Person p)
+    {
+        int id = registry.getId(p);
+        if(id >= 0 && id < relatives.length)
+        {
+            relatives[id] = null;
+        }
+    }
+
+    /**
+     * Father, mother, spouse, children and grandchildren of a person
+     */
+    public static final class Relatives
+    {
+        private final Person father, mother, spouse;
+        private final List<Person> children, grandChildren;
+
+        /**
+         * Constructor which works out the relatives of a person
+         *
+         * @param p person
+         */
+        Relatives(Person p)
+        {
+            Person f = null, m = null;
+            for(Person parent:p.getParentList())
+            {
+                if(parent.getGender() == Gender.MALE)
+                {
+                    f = parent;
+                }
+                else
+                {
+                    m = parent;
+                }
+            }
+            father = f;
+            mother = m;
+            spouse = p.noSpouse()?null:p.getSpouse();
+
+            List<Person> grandKids = new ArrayList<>();
+            for(Person child:p.getChildList())
+            {
+                grandKids.addAll(child.getChildList());
+            }
+            children = Collections.unmodifiableList(new ArrayList<>(p.getChildList()));
+            grandChildren = Collections.unmodifiableList(grandKids);
+        }
+
+        /**
+         * Returns the father
+         *
+         * @return father; null if not provided
+         */
+        public Person getFather()
+        {
+            return father;
+        }
+
+        /**
+         * Returns the mother
+         *
+         * @return mother; null if not provided
+         */
+        public Person getMother()
+        {
+            return mother;
+        }
+
+        /**
+         * Returns the spouse
+         *
+         * @return spouse; null if none
+         */
+        public Person getSpouse()
+        {
+            return spouse;
+        }
+
+        /**
+         * Returns the children
+         *
+         * @return unmodifiable list of children, in the order they were added
+         */
+        public List<Person> getChildren()
+        {
+            return children;
+        }
+
+        /**
+         * Returns the grandchildren
+         *
+         * @return unmodifiable list of grandchildren, grouped by child
+         */
+        public List<Person> getGrandChildren()
+        {
+            return grandChildren;
+        }
+
+        /**
+         * Returns the number of children
+         *
+         * @return number of children
+         */
+        public int getChildCount()
+        {
+            return children.size();
+        }
+
+        /**
+         * Returns the number of grandchildren
+         *
+         * @return number of grandchildren
+         */
+        public int getGrandChildCount()
+        {
+            return grandChildren.size();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Title: SaveCodec interface
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: SaveCodec.java
+ * Purpose: The purpose of this interface is to compress family tree files as they are saved and
+ *          decompress them as they are loaded, with any compression that works on a stream.
+ * Assumptions/Conditions: - The name of a codec is saved at the start of every file it compresses,
+                             so it must not change once files have been saved with it, and is at
+                             most 255 characters long.
+                           - Closing the stream returned by compress must write everything left,
+                             and close the stream it writes to.
+                           - Closing the stream returned by decompress must close the stream it
+                             reads from.
+ */
+package familytreeapplication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compression applied to the bytes of a .dat file as they are saved and loaded.
+ * <p>Codecs are registered with SaveCodecs, which finds the codec of a file by its name.
+ *
+ * @author Zhiguang
+ */
+public interface SaveCodec
+{
+    /**
+     * Returns the name saved in files compressed by the codec
+     *
+     * @return name of codec, eg. deflate
+     */
+    String getName();
+
+    /**
+     * Returns a stream which compresses what is written to it into a stream
+     *
+     * @param out stream the compressed bytes are written to
+     * @return stream to write the bytes of the file to
+     * @throws IOException if the stream cannot be written
+     */
+    OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Returns a stream which decompresses what is read from a stream
+     *
+     * @param in stream the compressed bytes are read from
+     * @return stream to read the bytes of the file from
+     * @throws IOException if the stream cannot be read
+     */
+    InputStream decompress(InputStream in) throws IOException;
+}
@@ -0,0 +1,272 @@
+/*
+ * Title: SaveCodecs class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: SaveCodecs.java
+ * Purpose: The purpose of this class is to keep every codec family tree files can be compressed
+ *          with, and to choose the codec files are saved with.
+ * Assumptions/Conditions: - deflate (zlib) and gzip are always available, using the Deflater of the
+                             JDK. Other codecs can be registered when the program starts.
+                           - Files are saved without compression unless the system property
+                             familytree.codec names a codec, eg. -Dfamilytree.codec=deflate.
+                           - The system property familytree.compressionLevel sets how hard deflate
+                             and gzip compress, from 1 (fastest) to 9 (smallest), and defaults to 6.
+                           - "none" stands for no compression wherever a codec is named.
+ */
+package familytreeapplication;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codecs family tree files can be compressed with, found by name.
+ *
+ * @author Zhiguang
+ */
+public final class SaveCodecs
+{
+    /**
+     * Name standing for no compression
+     */
+    public static final String NONE = "none";
+
+    /**
+     * Level deflate and gzip compress at, from the system property familytree.compressionLevel
+     */
+    public static final int LEVEL = Math.max(Deflater.BEST_SPEED, Math.min(Deflater.BEST_COMPRESSION,
+                                             Integer.getInteger("familytree.compressionLevel", 6)));
+
+    /**
+     * zlib stream compressed by the Deflater of the JDK
+     */
+    public static final SaveCodec DEFLATE = new DeflateCodec();
+
+    /**
+     * gzip stream compressed by the Deflater of the JDK
+     */
+    public static final SaveCodec GZIP = new GzipCodec();
+
+    // Size of the buffers used to compress and decompress
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Every codec, by name
+    private static final Map<String, SaveCodec> CODECS = new ConcurrentHashMap<>();
+    static
+    {
+        register(DEFLATE);
+        register(GZIP);
+    }
+
+    /**
+     * Private constructor as this class only has static methods
+     */
+    private SaveCodecs()
+    {}
+
+    /**
+     * Register a codec, so files saved with it can be loaded
+     *
+     * @param codec codec to register
+     * @throws IllegalArgumentException if the name of the codec is not valid or is already used
+     *         by another codec
+     */
+    public static void register(SaveCodec codec)
+    {
+        String name = codec.getName();
+        if(name == null || name.isEmpty() || name.length() > 255 || name.equals(NONE))
+        {
+            throw new IllegalArgumentException("Invalid codec name: " + name);
+        }
+
+        SaveCodec before = CODECS.putIfAbsent(name, codec);
+        if(before != null && before != codec)
+        {
+            throw new IllegalArgumentException("Codec already registered: " + name);
+        }
+    }
+
+    /**
+     * Returns the codec with a name
+     *
+     * @param name name of codec; none or null for no compression
+     * @return codec; null for no compression
+     * @throws IllegalArgumentException if no codec has the name
+     */
+    public static SaveCodec get(String name)
+    {
+        if(name == null || name.equals(NONE))
+        {
+            return null;
+        }
+
+        SaveCodec codec = CODECS.get(name);
+        if(codec == null)
+        {
+            throw new IllegalArgumentException("Unknown codec: " + name + ", available: " + names());
+        }
+        return codec;
+    }
+
+    /**
+     * Returns the codec files are saved with, named by the system property familytree.codec
+     *
+     * @return codec; null for no compression
+     * @throws IllegalArgumentException if no codec has the name given
+     */
+    public static SaveCodec getDefault()
+    {
+        return get(System.getProperty("familytree.codec", NONE));
+    }
+
+    /**
+     * Returns the names of every codec, starting with none
+     *
+     * @return names of codecs
+     */
+    public static List<String> names()
+    {
+        List<String> names = new ArrayList<>(CODECS.keySet());
+        names.sort(null);
+        names.add(0, NONE);
+        return names;
+    }
+
+    /**
+     * Returns the name of a codec
+     *
+     * @param codec codec; null for no compression
+     * @return name of codec, or none
+     */
+    public static String name(SaveCodec codec)
+    {
+        return codec == null?NONE:codec.getName();
+    }
+
+    /**
+     * Compresses into a zlib stream
+     */
+    private static final class DeflateCodec implements SaveCodec
+    {
+        /**
+         * Returns the name of the codec
+         *
+         * @return deflate
+         */
+        @Override
+        public String getName()
+        {
+            return "deflate";
+        }
+
+        /**
+         * Returns a stream which compresses into a stream, and frees its Deflater when closed
+         *
+         * @param out stream the compressed bytes are written to
+         * @return stream to write the bytes of the file to
+         */
+        @Override
+        public OutputStream compress(OutputStream out)
+        {
+            return new DeflaterOutputStream(out, new Deflater(LEVEL), BUFFER_SIZE)
+            {
+                @Override
+                public void close() throws IOException
+                {
+                    try
+                    {
+                        super.close();
+                    }
+                    finally
+                    {
+                        def.end();
+                    }
+                }
+            };
+        }
+
+        /**
+         * Returns a stream which decompresses a stream, and frees its Inflater when closed
+         *
+         * @param in stream the compressed bytes are read from
+         * @return stream to read the bytes of the file from
+         */
+        @Override
+        public InputStream decompress(InputStream in)
+        {
+            return new InflaterInputStream(in, new Inflater(), BUFFER_SIZE)
+            {
+                @Override
+                public void close() throws IOException
+                {
+                    try
+                    {
+                        super.close();
+                    }
+                    finally
+                    {
+                        inf.end();
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Compresses into a gzip stream
+     */
+    private static final class GzipCodec implements SaveCodec
+    {
+        /**
+         * Returns the name of the codec
+         *
+         * @return gzip
+         */
+        @Override
+        public String getName()
+        {
+            return "gzip";
+        }
+
+        /**
+         * Returns a stream which compresses into a stream at the chosen level
+         *
+         * @param out stream the compressed bytes are written to
+         * @return stream to write the bytes of the file to
+         * @throws IOException if the gzip header cannot be written
+         */
+        @Override
+        public OutputStream compress(OutputStream out) throws IOException
+        {
+            return new GZIPOutputStream(out, BUFFER_SIZE)
+            {
+                {
+                    def.setLevel(LEVEL);
+                }
+            };
+        }
+
+        /**
+         * Returns a stream which decompresses a stream
+         *
+         * @param in stream the compressed bytes are read from
+         * @return stream to read the bytes of the file from
+         * @throws IOException if the gzip header cannot be read
+         */
+        @Override
+        public InputStream decompress(InputStream in) throws IOException
+        {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+    }
+}
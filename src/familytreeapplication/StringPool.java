@@ -0,0 +1,224 @@
+/*
+ * Title: StringPool class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: StringPool.java
+ * Purpose: The purpose of this class is to keep one copy of every name, surname, street name and
+ *          suburb used by the family trees that are open, so that the same string read from
+ *          several files, or entered many times, takes up memory only once.
+ * Assumptions/Conditions: - Strings are only kept while a person still uses them, so strings of
+                             family trees that are closed can be garbage collected.
+                           - The pool is shared by every family tree, and can be used by several
+                             threads at once, eg. files loading in parallel.
+                           - The pool is split into segments by hash, each with its own lock, so
+                             threads using different strings rarely wait for each other.
+ */
+package familytreeapplication;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Pool of strings shared by every family tree, holding strings only as long as they are used.
+ * <p>Unlike String.intern, the pool does not fill the fixed size string table of the JVM, which
+ * becomes slow with millions of strings. Each string is held by a single weak reference, which
+ * is also the entry of the hash table, so the garbage collector has little to do for the pool.
+ *
+ * @author Zhiguang
+ */
+public final class StringPool
+{
+    /**
+     * Pool shared by every person
+     */
+    public static final StringPool SHARED = new StringPool();
+
+    // Number of segments, which must be a power of 2
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+
+    /**
+     * Default constructor, which creates an empty pool
+     */
+    public StringPool()
+    {
+        segments = new Segment[SEGMENTS];
+        for(int i=0; i<SEGMENTS; i++)
+        {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Returns the copy of a string kept in the pool, adding the string if it is not in the pool
+     *
+     * @param s string
+     * @return string equal to s from the pool; null if s is null
+     */
+    public String intern(String s)
+    {
+        if(s == null)
+        {
+            return null;
+        }
+
+        // Spread the bits of the hash, as strings that differ at the end have close hashes.
+        // The bottom bits choose the slot in the segment. Short strings have no top bits, so
+        // the segment is chosen from the top bits of the hash multiplied by the golden ratio,
+        // which depend on every bit of the hash
+        int h = s.hashCode();
+        h ^= h >>> 16;
+        return segments[(h * 0x9E3779B9) >>> 28].intern(s, h);
+    }
+
+    /**
+     * Returns the number of strings in the pool, including strings no longer used that have
+     * not been removed yet
+     *
+     * @return number of strings
+     */
+    public int size()
+    {
+        int size = 0;
+        for(Segment segment:segments)
+        {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Weak reference to a pooled string, chained to the other strings of its slot
+     */
+    private static final class Entry extends WeakReference<String>
+    {
+        final int hash;
+        Entry next;
+
+        /**
+         * Constructor which sets the string, its hash and the next entry of the slot
+         *
+         * @param s string
+         * @param h spread hash of string
+         * @param n next entry; null if none
+         * @param queue receives the entry once the string is garbage collected
+         */
+        Entry(String s, int h, Entry n, ReferenceQueue<String> queue)
+        {
+            super(s, queue);
+            hash = h;
+            next = n;
+        }
+    }
+
+    /**
+     * Hash table of part of the pool, locked on its own
+     */
+    private static final class Segment
+    {
+        private final ReferenceQueue<String> queue = new ReferenceQueue<>();
+        private Entry[] table = new Entry[64];
+        private int count;
+
+        /**
+         * Returns the pooled copy of a string, adding the string if it is not in the segment
+         *
+         * @param s string
+         * @param h spread hash of string
+         * @return pooled string
+         */
+        synchronized String intern(String s, int h)
+        {
+            removeCollected();
+
+            for(Entry e=table[h & (table.length - 1)]; e!=null; e=e.next)
+            {
+                if(e.hash == h)
+                {
+                    String pooled = e.get();
+                    if(pooled != null && pooled.equals(s))
+                    {
+                        return pooled;
+                    }
+                }
+            }
+
+            if(count >= table.length - table.length / 4)
+            {
+                resize();
+            }
+            int slot = h & (table.length - 1);
+            table[slot] = new Entry(s, h, table[slot], queue);
+            count++;
+            return s;
+        }
+
+        /**
+         * Returns the number of strings in the segment
+         *
+         * @return number of strings
+         */
+        synchronized int size()
+        {
+            removeCollected();
+            return count;
+        }
+
+        /**
+         * Remove the entries of strings that have been garbage collected
+         */
+        private void removeCollected()
+        {
+            Entry collected;
+            while((collected = (Entry)queue.poll()) != null)
+            {
+                int slot = collected.hash & (table.length - 1);
+                Entry previous = null;
+                for(Entry e=table[slot]; e!=null; previous=e, e=e.next)
+                {
+                    if(e == collected)
+                    {
+                        if(previous == null)
+                        {
+                            table[slot] = e.next;
+                        }
+                        else
+                        {
+                            previous.next = e.next;
+                        }
+                        count--;
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Double the number of slots, leaving out strings that have been garbage collected
+         */
+        private void resize()
+        {
+            Entry[] old = table;
+            table = new Entry[old.length * 2];
+            count = 0;
+            for(Entry first:old)
+            {
+                Entry e = first;
+                while(e != null)
+                {
+                    Entry next = e.next;
+                    // Entry left out is not found again when it is taken from the queue
+                    if(e.get() != null)
+                    {
+                        int slot = e.hash & (table.length - 1);
+                        e.next = table[slot];
+                        table[slot] = e;
+                        count++;
+                    }
+                    e = next;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Title: TreeHeading class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: TreeHeading.java
+ * Purpose: The purpose of this class is to show the parents, spouse and children headings
+ *          on the family tree.
+ * Assumptions/Conditions: - There is only one instance of each heading, which is shared by every
+                             TreeItem showing the heading, so headings are compared by identity.
+                           - A heading is not a person of the family tree, and is never saved.
+ */
+package familytreeapplication;
+
+/**
+ * Heading shown on the family tree above the parents, spouse or children of a person.
+ * <p>TreeItems of the family tree hold Person values, so a heading is a Person that is
+ * shown by its label and is never part of the family tree.
+ *
+ * @author Zhiguang
+ */
+public final class TreeHeading extends Person
+{
+    /** Heading above the parents of the root person */
+    public static final TreeHeading PARENTS = new TreeHeading("Parents");
+    /** Heading above the spouse of a person */
+    public static final TreeHeading SPOUSE = new TreeHeading("Spouse");
+    /** Heading above the children of a person */
+    public static final TreeHeading CHILDREN = new TreeHeading("Children");
+
+    // Person is Serializable, but headings are never saved
+    private static final long serialVersionUID = 1L;
+
+    private final String label;
+
+    /**
+     * Constructor which sets the label of the heading
+     *
+     * @param l label
+     */
+    private TreeHeading(String l)
+    {
+        label = l;
+    }
+
+    /**
+     * Returns the headings in the order they are shown
+     *
+     * @return parents, spouse and children headings
+     */
+    public static TreeHeading[] values()
+    {
+        return new TreeHeading[]{PARENTS, SPOUSE, CHILDREN};
+    }
+
+    /**
+     * Returns label of heading
+     *
+     * @return label
+     */
+    @Override
+    public String toString()
+    {
+        return label;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Title: FamilyTreeModelTest class
+ * Author: Tan Zhi Guang
+ * Date: 18/10/2026
+ * File name: FamilyTreeModelTest.java
+ * Purpose: The purpose of this class is to test that FamilyTreeModel only adds the relatives the
+ *          form allows, and tells its listeners of changes in the order they were made, even
+ *          when they are made by several threads.
+ * Assumptions/Conditions: - Files are written into a temporary folder, which is deleted after
+                             every test.
+ */
+package familytreeapplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of FamilyTreeModel.
+ *
+ * @author Zhiguang
+ */
+public class FamilyTreeModelTest
+{
+    // Relatives added by each thread
+    private static final int ADDS = 500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Returns a person with a name made from a number
+     *
+     * @param number number in the name
+     * @param gender gender of person
+     * @param type type of person
+     * @return new person
+     */
+    private static Person person(int number, Gender gender, RelationType type)
+    {
+        return new Person("Person" + number, "Tan", gender, "Born " + number, number, "Main Street", "Suburb", 1000 + number, type);
+    }
+
+    /**
+     * Add a relative that breaks the rules of the tree, and check that it is refused with a
+     * message and not added
+     *
+     * @param model family tree
+     * @param target person to add relative to
+     * @param relative relative to add
+     * @param type type of relative
+     * @param message message the relative is refused with
+     */
+    private static void assertRefused(FamilyTreeModel model, Person target, Person relative, RelationType type, String message)
+    {
+        assertEquals(message, model.checkRelative(target, relative.getGender(), type));
+
+        int size = model.size();
+        try
+        {
+            model.add(target, relative, type);
+            fail(type + " added to " + target.getFullName());
+        }
+        catch(IllegalArgumentException e)
+        {
+            assertEquals(message, e.getMessage());
+        }
+        assertEquals(size, model.size());
+    }
+
+    /**
+     * Only the root person can have a father or mother added
+     */
+    @Test
+    public void onlyRootCanAddParents()
+    {
+        Person root = person(0, Gender.MALE, RelationType.ROOT);
+        FamilyTreeModel model = new FamilyTreeModel(root);
+        Person spouse = person(1, Gender.FEMALE, RelationType.SPOUSE);
+        Person child = person(2, Gender.MALE, RelationType.CHILD);
+        model.addSpouse(root, spouse);
+        model.addChild(root, child);
+
+        assertNull(model.checkRelative(root, Gender.MALE, RelationType.FATHER));
+        assertRefused(model, child, person(3, Gender.MALE, RelationType.FATHER), RelationType.FATHER, "Only the root person can add parents!");
+        assertRefused(model, child, person(4, Gender.FEMALE, RelationType.MOTHER), RelationType.MOTHER, "Only the root person can add parents!");
+        assertRefused(model, spouse, person(5, Gender.MALE, RelationType.FATHER), RelationType.FATHER, "Only the root person can add parents!");
+    }
+
+    /**
+     * Father and mother of the root person can only have a spouse added
+     */
+    @Test
+    public void parentCanOnlyAddSpouse()
+    {
+        Person root = person(0, Gender.MALE, RelationType.ROOT);
+        FamilyTreeModel model = new FamilyTreeModel(root);
+        Person father = person(1, Gender.MALE, RelationType.FATHER);
+        model.addFather(root, father);
+
+        assertRefused(model, father, person(2, Gender.FEMALE, RelationType.CHILD), RelationType.CHILD, "Parents of root person can only add spouse!");
+
+        // Spouse of the father becomes the mother, who cannot add children either
+        Person mother = person(3, Gender.FEMALE, RelationType.SPOUSE);
+        model.addSpouse(father, mother);
+        assertEquals(RelationType.MOTHER, mother.getType());
+        assertRefused(model, mother, person(4, Gender.MALE, RelationType.CHILD), RelationType.CHILD, "Parents of root person can only add spouse!");
+    }
+
+    /**
+     * Spouses can only have children added
+     */
+    @Test
+    public void spouseCanOnlyAddChildren()
+    {
+        Person root = person(0, Gender.MALE, RelationType.ROOT);
+        FamilyTreeModel model = new FamilyTreeModel(root);
+        Person spouse = person(1, Gender.FEMALE, RelationType.SPOUSE);
+        model.addSpouse(root, spouse);
+
+        assertNull(model.checkRelative(spouse, Gender.MALE, RelationType.CHILD));
+        assertRefused(model, spouse, person(2, Gender.MALE, RelationType.SPOUSE), RelationType.SPOUSE, "A spouse can only add children!");
+    }
+
+    /**
+     * Relatives added by two threads at once are recorded in the journal in the order they were
+     * registered, so replaying the journal gives every person the same id again
+     *
+     * @throws Exception if the file or journal cannot be written or read
+     */
+    @Test
+    public void journalReplaysRelativesAddedByTwoThreads() throws Exception
+    {
+        Person root = person(0, Gender.MALE, RelationType.ROOT);
+        FamilyTreeModel model = new FamilyTreeModel(root);
+        Person child = person(1, Gender.FEMALE, RelationType.CHILD);
+        model.addChild(root, child);
+
+        File file = folder.newFile("tree.dat");
+        FamilyTreeFile.save(model.getRegistry(), file, null);
+        try(FamilyTreeJournal journal = FamilyTreeJournal.create(file, model.getRegistry()))
+        {
+            model.addListener(new FamilyTreeModel.Listener()
+            {
+                @Override
+                public void relativeAdded(Person target, Person relative, RelationType type)
+                {
+                    try
+                    {
+                        journal.recordAdd(target, relative, type);
+                    }
+                    catch(IOException e)
+                    {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void detailsEdited(Person target)
+                {
+                    try
+                    {
+                        journal.recordEdit(target);
+                    }
+                    catch(IOException e)
+                    {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+
+            // Both threads start adding at the same time, one to the root and one to the child
+            CountDownLatch start = new CountDownLatch(1);
+            List<Throwable> failures = new ArrayList<>();
+            Thread[] threads = new Thread[2];
+            Person[] parents = {root, child};
+            for(int t=0; t<threads.length; t++)
+            {
+                Person parent = parents[t];
+                int first = 2 + t * ADDS;
+                threads[t] = new Thread(() ->
+                {
+                    try
+                    {
+                        start.await();
+                        for(int i=0; i<ADDS; i++)
+                        {
+                            model.addChild(parent, person(first + i, i % 2 == 0?Gender.MALE:Gender.FEMALE, RelationType.CHILD));
+                        }
+                    }
+                    catch(InterruptedException | RuntimeException e)
+                    {
+                        synchronized(failures)
+                        {
+                            failures.add(e);
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            start.countDown();
+            for(Thread thread:threads)
+            {
+                thread.join();
+            }
+            assertEquals("[]", failures.toString());
+        }
+
+        PersonRegistry expected = model.getRegistry();
+        PersonRegistry replayed = PersonRegistry.build(FamilyTreeFile.load(file));
+        try(FamilyTreeJournal journal = FamilyTreeJournal.open(file, replayed, null))
+        {
+            assertEquals(2 * ADDS, journal.getRecovered());
+        }
+
+        assertEquals(expected.size(), replayed.size());
+        for(int id=0; id<expected.size(); id++)
+        {
+            Person p = expected.get(id), q = replayed.get(id);
+            assertEquals(p.getFullName(), q.getFullName());
+            assertEquals(p.getChildList().size(), q.getChildList().size());
+            for(int i=0; i<p.getChildList().size(); i++)
+            {
+                assertEquals(id + " child " + i, expected.getId(p.getChildList().get(i)), replayed.getId(q.getChildList().get(i)));
+            }
+        }
+    }
+}